@@ -169,6 +169,26 @@ public class ImmutableTaskGraph {
         taskGraph.batch(batchSize);
     }
 
+    void withBatch(String batchSize, int numBuffers) {
+        taskGraph.batch(batchSize, numBuffers);
+    }
+
+    void withBatchBroadcast(Object... objects) {
+        taskGraph.batchBroadcast(objects);
+    }
+
+    void withCoExecution(float[] ratios, TornadoDevice[] devices) {
+        taskGraph.coExecution(ratios, devices);
+    }
+
+    void withDirtyTracking() {
+        taskGraph.dirtyTracking();
+    }
+
+    void markDirty(Object... objects) {
+        taskGraph.markDirty(objects);
+    }
+
     TornadoDevice getDevice() {
         return taskGraph.getDevice();
     }
@@ -754,6 +754,30 @@ public class TaskGraph implements TaskGraphInterface {
         return this;
     }
 
+    /**
+     * Keep a set of objects resident on the device across task-graphs. Any other
+     * task-graph, in the same or in a different execution plan, that uses these
+     * objects on the same device reuses the same device buffers instead of
+     * allocating and copying them again. Copies from the host are only performed
+     * when the host copy is newer, that is, after the object has been marked with
+     * {@link TornadoExecutionPlan#markDirty(Object...)}. Results written by a
+     * kernel stay on the device for the next task-graph.
+     *
+     * <p>
+     * Buffers are released when the last task-graph that made them persistent
+     * frees its device memory.
+     * </p>
+     *
+     * @param objects
+     *            List of Java objects (usually arrays) to keep on the device.
+     * @return {@link TaskGraph}
+     */
+    @Override
+    public TaskGraph persistOnDevice(Object... objects) {
+        taskGraphImpl.persistOnDevice(objects);
+        return this;
+    }
+
     /**
      * Function that closes a task-graph definition and creates an immutable
      * task-graph ready for execution.
@@ -778,6 +802,31 @@ public class TaskGraph implements TaskGraphInterface {
         return this;
     }
 
+    TaskGraph batch(String batchSize, int numBuffers) {
+        taskGraphImpl.batch(batchSize, numBuffers);
+        return this;
+    }
+
+    TaskGraph batchBroadcast(Object... objects) {
+        taskGraphImpl.batchBroadcast(objects);
+        return this;
+    }
+
+    TaskGraph coExecution(float[] ratios, TornadoDevice[] devices) {
+        taskGraphImpl.coExecution(ratios, devices);
+        return this;
+    }
+
+    TaskGraph dirtyTracking() {
+        taskGraphImpl.dirtyTracking();
+        return this;
+    }
+
+    TaskGraph markDirty(Object... objects) {
+        taskGraphImpl.markDirty(objects);
+        return this;
+    }
+
     void execute() {
         taskGraphImpl.schedule().waitOn();
     }
@@ -599,6 +599,26 @@ public interface TaskGraphInterface {
      */
     TaskGraphInterface transferToHost(final int mode, Object... objects);
 
+    /**
+     * Keep a set of objects resident on the device across task-graphs. Any other
+     * task-graph, in the same or in a different execution plan, that uses these
+     * objects on the same device reuses the same device buffers instead of
+     * allocating and copying them again. Copies from the host are only performed
+     * when the host copy is newer, that is, after the object has been marked with
+     * {@link TornadoExecutionPlan#markDirty(Object...)}. Results written by a
+     * kernel stay on the device for the next task-graph.
+     *
+     * <p>
+     * Buffers are released when the last task-graph that made them persistent
+     * frees its device memory.
+     * </p>
+     *
+     * @param objects
+     *            List of Java objects (usually arrays) to keep on the device.
+     * @return {@link TaskGraphInterface}
+     */
+    TaskGraphInterface persistOnDevice(Object... objects);
+
     /**
      * Function that closes a task-graph definition and creates an immutable
      * task-graph ready for execution.
@@ -72,4 +72,11 @@ public interface TornadoDeviceContext {
 
     int getDriverIndex();
 
+    /**
+     * @return True if the copies and the kernels are enqueued in different
+     *         queues. In that case, the order between them is only given by the
+     *         events of the TornadoVM bytecodes.
+     */
+    boolean hasCopyQueues();
+
 }
@@ -44,6 +44,8 @@ package uk.ac.manchester.tornado.api;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
 import uk.ac.manchester.tornado.api.common.TornadoDevice;
@@ -93,6 +95,8 @@ public class TornadoExecutionPlan {
     private ProfilerMode profilerMode;
     private boolean disableProfiler;
 
+    private CompletableFuture<TornadoExecutionResult> lastAsyncExecution = CompletableFuture.completedFuture(null);
+
     /**
      * Create an Execution Plan: Object to create and optimize an execution plan for
      * running a set of immutable tasks-graphs. An executor plan contains an
@@ -128,6 +132,43 @@ public class TornadoExecutionPlan {
         return new TornadoExecutionResult(new TornadoProfilerResult(tornadoExecutor));
     }
 
+    /**
+     * Execute an execution plan asynchronously, so the caller can keep doing host
+     * work and be notified when the execution finishes.
+     *
+     * <p>
+     * The execution runs {@link #execute()} in a thread that belongs to the device
+     * of the first immutable task-graph of the plan. Therefore, asynchronous
+     * executions that target the same device are serialised in submission order,
+     * also across different plans, and executions on different devices run
+     * concurrently. Asynchronous executions of the same plan always run in
+     * order.
+     * </p>
+     *
+     * <p>
+     * This is a thread offload of {@link #execute()}, and not an event-driven
+     * execution: the thread of the device blocks until the copies to the host
+     * finish, and the future is completed when {@link #execute()} returns, not
+     * from the device events. The threads are owned by the runtime (see
+     * {@link TornadoRuntimeInterface#getAsyncExecutor}) and they end after
+     * being idle, so they do not need to be shut down.
+     * </p>
+     *
+     * <p>
+     * The objects of the task-graphs must not be accessed from the host until the
+     * returned future is completed.
+     * </p>
+     *
+     * @return {@link CompletableFuture} completed with the
+     *         {@link TornadoExecutionResult} of the execution, or exceptionally if
+     *         the execution fails.
+     */
+    public synchronized CompletableFuture<TornadoExecutionResult> executeAsync() {
+        ExecutorService deviceExecutor = TornadoRuntime.getTornadoRuntime().getAsyncExecutor(tornadoExecutor.getDevice(0));
+        lastAsyncExecution = lastAsyncExecution.handleAsync((previousResult, previousError) -> execute(), deviceExecutor);
+        return lastAsyncExecution;
+    }
+
     private void checkProfilerEnabled() {
         if (this.profilerMode != null && !this.disableProfiler) {
             tornadoExecutor.enableProfiler(profilerMode);
@@ -246,6 +287,112 @@ public class TornadoExecutionPlan {
         return this;
     }
 
+    /**
+     * Enable pipelined batch processing. As in {@link #withBatch(String)},
+     * TornadoVM splits the iteration space in smaller batches, but it allocates
+     * multiple device buffers per batched argument and rotates them across
+     * batches. Thus, the data transfers of a batch can overlap with the kernel
+     * execution of the previous one. The overlap requires an out-of-order command
+     * queue ({@code -Dtornado.ooo-execution.enable=True}).
+     *
+     * @param batchSize
+     *            String in the format a number + "MB" Example "512MB".
+     * @param numBuffers
+     *            Number of device buffers per batched argument. A value of 1 is
+     *            equivalent to {@link #withBatch(String)}.
+     * @return {@link TornadoExecutionPlan}
+     */
+    public TornadoExecutionPlan withBatch(String batchSize, int numBuffers) {
+        tornadoExecutor.withBatch(batchSize, numBuffers);
+        return this;
+    }
+
+    /**
+     * Mark objects that are not split when batch processing is enabled. These
+     * objects (e.g., lookup tables) are copied in full to the device once, and
+     * they are shared by all batches. The rest of the arrays can have different
+     * data types and sizes, as long as their sizes are multiples of the size of
+     * the smallest batched array.
+     *
+     * @param objects
+     *            Objects to copy in full.
+     * @return {@link TornadoExecutionPlan}
+     */
+    public TornadoExecutionPlan withBatchBroadcast(Object... objects) {
+        tornadoExecutor.withBatchBroadcast(objects);
+        return this;
+    }
+
+    /**
+     * Enable co-execution. TornadoVM splits the iteration space of the task-graph
+     * in contiguous partitions, one per device, and runs them concurrently. Each
+     * device only receives its slice of the arrays, and it copies its slice of
+     * the outputs back to the host arrays. As in batch processing, the tasks must
+     * access element {@code i} of each split array in iteration {@code i}; other
+     * objects can be copied in full with {@link #withBatchBroadcast(Object...)}.
+     *
+     * <p>
+     * The partitions start with the same size and are adjusted at runtime in
+     * proportion to the throughput measured for each device.
+     * </p>
+     *
+     * @param devices
+     *            Devices that share the iteration space.
+     * @return {@link TornadoExecutionPlan}
+     */
+    public TornadoExecutionPlan withCoExecution(TornadoDevice... devices) {
+        tornadoExecutor.withCoExecution(null, devices);
+        return this;
+    }
+
+    /**
+     * Enable co-execution with static partition sizes. See
+     * {@link #withCoExecution(TornadoDevice...)}.
+     *
+     * @param ratios
+     *            Fraction of the iteration space processed by each device. Ratios
+     *            are normalized, so they do not need to add up to 1.
+     * @param devices
+     *            Devices that share the iteration space.
+     * @return {@link TornadoExecutionPlan}
+     */
+    public TornadoExecutionPlan withCoExecution(float[] ratios, TornadoDevice... devices) {
+        if (ratios == null || ratios.length != devices.length) {
+            throw new TornadoRuntimeException("[ERROR] Co-execution needs one ratio per device");
+        }
+        tornadoExecutor.withCoExecution(ratios, devices);
+        return this;
+    }
+
+    /**
+     * Enables dirty tracking for the objects copied with
+     * {@link uk.ac.manchester.tornado.api.enums.DataTransferMode#EVERY_EXECUTION}.
+     * When enabled, TornadoVM skips the host-to-device copy of an input that is
+     * already present on the device and that has not been marked as modified
+     * since the last copy. Applications must call {@link #markDirty(Object...)}
+     * after updating any of those objects on the host side.
+     *
+     * @return {@link TornadoExecutionPlan}
+     */
+    public TornadoExecutionPlan withDirtyTracking() {
+        tornadoExecutor.withDirtyTracking();
+        return this;
+    }
+
+    /**
+     * Notifies TornadoVM that the given objects have been modified on the host,
+     * so they are copied again to the device in the next execution. It has no
+     * effect unless dirty tracking is enabled with {@link #withDirtyTracking()}.
+     *
+     * @param objects
+     *            Host objects updated since the last execution.
+     * @return {@link TornadoExecutionPlan}
+     */
+    public TornadoExecutionPlan markDirty(Object... objects) {
+        tornadoExecutor.markDirty(objects);
+        return this;
+    }
+
     /**
      * Enables the profiler. The profiler includes options to query device kernel
      * time, data transfers and compilation at different stages (JIT, driver
@@ -323,6 +470,26 @@ public class TornadoExecutionPlan {
             immutableTaskGraphList.forEach(immutableTaskGraph -> immutableTaskGraph.withBatch(batchSize));
         }
 
+        void withBatch(String batchSize, int numBuffers) {
+            immutableTaskGraphList.forEach(immutableTaskGraph -> immutableTaskGraph.withBatch(batchSize, numBuffers));
+        }
+
+        void withBatchBroadcast(Object... objects) {
+            immutableTaskGraphList.forEach(immutableTaskGraph -> immutableTaskGraph.withBatchBroadcast(objects));
+        }
+
+        void withCoExecution(float[] ratios, TornadoDevice[] devices) {
+            immutableTaskGraphList.forEach(immutableTaskGraph -> immutableTaskGraph.withCoExecution(ratios, devices));
+        }
+
+        void withDirtyTracking() {
+            immutableTaskGraphList.forEach(ImmutableTaskGraph::withDirtyTracking);
+        }
+
+        void markDirty(Object... objects) {
+            immutableTaskGraphList.forEach(immutableTaskGraph -> immutableTaskGraph.markDirty(objects));
+        }
+
         /**
          * For all task-graphs contained in an Executor, update the device
          *
@@ -41,6 +41,8 @@
  */
 package uk.ac.manchester.tornado.api;
 
+import java.util.concurrent.ExecutorService;
+
 import uk.ac.manchester.tornado.api.common.TornadoDevice;
 import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
 import uk.ac.manchester.tornado.api.memory.TornadoGlobalObjectState;
@@ -66,4 +68,12 @@ public interface TornadoRuntimeInterface {
     <D extends TornadoDriver> int getDriverIndex(Class<D> driverClass);
 
     boolean isProfilerEnabled();
+
+    /**
+     * @param device
+     *            Device of the execution.
+     * @return Executor that runs the asynchronous executions of the execution
+     *         plans on the given device, owned by the runtime.
+     */
+    ExecutorService getAsyncExecutor(TornadoDevice device);
 }
@@ -71,6 +71,16 @@ public interface TornadoTaskGraphInterface extends ProfileInterface {
 
     void batch(String batchSize);
 
+    void batch(String batchSize, int numBuffers);
+
+    void batchBroadcast(Object... objects);
+
+    void coExecution(float[] ratios, TornadoDevice[] devices);
+
+    void dirtyTracking();
+
+    void markDirty(Object... objects);
+
     void apply(Consumer<SchedulableTask> consumer);
 
     void mapAllToInner(TornadoDevice device);
@@ -89,6 +99,8 @@ public interface TornadoTaskGraphInterface extends ProfileInterface {
 
     void transferToHost(final int mode, Object... objects);
 
+    void persistOnDevice(Object... objects);
+
     void dump();
 
     void warmup();
@@ -50,4 +50,34 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Reduce {
 
+    /**
+     * Class that declares a user-defined associative reduction operator. The
+     * class must provide two static methods for the element type of the
+     * reduction array: {@code identity()}, which returns the neutral element, and
+     * {@code combine(a, b)}, which combines two partial results. The task
+     * accumulates into {@code result[0]}, for example with
+     * {@code result[0] = Op.combine(result[0], x)}.
+     *
+     * <p>
+     * A state with several fields (e.g., a value and its index for an argmax)
+     * is declared with {@code T[] identity()} and {@code T[] combine(T[], T[])}.
+     * The task then accumulates into {@code result[0]} to
+     * {@code result[n - 1]}, where {@code n} is the length of the identity,
+     * using constant indices.
+     * </p>
+     *
+     * <p>
+     * Single-value states are combined within each work-group on the device,
+     * in a tree in local memory. States with several fields are combined by
+     * one thread per work-group. The reduction array must be an {@code int[]},
+     * {@code long[]}, {@code float[]} or {@code double[]}, so vector states
+     * (e.g., {@code Float4}) are not supported.
+     * </p>
+     *
+     * <p>
+     * By default ({@link Void}), the operator is inferred from the task code
+     * (add, mul, min or max).
+     * </p>
+     */
+    Class<?> operator() default Void.class;
 }
@@ -169,6 +169,30 @@ public class TaskPackage {
         this.taskParameters = new Object[] { code, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12, arg13, arg14, arg15 };
     }
 
+    private TaskPackage(String id, int taskType, Object[] taskParameters) {
+        this.id = id;
+        this.taskType = taskType;
+        this.taskParameters = taskParameters;
+    }
+
+    /**
+     * It creates a task with the same identifier and code that runs with other
+     * parameters, for example, with private copies of the data of this task.
+     *
+     * @param parameters
+     *            Parameters of the new task. The first parameter is reserved to
+     *            the input code.
+     * @return a new {@link TaskPackage}.
+     */
+    public TaskPackage withParameters(Object[] parameters) {
+        if (parameters.length != taskParameters.length) {
+            throw new IllegalArgumentException("Task " + id + " expects " + (taskParameters.length - 1) + " parameters");
+        }
+        TaskPackage taskPackage = new TaskPackage(id, taskType, parameters);
+        taskPackage.setNumThreadsToRun(numThreadsToRun);
+        return taskPackage;
+    }
+
     public String getId() {
         return id;
     }
@@ -0,0 +1,157 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * GNU Classpath is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * GNU Classpath is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with GNU Classpath; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ *
+ */
+package uk.ac.manchester.tornado.api.data.nativetypes;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * Base class of the off-heap arrays. The elements are stored in native memory,
+ * outside the Java heap, so they are not moved by the garbage collector and the
+ * drivers can copy them to and from the devices asynchronously, without pinning
+ * the host memory.
+ *
+ * <p>
+ * The native memory is page-aligned and follows the layout of a TornadoVM array
+ * in device memory: a header of {@link #ARRAY_HEADER} bytes, with the number of
+ * elements stored as an int at {@link #ARRAY_LENGTH_OFFSET}, followed by the
+ * elements in the native byte order. When the device layout matches, the whole
+ * segment is copied with a single transfer.
+ * </p>
+ *
+ * <p>
+ * The arrays can be used as task parameters on the OpenCL backend, where
+ * {@code get}, {@code set} and {@code getSize} are compiled as the accesses to
+ * a Java array of the same kind. PTX and SPIR-V do not support them yet.
+ * </p>
+ */
+public abstract class TornadoNativeArray {
+
+    /**
+     * Size in bytes of the array header.
+     */
+    public static final int ARRAY_HEADER = 16;
+
+    /**
+     * Offset in bytes of the number of elements within the array header.
+     */
+    public static final int ARRAY_LENGTH_OFFSET = 12;
+
+    private static final int PAGE_SIZE = 4096;
+
+    protected final ByteBuffer segment;
+    protected final int numberOfElements;
+    private final int elementSize;
+
+    protected TornadoNativeArray(int numberOfElements, int elementSize) {
+        if (numberOfElements < 0) {
+            throw new IllegalArgumentException("Negative number of elements: " + numberOfElements);
+        }
+        this.numberOfElements = numberOfElements;
+        this.elementSize = elementSize;
+        this.segment = allocateAligned(ARRAY_HEADER + (long) numberOfElements * elementSize);
+        segment.putInt(ARRAY_LENGTH_OFFSET, numberOfElements);
+    }
+
+    private static ByteBuffer allocateAligned(long numBytes) {
+        if (numBytes > Integer.MAX_VALUE - PAGE_SIZE) {
+            throw new IllegalArgumentException("Native array too large: " + numBytes + " bytes");
+        }
+        // Direct buffers are zero-initialised
+        ByteBuffer aligned = ByteBuffer.allocateDirect((int) numBytes + PAGE_SIZE).alignedSlice(PAGE_SIZE);
+        aligned.limit((int) numBytes);
+        return aligned.slice().order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * @return Number of elements of the array.
+     */
+    public int getSize() {
+        return numberOfElements;
+    }
+
+    /**
+     * @return Size in bytes of each element.
+     */
+    public int getElementSize() {
+        return elementSize;
+    }
+
+    /**
+     * @return Native memory of the array, including the header. Drivers use this
+     *         buffer to transfer the array to and from the devices.
+     */
+    public ByteBuffer getSegment() {
+        return segment;
+    }
+
+    /**
+     * @return Number of bytes of the native memory, including the header.
+     */
+    public long getNumBytesOfSegment() {
+        return segment.capacity();
+    }
+
+    /**
+     * @return Number of bytes of the elements, without the header.
+     */
+    public long getNumBytesWithoutHeader() {
+        return (long) numberOfElements * elementSize;
+    }
+
+    /**
+     * Sets all elements to zero.
+     */
+    public void clear() {
+        final byte[] zeros = new byte[PAGE_SIZE];
+        ByteBuffer elements = segment.duplicate();
+        elements.position(ARRAY_HEADER);
+        while (elements.hasRemaining()) {
+            elements.put(zeros, 0, Math.min(zeros.length, elements.remaining()));
+        }
+    }
+
+    protected int offsetOf(int index) {
+        return ARRAY_HEADER + Objects.checkIndex(index, numberOfElements) * elementSize;
+    }
+}
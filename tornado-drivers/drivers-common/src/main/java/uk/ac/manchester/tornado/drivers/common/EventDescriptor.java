@@ -38,6 +38,8 @@ public enum EventDescriptor {
     DESC_READ_LONG("readFromDevice - long[]"),
     DESC_READ_FLOAT("readFromDevice - float[]"),
     DESC_READ_DOUBLE("readFromDevice - double[]"),
+    DESC_WRITE_SEGMENT("writeToDevice - segment"),
+    DESC_READ_SEGMENT("readFromDevice - segment"),
     DESC_SYNC_MARKER("sync - marker"),
     DESC_SYNC_BARRIER("sync - barrier"),
     EVENT_NONE("none");
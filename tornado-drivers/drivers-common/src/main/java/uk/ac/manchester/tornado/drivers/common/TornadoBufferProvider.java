@@ -22,30 +22,75 @@
  */
 package uk.ac.manchester.tornado.drivers.common;
 
+import static uk.ac.manchester.tornado.runtime.common.TornadoOptions.DEVICE_ARENA;
+import static uk.ac.manchester.tornado.runtime.common.TornadoOptions.DEVICE_ARENA_SIZE;
 import static uk.ac.manchester.tornado.runtime.common.TornadoOptions.DEVICE_AVAILABLE_MEMORY;
 
-import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
 import uk.ac.manchester.tornado.api.TornadoDeviceContext;
 import uk.ac.manchester.tornado.api.TornadoTargetDevice;
 import uk.ac.manchester.tornado.api.exceptions.TornadoInternalError;
 import uk.ac.manchester.tornado.api.exceptions.TornadoOutOfMemoryException;
 import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+import uk.ac.manchester.tornado.runtime.profiler.jfr.DeviceBufferAllocationEvent;
+import uk.ac.manchester.tornado.runtime.profiler.jfr.DeviceBufferEvictionEvent;
 
 /**
  * This class implements a cache of allocated buffers on the device and also
  * handles the logic to allocate and free buffers. This class is extended for
- * each backend. The logic is as follows: it maintains a list of used buffers
- * and another list of free buffers. When performing an allocation, it first
- * checks if memory is available on the device. If it is not, then it will try
- * to reuse a buffer from the free list of buffers.
+ * each backend.
+ *
+ * <p>
+ * Released buffers are kept in a pool segregated by size classes, following a
+ * two-level scheme similar to TLSF: the first level is the power of two of the
+ * size, and the second level splits each power of two in
+ * {@link #NUM_SUB_CLASSES} linear sub-classes. New buffers are allocated with
+ * the size of their class, so any request of the same class can reuse them,
+ * and the internal fragmentation is bounded to 1/{@link #NUM_SUB_CLASSES}.
+ * A bitmap per level finds the first non-empty class in constant time.
+ * </p>
+ *
+ * <p>
+ * When the device runs out of memory, idle buffers are released in least
+ * recently used order. Used buffers are tracked in a map indexed by their
+ * native handle, so releasing a buffer is also constant time.
+ * </p>
+ *
+ * <p>
+ * If {@link TornadoOptions#DEVICE_ARENA} is enabled, the small objects
+ * allocated between {@link #beginArenaAllocation()} and
+ * {@link #endArenaAllocation()} (i.e., the objects of an ALLOC bytecode) are
+ * carved from a large buffer (arena) with a bump pointer. Each region is
+ * addressed with its own handle, created by the backend (e.g., an OpenCL
+ * sub-buffer or a pointer offset). The arena returns to the pool once all its
+ * regions are released.
+ * </p>
  */
 public abstract class TornadoBufferProvider {
 
+    private static final int SUB_CLASS_BITS = 3;
+    private static final int NUM_SUB_CLASSES = 1 << SUB_CLASS_BITS;
+    private static final int MIN_SIZE_LOG2 = 6;
+    private static final long MIN_BUFFER_SIZE = 1L << MIN_SIZE_LOG2;
+    private static final int NUM_FIRST_LEVEL_CLASSES = Long.SIZE - 1 - MIN_SIZE_LOG2;
+
     public static class BufferInfo {
         public final long buffer;
         public final long size;
 
+        private long requestedSize;
+        private int sizeClass;
+
+        // Links of the free list of the size class
+        private BufferInfo previousInClass;
+        private BufferInfo nextInClass;
+
+        // Links of the LRU list of idle buffers
+        private BufferInfo previousInLRU;
+        private BufferInfo nextInLRU;
+
         public BufferInfo(long buffer, long size) {
             this.buffer = buffer;
             this.size = size;
@@ -67,15 +112,53 @@ public abstract class TornadoBufferProvider {
         }
     }
 
+    private static final long MIN_SUB_BUFFER_ALIGNMENT = 256;
+
+    /**
+     * A large buffer from which small objects are sub-allocated.
+     */
+    private static class Arena {
+        private final long buffer;
+        private final long size;
+        private long top;
+        private int numRegions;
+
+        Arena(long buffer, long size) {
+            this.buffer = buffer;
+            this.size = size;
+        }
+    }
+
     protected final TornadoDeviceContext deviceContext;
-    protected final ArrayList<BufferInfo> freeBuffers;
-    protected final ArrayList<BufferInfo> usedBuffers;
     protected long currentMemoryAvailable;
 
+    private final Map<Long, BufferInfo> usedBuffers;
+    private final BufferInfo[] freeBuffersPerClass;
+    private long firstLevelBitmap;
+    private final int[] secondLevelBitmaps;
+    private BufferInfo leastRecentlyUsed;
+    private BufferInfo mostRecentlyUsed;
+    private int numFreeBuffers;
+
+    private final Map<Long, Arena> subBuffers;
+    private Arena currentArena;
+    private boolean arenaAllocation;
+
+    // Metrics
+    private long numHits;
+    private long numMisses;
+    private long numEvictions;
+    private long requestedBytesInUse;
+    private long allocatedBytesInUse;
+    private long idleBytes;
+    private long numSubAllocations;
+
     protected TornadoBufferProvider(TornadoDeviceContext deviceContext) {
         this.deviceContext = deviceContext;
-        this.usedBuffers = new ArrayList<>();
-        this.freeBuffers = new ArrayList<>();
+        this.usedBuffers = new HashMap<>();
+        this.freeBuffersPerClass = new BufferInfo[NUM_FIRST_LEVEL_CLASSES * NUM_SUB_CLASSES];
+        this.secondLevelBitmaps = new int[NUM_FIRST_LEVEL_CLASSES];
+        this.subBuffers = new HashMap<>();
 
         // There is no way of querying the available memory on the device.
         // Instead, use a flag similar to -Xmx.
@@ -86,76 +169,211 @@ public abstract class TornadoBufferProvider {
 
     protected abstract void releaseBuffer(long buffer);
 
-    private long allocate(long size) {
-        long buffer = allocateBuffer(size);
-        currentMemoryAvailable -= size;
-        BufferInfo bufferInfo = new BufferInfo(buffer, size);
-        usedBuffers.add(bufferInfo);
-        return bufferInfo.buffer;
+    /**
+     * @return True if the backend can address a region of a buffer with its own
+     *         handle.
+     */
+    protected boolean isSubAllocationSupported() {
+        return true;
     }
 
-    private void freeBuffers(long size) {
-        // Attempts to free buffers of given size.
-        long remainingSize = size;
-        while (!freeBuffers.isEmpty() && remainingSize > 0) {
-            BufferInfo bufferInfo = freeBuffers.remove(0);
-            TornadoInternalError.guarantee(!usedBuffers.contains(bufferInfo), "This buffer should not be used");
-            remainingSize -= bufferInfo.size;
-            currentMemoryAvailable += bufferInfo.size;
-            releaseBuffer(bufferInfo.buffer);
+    /**
+     * @return Alignment, in bytes, of the regions sub-allocated from an arena.
+     */
+    protected long getSubBufferAlignment() {
+        return MIN_SUB_BUFFER_ALIGNMENT;
+    }
+
+    /**
+     * It creates the handle of a region of a buffer. By default, handles are
+     * device pointers, so the region starts at the pointer plus the offset.
+     */
+    protected long createSubBuffer(long buffer, long offset, long size) {
+        return buffer + offset;
+    }
+
+    protected void releaseSubBuffer(long subBuffer) {
+        // Device pointers do not need to be released
+    }
+
+    /**
+     * It rounds up a size to the upper bound of its size class.
+     */
+    private static long roundUpToSizeClass(long size) {
+        if (size <= MIN_BUFFER_SIZE) {
+            return MIN_BUFFER_SIZE;
         }
+        int log2 = 63 - Long.numberOfLeadingZeros(size);
+        long granularity = 1L << (log2 - SUB_CLASS_BITS);
+        long rounded = (size + granularity - 1) & ~(granularity - 1);
+        return rounded > 0 ? rounded : size;
     }
 
-    private BufferInfo markBufferUsed(int freeBufferIndex) {
-        BufferInfo buffer = freeBuffers.get(freeBufferIndex);
-        usedBuffers.add(buffer);
-        freeBuffers.remove(buffer);
-        return buffer;
+    /**
+     * It computes the size class that contains a buffer of the given size. All
+     * buffers in the class have at least the lower bound of the class.
+     */
+    private static int sizeClassOf(long size) {
+        if (size < MIN_BUFFER_SIZE) {
+            return -1;
+        }
+        int log2 = 63 - Long.numberOfLeadingZeros(size);
+        int subClass = (int) (size >>> (log2 - SUB_CLASS_BITS)) - NUM_SUB_CLASSES;
+        return (log2 - MIN_SIZE_LOG2) * NUM_SUB_CLASSES + subClass;
     }
 
     /**
-     * First check if there is an available buffer of a given size. Perform a
-     * sequential search through the freeBuffers to get the buffer with the smaller
-     * size than can fulfill the allocation. The number of allocated buffers is
-     * usually low, so searching sequentially should not take a lot of time.
+     * It finds the first non-empty size class, starting at the given class.
      *
-     * @param sizeInBytes
-     *            Size in bytes for the requested buffer.
-     * @return returns the index position of a free buffer within the free buffer
-     *         list. It returns -1 if a free buffer slot is not found.
+     * @return The size class, or -1 if there is no free buffer in the classes
+     *         from {@code fromClass} to {@code toClass} (inclusive).
      */
-    private int bufferIndexOfAFreeSpace(long sizeInBytes) {
-        int minBufferIndex = -1;
-        for (int i = 0; i < freeBuffers.size(); i++) {
-            BufferInfo bufferInfo = freeBuffers.get(i);
-            if (bufferInfo.size >= sizeInBytes && (minBufferIndex == -1 || bufferInfo.size < freeBuffers.get(minBufferIndex).size)) {
-                minBufferIndex = i;
+    private int findFreeSizeClass(int fromClass, int toClass) {
+        int firstLevel = fromClass / NUM_SUB_CLASSES;
+        int secondLevelMap = secondLevelBitmaps[firstLevel] & (~0 << (fromClass % NUM_SUB_CLASSES));
+        if (secondLevelMap == 0) {
+            long firstLevelMap = (firstLevel + 1 < Long.SIZE) ? firstLevelBitmap & (~0L << (firstLevel + 1)) : 0;
+            if (firstLevelMap == 0) {
+                return -1;
+            }
+            firstLevel = Long.numberOfTrailingZeros(firstLevelMap);
+            secondLevelMap = secondLevelBitmaps[firstLevel];
+        }
+        int sizeClass = firstLevel * NUM_SUB_CLASSES + Integer.numberOfTrailingZeros(secondLevelMap);
+        return sizeClass <= toClass ? sizeClass : -1;
+    }
+
+    private void insertFreeBuffer(BufferInfo bufferInfo) {
+        final int sizeClass = bufferInfo.sizeClass;
+        bufferInfo.previousInClass = null;
+        bufferInfo.nextInClass = freeBuffersPerClass[sizeClass];
+        if (bufferInfo.nextInClass != null) {
+            bufferInfo.nextInClass.previousInClass = bufferInfo;
+        }
+        freeBuffersPerClass[sizeClass] = bufferInfo;
+        secondLevelBitmaps[sizeClass / NUM_SUB_CLASSES] |= 1 << (sizeClass % NUM_SUB_CLASSES);
+        firstLevelBitmap |= 1L << (sizeClass / NUM_SUB_CLASSES);
+
+        // Append to the most recently used end of the LRU list
+        bufferInfo.nextInLRU = null;
+        bufferInfo.previousInLRU = mostRecentlyUsed;
+        if (mostRecentlyUsed != null) {
+            mostRecentlyUsed.nextInLRU = bufferInfo;
+        } else {
+            leastRecentlyUsed = bufferInfo;
+        }
+        mostRecentlyUsed = bufferInfo;
+
+        numFreeBuffers++;
+        idleBytes += bufferInfo.size;
+    }
+
+    private void removeFreeBuffer(BufferInfo bufferInfo) {
+        final int sizeClass = bufferInfo.sizeClass;
+        if (bufferInfo.previousInClass != null) {
+            bufferInfo.previousInClass.nextInClass = bufferInfo.nextInClass;
+        } else {
+            freeBuffersPerClass[sizeClass] = bufferInfo.nextInClass;
+        }
+        if (bufferInfo.nextInClass != null) {
+            bufferInfo.nextInClass.previousInClass = bufferInfo.previousInClass;
+        }
+        if (freeBuffersPerClass[sizeClass] == null) {
+            final int firstLevel = sizeClass / NUM_SUB_CLASSES;
+            secondLevelBitmaps[firstLevel] &= ~(1 << (sizeClass % NUM_SUB_CLASSES));
+            if (secondLevelBitmaps[firstLevel] == 0) {
+                firstLevelBitmap &= ~(1L << firstLevel);
             }
         }
-        return minBufferIndex;
+
+        if (bufferInfo.previousInLRU != null) {
+            bufferInfo.previousInLRU.nextInLRU = bufferInfo.nextInLRU;
+        } else {
+            leastRecentlyUsed = bufferInfo.nextInLRU;
+        }
+        if (bufferInfo.nextInLRU != null) {
+            bufferInfo.nextInLRU.previousInLRU = bufferInfo.previousInLRU;
+        } else {
+            mostRecentlyUsed = bufferInfo.previousInLRU;
+        }
+        bufferInfo.previousInClass = bufferInfo.nextInClass = null;
+        bufferInfo.previousInLRU = bufferInfo.nextInLRU = null;
+
+        numFreeBuffers--;
+        idleBytes -= bufferInfo.size;
+    }
+
+    private long markBufferUsed(BufferInfo bufferInfo, long requestedSize) {
+        bufferInfo.requestedSize = requestedSize;
+        usedBuffers.put(bufferInfo.buffer, bufferInfo);
+        requestedBytesInUse += requestedSize;
+        allocatedBytesInUse += bufferInfo.size;
+        return bufferInfo.buffer;
+    }
+
+    private long allocate(long size, long requestedSize) {
+        final DeviceBufferAllocationEvent allocationEvent = new DeviceBufferAllocationEvent();
+        allocationEvent.begin();
+        long buffer = allocateBuffer(size);
+        currentMemoryAvailable -= size;
+        allocationEvent.end();
+        if (allocationEvent.shouldCommit()) {
+            allocationEvent.setDevice(deviceContext.getDevice().getDeviceName());
+            allocationEvent.setSize(size);
+            allocationEvent.setRequestedSize(requestedSize);
+            allocationEvent.setAvailableMemory(currentMemoryAvailable);
+            allocationEvent.commit();
+        }
+        BufferInfo bufferInfo = new BufferInfo(buffer, size);
+        bufferInfo.sizeClass = sizeClassOf(size);
+        return markBufferUsed(bufferInfo, requestedSize);
     }
 
     /**
-     * There is no buffer to fulfill the size. Start freeing unused buffers and try
-     * to allocate.
+     * It releases idle buffers, in least recently used order, until the requested
+     * size fits in the available device memory or there are no idle buffers
+     * left.
+     */
+    private void evictIdleBuffers(long sizeInBytes) {
+        while (leastRecentlyUsed != null && currentMemoryAvailable < sizeInBytes) {
+            BufferInfo bufferInfo = leastRecentlyUsed;
+            TornadoInternalError.guarantee(!usedBuffers.containsKey(bufferInfo.buffer), "This buffer should not be used");
+            final DeviceBufferEvictionEvent evictionEvent = new DeviceBufferEvictionEvent();
+            evictionEvent.begin();
+            removeFreeBuffer(bufferInfo);
+            currentMemoryAvailable += bufferInfo.size;
+            releaseBuffer(bufferInfo.buffer);
+            numEvictions++;
+            evictionEvent.end();
+            if (evictionEvent.shouldCommit()) {
+                evictionEvent.setDevice(deviceContext.getDevice().getDeviceName());
+                evictionEvent.setSize(bufferInfo.size);
+                evictionEvent.commit();
+            }
+        }
+    }
+
+    /**
+     * It reuses an idle buffer of a size class within the given range.
      *
-     * @param sizeInBytes
-     *            Size in bytes for the requested buffer.
-     * @return It returns a buffer native pointer.
+     * @return The native buffer, or -1 if there is no idle buffer in the range.
      */
-    private long freeUnusedNativeBufferAndAssignRegion(long sizeInBytes) {
-        freeBuffers(sizeInBytes);
-        if (sizeInBytes <= currentMemoryAvailable) {
-            return allocate(sizeInBytes);
-        } else {
-            throw new TornadoOutOfMemoryException("Unable to allocate " + sizeInBytes + " bytes of memory.");
+    private long reuseFreeBuffer(int fromClass, int toClass, long requestedSize) {
+        int sizeClass = findFreeSizeClass(fromClass, toClass);
+        if (sizeClass == -1) {
+            return -1;
         }
+        BufferInfo bufferInfo = freeBuffersPerClass[sizeClass];
+        removeFreeBuffer(bufferInfo);
+        return markBufferUsed(bufferInfo, requestedSize);
     }
 
     /**
-     * Method that finds a suitable buffer for a requested buffer size. If a free
-     * memory buffer is found, it performs the native buffer allocation on the
-     * target device. Otherwise, it throws an exception.
+     * Method that finds a suitable buffer for a requested buffer size. It first
+     * reuses an idle buffer of the same size class (up to twice the requested
+     * size). Otherwise, it allocates a new buffer with the size of the class. If
+     * the device runs out of memory, it reuses a larger idle buffer, or it
+     * releases idle buffers to make room for the new one.
      *
      * @param sizeInBytes
      *            Size in bytes for the requested buffer.
@@ -165,45 +383,161 @@ public abstract class TornadoBufferProvider {
      *             TornadoOutOfMemoryException}
      */
     public long getBufferWithSize(long sizeInBytes) {
+        if (arenaAllocation && sizeInBytes <= DEVICE_ARENA_SIZE / 4) {
+            return allocateFromArena(sizeInBytes);
+        }
+        return allocateFromPool(sizeInBytes);
+    }
+
+    private long allocateFromPool(long sizeInBytes) {
         TornadoTargetDevice targetDevice = deviceContext.getDevice();
-        if (sizeInBytes <= currentMemoryAvailable && sizeInBytes < targetDevice.getDeviceMaxAllocationSize()) {
-            // Allocate if there is enough device memory.
-            return allocate(sizeInBytes);
-        } else if (sizeInBytes < targetDevice.getDeviceMaxAllocationSize()) {
-            int minBufferIndex = bufferIndexOfAFreeSpace(sizeInBytes);
-            // If a buffer was found, mark it as used and return it.
-            if (minBufferIndex != -1) {
-                return markBufferUsed(minBufferIndex).buffer;
-            } else {
-                return freeUnusedNativeBufferAndAssignRegion(sizeInBytes);
-            }
-        } else {
+        if (sizeInBytes >= targetDevice.getDeviceMaxAllocationSize()) {
             throw new TornadoOutOfMemoryException("Unable to allocate " + sizeInBytes + " bytes of memory.");
         }
+
+        long classSize = roundUpToSizeClass(sizeInBytes);
+        if (classSize >= targetDevice.getDeviceMaxAllocationSize()) {
+            classSize = sizeInBytes;
+        }
+        final int fromClass = sizeClassOf(roundUpToSizeClass(sizeInBytes));
+        final int lastClass = freeBuffersPerClass.length - 1;
+
+        long buffer = reuseFreeBuffer(fromClass, Math.min(fromClass + NUM_SUB_CLASSES, lastClass), sizeInBytes);
+        if (buffer != -1) {
+            numHits++;
+            return buffer;
+        }
+
+        numMisses++;
+        if (classSize > currentMemoryAvailable) {
+            // Before evicting, any idle buffer that is large enough is reused
+            buffer = reuseFreeBuffer(fromClass, lastClass, sizeInBytes);
+            if (buffer != -1) {
+                return buffer;
+            }
+            evictIdleBuffers(classSize);
+        }
+        if (classSize <= currentMemoryAvailable) {
+            return allocate(classSize, sizeInBytes);
+        } else if (sizeInBytes <= currentMemoryAvailable) {
+            return allocate(sizeInBytes, sizeInBytes);
+        }
+        throw new TornadoOutOfMemoryException("Unable to allocate " + sizeInBytes + " bytes of memory.");
+    }
+
+    private static long align(long offset, long alignment) {
+        return (offset + alignment - 1) / alignment * alignment;
     }
 
     /**
-     * Removes the buffer from the {@link #usedBuffers} list and add it to
-     * the @{@link #freeBuffers} list.
+     * It carves an aligned region from the current arena, taking a new arena from
+     * the pool if the region does not fit.
      */
-    public void markBufferReleased(long buffer, long size) {
-        int foundIndex = -1;
-        for (int i = 0; i < usedBuffers.size(); i++) {
-            if (usedBuffers.get(i).buffer == buffer) {
-                foundIndex = i;
-                break;
+    private long allocateFromArena(long sizeInBytes) {
+        long offset = currentArena == null ? 0 : align(currentArena.top, getSubBufferAlignment());
+        if (currentArena == null || offset + sizeInBytes > currentArena.size) {
+            long arenaSize = Math.min(DEVICE_ARENA_SIZE, deviceContext.getDevice().getDeviceMaxAllocationSize() - 1);
+            currentArena = new Arena(allocateFromPool(arenaSize), arenaSize);
+            offset = 0;
+        }
+        long subBuffer = createSubBuffer(currentArena.buffer, offset, sizeInBytes);
+        currentArena.top = offset + sizeInBytes;
+        currentArena.numRegions++;
+        subBuffers.put(subBuffer, currentArena);
+        numSubAllocations++;
+        return subBuffer;
+    }
+
+    private void releaseToArena(long subBuffer, Arena arena) {
+        releaseSubBuffer(subBuffer);
+        arena.numRegions--;
+        if (arena.numRegions == 0) {
+            if (arena == currentArena) {
+                currentArena = null;
             }
+            releaseToPool(arena.buffer);
+        }
+    }
+
+    /**
+     * It starts sub-allocating the following small buffers from arenas, if
+     * enabled for the device.
+     */
+    public void beginArenaAllocation() {
+        arenaAllocation = DEVICE_ARENA && isSubAllocationSupported();
+    }
+
+    public void endArenaAllocation() {
+        arenaAllocation = false;
+    }
+
+    /**
+     * Removes the buffer from the used buffers and returns it to the pool of idle
+     * buffers.
+     */
+    public void markBufferReleased(long buffer) {
+        // Regions are checked first: a region at offset 0 has the arena handle
+        Arena arena = subBuffers.remove(buffer);
+        if (arena != null) {
+            releaseToArena(buffer, arena);
+        } else {
+            releaseToPool(buffer);
+        }
+    }
+
+    private void releaseToPool(long buffer) {
+        BufferInfo bufferInfo = usedBuffers.remove(buffer);
+        TornadoInternalError.guarantee(bufferInfo != null, "Expected the buffer to be allocated and used at this point.");
+        requestedBytesInUse -= bufferInfo.requestedSize;
+        allocatedBytesInUse -= bufferInfo.size;
+        if (bufferInfo.sizeClass == -1) {
+            // Buffers smaller than the minimum class are not pooled
+            currentMemoryAvailable += bufferInfo.size;
+            releaseBuffer(bufferInfo.buffer);
+        } else {
+            insertFreeBuffer(bufferInfo);
         }
-        TornadoInternalError.guarantee(foundIndex != -1, "Expected the buffer to be allocated and used at this point.");
-        BufferInfo removedBuffer = usedBuffers.remove(foundIndex);
-        freeBuffers.add(removedBuffer);
     }
 
     public boolean checkBufferAvailability(int numBuffersRequired) {
-        return freeBuffers.size() >= numBuffersRequired;
+        return numFreeBuffers >= numBuffersRequired;
     }
 
     public void resetBuffers() {
-        freeBuffers(DEVICE_AVAILABLE_MEMORY);
+        evictIdleBuffers(DEVICE_AVAILABLE_MEMORY);
+    }
+
+    /**
+     * @return Ratio of requests served with an idle buffer.
+     */
+    public double getHitRate() {
+        long requests = numHits + numMisses;
+        return requests == 0 ? 0 : (double) numHits / requests;
+    }
+
+    /**
+     * @return Ratio of the allocated bytes of the used buffers that are not
+     *         requested (internal fragmentation).
+     */
+    public double getFragmentation() {
+        return allocatedBytesInUse == 0 ? 0 : 1.0 - (double) requestedBytesInUse / allocatedBytesInUse;
+    }
+
+    public long getNumEvictions() {
+        return numEvictions;
+    }
+
+    public long getIdleBytes() {
+        return idleBytes;
+    }
+
+    public long getNumSubAllocations() {
+        return numSubAllocations;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: hit rate=%.2f, fragmentation=%.2f, evictions=%d, used buffers=%d, idle buffers=%d (%d bytes), sub-allocations=%d", getClass().getSimpleName(), getHitRate(),
+                getFragmentation(), numEvictions, usedBuffers.size(), numFreeBuffers, idleBytes, numSubAllocations);
     }
 }
@@ -420,3 +420,58 @@ JNIEXPORT jlong JNICALL Java_uk_ac_manchester_tornado_drivers_opencl_OCLCommandQ
          jlong offset, jlong numBytes, jlong devicePtr, jlongArray javaArrayEvents) {
     return transferFromDeviceToHost(env, clazz, commandQueue, reinterpret_cast<jbyteArray>(hostArray), hostOffset, blocking, offset, numBytes, devicePtr, javaArrayEvents);
 }
+
+/*
+ * Class:     uk_ac_manchester_tornado_drivers_opencl_OCLCommandQueue
+ * Method:    writeBufferToDevice
+ * Signature: (JLjava/nio/ByteBuffer;JZJJJ[J)J
+ */
+JNIEXPORT jlong JNICALL Java_uk_ac_manchester_tornado_drivers_opencl_OCLCommandQueue_writeBufferToDevice
+        (JNIEnv *env, jclass clazz, jlong commandQueue, jobject hostBuffer, jlong hostOffset, jboolean blocking,
+         jlong offset, jlong numBytes, jlong devicePtr, jlongArray javaArrayEvents) {
+    /* The host buffer is off-heap, so it is not moved by the GC and the copy can be asynchronous */
+    cl_bool blocking_write = blocking ? CL_TRUE : CL_FALSE;
+    jlong *arrayEvents = static_cast<jlong *>((javaArrayEvents != NULL) ? env->GetPrimitiveArrayCritical(javaArrayEvents, NULL) : NULL);
+    jlong *events = (javaArrayEvents != NULL) ? &arrayEvents[1] : NULL;
+    jsize numberOfEvents = (javaArrayEvents != NULL) ? arrayEvents[0] : 0;
+    jbyte *buffer = static_cast<jbyte *>(env->GetDirectBufferAddress(hostBuffer));
+    if (PRINT_DATA_SIZES) {
+        std::cout << "[TornadoVM JNI] writeBufferToDevice from " << offset << " (" << numBytes << ") from buffer: " << buffer << std::endl;
+    }
+    cl_event event;
+    cl_int status = clEnqueueWriteBuffer((cl_command_queue) commandQueue, (cl_mem) devicePtr, blocking_write,
+                                         (size_t) offset, (size_t) numBytes, &buffer[hostOffset], (cl_uint) numberOfEvents,
+                                         (cl_event *) events, &event);
+    LOG_OCL_AND_VALIDATE("clEnqueueWriteBuffer", status);
+    if (javaArrayEvents != NULL) {
+        env->ReleasePrimitiveArrayCritical(javaArrayEvents, arrayEvents, JNI_ABORT);
+    }
+    return (jlong) event;
+}
+
+/*
+ * Class:     uk_ac_manchester_tornado_drivers_opencl_OCLCommandQueue
+ * Method:    readBufferFromDevice
+ * Signature: (JLjava/nio/ByteBuffer;JZJJJ[J)J
+ */
+JNIEXPORT jlong JNICALL Java_uk_ac_manchester_tornado_drivers_opencl_OCLCommandQueue_readBufferFromDevice
+        (JNIEnv *env, jclass clazz, jlong commandQueue, jobject hostBuffer, jlong hostOffset, jboolean blocking,
+         jlong offset, jlong numBytes, jlong devicePtr, jlongArray javaArrayEvents) {
+    cl_bool blocking_read = blocking ? CL_TRUE : CL_FALSE;
+    jlong *arrayEvents = static_cast<jlong *>((javaArrayEvents != NULL) ? env->GetPrimitiveArrayCritical(javaArrayEvents, NULL) : NULL);
+    jlong *events = (javaArrayEvents != NULL) ? &arrayEvents[1] : NULL;
+    jsize numberOfEvents = (javaArrayEvents != NULL) ? arrayEvents[0] : 0;
+    jbyte *buffer = static_cast<jbyte *>(env->GetDirectBufferAddress(hostBuffer));
+    if (PRINT_DATA_SIZES) {
+        std::cout << "[TornadoVM JNI] readBufferFromDevice from " << offset << " (" << numBytes << ") to buffer: " << buffer << std::endl;
+    }
+    cl_event event;
+    cl_int status = clEnqueueReadBuffer((cl_command_queue) commandQueue, (cl_mem) devicePtr, blocking_read,
+                                        (size_t) offset, (size_t) numBytes, &buffer[hostOffset], (cl_uint) numberOfEvents,
+                                        (cl_event *) events, &event);
+    LOG_OCL_AND_VALIDATE("clEnqueueReadBuffer", status);
+    if (javaArrayEvents != NULL) {
+        env->ReleasePrimitiveArrayCritical(javaArrayEvents, arrayEvents, JNI_ABORT);
+    }
+    return (jlong) event;
+}
@@ -123,6 +123,16 @@ JNIEXPORT jobject JNICALL Java_uk_ac_manchester_tornado_drivers_opencl_OCLContex
     return env->NewDirectByteBuffer((void *) address, capacity);
 }
 
+/*
+ * Class:     uk_ac_manchester_tornado_drivers_opencl_OCLContext
+ * Method:    getDirectBufferAddress
+ * Signature: (Ljava/nio/ByteBuffer;)J
+ */
+JNIEXPORT jlong JNICALL Java_uk_ac_manchester_tornado_drivers_opencl_OCLContext_getDirectBufferAddress
+(JNIEnv *env, jclass clazz, jobject buffer) {
+    return (jlong) env->GetDirectBufferAddress(buffer);
+}
+
 /*
  * Class:     uk_ac_manchester_tornado_drivers_opencl_OCLContext
  * Method:    createBuffer
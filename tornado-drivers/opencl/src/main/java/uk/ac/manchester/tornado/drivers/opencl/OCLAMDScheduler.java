@@ -68,6 +68,12 @@ public class OCLAMDScheduler extends OCLKernelScheduler {
     @Override
     public void calculateLocalWork(final TaskMetaData meta) {
         final long[] localWork = meta.initLocalWork();
+
+        if (isCompilerLocalWorkApplicable(meta)) {
+            System.arraycopy(meta.getCompilerLocalWork(), 0, localWork, 0, meta.getDims());
+            return;
+        }
+
         switch (meta.getDims()) {
             case 3:
                 /// XXX: Support 3D
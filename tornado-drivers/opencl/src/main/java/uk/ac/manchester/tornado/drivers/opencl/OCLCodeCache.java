@@ -480,7 +480,7 @@ public class OCLCodeCache {
         return deviceContext.getPlatformContext().getPlatform().getVendor().toLowerCase().split("\\(")[0];
     }
 
-    OCLInstalledCode installFPGASource(String id, String entryPoint, byte[] source, boolean shouldCompile) { // TODO Override this method for each FPGA backend
+    synchronized OCLInstalledCode installFPGASource(String id, String entryPoint, byte[] source, boolean shouldCompile) { // TODO Override this method for each FPGA backend
         String[] compilationCommand;
         final String inputFile = fpgaSourceDir + entryPoint + OPENCL_SOURCE_SUFFIX;
         final String outputFile = fpgaSourceDir + entryPoint;
@@ -559,7 +559,12 @@ public class OCLCodeCache {
         return value == SPIRV_MAGIC_NUMBER;
     }
 
-    public OCLInstalledCode installSource(TaskMetaData meta, String id, String entryPoint, byte[] source) {
+    /*
+     * The installation is synchronized because tasks can be compiled by several
+     * compiler threads (tornado.compiler.threads). The JIT compilation runs in
+     * parallel, and the OpenCL programs are built and cached one at a time.
+     */
+    public synchronized OCLInstalledCode installSource(TaskMetaData meta, String id, String entryPoint, byte[] source) {
 
         info("Installing code for %s into code cache", entryPoint);
 
@@ -729,14 +734,14 @@ public class OCLCodeCache {
         return deviceContext.getDevice().getDeviceName().toLowerCase().startsWith("xilinx");
     }
 
-    public void reset() {
+    public synchronized void reset() {
         for (OCLInstalledCode code : cache.values()) {
             code.invalidate();
         }
         cache.clear();
     }
 
-    public OCLInstalledCode installEntryPointForBinaryForFPGAs(String id, Path lookupPath, String entrypoint) {
+    public synchronized OCLInstalledCode installEntryPointForBinaryForFPGAs(String id, Path lookupPath, String entrypoint) {
         final File file = lookupPath.toFile();
         OCLInstalledCode lookupCode = null;
         if (file.length() == 0) {
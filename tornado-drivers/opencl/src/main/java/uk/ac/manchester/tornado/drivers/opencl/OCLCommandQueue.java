@@ -110,6 +110,15 @@ public class OCLCommandQueue extends TornadoLogger {
 
     static native long readArrayFromDevice(long queueId, double[] buffer, long hostOffset, boolean blocking, long offset, long bytes, long ptr, long[] events) throws OCLException;
 
+    /**
+     * Copies an off-heap buffer to the device. The buffer must be direct. Since
+     * it is not moved by the garbage collector, the copy is only blocking if
+     * requested.
+     */
+    static native long writeBufferToDevice(long queueId, ByteBuffer buffer, long hostOffset, boolean blocking, long offset, long bytes, long ptr, long[] events) throws OCLException;
+
+    static native long readBufferFromDevice(long queueId, ByteBuffer buffer, long hostOffset, boolean blocking, long offset, long bytes, long ptr, long[] events) throws OCLException;
+
     static native void clEnqueueWaitForEvents(long queueId, long[] events) throws OCLException;
 
     /*
@@ -339,6 +348,26 @@ public class OCLCommandQueue extends TornadoLogger {
         return -1;
     }
 
+    public long enqueueWrite(long devicePtr, boolean blocking, long offset, long bytes, ByteBuffer buffer, long hostOffset, long[] waitEvents) {
+        guarantee(buffer != null && buffer.isDirect(), "expecting a direct buffer");
+        try {
+            return writeBufferToDevice(commandQueue, buffer, hostOffset, blocking, offset, bytes, devicePtr, waitEvents);
+        } catch (OCLException e) {
+            error(e.getMessage());
+        }
+        return -1;
+    }
+
+    public long enqueueRead(long devicePtr, boolean blocking, long offset, long bytes, ByteBuffer buffer, long hostOffset, long[] waitEvents) {
+        guarantee(buffer != null && buffer.isDirect(), "expecting a direct buffer");
+        try {
+            return readBufferFromDevice(commandQueue, buffer, hostOffset, blocking, offset, bytes, devicePtr, waitEvents);
+        } catch (OCLException e) {
+            error(e.getMessage());
+        }
+        return -1;
+    }
+
     public void finish() {
         try {
             clFinish(commandQueue);
@@ -32,6 +32,7 @@ import static uk.ac.manchester.tornado.drivers.opencl.enums.OCLCommandQueuePrope
 import static uk.ac.manchester.tornado.runtime.common.Tornado.ENABLE_OOO_EXECUTION;
 import static uk.ac.manchester.tornado.runtime.common.Tornado.ENABLE_PROFILING;
 import static uk.ac.manchester.tornado.runtime.common.TornadoOptions.DUMP_EVENTS;
+import static uk.ac.manchester.tornado.runtime.common.TornadoOptions.OPENCL_COPY_QUEUES;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -40,6 +41,8 @@ import java.util.List;
 import uk.ac.manchester.tornado.api.exceptions.TornadoInternalError;
 import uk.ac.manchester.tornado.api.exceptions.TornadoNoOpenCLPlatformException;
 import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.drivers.opencl.enums.OCLBufferCreateType;
+import uk.ac.manchester.tornado.drivers.opencl.enums.OCLMemFlags;
 import uk.ac.manchester.tornado.drivers.opencl.exceptions.OCLException;
 import uk.ac.manchester.tornado.runtime.common.RuntimeUtilities;
 import uk.ac.manchester.tornado.runtime.common.Tornado;
@@ -51,6 +54,7 @@ public class OCLContext implements OCLExecutionEnvironment {
     private final List<OCLTargetDevice> devices;
     private final List<OCLDeviceContext> deviceContexts;
     private final OCLCommandQueue[] queues;
+    private final List<OCLCommandQueue> copyQueues;
     private final List<OCLProgram> programs;
     private final OCLPlatform platform;
 
@@ -60,6 +64,7 @@ public class OCLContext implements OCLExecutionEnvironment {
         this.devices = devices;
         this.deviceContexts = new ArrayList<>(devices.size());
         this.queues = new OCLCommandQueue[devices.size()];
+        this.copyQueues = new ArrayList<>();
         this.programs = new ArrayList<>();
     }
 
@@ -75,6 +80,8 @@ public class OCLContext implements OCLExecutionEnvironment {
 
     static native ByteBuffer asByteBuffer(long address, long size);
 
+    static native long getDirectBufferAddress(ByteBuffer buffer);
+
     // creates an empty buffer on the device
     static native OCLBufferResult createBuffer(long contextId, long flags, long size, long hostPointer) throws OCLException;
 
@@ -100,24 +107,30 @@ public class OCLContext implements OCLExecutionEnvironment {
         return queues;
     }
 
-    public void createCommandQueue(int index, long properties) {
-        OCLTargetDevice device = devices.get(index);
-        long queueId;
+    private OCLCommandQueue buildCommandQueue(OCLTargetDevice device, long properties) {
         try {
-            queueId = clCreateCommandQueue(contextID, device.getId(), properties);
+            long queueId = clCreateCommandQueue(contextID, device.getId(), properties);
 
             final int platformVersion = Integer.parseInt(platform.getVersion().split(" ")[1].replace(".", "")) * 10;
             final int deviceVersion = Integer.parseInt(device.getVersion().split(" ")[1].replace(".", "")) * 10;
             TornadoLogger.info("platform: version=%s (%s) on %s", platformVersion, platform.getVersion(), device.getDeviceName());
             TornadoLogger.info("device  : version=%s (%s) on %s", deviceVersion, device.getVersion(), device.getDeviceName());
 
-            queues[index] = new OCLCommandQueue(queueId, properties, deviceVersion);
+            return new OCLCommandQueue(queueId, properties, deviceVersion);
         } catch (OCLException e) {
             TornadoLogger.error(e.getMessage());
         }
+        return null;
     }
 
-    public void createCommandQueue(int index) {
+    public void createCommandQueue(int index, long properties) {
+        OCLCommandQueue queue = buildCommandQueue(devices.get(index), properties);
+        if (queue != null) {
+            queues[index] = queue;
+        }
+    }
+
+    private static long getDefaultQueueProperties() {
         long properties = 0;
         if (ENABLE_PROFILING) {
             properties |= CL_QUEUE_PROFILING_ENABLE;
@@ -126,7 +139,32 @@ public class OCLContext implements OCLExecutionEnvironment {
         if (ENABLE_OOO_EXECUTION) {
             properties |= CL_QUEUE_OUT_OF_ORDER_EXEC_MODE_ENABLE;
         }
-        createCommandQueue(index, properties);
+        return properties;
+    }
+
+    public void createCommandQueue(int index) {
+        createCommandQueue(index, getDefaultQueueProperties());
+    }
+
+    /**
+     * It creates a command queue for the copies of a device. If the queue cannot
+     * be created, or the device does not support markers with wait lists (OpenCL
+     * 1.2), the copies use the compute queue.
+     *
+     * @param index
+     *            Index of the device.
+     * @return The copy queue.
+     */
+    private OCLCommandQueue createCopyQueue(int index) {
+        if (queues[index] == null || queues[index].getOpenclVersion() < 120) {
+            return queues[index];
+        }
+        OCLCommandQueue queue = buildCommandQueue(devices.get(index), getDefaultQueueProperties());
+        if (queue == null) {
+            return queues[index];
+        }
+        copyQueues.add(queue);
+        return queue;
     }
 
     public void createAllCommandQueues(long properties) {
@@ -205,6 +243,9 @@ public class OCLContext implements OCLExecutionEnvironment {
                     queue.cleanup();
                 }
             }
+            for (OCLCommandQueue queue : copyQueues) {
+                queue.cleanup();
+            }
 
             long t2 = System.nanoTime();
             clReleaseContext(contextID);
@@ -231,7 +272,13 @@ public class OCLContext implements OCLExecutionEnvironment {
     public OCLDeviceContext createDeviceContext(int index) {
         TornadoLogger.debug("creating device context for device: %s", devices.get(index).toString());
         createCommandQueue(index);
-        final OCLDeviceContext deviceContext = new OCLDeviceContext(devices.get(index), queues[index], this);
+        OCLCommandQueue writeQueue = queues[index];
+        OCLCommandQueue readQueue = queues[index];
+        if (OPENCL_COPY_QUEUES) {
+            writeQueue = createCopyQueue(index);
+            readQueue = createCopyQueue(index);
+        }
+        final OCLDeviceContext deviceContext = new OCLDeviceContext(devices.get(index), queues[index], writeQueue, readQueue, this);
         deviceContexts.add(deviceContext);
         return deviceContext;
     }
@@ -264,6 +311,23 @@ public class OCLContext implements OCLExecutionEnvironment {
         return createBuffer(flags, bytes, 0L);
     }
 
+    /**
+     * Creates a buffer that uses the given direct buffer as its storage
+     * ({@code CL_MEM_USE_HOST_PTR}). On devices that share the host memory, the
+     * kernels access the host memory without copies.
+     *
+     * @param flags
+     *            memory flags. {@code CL_MEM_USE_HOST_PTR} is added.
+     * @param hostBuffer
+     *            direct buffer. It must stay reachable until the OpenCL buffer is
+     *            released.
+     *
+     * @return the buffer, which is released with {@link #releaseBuffer}.
+     */
+    public OCLBufferResult createBuffer(long flags, ByteBuffer hostBuffer) {
+        return createBuffer(flags | OCLMemFlags.CL_MEM_USE_HOST_PTR, hostBuffer.capacity(), getDirectBufferAddress(hostBuffer));
+    }
+
     private OCLBufferResult createBuffer(long flags, long bytes, long hostPointer) {
         try {
             final OCLBufferResult result = createBuffer(contextID, flags, bytes, hostPointer);
@@ -275,6 +339,31 @@ public class OCLContext implements OCLExecutionEnvironment {
         return null;
     }
 
+    /**
+     * Creates a sub-buffer that covers a region of an existing buffer. The
+     * origin must be aligned to the base address alignment of the device.
+     *
+     * @param bufferId
+     *            parent buffer.
+     * @param origin
+     *            offset, in bytes, of the region within the parent buffer.
+     * @param bytes
+     *            size of the region.
+     *
+     * @return the sub-buffer, which is released with {@link #releaseBuffer}.
+     */
+    public long createSubBuffer(long bufferId, long origin, long bytes) {
+        // cl_buffer_region: {size_t origin; size_t size;}
+        final ByteBuffer region = ByteBuffer.allocate(2 * Long.BYTES);
+        region.order(OpenCL.BYTE_ORDER);
+        region.putLong(origin).putLong(bytes);
+        try {
+            return createSubBuffer(bufferId, 0, OCLBufferCreateType.CL_BUFFER_CREATE_TYPE_REGION.getValue(), region.array());
+        } catch (OCLException e) {
+            throw new TornadoRuntimeException(e.getMessage());
+        }
+    }
+
     public void releaseBuffer(long bufferId) {
         try {
             clReleaseMemObject(bufferId);
@@ -30,6 +30,7 @@ import static uk.ac.manchester.tornado.runtime.common.Tornado.EVENT_WINDOW;
 import static uk.ac.manchester.tornado.runtime.common.Tornado.USE_SYNC_FLUSH;
 import static uk.ac.manchester.tornado.runtime.common.Tornado.getProperty;
 
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Comparator;
 import java.util.List;
@@ -57,6 +58,8 @@ public class OCLDeviceContext extends TornadoLogger implements OCLDeviceContextI
 
     private final OCLTargetDevice device;
     private final OCLCommandQueue queue;
+    private final OCLCommandQueue writeQueue;
+    private final OCLCommandQueue readQueue;
     private final OCLContext context;
     private final OCLMemoryManager memoryManager;
     private final long bumpBuffer;
@@ -69,8 +72,22 @@ public class OCLDeviceContext extends TornadoLogger implements OCLDeviceContextI
     private final TornadoBufferProvider bufferProvider;
 
     protected OCLDeviceContext(OCLTargetDevice device, OCLCommandQueue queue, OCLContext context) {
+        this(device, queue, queue, queue, context);
+    }
+
+    /**
+     * @param queue
+     *            Command queue for the kernels.
+     * @param writeQueue
+     *            Command queue for the host-to-device copies.
+     * @param readQueue
+     *            Command queue for the device-to-host copies.
+     */
+    protected OCLDeviceContext(OCLTargetDevice device, OCLCommandQueue queue, OCLCommandQueue writeQueue, OCLCommandQueue readQueue, OCLContext context) {
         this.device = device;
         this.queue = queue;
+        this.writeQueue = writeQueue;
+        this.readQueue = readQueue;
         this.context = context;
         this.memoryManager = new OCLMemoryManager(this);
         this.codeCache = new OCLCodeCache(this);
@@ -145,9 +162,23 @@ public class OCLDeviceContext extends TornadoLogger implements OCLDeviceContextI
     @Override
     public void sync() {
         if (USE_SYNC_FLUSH) {
-            queue.flush();
+            flush();
         }
-        queue.finish();
+        finish();
+    }
+
+    @Override
+    public boolean hasCopyQueues() {
+        return writeQueue != queue || readQueue != queue;
+    }
+
+    /**
+     * It enqueues a marker in each copy queue. A barrier or marker in the compute
+     * queue that waits for them also waits for all previous copies.
+     */
+    private int[] enqueueCopyQueueMarkers() {
+        return new int[] { oclEventPool.registerEvent(writeQueue.enqueueMarker(), EventDescriptor.DESC_SYNC_MARKER, writeQueue),
+                oclEventPool.registerEvent(readQueue.enqueueMarker(), EventDescriptor.DESC_SYNC_MARKER, readQueue) };
     }
 
     @Override
@@ -157,12 +188,18 @@ public class OCLDeviceContext extends TornadoLogger implements OCLDeviceContextI
 
     @Override
     public int enqueueBarrier() {
+        if (hasCopyQueues()) {
+            return enqueueBarrier(enqueueCopyQueueMarkers());
+        }
         long oclEvent = queue.enqueueBarrier();
         return (queue.getOpenclVersion() < 120) ? -1 : oclEventPool.registerEvent(oclEvent, EventDescriptor.DESC_SYNC_BARRIER, queue);
     }
 
     @Override
     public int enqueueMarker() {
+        if (hasCopyQueues()) {
+            return enqueueMarker(enqueueCopyQueueMarkers());
+        }
         long oclEvent = queue.enqueueMarker();
         return queue.getOpenclVersion() < 120 ? -1 : oclEventPool.registerEvent(oclEvent, EventDescriptor.DESC_SYNC_MARKER, queue);
     }
@@ -197,44 +234,50 @@ public class OCLDeviceContext extends TornadoLogger implements OCLDeviceContextI
      */
     public int enqueueWriteBuffer(long bufferId, long offset, long bytes, byte[] array, long hostOffset, int[] waitEvents) {
         return oclEventPool.registerEvent(
-                queue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_WRITE_BYTE, queue);
+                writeQueue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, writeQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_WRITE_BYTE, writeQueue);
     }
 
     public int enqueueWriteBuffer(long bufferId, long offset, long bytes, char[] array, long hostOffset, int[] waitEvents) {
         return oclEventPool.registerEvent(
-                queue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_WRITE_BYTE, queue);
+                writeQueue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, writeQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_WRITE_BYTE, writeQueue);
     }
 
     public int enqueueWriteBuffer(long bufferId, long offset, long bytes, int[] array, long hostOffset, int[] waitEvents) {
         return oclEventPool.registerEvent(
-                queue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_WRITE_INT, queue);
+                writeQueue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, writeQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_WRITE_INT, writeQueue);
     }
 
     public int enqueueWriteBuffer(long bufferId, long offset, long bytes, long[] array, long hostOffset, int[] waitEvents) {
         return oclEventPool.registerEvent(
-                queue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_WRITE_LONG, queue);
+                writeQueue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, writeQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_WRITE_LONG, writeQueue);
     }
 
     public int enqueueWriteBuffer(long bufferId, long offset, long bytes, short[] array, long hostOffset, int[] waitEvents) {
         return oclEventPool.registerEvent(
-                queue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_WRITE_SHORT, queue);
+                writeQueue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, writeQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_WRITE_SHORT, writeQueue);
     }
 
     public int enqueueWriteBuffer(long bufferId, long offset, long bytes, float[] array, long hostOffset, int[] waitEvents) {
         return oclEventPool.registerEvent(
-                queue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_WRITE_FLOAT, queue);
+                writeQueue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, writeQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_WRITE_FLOAT, writeQueue);
     }
 
     public int enqueueWriteBuffer(long bufferId, long offset, long bytes, double[] array, long hostOffset, int[] waitEvents) {
         return oclEventPool.registerEvent(
-                queue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_WRITE_DOUBLE, queue);
+                writeQueue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, writeQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_WRITE_DOUBLE, writeQueue);
+    }
+
+    public int enqueueWriteBuffer(long bufferId, long offset, long bytes, ByteBuffer buffer, long hostOffset, int[] waitEvents) {
+        return oclEventPool.registerEvent(
+                writeQueue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, buffer, hostOffset, oclEventPool.serialiseEvents(waitEvents, writeQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_WRITE_SEGMENT, writeQueue);
     }
 
     /*
@@ -243,44 +286,50 @@ public class OCLDeviceContext extends TornadoLogger implements OCLDeviceContextI
      */
     public int enqueueReadBuffer(long bufferId, long offset, long bytes, byte[] array, long hostOffset, int[] waitEvents) {
         return oclEventPool.registerEvent(
-                queue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_READ_BYTE, queue);
+                readQueue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, readQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_READ_BYTE, readQueue);
     }
 
     public int enqueueReadBuffer(long bufferId, long offset, long bytes, char[] array, long hostOffset, int[] waitEvents) {
         return oclEventPool.registerEvent(
-                queue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_READ_BYTE, queue);
+                readQueue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, readQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_READ_BYTE, readQueue);
     }
 
     public int enqueueReadBuffer(long bufferId, long offset, long bytes, int[] array, long hostOffset, int[] waitEvents) {
         return oclEventPool.registerEvent(
-                queue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_READ_INT, queue);
+                readQueue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, readQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_READ_INT, readQueue);
     }
 
     public int enqueueReadBuffer(long bufferId, long offset, long bytes, long[] array, long hostOffset, int[] waitEvents) {
         return oclEventPool.registerEvent(
-                queue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_READ_LONG, queue);
+                readQueue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, readQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_READ_LONG, readQueue);
     }
 
     public int enqueueReadBuffer(long bufferId, long offset, long bytes, float[] array, long hostOffset, int[] waitEvents) {
         return oclEventPool.registerEvent(
-                queue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_READ_FLOAT, queue);
+                readQueue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, readQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_READ_FLOAT, readQueue);
     }
 
     public int enqueueReadBuffer(long bufferId, long offset, long bytes, double[] array, long hostOffset, int[] waitEvents) {
         return oclEventPool.registerEvent(
-                queue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_READ_DOUBLE, queue);
+                readQueue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, readQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_READ_DOUBLE, readQueue);
     }
 
     public int enqueueReadBuffer(long bufferId, long offset, long bytes, short[] array, long hostOffset, int[] waitEvents) {
         return oclEventPool.registerEvent(
-                queue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_READ_SHORT, queue);
+                readQueue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, readQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_READ_SHORT, readQueue);
+    }
+
+    public int enqueueReadBuffer(long bufferId, long offset, long bytes, ByteBuffer buffer, long hostOffset, int[] waitEvents) {
+        return oclEventPool.registerEvent(
+                readQueue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, buffer, hostOffset, oclEventPool.serialiseEvents(waitEvents, readQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_READ_SEGMENT, readQueue);
     }
 
     /*
@@ -288,44 +337,50 @@ public class OCLDeviceContext extends TornadoLogger implements OCLDeviceContextI
      */
     public void writeBuffer(long bufferId, long offset, long bytes, byte[] array, long hostOffset, int[] waitEvents) {
         oclEventPool.registerEvent(
-                queue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_WRITE_BYTE, queue);
+                writeQueue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, writeQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_WRITE_BYTE, writeQueue);
     }
 
     public void writeBuffer(long bufferId, long offset, long bytes, char[] array, long hostOffset, int[] waitEvents) {
         oclEventPool.registerEvent(
-                queue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_WRITE_BYTE, queue);
+                writeQueue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, writeQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_WRITE_BYTE, writeQueue);
     }
 
     public void writeBuffer(long bufferId, long offset, long bytes, int[] array, long hostOffset, int[] waitEvents) {
         oclEventPool.registerEvent(
-                queue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_WRITE_INT, queue);
+                writeQueue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, writeQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_WRITE_INT, writeQueue);
     }
 
     public void writeBuffer(long bufferId, long offset, long bytes, long[] array, long hostOffset, int[] waitEvents) {
         oclEventPool.registerEvent(
-                queue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_WRITE_LONG, queue);
+                writeQueue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, writeQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_WRITE_LONG, writeQueue);
     }
 
     public void writeBuffer(long bufferId, long offset, long bytes, short[] array, long hostOffset, int[] waitEvents) {
         oclEventPool.registerEvent(
-                queue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_WRITE_SHORT, queue);
+                writeQueue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, writeQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_WRITE_SHORT, writeQueue);
     }
 
     public void writeBuffer(long bufferId, long offset, long bytes, float[] array, long hostOffset, int[] waitEvents) {
         oclEventPool.registerEvent(
-                queue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_WRITE_FLOAT, queue);
+                writeQueue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, writeQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_WRITE_FLOAT, writeQueue);
     }
 
     public void writeBuffer(long bufferId, long offset, long bytes, double[] array, long hostOffset, int[] waitEvents) {
         oclEventPool.registerEvent(
-                queue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_WRITE_DOUBLE, queue);
+                writeQueue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, writeQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_WRITE_DOUBLE, writeQueue);
+    }
+
+    public void writeBuffer(long bufferId, long offset, long bytes, ByteBuffer buffer, long hostOffset, int[] waitEvents) {
+        oclEventPool.registerEvent(
+                writeQueue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, buffer, hostOffset, oclEventPool.serialiseEvents(waitEvents, writeQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_WRITE_SEGMENT, writeQueue);
     }
 
     /*
@@ -333,45 +388,51 @@ public class OCLDeviceContext extends TornadoLogger implements OCLDeviceContextI
      */
     public int readBuffer(long bufferId, long offset, long bytes, byte[] array, long hostOffset, int[] waitEvents) {
         return oclEventPool.registerEvent(
-                queue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_READ_BYTE, queue);
+                readQueue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, readQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_READ_BYTE, readQueue);
     }
 
     public int readBuffer(long bufferId, long offset, long bytes, char[] array, long hostOffset, int[] waitEvents) {
         return oclEventPool.registerEvent(
-                queue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_READ_BYTE, queue);
+                readQueue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, readQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_READ_BYTE, readQueue);
     }
 
     public int readBuffer(long bufferId, long offset, long bytes, int[] array, long hostOffset, int[] waitEvents) {
         return oclEventPool.registerEvent(
-                queue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_READ_INT, queue);
+                readQueue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, readQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_READ_INT, readQueue);
     }
 
     public int readBuffer(long bufferId, long offset, long bytes, long[] array, long hostOffset, int[] waitEvents) {
         return oclEventPool.registerEvent(
-                queue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_READ_LONG, queue);
+                readQueue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, readQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_READ_LONG, readQueue);
     }
 
     public int readBuffer(long bufferId, long offset, long bytes, float[] array, long hostOffset, int[] waitEvents) {
         return oclEventPool.registerEvent(
-                queue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_READ_FLOAT, queue);
+                readQueue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, readQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_READ_FLOAT, readQueue);
     }
 
     public int readBuffer(long bufferId, long offset, long bytes, double[] array, long hostOffset, int[] waitEvents) {
         return oclEventPool.registerEvent(
-                queue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_READ_DOUBLE, queue);
+                readQueue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, readQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_READ_DOUBLE, readQueue);
 
     }
 
     public int readBuffer(long bufferId, long offset, long bytes, short[] array, long hostOffset, int[] waitEvents) {
         return oclEventPool.registerEvent(
-                queue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue) ? oclEventPool.waitEventsBuffer : null),
-                EventDescriptor.DESC_READ_SHORT, queue);
+                readQueue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, readQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_READ_SHORT, readQueue);
+    }
+
+    public int readBuffer(long bufferId, long offset, long bytes, ByteBuffer buffer, long hostOffset, int[] waitEvents) {
+        return oclEventPool.registerEvent(
+                readQueue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, buffer, hostOffset, oclEventPool.serialiseEvents(waitEvents, readQueue) ? oclEventPool.waitEventsBuffer : null),
+                EventDescriptor.DESC_READ_SEGMENT, readQueue);
     }
 
     public int enqueueBarrier(int[] events) {
@@ -467,19 +528,31 @@ public class OCLDeviceContext extends TornadoLogger implements OCLDeviceContextI
         if (event == -1) {
             return EMPTY_EVENT;
         }
-        return new OCLEvent(oclEventPool.getDescriptor(event).getNameDescription(), queue, event, oclEventPool.getOCLEvent(event));
+        return new OCLEvent(oclEventPool.getDescriptor(event).getNameDescription(), oclEventPool.getQueue(event), event, oclEventPool.getOCLEvent(event));
     }
 
     public void flush() {
         queue.flush();
+        if (hasCopyQueues()) {
+            writeQueue.flush();
+            readQueue.flush();
+        }
     }
 
     public void finish() {
+        if (hasCopyQueues()) {
+            writeQueue.finish();
+            readQueue.finish();
+        }
         queue.finish();
     }
 
     public void flushEvents() {
         queue.flushEvents();
+        if (hasCopyQueues()) {
+            writeQueue.flushEvents();
+            readQueue.flushEvents();
+        }
     }
 
     public boolean isKernelAvailable() {
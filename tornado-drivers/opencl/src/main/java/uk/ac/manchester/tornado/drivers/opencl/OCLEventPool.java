@@ -110,9 +110,17 @@ class OCLEventPool {
         guarantee(eventIndex != -1, "event window is full (retained=%d, capacity=%d)", retain.cardinality(), eventPoolSize);
     }
 
+    /**
+     * It copies the OpenCL events of the dependencies in the wait-list buffer.
+     * Dependencies enqueued in the same in-order queue are skipped, since the
+     * queue already runs them in order. Dependencies from another queue (e.g., a
+     * copy queue) are always kept.
+     *
+     * @return True if the wait list is not empty.
+     */
     protected boolean serialiseEvents(int[] dependencies, OCLCommandQueue queue) {
         boolean outOfOrderQueue = (queue.getProperties() & CL_QUEUE_OUT_OF_ORDER_EXEC_MODE_ENABLE) == 1;
-        if (dependencies == null || dependencies.length == 0 || !outOfOrderQueue) {
+        if (dependencies == null || dependencies.length == 0) {
             return false;
         }
 
@@ -120,7 +128,7 @@ class OCLEventPool {
 
         int index = 0;
         for (final int value : dependencies) {
-            if (value != -1) {
+            if (value != -1 && (outOfOrderQueue || eventQueues[value] != queue)) {
                 index++;
                 waitEventsBuffer[index] = events[value];
                 debug("[%d] 0x%x - %s\n", index, events[value], descriptors[value].getNameDescription());
@@ -167,6 +175,10 @@ class OCLEventPool {
         return events[localEventID];
     }
 
+    protected OCLCommandQueue getQueue(int localEventID) {
+        return eventQueues[localEventID];
+    }
+
     protected EventDescriptor getDescriptor(int localEventID) {
         return descriptors[localEventID];
     }
@@ -38,9 +38,19 @@ public class OCLGPUScheduler extends OCLKernelScheduler {
     private final long[] maxWorkItemSizes;
 
     public OCLGPUScheduler(final OCLDeviceContext context) {
-        super(context);
-        OCLTargetDevice device = context.getDevice();
+        this(context, context.getDevice());
+    }
+
+    /**
+     * Scheduler for a device without a device context (e.g., a virtual device).
+     * It can only calculate the global and local work sizes.
+     */
+    public OCLGPUScheduler(final OCLTargetDevice device) {
+        this(null, device);
+    }
 
+    private OCLGPUScheduler(final OCLDeviceContext context, final OCLTargetDevice device) {
+        super(context);
         maxWorkItemSizes = device.getDeviceMaxWorkItemSizes();
         maxComputeUnits = device.getDeviceMaxComputeUnits();
         maxWorkGroupSize = device.getDeviceMaxWorkGroupSize();
@@ -63,6 +73,11 @@ public class OCLGPUScheduler extends OCLKernelScheduler {
     public void calculateLocalWork(final TaskMetaData meta) {
         final long[] localWork = meta.initLocalWork();
 
+        if (isCompilerLocalWorkApplicable(meta)) {
+            System.arraycopy(meta.getCompilerLocalWork(), 0, localWork, 0, meta.getDims());
+            return;
+        }
+
         switch (meta.getDims()) {
             case 3:
                 localWork[2] = 1;
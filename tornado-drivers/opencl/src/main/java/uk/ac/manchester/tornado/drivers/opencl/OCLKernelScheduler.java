@@ -28,8 +28,8 @@ import java.util.Arrays;
 
 import uk.ac.manchester.tornado.api.WorkerGrid;
 import uk.ac.manchester.tornado.api.common.Event;
-import uk.ac.manchester.tornado.api.profiler.ProfilerType;
 import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+import uk.ac.manchester.tornado.runtime.profiler.ProfilerEventCollector;
 import uk.ac.manchester.tornado.runtime.tasks.meta.TaskMetaData;
 
 public abstract class OCLKernelScheduler {
@@ -52,6 +52,25 @@ public abstract class OCLKernelScheduler {
 
     public abstract void calculateLocalWork(final TaskMetaData meta);
 
+    /**
+     * The local work selected by the compiler is only used if it still divides
+     * the global work (e.g., batch execution changes the number of threads).
+     * GPU schedulers must use it when it applies: kernels that stage tiles in
+     * local memory are compiled for that work-group shape.
+     */
+    protected boolean isCompilerLocalWorkApplicable(final TaskMetaData meta) {
+        long[] compilerLocalWork = meta.getCompilerLocalWork();
+        if (compilerLocalWork == null || compilerLocalWork.length != meta.getDims()) {
+            return false;
+        }
+        for (int i = 0; i < meta.getDims(); i++) {
+            if (meta.getGlobalWork()[i] % compilerLocalWork[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public int submit(final OCLKernel kernel, final TaskMetaData meta, long batchThreads) {
         return submit(kernel, meta, null, batchThreads);
     }
@@ -59,16 +78,7 @@ public abstract class OCLKernelScheduler {
     private void updateProfiler(final int taskEvent, final TaskMetaData meta) {
         if (TornadoOptions.isProfilerEnabled()) {
             Event tornadoKernelEvent = deviceContext.resolveEvent(taskEvent);
-            tornadoKernelEvent.waitForEvents();
-            long timer = meta.getProfiler().getTimer(ProfilerType.TOTAL_KERNEL_TIME);
-            // Register globalTime
-            meta.getProfiler().setTimer(ProfilerType.TOTAL_KERNEL_TIME, timer + tornadoKernelEvent.getElapsedTime());
-            // Register the time for the task
-            meta.getProfiler().setTaskTimer(ProfilerType.TASK_KERNEL_TIME, meta.getId(), tornadoKernelEvent.getElapsedTime());
-            // Register the dispatch time of the kernel
-            long dispatchValue = meta.getProfiler().getTimer(ProfilerType.TOTAL_DISPATCH_KERNEL_TIME);
-            dispatchValue += tornadoKernelEvent.getDriverDispatchTime();
-            meta.getProfiler().setTimer(ProfilerType.TOTAL_DISPATCH_KERNEL_TIME, dispatchValue);
+            ProfilerEventCollector.recordKernel(meta.getProfiler(), tornadoKernelEvent, meta.getId());
         }
     }
 
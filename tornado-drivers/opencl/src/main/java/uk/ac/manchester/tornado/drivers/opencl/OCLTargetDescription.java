@@ -32,6 +32,7 @@ import jdk.vm.ci.code.TargetDescription;
 import jdk.vm.ci.meta.JavaKind;
 import uk.ac.manchester.tornado.drivers.opencl.graal.OCLArchitecture;
 import uk.ac.manchester.tornado.drivers.opencl.graal.lir.OCLKind;
+import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
 
 public class OCLTargetDescription extends TargetDescription {
 
@@ -55,6 +56,7 @@ public class OCLTargetDescription extends TargetDescription {
     private final boolean supportsFP64;
     private final String extensions;
     private final boolean supportsInt64Atomics;
+    private final boolean supportsSubGroupReductions;
 
     public OCLTargetDescription(Architecture arch, boolean supportsFP64, String extensions) {
         this(arch, false, STACK_ALIGNMENT, IMPLICIT_NULL_CHECK_LIMIT, INLINE_OBJECTS, supportsFP64, extensions);
@@ -65,6 +67,7 @@ public class OCLTargetDescription extends TargetDescription {
         this.supportsFP64 = supportsFP64;
         this.extensions = extensions;
         supportsInt64Atomics = extensions.contains("cl_khr_int64_base_atomics");
+        supportsSubGroupReductions = TornadoOptions.OPENCL_SUBGROUP_REDUCTIONS && (extensions.contains("cl_khr_subgroups") || extensions.contains("cl_intel_subgroups"));
     }
     //@formatter:on
 
@@ -98,6 +101,13 @@ public class OCLTargetDescription extends TargetDescription {
         return supportsInt64Atomics;
     }
 
+    /**
+     * @return true if the reductions are lowered with sub-group built-ins.
+     */
+    public boolean supportsSubGroupReductions() {
+        return supportsSubGroupReductions;
+    }
+
     public String getExtensions() {
         return extensions;
     }
@@ -48,12 +48,16 @@ public interface OCLTargetDevice extends TornadoTargetDevice {
 
     String getDeviceVendor();
 
+    String getDriverVersion();
+
     boolean isDeviceAvailable();
 
     String getDeviceOpenCLCVersion();
 
     boolean isLittleEndian();
 
+    boolean hasDeviceUnifiedMemory();
+
     OCLDeviceContextInterface getDeviceContext();
 
     void setDeviceContext(OCLDeviceContextInterface deviceContext);
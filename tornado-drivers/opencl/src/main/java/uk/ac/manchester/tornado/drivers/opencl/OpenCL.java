@@ -27,7 +27,6 @@ import static uk.ac.manchester.tornado.runtime.common.TornadoOptions.VIRTUAL_DEV
 
 import java.nio.ByteOrder;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 
 import uk.ac.manchester.tornado.api.TornadoTargetDevice;
@@ -197,7 +196,7 @@ public class OpenCL {
         callWrapper.reset();
 
         // Fill header of call callWrapper with empty values
-        callWrapper.setKernelContext(new HashMap<>());
+        callWrapper.setKernelContext(new int[0]);
 
         // Pass arguments to the call callWrapper
         for (int i = 0; i < numArgs; i++) {
@@ -45,6 +45,40 @@ public class OpenCLIntrinsics {
 
     public static native int get_group_size(int value);
 
+    /**
+     * Sub-group built-ins. They need the {@code cl_khr_subgroups} or
+     * {@code cl_intel_subgroups} extension.
+     */
+    public static native int get_sub_group_id();
+
+    public static native int get_sub_group_local_id();
+
+    public static native int get_num_sub_groups();
+
+    public static native int sub_group_reduce_add(int value);
+
+    public static native long sub_group_reduce_add(long value);
+
+    public static native float sub_group_reduce_add(float value);
+
+    public static native double sub_group_reduce_add(double value);
+
+    public static native int sub_group_reduce_min(int value);
+
+    public static native long sub_group_reduce_min(long value);
+
+    public static native float sub_group_reduce_min(float value);
+
+    public static native double sub_group_reduce_min(double value);
+
+    public static native int sub_group_reduce_max(int value);
+
+    public static native long sub_group_reduce_max(long value);
+
+    public static native float sub_group_reduce_max(float value);
+
+    public static native double sub_group_reduce_max(double value);
+
     /**
      * <p>
      * <code> 
@@ -132,6 +132,7 @@ public class OCLLoweringProvider extends DefaultJavaLoweringProvider {
     private static boolean gpuSnippet = false;
     private final ConstantReflectionProvider constantReflection;
     private final TornadoVMConfig vmConfig;
+    private final boolean subGroupReductions;
     private ReduceGPUSnippets.Templates gpuReduceSnippets;
     private ReduceCPUSnippets.Templates cpuReduceSnippets;
 
@@ -140,6 +141,7 @@ public class OCLLoweringProvider extends DefaultJavaLoweringProvider {
         super(metaAccess, foreignCalls, platformConfig, metaAccessExtensionProvider, target, false);
         this.vmConfig = vmConfig;
         this.constantReflection = constantReflection;
+        this.subGroupReductions = target.supportsSubGroupReductions();
     }
 
     /**
@@ -161,7 +163,7 @@ public class OCLLoweringProvider extends DefaultJavaLoweringProvider {
 
     private void initializeSnippets(OptionValues options, SnippetCounter.Group.Factory factory, Providers providers) {
         this.cpuReduceSnippets = new ReduceCPUSnippets.Templates(options, providers);
-        this.gpuReduceSnippets = new ReduceGPUSnippets.Templates(options, providers);
+        this.gpuReduceSnippets = new ReduceGPUSnippets.Templates(options, providers, subGroupReductions);
     }
 
     @Override
@@ -78,6 +78,10 @@ public final class OCLAssembler extends Assembler {
             emitLine("#pragma OPENCL EXTENSION cl_khr_int64_base_atomics : enable  ");
         }
 
+        if (((OCLTargetDescription) target).supportsSubGroupReductions() && ((OCLTargetDescription) target).getExtensions().contains("cl_khr_subgroups")) {
+            emitLine("#pragma OPENCL EXTENSION cl_khr_subgroups : enable  ");
+        }
+
         if (EMIT_INTRINSICS) {
             emitAtomicIntrinsics();
         }
@@ -535,7 +539,9 @@ public final class OCLAssembler extends Assembler {
 
     public static class OCLNullaryIntrinsic extends OCLNullaryOp {
         // @formatter:off
-
+        public static final OCLNullaryIntrinsic SUB_GROUP_ID = new OCLNullaryIntrinsic("get_sub_group_id");
+        public static final OCLNullaryIntrinsic SUB_GROUP_LOCAL_ID = new OCLNullaryIntrinsic("get_sub_group_local_id");
+        public static final OCLNullaryIntrinsic NUM_SUB_GROUPS = new OCLNullaryIntrinsic("get_num_sub_groups");
         // @formatter:on
         protected OCLNullaryIntrinsic(String opcode) {
             super(opcode);
@@ -674,6 +680,10 @@ public final class OCLAssembler extends Assembler {
 
         public static final OCLUnaryIntrinsic POPCOUNT = new OCLUnaryIntrinsic("popcount");
 
+        public static final OCLUnaryIntrinsic SUB_GROUP_REDUCE_ADD = new OCLUnaryIntrinsic("sub_group_reduce_add");
+        public static final OCLUnaryIntrinsic SUB_GROUP_REDUCE_MIN = new OCLUnaryIntrinsic("sub_group_reduce_min");
+        public static final OCLUnaryIntrinsic SUB_GROUP_REDUCE_MAX = new OCLUnaryIntrinsic("sub_group_reduce_max");
+
         public static final OCLUnaryIntrinsic FLOAT_ABS = new OCLUnaryIntrinsic("fabs");
         public static final OCLUnaryIntrinsic FLOAT_TRUNC = new OCLUnaryIntrinsic("trunc");
         public static final OCLUnaryIntrinsic FLOAT_FLOOR = new OCLUnaryIntrinsic("floor");
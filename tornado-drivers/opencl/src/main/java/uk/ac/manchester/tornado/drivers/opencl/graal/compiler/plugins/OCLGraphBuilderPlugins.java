@@ -102,6 +102,7 @@ public class OCLGraphBuilderPlugins {
 
         OCLMathPlugins.registerTornadoMathPlugins(plugins);
         VectorPlugins.registerPlugins(ps, plugins);
+        OCLNativeArrayPlugins.registerPlugins(plugins);
 
         // Register TornadoAtomicInteger
         registerTornadoAtomicInteger(ps, plugins);
@@ -0,0 +1,93 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.drivers.opencl.graal.compiler.plugins;
+
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderContext;
+import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugin;
+import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugin.Receiver;
+import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugins;
+import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugins.Registration;
+import org.graalvm.compiler.nodes.java.ArrayLengthNode;
+import org.graalvm.compiler.nodes.java.LoadIndexedNode;
+import org.graalvm.compiler.nodes.java.StoreIndexedNode;
+
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import uk.ac.manchester.tornado.api.data.nativetypes.ByteArray;
+import uk.ac.manchester.tornado.api.data.nativetypes.DoubleArray;
+import uk.ac.manchester.tornado.api.data.nativetypes.FloatArray;
+import uk.ac.manchester.tornado.api.data.nativetypes.IntArray;
+import uk.ac.manchester.tornado.api.data.nativetypes.LongArray;
+import uk.ac.manchester.tornado.api.data.nativetypes.ShortArray;
+import uk.ac.manchester.tornado.api.data.nativetypes.TornadoNativeArray;
+
+/**
+ * Plugins for the off-heap arrays. The device buffer of a native array has the
+ * same layout as the buffer of a Java array of the same kind (see
+ * {@link uk.ac.manchester.tornado.drivers.opencl.mm.OCLNativeArrayWrapper}), so
+ * {@code get}, {@code set} and {@code getSize} are parsed as the indexed
+ * accesses and the length of a Java array, and they follow the same lowering.
+ */
+public class OCLNativeArrayPlugins {
+
+    public static void registerPlugins(InvocationPlugins plugins) {
+        registerNativeArrayPlugins(plugins, ByteArray.class, JavaKind.Byte);
+        registerNativeArrayPlugins(plugins, ShortArray.class, JavaKind.Short);
+        registerNativeArrayPlugins(plugins, IntArray.class, JavaKind.Int);
+        registerNativeArrayPlugins(plugins, LongArray.class, JavaKind.Long);
+        registerNativeArrayPlugins(plugins, FloatArray.class, JavaKind.Float);
+        registerNativeArrayPlugins(plugins, DoubleArray.class, JavaKind.Double);
+
+        // getSize is declared in the base class
+        final Registration r = new Registration(plugins, TornadoNativeArray.class);
+        r.register(new InvocationPlugin("getSize", Receiver.class) {
+            @Override
+            public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver) {
+                b.addPush(JavaKind.Int, new ArrayLengthNode(receiver.get()));
+                return true;
+            }
+        });
+    }
+
+    private static void registerNativeArrayPlugins(InvocationPlugins plugins, Class<?> declaringClass, JavaKind elementKind) {
+        final Registration r = new Registration(plugins, declaringClass);
+
+        r.register(new InvocationPlugin("get", Receiver.class, int.class) {
+            @Override
+            public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver, ValueNode index) {
+                b.addPush(elementKind, new LoadIndexedNode(null, receiver.get(), index, null, elementKind));
+                return true;
+            }
+        });
+
+        r.register(new InvocationPlugin("set", Receiver.class, int.class, elementKind.toJavaClass()) {
+            @Override
+            public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver, ValueNode index, ValueNode value) {
+                b.add(new StoreIndexedNode(receiver.get(), index, null, null, elementKind, value));
+                return true;
+            }
+        });
+    }
+}
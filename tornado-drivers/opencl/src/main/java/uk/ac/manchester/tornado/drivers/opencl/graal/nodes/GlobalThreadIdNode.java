@@ -60,4 +60,8 @@ public class GlobalThreadIdNode extends FloatingNode implements LIRLowerable, Ma
         tool.append(new AssignStmt(result, new OCLUnary.Intrinsic(OCLUnaryIntrinsic.GLOBAL_ID, tool.getLIRKind(stamp), gen.operand(index))));
         gen.setResult(this, result);
     }
+
+    public ConstantNode getIndex() {
+        return index;
+    }
 }
@@ -60,4 +60,7 @@ public class GlobalThreadSizeNode extends FloatingNode implements LIRLowerable {
         gen.setResult(this, result);
     }
 
+    public ConstantNode getIndex() {
+        return index;
+    }
 }
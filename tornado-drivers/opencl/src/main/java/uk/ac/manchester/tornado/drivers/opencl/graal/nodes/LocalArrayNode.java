@@ -56,6 +56,7 @@ public class LocalArrayNode extends FixedNode implements LIRLowerable, MarkLocal
     private OCLKind kind;
     protected OCLArchitecture.OCLMemoryBase memoryRegister;
     protected OCLAssembler.OCLBinaryTemplate arrayTemplate;
+    private boolean fixedLength;
 
     public LocalArrayNode(OCLArchitecture.OCLMemoryBase memoryRegister, ResolvedJavaType elementType, ConstantNode length) {
         super(TYPE, StampFactory.objectNonNull(TypeReference.createTrustedWithoutAssumptions(elementType.getArrayClass())));
@@ -81,6 +82,15 @@ public class LocalArrayNode extends FixedNode implements LIRLowerable, MarkLocal
         return length;
     }
 
+    public void setFixedLength() {
+        this.fixedLength = true;
+    }
+
+    @Override
+    public boolean isFixedLength() {
+        return fixedLength;
+    }
+
     @Override
     public void generate(NodeLIRBuilderTool gen) {
         final Value lengthValue = gen.operand(length);
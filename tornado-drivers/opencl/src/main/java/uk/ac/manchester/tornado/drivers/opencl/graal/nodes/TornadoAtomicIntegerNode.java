@@ -23,6 +23,7 @@ package uk.ac.manchester.tornado.drivers.opencl.graal.nodes;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.graalvm.compiler.core.common.type.StampFactory;
 import org.graalvm.compiler.graph.NodeClass;
@@ -53,11 +54,11 @@ public class TornadoAtomicIntegerNode extends FixedWithNextNode implements LIRLo
     private boolean ATOMIC_2_0 = false;
 
     // How many atomics integers per graph
-    public static HashMap<ResolvedJavaMethod, ArrayList<Integer>> globalAtomics = new HashMap<>();
+    public static ConcurrentHashMap<ResolvedJavaMethod, ArrayList<Integer>> globalAtomics = new ConcurrentHashMap<>();
 
     // Mapping between:
     // Java Method: -> { ParamIndex -> Position in the Atomic Buffer }
-    public static HashMap<ResolvedJavaMethod, HashMap<Integer, Integer>> globalAtomicsParameters = new HashMap<>();
+    public static ConcurrentHashMap<ResolvedJavaMethod, HashMap<Integer, Integer>> globalAtomicsParameters = new ConcurrentHashMap<>();
 
     private static final int DEFAULT_VALUE = -1;
 
@@ -0,0 +1,313 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.drivers.opencl.graal.phases;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.FixedNode;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.Invoke;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.ParameterNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.calc.AddNode;
+import org.graalvm.compiler.nodes.java.AccessIndexedNode;
+import org.graalvm.compiler.nodes.java.LoadIndexedNode;
+import org.graalvm.compiler.nodes.java.StoreIndexedNode;
+import org.graalvm.compiler.nodes.memory.MemoryKill;
+import org.graalvm.compiler.phases.BasePhase;
+
+import jdk.vm.ci.meta.JavaKind;
+import uk.ac.manchester.tornado.drivers.opencl.graal.OCLStamp;
+import uk.ac.manchester.tornado.drivers.opencl.graal.lir.OCLKind;
+import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.vector.LoadIndexedVectorNode;
+import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.vector.VectorLoadElementNode;
+import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.vector.VectorValueNode;
+import uk.ac.manchester.tornado.runtime.common.Tornado;
+import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+import uk.ac.manchester.tornado.runtime.graal.phases.TornadoHighTierContext;
+
+/**
+ * It groups scalar accesses to contiguous elements of the same global array
+ * (e.g., {@code a[i]}, {@code a[i + 1]}, {@code a[i + 2]}, {@code a[i + 3]}
+ * from a manually unrolled loop or a loop with stride 4) into a single vector
+ * access. Loads are replaced by a {@link LoadIndexedVectorNode} and a lane
+ * extraction per scalar; stores are replaced by a single store of a
+ * {@link VectorValueNode}. Both are lowered to {@code vloadN} and
+ * {@code vstoreN}.
+ *
+ * A group is only formed when all its accesses belong to the same basic block
+ * and no other memory access that could alias them is placed in between. Array
+ * parameters are considered to alias when they are bound to the same object. It
+ * must run after loops are fully unrolled and before the high-tier lowering.
+ */
+public class TornadoAutoVectorisation extends BasePhase<TornadoHighTierContext> {
+
+    private static final int[] VECTOR_WIDTHS = { 8, 4, 2 };
+
+    private static class ArrayIndex {
+        private final ValueNode array;
+        private final ValueNode base;
+
+        ArrayIndex(ValueNode array, ValueNode base) {
+            this.array = array;
+            this.base = base;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ArrayIndex)) {
+                return false;
+            }
+            ArrayIndex other = (ArrayIndex) obj;
+            return array == other.array && base == other.base;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(array), System.identityHashCode(base));
+        }
+    }
+
+    private boolean shouldRun(TornadoHighTierContext context) {
+        return TornadoOptions.AUTO_VECTORISATION && (!context.hasMeta() || context.getMeta().enableVectors());
+    }
+
+    private static OCLKind getVectorKind(JavaKind elementKind, int width) {
+        OCLKind scalarKind;
+        switch (elementKind) {
+            case Int:
+                scalarKind = OCLKind.INT;
+                break;
+            case Float:
+                scalarKind = OCLKind.FLOAT;
+                break;
+            case Double:
+                scalarKind = OCLKind.DOUBLE;
+                break;
+            default:
+                return OCLKind.ILLEGAL;
+        }
+        for (OCLKind kind : OCLKind.values()) {
+            if (kind.isVector() && kind.getElementKind() == scalarKind && kind.getVectorLength() == width) {
+                return kind;
+            }
+        }
+        return OCLKind.ILLEGAL;
+    }
+
+    /**
+     * @return The constant offset of the index with respect to its base (the
+     *         index without the constant term).
+     */
+    private static int getOffset(ValueNode index) {
+        if (index instanceof AddNode && ((AddNode) index).getY() instanceof ConstantNode) {
+            return ((ConstantNode) ((AddNode) index).getY()).asJavaConstant().asInt();
+        }
+        return 0;
+    }
+
+    private static ValueNode getBase(ValueNode index) {
+        if (index instanceof AddNode && ((AddNode) index).getY() instanceof ConstantNode) {
+            return ((AddNode) index).getX();
+        }
+        return index;
+    }
+
+    private static boolean isCandidate(AccessIndexedNode access) {
+        if (!(access.array() instanceof ParameterNode) || getVectorKind(access.elementKind(), 2) == OCLKind.ILLEGAL) {
+            return false;
+        }
+        if (access instanceof LoadIndexedNode) {
+            return access.getClass() == LoadIndexedNode.class;
+        }
+        ValueNode value = ((StoreIndexedNode) access).value();
+        return access.getClass() == StoreIndexedNode.class && !(value.stamp(NodeView.DEFAULT) instanceof OCLStamp && ((OCLStamp) value.stamp(NodeView.DEFAULT)).getOCLKind().isVector());
+    }
+
+    /**
+     * Two arrays may alias unless they are different parameters bound to
+     * different objects in this compilation.
+     */
+    private static boolean mayAlias(ValueNode array, ValueNode other, Object[] args) {
+        if (array == other) {
+            return true;
+        }
+        if (args == null || !(array instanceof ParameterNode) || !(other instanceof ParameterNode)) {
+            return true;
+        }
+        return args[((ParameterNode) array).index()] == args[((ParameterNode) other).index()];
+    }
+
+    /**
+     * Loads can be reordered with other loads, but not with writes to an array
+     * they may alias. Stores cannot be reordered with any access to an array
+     * they may alias.
+     */
+    private static boolean isBarrier(Node node, ValueNode array, boolean isLoad, Object[] args) {
+        if (node instanceof AccessIndexedNode) {
+            if (isLoad && node instanceof LoadIndexedNode) {
+                return false;
+            }
+            return mayAlias(array, ((AccessIndexedNode) node).array(), args);
+        }
+        return node instanceof Invoke || node instanceof MemoryKill;
+    }
+
+    /**
+     * It walks the basic block forward from {@code first} and returns the
+     * accesses of the group in program order, or null if any of them cannot be
+     * reached without crossing a barrier.
+     */
+    private static List<AccessIndexedNode> getProgramOrder(AccessIndexedNode first, Set<AccessIndexedNode> group, boolean isLoad, Object[] args) {
+        List<AccessIndexedNode> order = new ArrayList<>();
+        order.add(first);
+        FixedNode node = first.next();
+        while (order.size() < group.size() && node instanceof FixedWithNextNode) {
+            if (group.contains(node)) {
+                order.add((AccessIndexedNode) node);
+            } else if (isBarrier(node, first.array(), isLoad, args)) {
+                return null;
+            }
+            node = ((FixedWithNextNode) node).next();
+        }
+        return order.size() == group.size() ? order : null;
+    }
+
+    private static List<AccessIndexedNode> getProgramOrder(Set<AccessIndexedNode> group, boolean isLoad, Object[] args) {
+        for (AccessIndexedNode first : group) {
+            List<AccessIndexedNode> order = getProgramOrder(first, group, isLoad, args);
+            if (order != null) {
+                return order;
+            }
+        }
+        return null;
+    }
+
+    private static void vectoriseLoads(StructuredGraph graph, OCLKind vectorKind, List<AccessIndexedNode> lanes, List<AccessIndexedNode> order) {
+        LoadIndexedNode first = (LoadIndexedNode) order.get(0);
+        LoadIndexedNode laneZero = (LoadIndexedNode) lanes.get(0);
+        LoadIndexedVectorNode vectorLoad = graph.add(new LoadIndexedVectorNode(vectorKind, laneZero.array(), laneZero.index(), laneZero.elementKind()));
+        graph.addBeforeFixed(first, vectorLoad);
+        for (int lane = 0; lane < lanes.size(); lane++) {
+            LoadIndexedNode load = (LoadIndexedNode) lanes.get(lane);
+            VectorLoadElementNode element = graph.addOrUnique(new VectorLoadElementNode(vectorKind.getElementKind(), vectorLoad, ConstantNode.forInt(lane, graph)));
+            load.replaceAtUsages(element);
+            graph.removeFixed(load);
+        }
+    }
+
+    private static void vectoriseStores(StructuredGraph graph, OCLKind vectorKind, List<AccessIndexedNode> lanes, List<AccessIndexedNode> order) {
+        StoreIndexedNode last = (StoreIndexedNode) order.get(order.size() - 1);
+        StoreIndexedNode laneZero = (StoreIndexedNode) lanes.get(0);
+        VectorValueNode vector = new VectorValueNode(vectorKind);
+        for (int lane = 0; lane < lanes.size(); lane++) {
+            vector.setElement(lane, ((StoreIndexedNode) lanes.get(lane)).value());
+        }
+        vector = graph.addOrUnique(vector);
+        StoreIndexedNode vectorStore = graph.add(new StoreIndexedNode(laneZero.array(), laneZero.index(), null, null, laneZero.elementKind(), vector));
+        vectorStore.setStateAfter(last.stateAfter());
+        graph.addAfterFixed(last, vectorStore);
+        for (AccessIndexedNode store : lanes) {
+            graph.removeFixed((StoreIndexedNode) store);
+        }
+    }
+
+    private static int vectoriseGroup(StructuredGraph graph, TreeMap<Integer, AccessIndexedNode> accesses, boolean isLoad, Object[] args) {
+        int groups = 0;
+        Set<Integer> consumed = new HashSet<>();
+        for (int offset : accesses.keySet()) {
+            if (consumed.contains(offset)) {
+                continue;
+            }
+            for (int width : VECTOR_WIDTHS) {
+                List<AccessIndexedNode> lanes = new ArrayList<>();
+                for (int lane = 0; lane < width && accesses.containsKey(offset + lane) && !consumed.contains(offset + lane); lane++) {
+                    lanes.add(accesses.get(offset + lane));
+                }
+                if (lanes.size() != width) {
+                    continue;
+                }
+                List<AccessIndexedNode> order = getProgramOrder(new HashSet<>(lanes), isLoad, args);
+                if (order == null) {
+                    continue;
+                }
+                OCLKind vectorKind = getVectorKind(lanes.get(0).elementKind(), width);
+                if (isLoad) {
+                    vectoriseLoads(graph, vectorKind, lanes, order);
+                } else {
+                    vectoriseStores(graph, vectorKind, lanes, order);
+                }
+                for (int lane = 0; lane < width; lane++) {
+                    consumed.add(offset + lane);
+                }
+                groups++;
+                break;
+            }
+        }
+        return groups;
+    }
+
+    private static int vectoriseAccesses(StructuredGraph graph, Iterable<? extends AccessIndexedNode> nodes, boolean isLoad, Object[] args) {
+        Map<ArrayIndex, TreeMap<Integer, AccessIndexedNode>> candidates = new HashMap<>();
+        for (AccessIndexedNode access : nodes) {
+            if (isCandidate(access)) {
+                ArrayIndex key = new ArrayIndex(access.array(), getBase(access.index()));
+                candidates.computeIfAbsent(key, k -> new TreeMap<>()).putIfAbsent(getOffset(access.index()), access);
+            }
+        }
+
+        int groups = 0;
+        for (TreeMap<Integer, AccessIndexedNode> accesses : candidates.values()) {
+            if (accesses.size() >= 2) {
+                groups += vectoriseGroup(graph, accesses, isLoad, args);
+            }
+        }
+        return groups;
+    }
+
+    @Override
+    protected void run(StructuredGraph graph, TornadoHighTierContext context) {
+        if (!shouldRun(context)) {
+            return;
+        }
+
+        Object[] args = context.hasArgs() ? context.getArgs() : null;
+        int loads = vectoriseAccesses(graph, graph.getNodes().filter(LoadIndexedNode.class).snapshot(), true, args);
+        int stores = vectoriseAccesses(graph, graph.getNodes().filter(StoreIndexedNode.class).snapshot(), false, args);
+        if (loads > 0 || stores > 0) {
+            Tornado.debug("vectorised %d load groups and %d store groups\n", loads, stores);
+        }
+    }
+}
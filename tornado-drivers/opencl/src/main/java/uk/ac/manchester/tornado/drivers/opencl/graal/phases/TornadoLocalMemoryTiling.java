@@ -0,0 +1,605 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.drivers.opencl.graal.phases;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.graalvm.compiler.core.common.cfg.Loop;
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.nodes.AbstractBeginNode;
+import org.graalvm.compiler.nodes.AbstractMergeNode;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.ControlSplitNode;
+import org.graalvm.compiler.nodes.FixedNode;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.IfNode;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.LoopExitNode;
+import org.graalvm.compiler.nodes.ParameterNode;
+import org.graalvm.compiler.nodes.StartNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValuePhiNode;
+import org.graalvm.compiler.nodes.calc.AddNode;
+import org.graalvm.compiler.nodes.calc.BinaryNode;
+import org.graalvm.compiler.nodes.calc.LeftShiftNode;
+import org.graalvm.compiler.nodes.calc.MulNode;
+import org.graalvm.compiler.nodes.calc.NegateNode;
+import org.graalvm.compiler.nodes.calc.SubNode;
+import org.graalvm.compiler.nodes.cfg.Block;
+import org.graalvm.compiler.nodes.cfg.ControlFlowGraph;
+import org.graalvm.compiler.nodes.java.LoadIndexedNode;
+import org.graalvm.compiler.nodes.java.StoreIndexedNode;
+import org.graalvm.compiler.phases.BasePhase;
+
+import jdk.vm.ci.meta.JavaKind;
+import uk.ac.manchester.tornado.api.data.nativetypes.TornadoNativeArray;
+import uk.ac.manchester.tornado.api.enums.TornadoDeviceType;
+import uk.ac.manchester.tornado.drivers.opencl.graal.OCLArchitecture;
+import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.GlobalThreadIdNode;
+import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.GlobalThreadSizeNode;
+import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.LocalArrayNode;
+import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.LocalThreadIdNode;
+import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.OCLBarrierNode;
+import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.OCLIntBinaryIntrinsicNode;
+import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.calc.DivNode;
+import uk.ac.manchester.tornado.runtime.common.Tornado;
+import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+import uk.ac.manchester.tornado.runtime.graal.phases.TornadoHighTierContext;
+import uk.ac.manchester.tornado.runtime.graal.phases.TornadoLocalWorkAnalysis;
+import uk.ac.manchester.tornado.runtime.tasks.meta.TaskMetaData;
+
+/**
+ * It stages the tiles of the arrays read by 2D and 3D stencils into local
+ * memory. An array is staged when all its reads in the innermost parallel loop
+ * have the form {@code a[W * i + j + c]}, where {@code i} and {@code j} are the
+ * induction variables of the first two parallel dimensions, {@code W} is a
+ * constant row stride and each {@code c} decomposes into a row and a column
+ * offset within the halo ({@code c = di * W + dj}, with {@code |di|} and
+ * {@code |dj|} up to {@link #MAX_HALO}).
+ *
+ * <p>
+ * Each work-group of {@code T x T} threads copies the {@code (T + 2h)^2}
+ * elements of its tile (with a halo of {@code h} elements) cooperatively at the
+ * start of the loop body, waits on a local barrier, and then reads all the
+ * elements from local memory. The copy is branch-free: indexes outside the
+ * array are clamped, and no thread reads the elements they map to.
+ * </p>
+ *
+ * <p>
+ * The kernel needs a work-group of exactly {@code T x T} threads in which each
+ * thread runs one iteration of the loop nest, so the phase only runs when the
+ * local work is selected by the compiler, it divides the iteration space and
+ * no batch or grid is used. Arrays that are written in the kernel, or bound to
+ * the same object as another parameter, are not staged. Reuse that comes from
+ * sequential loops (e.g., the operands of a GEMM) is not staged: it needs the
+ * strip-mining of those loops. It must run after loops are fully unrolled and
+ * before the high-tier lowering.
+ * </p>
+ */
+public class TornadoLocalMemoryTiling extends BasePhase<TornadoHighTierContext> {
+
+    public static final int MAX_HALO = 2;
+
+    private static final int TILE_DIMS = 2;
+
+    /**
+     * Affine form of an index: a coefficient per parallel dimension plus a
+     * constant term.
+     */
+    private static class AffineIndex {
+        private final long[] coefficients;
+        private long constant;
+
+        AffineIndex(int dims) {
+            this.coefficients = new long[dims];
+        }
+
+        private AffineIndex add(AffineIndex other, long scale) {
+            for (int i = 0; i < coefficients.length; i++) {
+                coefficients[i] += scale * other.coefficients[i];
+            }
+            constant += scale * other.constant;
+            return this;
+        }
+
+        private AffineIndex scale(long factor) {
+            for (int i = 0; i < coefficients.length; i++) {
+                coefficients[i] *= factor;
+            }
+            constant *= factor;
+            return this;
+        }
+    }
+
+    /**
+     * Reads of an array that can be staged, with the row and column offset of
+     * each read in the tile.
+     */
+    private static class TileCandidate {
+        private final ParameterNode array;
+        private final JavaKind elementKind;
+        private final List<LoadIndexedNode> loads = new ArrayList<>();
+        private final List<int[]> offsets = new ArrayList<>();
+        private long[] coefficients;
+        private int rowDim;
+        private int columnDim;
+        private int halo;
+
+        TileCandidate(ParameterNode array, JavaKind elementKind) {
+            this.array = array;
+            this.elementKind = elementKind;
+        }
+
+        private long rowStride() {
+            return coefficients[rowDim];
+        }
+    }
+
+    private boolean shouldRun(TornadoHighTierContext context) {
+        if (!TornadoOptions.LOCAL_MEMORY_TILING || !context.hasMeta() || !context.hasArgs() || context.getBatchThreads() > 0) {
+            return false;
+        }
+        TaskMetaData meta = context.getMeta();
+        boolean gpuScheduler = Tornado.FORCE_ALL_TO_GPU || context.getDeviceMapping().getDeviceType() == TornadoDeviceType.GPU;
+        return gpuScheduler && meta.hasDomain() && meta.getDims() >= TILE_DIMS && meta.enableParallelization() && !meta.enableThreadCoarsener() && !meta.isLocalWorkDefined()
+                && !meta.isGlobalWorkDefined() && !meta.isWorkerGridAvailable() && !meta.shouldUseOpenCLDriverScheduling();
+    }
+
+    private static boolean isSupportedKind(JavaKind kind) {
+        return kind == JavaKind.Int || kind == JavaKind.Long || kind == JavaKind.Float || kind == JavaKind.Double;
+    }
+
+    private static int getDimension(ConstantNode index) {
+        return index.asJavaConstant().asInt();
+    }
+
+    /**
+     * Induction variables of the parallel loops once they are scheduled: they
+     * start at the global thread id plus a constant offset and are incremented
+     * by the global size of their dimension.
+     */
+    private static Map<ValuePhiNode, Integer> getParallelInductionVariables(StructuredGraph graph) {
+        Map<ValuePhiNode, Integer> parallelPhis = new HashMap<>();
+        for (GlobalThreadSizeNode globalSize : graph.getNodes().filter(GlobalThreadSizeNode.class)) {
+            int dim = getDimension(globalSize.getIndex());
+            for (Node usage : globalSize.usages()) {
+                if (!(usage instanceof AddNode)) {
+                    continue;
+                }
+                AddNode increment = (AddNode) usage;
+                ValueNode other = (increment.getX() == globalSize) ? increment.getY() : increment.getX();
+                if (other instanceof ValuePhiNode) {
+                    ValuePhiNode phi = (ValuePhiNode) other;
+                    if (phi.merge() instanceof LoopBeginNode && phi.valueCount() == 2 && phi.valueAt(1) == increment && isThreadIdPlusOffset(phi.valueAt(0), dim)) {
+                        parallelPhis.put(phi, dim);
+                    }
+                }
+            }
+        }
+        return parallelPhis;
+    }
+
+    private static boolean isThreadId(ValueNode node, int dim) {
+        return node instanceof GlobalThreadIdNode && getDimension(((GlobalThreadIdNode) node).getIndex()) == dim;
+    }
+
+    private static boolean isThreadIdPlusOffset(ValueNode init, int dim) {
+        if (isThreadId(init, dim)) {
+            return true;
+        }
+        if (init instanceof AddNode) {
+            AddNode add = (AddNode) init;
+            return (isThreadId(add.getX(), dim) && add.getY() instanceof ConstantNode) || (isThreadId(add.getY(), dim) && add.getX() instanceof ConstantNode);
+        }
+        return false;
+    }
+
+    /**
+     * @return The affine form of the index in the parallel induction variables, or
+     *         null if it depends on any other value.
+     */
+    private static AffineIndex getAffineIndex(ValueNode node, Map<ValuePhiNode, Integer> parallelPhis, int dims) {
+        if (node instanceof ConstantNode) {
+            ConstantNode constant = (ConstantNode) node;
+            if (constant.getStackKind() != JavaKind.Int) {
+                return null;
+            }
+            AffineIndex index = new AffineIndex(dims);
+            index.constant = constant.asJavaConstant().asInt();
+            return index;
+        } else if (node instanceof ValuePhiNode && parallelPhis.containsKey(node)) {
+            AffineIndex index = new AffineIndex(dims);
+            index.coefficients[parallelPhis.get(node)] = 1;
+            return index;
+        } else if (node instanceof AddNode || node instanceof SubNode) {
+            AffineIndex x = getAffineIndex(((BinaryNode) node).getX(), parallelPhis, dims);
+            AffineIndex y = getAffineIndex(((BinaryNode) node).getY(), parallelPhis, dims);
+            return (x == null || y == null) ? null : x.add(y, (node instanceof AddNode) ? 1 : -1);
+        } else if (node instanceof MulNode) {
+            MulNode mul = (MulNode) node;
+            if (mul.getY() instanceof ConstantNode) {
+                AffineIndex x = getAffineIndex(mul.getX(), parallelPhis, dims);
+                return (x == null) ? null : x.scale(((ConstantNode) mul.getY()).asJavaConstant().asInt());
+            } else if (mul.getX() instanceof ConstantNode) {
+                AffineIndex y = getAffineIndex(mul.getY(), parallelPhis, dims);
+                return (y == null) ? null : y.scale(((ConstantNode) mul.getX()).asJavaConstant().asInt());
+            }
+        } else if (node instanceof LeftShiftNode && ((LeftShiftNode) node).getY() instanceof ConstantNode) {
+            LeftShiftNode shift = (LeftShiftNode) node;
+            AffineIndex x = getAffineIndex(shift.getX(), parallelPhis, dims);
+            return (x == null) ? null : x.scale(1L << (((ConstantNode) shift.getY()).asJavaConstant().asInt() & 0x1F));
+        } else if (node instanceof NegateNode) {
+            AffineIndex x = getAffineIndex(((NegateNode) node).getValue(), parallelPhis, dims);
+            return (x == null) ? null : x.scale(-1);
+        }
+        return null;
+    }
+
+    /**
+     * It checks that the reads of the candidate have the same coefficients, with a
+     * unit stride in one tiled dimension and a row stride in the other, and it
+     * decomposes their constant terms into row and column offsets.
+     */
+    private static boolean analyseOffsets(TileCandidate candidate, List<AffineIndex> indexes) {
+        long[] coefficients = indexes.get(0).coefficients;
+        for (AffineIndex index : indexes) {
+            for (int i = 0; i < coefficients.length; i++) {
+                if (index.coefficients[i] != coefficients[i]) {
+                    return false;
+                }
+            }
+        }
+        candidate.coefficients = coefficients;
+        if (coefficients[0] == 1) {
+            candidate.columnDim = 0;
+            candidate.rowDim = 1;
+        } else if (coefficients[1] == 1) {
+            candidate.columnDim = 1;
+            candidate.rowDim = 0;
+        } else {
+            return false;
+        }
+        long rowStride = candidate.rowStride();
+        if (rowStride <= 2 * MAX_HALO) {
+            return false;
+        }
+
+        Set<Long> constants = new HashSet<>();
+        int halo = 0;
+        for (AffineIndex index : indexes) {
+            long rowOffset = Math.floorDiv(index.constant + rowStride / 2, rowStride);
+            long columnOffset = index.constant - rowOffset * rowStride;
+            if (Math.abs(rowOffset) > MAX_HALO || Math.abs(columnOffset) > MAX_HALO) {
+                return false;
+            }
+            constants.add(index.constant);
+            halo = (int) Math.max(halo, Math.max(Math.abs(rowOffset), Math.abs(columnOffset)));
+            candidate.offsets.add(new int[] { (int) rowOffset, (int) columnOffset });
+        }
+        candidate.halo = halo;
+        // Several threads must read the same element
+        return constants.size() >= 2 && halo > 0;
+    }
+
+    private static boolean isInsideLoop(Block block, LoopBeginNode loopBegin) {
+        for (Loop<Block> loop = block.getLoop(); loop != null; loop = loop.getParent()) {
+            if (loop.getHeader().getBeginNode() == loopBegin) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The begin node of the body of a loop: the successor of the loop
+     *         condition that stays in the loop.
+     */
+    private static AbstractBeginNode getLoopBody(LoopBeginNode loopBegin) {
+        FixedNode node = loopBegin.next();
+        while (node instanceof FixedWithNextNode) {
+            node = ((FixedWithNextNode) node).next();
+        }
+        if (!(node instanceof IfNode)) {
+            return null;
+        }
+        IfNode condition = (IfNode) node;
+        if (condition.falseSuccessor() instanceof LoopExitNode && ((LoopExitNode) condition.falseSuccessor()).loopBegin() == loopBegin) {
+            return condition.trueSuccessor();
+        } else if (condition.trueSuccessor() instanceof LoopExitNode && ((LoopExitNode) condition.trueSuccessor()).loopBegin() == loopBegin) {
+            return condition.falseSuccessor();
+        }
+        return null;
+    }
+
+    /**
+     * All threads of a work-group must reach the barrier. It walks back from the
+     * innermost parallel loop to the start of the kernel and checks that the only
+     * branches taken are the conditions of the parallel loops, which every thread
+     * enters once.
+     */
+    private static boolean isReachedByAllThreads(LoopBeginNode innermost, Set<LoopBeginNode> parallelLoops) {
+        FixedNode node = innermost.forwardEnd();
+        while (!(node instanceof StartNode)) {
+            if (node instanceof LoopBeginNode) {
+                node = ((LoopBeginNode) node).forwardEnd();
+            } else if (node instanceof AbstractMergeNode) {
+                node = ((AbstractMergeNode) node).forwardEndAt(0);
+            } else if (node instanceof LoopExitNode) {
+                node = ((LoopExitNode) node).loopBegin();
+            } else if (node instanceof AbstractBeginNode && node.predecessor() instanceof ControlSplitNode) {
+                Node split = node.predecessor();
+                if (!(split instanceof IfNode)) {
+                    return false;
+                }
+                IfNode condition = (IfNode) split;
+                AbstractBeginNode other = (condition.trueSuccessor() == node) ? condition.falseSuccessor() : condition.trueSuccessor();
+                if (!(other instanceof LoopExitNode) || !parallelLoops.contains(((LoopExitNode) other).loopBegin())) {
+                    return false;
+                }
+                node = condition;
+            } else if (node.predecessor() instanceof FixedNode) {
+                node = (FixedNode) node.predecessor();
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int getLength(Object array) {
+        return (array instanceof TornadoNativeArray) ? ((TornadoNativeArray) array).getSize() : Array.getLength(array);
+    }
+
+    private static boolean isStageableArray(ParameterNode array, Object[] args) {
+        Object value = args[array.index()];
+        if (value == null || !(value instanceof TornadoNativeArray || (value.getClass().isArray() && value.getClass().getComponentType().isPrimitive()))) {
+            return false;
+        }
+        for (ParameterNode other : array.graph().getNodes(ParameterNode.TYPE)) {
+            if (other != array && args[other.index()] == value) {
+                return false;
+            }
+        }
+        for (Node usage : array.usages()) {
+            if (usage.getClass() != LoadIndexedNode.class) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * It collects the arrays whose reads can be served from a tile. All the reads
+     * must be in the innermost parallel loop, below its condition.
+     */
+    private static List<TileCandidate> getCandidates(StructuredGraph graph, TornadoHighTierContext context, Map<ValuePhiNode, Integer> parallelPhis, ControlFlowGraph cfg, LoopBeginNode innermost) {
+        int dims = context.getMeta().getDims();
+        Block header = cfg.blockFor(innermost);
+        Map<ParameterNode, TileCandidate> candidates = new LinkedHashMap<>();
+        Map<ParameterNode, List<AffineIndex>> indexes = new HashMap<>();
+        Set<ParameterNode> rejected = new HashSet<>();
+        for (LoadIndexedNode load : graph.getNodes().filter(LoadIndexedNode.class)) {
+            if (!(load.array() instanceof ParameterNode)) {
+                continue;
+            }
+            ParameterNode array = (ParameterNode) load.array();
+            if (rejected.contains(array)) {
+                continue;
+            }
+            Block block = cfg.blockFor(load);
+            AffineIndex index = getAffineIndex(load.index(), parallelPhis, dims);
+            if (index == null || !isSupportedKind(load.elementKind()) || block == header || !isInsideLoop(block, innermost) || !isStageableArray(array, context.getArgs())) {
+                rejected.add(array);
+                candidates.remove(array);
+                continue;
+            }
+            candidates.computeIfAbsent(array, a -> new TileCandidate(a, load.elementKind())).loads.add(load);
+            indexes.computeIfAbsent(array, a -> new ArrayList<>()).add(index);
+        }
+
+        List<TileCandidate> result = new ArrayList<>();
+        for (TileCandidate candidate : candidates.values()) {
+            if (candidate.loads.size() >= 2 && analyseOffsets(candidate, indexes.get(candidate.array))) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    private static int getTileSide(TaskMetaData meta, TornadoHighTierContext context) {
+        long[] localWork = meta.getCompilerLocalWork();
+        if (localWork == null) {
+            return TornadoLocalWorkAnalysis.selectWorkGroupSide(meta, context.getDeviceMapping().getPhysicalDevice());
+        }
+        if (localWork.length != meta.getDims() || localWork[0] != localWork[1]) {
+            return 0;
+        }
+        for (int i = TILE_DIMS; i < localWork.length; i++) {
+            if (localWork[i] != 1) {
+                return 0;
+            }
+        }
+        int side = (int) localWork[0];
+        for (int i = 0; i < TILE_DIMS; i++) {
+            if (meta.getDomain().get(i).cardinality() % side != 0) {
+                return 0;
+            }
+        }
+        return side;
+    }
+
+    private static ValueNode add(StructuredGraph graph, ValueNode x, ValueNode y) {
+        return graph.addOrUnique(new AddNode(x, y));
+    }
+
+    private static ValueNode add(StructuredGraph graph, ValueNode x, long y) {
+        return (y == 0) ? x : add(graph, x, ConstantNode.forInt((int) y, graph));
+    }
+
+    private static ValueNode mul(StructuredGraph graph, ValueNode x, long y) {
+        return (y == 1) ? x : graph.addOrUnique(new MulNode(x, ConstantNode.forInt((int) y, graph)));
+    }
+
+    /**
+     * It copies the tile of the candidate into local memory after {@code last}
+     * and replaces the reads of the candidate with reads of the tile.
+     *
+     * @return The last node of the copy.
+     */
+    private static FixedWithNextNode stageTile(StructuredGraph graph, TornadoHighTierContext context, TileCandidate candidate, Map<ValuePhiNode, Integer> parallelPhis, LoopBeginNode innermost,
+            int side, FixedWithNextNode last) {
+        final int halo = candidate.halo;
+        final int tileSide = side + 2 * halo;
+        final int rounds = (tileSide * tileSide + side * side - 1) / (side * side);
+        final long rowStride = candidate.rowStride();
+
+        LocalArrayNode tile = graph.addWithoutUnique(new LocalArrayNode(OCLArchitecture.localSpace, candidate.elementKind, ConstantNode.forInt(rounds * side * side, graph)));
+        tile.setFixedLength();
+
+        ValueNode rowId = graph.addOrUnique(new LocalThreadIdNode(ConstantNode.forInt(candidate.rowDim, graph)));
+        ValueNode columnId = graph.addOrUnique(new LocalThreadIdNode(ConstantNode.forInt(candidate.columnDim, graph)));
+
+        // Index of the first element of the tile (including the halo) for this
+        // work-group: the index of the read without offsets by the first thread
+        ValueNode base = null;
+        for (Map.Entry<ValuePhiNode, Integer> entry : parallelPhis.entrySet()) {
+            long coefficient = candidate.coefficients[entry.getValue()];
+            if (coefficient != 0) {
+                ValueNode term = mul(graph, entry.getKey(), coefficient);
+                base = (base == null) ? term : add(graph, base, term);
+            }
+        }
+        base = graph.addOrUnique(new SubNode(base, add(graph, mul(graph, rowId, rowStride), columnId)));
+        base = add(graph, base, -(halo * rowStride + halo));
+
+        ValueNode threadIndex = add(graph, mul(graph, rowId, side), columnId);
+        ConstantNode lastElement = ConstantNode.forInt(getLength(context.getArg(candidate.array.index())) - 1, graph);
+        ConstantNode zero = ConstantNode.forInt(0, graph);
+        ConstantNode tileSideNode = ConstantNode.forInt(tileSide, graph);
+        for (int round = 0; round < rounds; round++) {
+            ValueNode slot = add(graph, threadIndex, (long) round * side * side);
+            ValueNode row = graph.addOrUnique(DivNode.create(slot, tileSideNode));
+            ValueNode column = graph.addOrUnique(new SubNode(slot, mul(graph, row, tileSide)));
+            ValueNode element = add(graph, base, add(graph, mul(graph, row, rowStride), column));
+            ValueNode lowerBound = graph.addOrUnique(OCLIntBinaryIntrinsicNode.create(element, zero, OCLIntBinaryIntrinsicNode.Operation.MAX, JavaKind.Int));
+            ValueNode clamped = graph.addOrUnique(OCLIntBinaryIntrinsicNode.create(lowerBound, lastElement, OCLIntBinaryIntrinsicNode.Operation.MIN, JavaKind.Int));
+
+            LoadIndexedNode load = graph.add(new LoadIndexedNode(null, candidate.array, clamped, null, candidate.elementKind));
+            graph.addAfterFixed(last, load);
+            StoreIndexedNode store = graph.add(new StoreIndexedNode(tile, slot, null, null, candidate.elementKind, load));
+            store.setStateAfter(innermost.stateAfter());
+            graph.addAfterFixed(load, store);
+            last = store;
+        }
+
+        ValueNode localIndex = add(graph, mul(graph, rowId, tileSide), columnId);
+        for (int i = 0; i < candidate.loads.size(); i++) {
+            int[] offset = candidate.offsets.get(i);
+            ValueNode index = add(graph, localIndex, (long) (offset[0] + halo) * tileSide + offset[1] + halo);
+            LoadIndexedNode localLoad = graph.add(new LoadIndexedNode(null, tile, index, null, candidate.elementKind));
+            graph.replaceFixedWithFixed(candidate.loads.get(i), localLoad);
+        }
+        return last;
+    }
+
+    @Override
+    protected void run(StructuredGraph graph, TornadoHighTierContext context) {
+        if (!shouldRun(context)) {
+            return;
+        }
+
+        TaskMetaData meta = context.getMeta();
+        Map<ValuePhiNode, Integer> parallelPhis = getParallelInductionVariables(graph);
+        if (parallelPhis.size() != meta.getDims()) {
+            return;
+        }
+
+        // The parallel loops must be perfectly nested, with no sequential loop
+        // around them
+        ControlFlowGraph cfg = ControlFlowGraph.compute(graph, true, true, false, false);
+        Set<LoopBeginNode> parallelLoops = new HashSet<>();
+        LoopBeginNode innermost = null;
+        for (ValuePhiNode phi : parallelPhis.keySet()) {
+            LoopBeginNode loopBegin = (LoopBeginNode) phi.merge();
+            parallelLoops.add(loopBegin);
+            if (innermost == null || cfg.blockFor(loopBegin).getLoopDepth() > cfg.blockFor(innermost).getLoopDepth()) {
+                innermost = loopBegin;
+            }
+        }
+        if (parallelLoops.size() != meta.getDims() || cfg.blockFor(innermost).getLoopDepth() != meta.getDims() || !isReachedByAllThreads(innermost, parallelLoops)) {
+            return;
+        }
+        AbstractBeginNode body = getLoopBody(innermost);
+        if (body == null) {
+            return;
+        }
+
+        List<TileCandidate> candidates = getCandidates(graph, context, parallelPhis, cfg, innermost);
+        int side = candidates.isEmpty() ? 0 : getTileSide(meta, context);
+        if (side == 0) {
+            return;
+        }
+
+        long localMemory = context.getDeviceMapping().getPhysicalDevice().getDeviceLocalMemorySize();
+        FixedWithNextNode last = body;
+        int staged = 0;
+        for (TileCandidate candidate : candidates) {
+            int tileSide = side + 2 * candidate.halo;
+            int rounds = (tileSide * tileSide + side * side - 1) / (side * side);
+            long bytes = (long) rounds * side * side * candidate.elementKind.getByteCount();
+            if (bytes > localMemory) {
+                continue;
+            }
+            localMemory -= bytes;
+            last = stageTile(graph, context, candidate, parallelPhis, innermost, side, last);
+            staged++;
+        }
+        if (staged == 0) {
+            return;
+        }
+
+        // The tiles are only read after the barrier, and never written again
+        OCLBarrierNode barrier = graph.add(new OCLBarrierNode(OCLBarrierNode.OCLMemFenceFlags.LOCAL));
+        graph.addAfterFixed(last, barrier);
+
+        if (meta.getCompilerLocalWork() == null) {
+            long[] localWork = new long[meta.getDims()];
+            localWork[0] = side;
+            localWork[1] = side;
+            for (int i = TILE_DIMS; i < localWork.length; i++) {
+                localWork[i] = 1;
+            }
+            meta.setCompilerLocalWork(localWork);
+        }
+        Tornado.debug("staged %d tiles of %dx%d in local memory for task %s\n", staged, side, side, meta.getId());
+    }
+}
@@ -44,6 +44,8 @@ import jdk.vm.ci.meta.PrimitiveConstant;
 import jdk.vm.ci.meta.ResolvedJavaType;
 import uk.ac.manchester.tornado.drivers.opencl.graal.OCLArchitecture;
 import uk.ac.manchester.tornado.drivers.opencl.graal.OCLLoweringProvider;
+import uk.ac.manchester.tornado.drivers.opencl.graal.asm.OCLAssembler.OCLNullaryIntrinsic;
+import uk.ac.manchester.tornado.drivers.opencl.graal.asm.OCLAssembler.OCLUnaryIntrinsic;
 import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.FixedArrayNode;
 import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.GlobalThreadIdNode;
 import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.GlobalThreadSizeNode;
@@ -53,6 +55,8 @@ import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.LocalGroupSizeNode;
 import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.LocalThreadIDFixedNode;
 import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.OCLBarrierNode;
 import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.OpenCLPrintf;
+import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.SubGroupIdNode;
+import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.SubGroupReduceNode;
 import uk.ac.manchester.tornado.runtime.graal.phases.TornadoHighTierContext;
 
 public class TornadoOpenCLIntrinsicsReplacements extends BasePhase<TornadoHighTierContext> {
@@ -121,6 +125,24 @@ public class TornadoOpenCLIntrinsicsReplacements extends BasePhase<TornadoHighTi
                     graph.replaceFixed(invoke, groupIdNode);
                     break;
                 }
+                case "Direct#OpenCLIntrinsics.get_sub_group_id":
+                    replaceSubGroupId(graph, invoke, OCLNullaryIntrinsic.SUB_GROUP_ID);
+                    break;
+                case "Direct#OpenCLIntrinsics.get_sub_group_local_id":
+                    replaceSubGroupId(graph, invoke, OCLNullaryIntrinsic.SUB_GROUP_LOCAL_ID);
+                    break;
+                case "Direct#OpenCLIntrinsics.get_num_sub_groups":
+                    replaceSubGroupId(graph, invoke, OCLNullaryIntrinsic.NUM_SUB_GROUPS);
+                    break;
+                case "Direct#OpenCLIntrinsics.sub_group_reduce_add":
+                    replaceSubGroupReduce(graph, invoke, OCLUnaryIntrinsic.SUB_GROUP_REDUCE_ADD);
+                    break;
+                case "Direct#OpenCLIntrinsics.sub_group_reduce_min":
+                    replaceSubGroupReduce(graph, invoke, OCLUnaryIntrinsic.SUB_GROUP_REDUCE_MIN);
+                    break;
+                case "Direct#OpenCLIntrinsics.sub_group_reduce_max":
+                    replaceSubGroupReduce(graph, invoke, OCLUnaryIntrinsic.SUB_GROUP_REDUCE_MAX);
+                    break;
                 case "Direct#OpenCLIntrinsics.printEmpty":
                     OpenCLPrintf printfNode = graph.addOrUnique(new OpenCLPrintf("\"\""));
                     graph.replaceFixed(invoke, printfNode);
@@ -129,6 +151,17 @@ public class TornadoOpenCLIntrinsicsReplacements extends BasePhase<TornadoHighTi
         }
     }
 
+    private void replaceSubGroupId(StructuredGraph graph, InvokeNode invoke, OCLNullaryIntrinsic intrinsic) {
+        SubGroupIdNode subGroupIdNode = graph.add(new SubGroupIdNode(intrinsic));
+        graph.replaceFixed(invoke, subGroupIdNode);
+    }
+
+    private void replaceSubGroupReduce(StructuredGraph graph, InvokeNode invoke, OCLUnaryIntrinsic intrinsic) {
+        ValueNode value = invoke.callTarget().arguments().get(0);
+        SubGroupReduceNode subGroupReduceNode = graph.add(new SubGroupReduceNode(intrinsic, value));
+        graph.replaceFixed(invoke, subGroupReduceNode);
+    }
+
     private void lowerLocalInvokeNodeNewArray(StructuredGraph graph, int length, JavaKind elementKind, InvokeNode newArray) {
         LocalArrayNode localArrayNode;
         ConstantNode newLengthNode = ConstantNode.forInt(length, graph);
@@ -26,6 +26,8 @@
 package uk.ac.manchester.tornado.drivers.opencl.graal.snippets;
 
 import org.graalvm.compiler.api.replacements.Snippet;
+import org.graalvm.compiler.api.replacements.Snippet.ConstantParameter;
+import org.graalvm.compiler.nodes.ConstantNode;
 import org.graalvm.compiler.nodes.GraphState;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.ValueNode;
@@ -802,6 +804,170 @@ public class ReduceGPUSnippets implements Snippets {
         }
     }
 
+    /*
+     * Sub-group reductions: each sub-group reduces its values with a single
+     * built-in, and the first work-item of the work-group combines the partial
+     * result of each sub-group after one barrier. There is one template per
+     * element type, specialised by the reduce operation and by whether the value
+     * comes from the input array or from the carrier value.
+     *
+     * Only the reduction within a work-group changes. As with the local-memory
+     * tree, each work-group writes its partial result to outputArray[groupID + 1],
+     * and the partial results of all work-groups are combined on the host.
+     */
+
+    private static final int SUB_GROUP_ADD = 0;
+    private static final int SUB_GROUP_MAX = 1;
+    private static final int SUB_GROUP_MIN = 2;
+
+    @Snippet
+    public static void partialReduceIntSubGroup(int[] inputArray, int[] outputArray, int gidx, int value, @ConstantParameter int operation, @ConstantParameter boolean carrierValue) {
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int groupID = OpenCLIntrinsics.get_group_id(0);
+
+        int input = carrierValue ? value : inputArray[gidx];
+        int subGroupResult;
+        if (operation == SUB_GROUP_ADD) {
+            subGroupResult = OpenCLIntrinsics.sub_group_reduce_add(input);
+        } else if (operation == SUB_GROUP_MAX) {
+            subGroupResult = OpenCLIntrinsics.sub_group_reduce_max(input);
+        } else {
+            subGroupResult = OpenCLIntrinsics.sub_group_reduce_min(input);
+        }
+        if (OpenCLIntrinsics.get_sub_group_local_id() == 0) {
+            localArray[OpenCLIntrinsics.get_sub_group_id()] = subGroupResult;
+        }
+
+        OpenCLIntrinsics.localBarrier();
+        if (localIdx == 0) {
+            int result = localArray[0];
+            int numSubGroups = OpenCLIntrinsics.get_num_sub_groups();
+            for (int i = 1; i < numSubGroups; i++) {
+                if (operation == SUB_GROUP_ADD) {
+                    result += localArray[i];
+                } else if (operation == SUB_GROUP_MAX) {
+                    result = TornadoMath.max(result, localArray[i]);
+                } else {
+                    result = TornadoMath.min(result, localArray[i]);
+                }
+            }
+            outputArray[groupID + 1] = result;
+        }
+    }
+
+    @Snippet
+    public static void partialReduceLongSubGroup(long[] inputArray, long[] outputArray, int gidx, long value, @ConstantParameter int operation, @ConstantParameter boolean carrierValue) {
+        long[] localArray = (long[]) NewArrayNode.newUninitializedArray(long.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int groupID = OpenCLIntrinsics.get_group_id(0);
+
+        long input = carrierValue ? value : inputArray[gidx];
+        long subGroupResult;
+        if (operation == SUB_GROUP_ADD) {
+            subGroupResult = OpenCLIntrinsics.sub_group_reduce_add(input);
+        } else if (operation == SUB_GROUP_MAX) {
+            subGroupResult = OpenCLIntrinsics.sub_group_reduce_max(input);
+        } else {
+            subGroupResult = OpenCLIntrinsics.sub_group_reduce_min(input);
+        }
+        if (OpenCLIntrinsics.get_sub_group_local_id() == 0) {
+            localArray[OpenCLIntrinsics.get_sub_group_id()] = subGroupResult;
+        }
+
+        OpenCLIntrinsics.localBarrier();
+        if (localIdx == 0) {
+            long result = localArray[0];
+            int numSubGroups = OpenCLIntrinsics.get_num_sub_groups();
+            for (int i = 1; i < numSubGroups; i++) {
+                if (operation == SUB_GROUP_ADD) {
+                    result += localArray[i];
+                } else if (operation == SUB_GROUP_MAX) {
+                    result = TornadoMath.max(result, localArray[i]);
+                } else {
+                    result = TornadoMath.min(result, localArray[i]);
+                }
+            }
+            outputArray[groupID + 1] = result;
+        }
+    }
+
+    @Snippet
+    public static void partialReduceFloatSubGroup(float[] inputArray, float[] outputArray, int gidx, float value, @ConstantParameter int operation, @ConstantParameter boolean carrierValue) {
+        float[] localArray = (float[]) NewArrayNode.newUninitializedArray(float.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int groupID = OpenCLIntrinsics.get_group_id(0);
+
+        float input = carrierValue ? value : inputArray[gidx];
+        float subGroupResult;
+        if (operation == SUB_GROUP_ADD) {
+            subGroupResult = OpenCLIntrinsics.sub_group_reduce_add(input);
+        } else if (operation == SUB_GROUP_MAX) {
+            subGroupResult = OpenCLIntrinsics.sub_group_reduce_max(input);
+        } else {
+            subGroupResult = OpenCLIntrinsics.sub_group_reduce_min(input);
+        }
+        if (OpenCLIntrinsics.get_sub_group_local_id() == 0) {
+            localArray[OpenCLIntrinsics.get_sub_group_id()] = subGroupResult;
+        }
+
+        OpenCLIntrinsics.localBarrier();
+        if (localIdx == 0) {
+            float result = localArray[0];
+            int numSubGroups = OpenCLIntrinsics.get_num_sub_groups();
+            for (int i = 1; i < numSubGroups; i++) {
+                if (operation == SUB_GROUP_ADD) {
+                    result += localArray[i];
+                } else if (operation == SUB_GROUP_MAX) {
+                    result = TornadoMath.max(result, localArray[i]);
+                } else {
+                    result = TornadoMath.min(result, localArray[i]);
+                }
+            }
+            outputArray[groupID + 1] = result;
+        }
+    }
+
+    @Snippet
+    public static void partialReduceDoubleSubGroup(double[] inputArray, double[] outputArray, int gidx, double value, @ConstantParameter int operation, @ConstantParameter boolean carrierValue) {
+        double[] localArray = (double[]) NewArrayNode.newUninitializedArray(double.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int groupID = OpenCLIntrinsics.get_group_id(0);
+
+        double input = carrierValue ? value : inputArray[gidx];
+        double subGroupResult;
+        if (operation == SUB_GROUP_ADD) {
+            subGroupResult = OpenCLIntrinsics.sub_group_reduce_add(input);
+        } else if (operation == SUB_GROUP_MAX) {
+            subGroupResult = OpenCLIntrinsics.sub_group_reduce_max(input);
+        } else {
+            subGroupResult = OpenCLIntrinsics.sub_group_reduce_min(input);
+        }
+        if (OpenCLIntrinsics.get_sub_group_local_id() == 0) {
+            localArray[OpenCLIntrinsics.get_sub_group_id()] = subGroupResult;
+        }
+
+        OpenCLIntrinsics.localBarrier();
+        if (localIdx == 0) {
+            double result = localArray[0];
+            int numSubGroups = OpenCLIntrinsics.get_num_sub_groups();
+            for (int i = 1; i < numSubGroups; i++) {
+                if (operation == SUB_GROUP_ADD) {
+                    result += localArray[i];
+                } else if (operation == SUB_GROUP_MAX) {
+                    result = TornadoMath.max(result, localArray[i]);
+                } else {
+                    result = TornadoMath.min(result, localArray[i]);
+                }
+            }
+            outputArray[groupID + 1] = result;
+        }
+    }
+
     public static class Templates extends AbstractTemplates implements TornadoSnippetTypeInference {
 
         // Add
@@ -844,8 +1010,26 @@ public class ReduceGPUSnippets implements Snippets {
         private final SnippetInfo partialReduceMinDoubleSnippet = snippet(ReduceGPUSnippets.class, "partialReduceDoubleMin");
         private final SnippetInfo partialReduceMinDoubleSnippetCarrierValue = snippet(ReduceGPUSnippets.class, "partialReduceDoubleMinCarrierValue");
 
+        // Sub-group reductions
+        private final SnippetInfo partialReduceIntSubGroupSnippet = snippet(ReduceGPUSnippets.class, "partialReduceIntSubGroup");
+        private final SnippetInfo partialReduceLongSubGroupSnippet = snippet(ReduceGPUSnippets.class, "partialReduceLongSubGroup");
+        private final SnippetInfo partialReduceFloatSubGroupSnippet = snippet(ReduceGPUSnippets.class, "partialReduceFloatSubGroup");
+        private final SnippetInfo partialReduceDoubleSubGroupSnippet = snippet(ReduceGPUSnippets.class, "partialReduceDoubleSubGroup");
+
+        private final boolean useSubGroups;
+
         public Templates(OptionValues options, Providers providers) {
+            this(options, providers, false);
+        }
+
+        /**
+         * @param useSubGroups
+         *            It selects the sub-group variant of the add, max and min
+         *            reductions.
+         */
+        public Templates(OptionValues options, Providers providers, boolean useSubGroups) {
             super(options, providers);
+            this.useSubGroups = useSubGroups;
         }
 
         private SnippetInfo getSnippetFromOCLBinaryNodeInteger(OCLIntBinaryIntrinsicNode value, ValueNode extra) {
@@ -970,6 +1154,73 @@ public class ReduceGPUSnippets implements Snippets {
             return snippet;
         }
 
+        private SnippetInfo getSubGroupSnippet(JavaKind elementKind) {
+            switch (elementKind) {
+                case Int:
+                    return partialReduceIntSubGroupSnippet;
+                case Long:
+                    return partialReduceLongSubGroupSnippet;
+                case Float:
+                    return partialReduceFloatSubGroupSnippet;
+                case Double:
+                    return partialReduceDoubleSubGroupSnippet;
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * @return the sub-group operation of the reduction, or -1 if it has no
+         *         sub-group built-in.
+         */
+        private static int getSubGroupOperation(ValueNode value) {
+            if (value instanceof TornadoReduceAddNode) {
+                return SUB_GROUP_ADD;
+            } else if (value instanceof OCLIntBinaryIntrinsicNode) {
+                switch (((OCLIntBinaryIntrinsicNode) value).operation()) {
+                    case MAX:
+                        return SUB_GROUP_MAX;
+                    case MIN:
+                        return SUB_GROUP_MIN;
+                    default:
+                        return -1;
+                }
+            } else if (value instanceof OCLFPBinaryIntrinsicNode) {
+                switch (((OCLFPBinaryIntrinsicNode) value).operation()) {
+                    case FMAX:
+                        return SUB_GROUP_MAX;
+                    case FMIN:
+                        return SUB_GROUP_MIN;
+                    default:
+                        return -1;
+                }
+            }
+            return -1;
+        }
+
+        private boolean lowerSubGroup(StoreAtomicIndexedNode storeAtomicIndexed, ValueNode globalId, LoweringTool tool) {
+            JavaKind elementKind = storeAtomicIndexed.elementKind();
+            ValueNode extra = storeAtomicIndexed.getExtraOperation();
+            SnippetInfo snippet = getSubGroupSnippet(elementKind);
+            int operation = getSubGroupOperation(storeAtomicIndexed.value());
+            if (snippet == null || operation == -1) {
+                return false;
+            }
+
+            Arguments args = new Arguments(snippet, GraphState.GuardsStage.AFTER_FSA, tool.getLoweringStage());
+            args.add("inputArray", storeAtomicIndexed.getInputArray());
+            args.add("outputArray", storeAtomicIndexed.array());
+            args.add("gidx", globalId);
+            // The value is not read by the template when there is no carrier value
+            args.add("value", (extra != null) ? extra : ConstantNode.defaultForKind(elementKind, storeAtomicIndexed.graph()));
+            args.addConst("operation", operation);
+            args.addConst("carrierValue", extra != null);
+
+            SnippetTemplate template = template(storeAtomicIndexed, args);
+            template.instantiate(providers.getMetaAccess(), storeAtomicIndexed, SnippetTemplate.DEFAULT_REPLACER, args);
+            return true;
+        }
+
         public void lower(StoreAtomicIndexedNode storeAtomicIndexed, ValueNode globalId, GlobalThreadSizeNode globalSize, LoweringTool tool) {
 
             StructuredGraph graph = storeAtomicIndexed.graph();
@@ -977,6 +1228,10 @@ public class ReduceGPUSnippets implements Snippets {
             ValueNode value = storeAtomicIndexed.value();
             ValueNode extra = storeAtomicIndexed.getExtraOperation();
 
+            if (useSubGroups && lowerSubGroup(storeAtomicIndexed, globalId, tool)) {
+                return;
+            }
+
             SnippetInfo snippet = getSnippetInstance(elementKind, value, extra);
 
             // Sets the guard stage to AFTER_FSA because we want to avoid any frame state
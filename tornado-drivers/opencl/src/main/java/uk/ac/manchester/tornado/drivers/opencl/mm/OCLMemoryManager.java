@@ -81,6 +81,10 @@ public class OCLMemoryManager extends TornadoLogger implements TornadoMemoryProv
         return deviceContext.getPlatformContext().createBuffer(flags, size);
     }
 
+    public long createSubBuffer(long bufferId, long offset, long size) {
+        return deviceContext.getPlatformContext().createSubBuffer(bufferId, offset, size);
+    }
+
     public void releaseBuffer(long bufferId) {
         deviceContext.getPlatformContext().releaseBuffer(bufferId);
     }
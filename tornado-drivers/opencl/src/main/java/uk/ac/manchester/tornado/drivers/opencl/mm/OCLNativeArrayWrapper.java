@@ -0,0 +1,256 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.drivers.opencl.mm;
+
+import static uk.ac.manchester.tornado.runtime.TornadoCoreRuntime.getVMConfig;
+import static uk.ac.manchester.tornado.runtime.common.RuntimeUtilities.humanReadableByteCount;
+import static uk.ac.manchester.tornado.runtime.common.Tornado.info;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.vm.ci.meta.JavaKind;
+import uk.ac.manchester.tornado.api.data.nativetypes.ByteArray;
+import uk.ac.manchester.tornado.api.data.nativetypes.DoubleArray;
+import uk.ac.manchester.tornado.api.data.nativetypes.FloatArray;
+import uk.ac.manchester.tornado.api.data.nativetypes.IntArray;
+import uk.ac.manchester.tornado.api.data.nativetypes.LongArray;
+import uk.ac.manchester.tornado.api.data.nativetypes.ShortArray;
+import uk.ac.manchester.tornado.api.data.nativetypes.TornadoNativeArray;
+import uk.ac.manchester.tornado.api.exceptions.TornadoInternalError;
+import uk.ac.manchester.tornado.api.exceptions.TornadoMemoryException;
+import uk.ac.manchester.tornado.api.memory.ObjectBuffer;
+import uk.ac.manchester.tornado.drivers.opencl.OCLContext.OCLBufferResult;
+import uk.ac.manchester.tornado.drivers.opencl.OCLDeviceContext;
+import uk.ac.manchester.tornado.drivers.opencl.enums.OCLMemFlags;
+import uk.ac.manchester.tornado.runtime.common.Tornado;
+import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+
+/**
+ * Device buffer for a {@link TornadoNativeArray}. The device buffer has the same
+ * layout as the buffer of a Java array of the same kind. The host memory is
+ * off-heap, so transfers are not blocking. If the header of the native array
+ * matches the header expected by the device, the header and the elements are
+ * copied with a single transfer.
+ *
+ * <p>
+ * On devices that share the host memory, the device buffer is created over the
+ * native memory with {@code CL_MEM_USE_HOST_PTR}. The transfers are still
+ * enqueued, with the host pointer of the buffer as source and destination, so
+ * the runtime keeps the same event dependencies, but the driver does not copy
+ * the data.
+ * </p>
+ */
+public class OCLNativeArrayWrapper implements ObjectBuffer {
+
+    private static final int INIT_VALUE = -1;
+
+    private final OCLDeviceContext deviceContext;
+    private final JavaKind kind;
+    private final int arrayHeaderSize;
+    private final int arrayLengthOffset;
+    private final boolean sameHeaderLayout;
+    private final boolean zeroCopy;
+
+    private long bufferId;
+    private long bufferOffset;
+    private long bufferSize;
+    private long setSubRegionSize;
+    private boolean hostMapped;
+
+    public OCLNativeArrayWrapper(final OCLDeviceContext deviceContext, final TornadoNativeArray array) {
+        this.deviceContext = deviceContext;
+        this.kind = getJavaKind(array);
+        this.bufferId = INIT_VALUE;
+        this.bufferOffset = 0;
+        this.arrayLengthOffset = getVMConfig().arrayOopDescLengthOffset();
+        this.arrayHeaderSize = getVMConfig().getArrayBaseOffset(kind);
+        this.sameHeaderLayout = arrayHeaderSize == TornadoNativeArray.ARRAY_HEADER && arrayLengthOffset == TornadoNativeArray.ARRAY_LENGTH_OFFSET;
+        this.bufferSize = sizeOf(array);
+        this.zeroCopy = TornadoOptions.OPENCL_ZERO_COPY && sameHeaderLayout && deviceContext.getDevice().hasDeviceUnifiedMemory();
+    }
+
+    private static JavaKind getJavaKind(TornadoNativeArray array) {
+        if (array instanceof FloatArray) {
+            return JavaKind.Float;
+        } else if (array instanceof IntArray) {
+            return JavaKind.Int;
+        } else if (array instanceof DoubleArray) {
+            return JavaKind.Double;
+        } else if (array instanceof LongArray) {
+            return JavaKind.Long;
+        } else if (array instanceof ShortArray) {
+            return JavaKind.Short;
+        } else if (array instanceof ByteArray) {
+            return JavaKind.Byte;
+        }
+        throw TornadoInternalError.shouldNotReachHere("Unsupported native array: " + array.getClass().getName());
+    }
+
+    private long sizeOf(TornadoNativeArray array) {
+        return arrayHeaderSize + array.getNumBytesWithoutHeader();
+    }
+
+    private static TornadoNativeArray cast(Object value) {
+        TornadoInternalError.guarantee(value instanceof TornadoNativeArray, "Expecting a TornadoNativeArray type");
+        return (TornadoNativeArray) value;
+    }
+
+    @Override
+    public void allocate(Object value, long batchSize) {
+        bufferSize = (batchSize <= 0) ? sizeOf(cast(value)) : arrayHeaderSize + batchSize;
+        if (bufferSize <= 0) {
+            throw new TornadoMemoryException("[ERROR] Bytes Allocated <= 0: " + bufferSize);
+        }
+        if (zeroCopy && batchSize <= 0) {
+            OCLBufferResult result = deviceContext.getPlatformContext().createBuffer(OCLMemFlags.CL_MEM_READ_WRITE, cast(value).getSegment());
+            if (result == null) {
+                throw new TornadoMemoryException("[ERROR] Unable to map the native array into the device memory");
+            }
+            this.bufferId = result.getBuffer();
+            this.hostMapped = true;
+        } else {
+            this.bufferId = deviceContext.getBufferProvider().getBufferWithSize(bufferSize);
+        }
+
+        if (Tornado.FULL_DEBUG) {
+            info("allocated: native array kind=%s, size=%s, header size=%d, host mapped=%b", kind.getJavaName(), humanReadableByteCount(bufferSize, true), arrayHeaderSize, hostMapped);
+        }
+    }
+
+    @Override
+    public void deallocate() {
+        TornadoInternalError.guarantee(bufferId != INIT_VALUE, "Fatal error: trying to deallocate an invalid buffer");
+        if (hostMapped) {
+            deviceContext.getPlatformContext().releaseBuffer(bufferId);
+            hostMapped = false;
+        } else {
+            deviceContext.getBufferProvider().markBufferReleased(bufferId);
+        }
+        bufferId = INIT_VALUE;
+        bufferSize = INIT_VALUE;
+    }
+
+    private OCLByteBuffer buildArrayHeader(final int arraySize) {
+        final OCLByteBuffer header = new OCLByteBuffer(deviceContext, bufferId, bufferOffset, arrayHeaderSize);
+        header.buffer.clear();
+        int index = 0;
+        while (index < arrayLengthOffset) {
+            header.buffer.put((byte) 0);
+            index++;
+        }
+        header.buffer.putInt(arraySize);
+        return header;
+    }
+
+    @Override
+    public List<Integer> enqueueWrite(final Object value, long batchSize, long hostOffset, final int[] events, boolean useDeps) {
+        final TornadoNativeArray array = cast(value);
+        final int[] waitEvents = useDeps ? events : null;
+        ArrayList<Integer> listEvents = new ArrayList<>();
+        if (sameHeaderLayout && batchSize <= 0) {
+            listEvents.add(deviceContext.enqueueWriteBuffer(bufferId, bufferOffset, bufferSize, array.getSegment(), 0, waitEvents));
+        } else {
+            // A batch copies its own elements, up to the end of the host array
+            final long numBytes = (batchSize <= 0) ? bufferSize - arrayHeaderSize : Math.min(batchSize, array.getNumBytesWithoutHeader() - hostOffset);
+            final int numElements = (int) (numBytes / array.getElementSize());
+            listEvents.add(buildArrayHeader(numElements).enqueueWrite(waitEvents));
+            listEvents.add(deviceContext.enqueueWriteBuffer(bufferId, bufferOffset + arrayHeaderSize, numBytes, array.getSegment(), TornadoNativeArray.ARRAY_HEADER + hostOffset, waitEvents));
+        }
+        return useDeps ? listEvents : null;
+    }
+
+    @Override
+    public void write(final Object value) {
+        final TornadoNativeArray array = cast(value);
+        if (sameHeaderLayout) {
+            deviceContext.writeBuffer(bufferId, bufferOffset, bufferSize, array.getSegment(), 0, null);
+        } else {
+            buildArrayHeader(array.getSize()).write();
+            deviceContext.writeBuffer(bufferId, bufferOffset + arrayHeaderSize, bufferSize - arrayHeaderSize, array.getSegment(), TornadoNativeArray.ARRAY_HEADER, null);
+        }
+    }
+
+    @Override
+    public int enqueueRead(final Object value, long hostOffset, final int[] events, boolean useDeps) {
+        final TornadoNativeArray array = cast(value);
+        final int returnEvent = deviceContext.enqueueReadBuffer(bufferId, bufferOffset + arrayHeaderSize, numBytesToRead(array, hostOffset), array.getSegment(), TornadoNativeArray.ARRAY_HEADER + hostOffset,
+                useDeps ? events : null);
+        return useDeps ? returnEvent : -1;
+    }
+
+    @Override
+    public void read(final Object value) {
+        read(value, 0, null, false);
+    }
+
+    @Override
+    public int read(final Object value, long hostOffset, int[] events, boolean useDeps) {
+        final TornadoNativeArray array = cast(value);
+        return deviceContext.readBuffer(bufferId, bufferOffset + arrayHeaderSize, numBytesToRead(array, hostOffset), array.getSegment(), TornadoNativeArray.ARRAY_HEADER + hostOffset, useDeps ? events : null);
+    }
+
+    private long numBytesToRead(TornadoNativeArray array, long hostOffset) {
+        final long numBytes = getSizeSubRegion() > 0 ? getSizeSubRegion() : bufferSize - arrayHeaderSize;
+        return Math.min(numBytes, array.getNumBytesWithoutHeader() - hostOffset);
+    }
+
+    @Override
+    public long toBuffer() {
+        return bufferId;
+    }
+
+    @Override
+    public void setBuffer(ObjectBufferWrapper bufferWrapper) {
+        this.bufferId = bufferWrapper.buffer;
+        this.bufferOffset = bufferWrapper.bufferOffset;
+
+        bufferWrapper.bufferOffset += size();
+    }
+
+    @Override
+    public long getBufferOffset() {
+        return bufferOffset;
+    }
+
+    @Override
+    public long size() {
+        return bufferSize;
+    }
+
+    @Override
+    public void setSizeSubRegion(long batchSize) {
+        this.setSubRegionSize = batchSize;
+    }
+
+    @Override
+    public long getSizeSubRegion() {
+        return setSubRegionSize;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("native buffer<%s> %s", kind.getJavaName(), humanReadableByteCount(bufferSize, true));
+    }
+}
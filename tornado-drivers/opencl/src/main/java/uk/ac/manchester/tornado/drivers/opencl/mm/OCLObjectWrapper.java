@@ -152,7 +152,7 @@ public class OCLObjectWrapper implements ObjectBuffer {
 
     @Override
     public void deallocate() throws TornadoMemoryException {
-        deviceContext.getBufferProvider().markBufferReleased(this.bufferId, size());
+        deviceContext.getBufferProvider().markBufferReleased(this.bufferId);
         bufferId = -1;
     }
 
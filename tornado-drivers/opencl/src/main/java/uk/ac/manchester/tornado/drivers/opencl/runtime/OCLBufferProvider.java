@@ -24,6 +24,7 @@
 package uk.ac.manchester.tornado.drivers.opencl.runtime;
 
 import uk.ac.manchester.tornado.drivers.common.TornadoBufferProvider;
+import uk.ac.manchester.tornado.drivers.opencl.OCLDevice;
 import uk.ac.manchester.tornado.drivers.opencl.OCLDeviceContext;
 import uk.ac.manchester.tornado.drivers.opencl.enums.OCLMemFlags;
 
@@ -43,4 +44,24 @@ public class OCLBufferProvider extends TornadoBufferProvider {
         ((OCLDeviceContext) deviceContext).getMemoryManager().releaseBuffer(buffer);
     }
 
+    @Override
+    protected long getSubBufferAlignment() {
+        // The origin of a sub-buffer must be aligned to CL_DEVICE_MEM_BASE_ADDR_ALIGN (in bits)
+        if (((OCLDeviceContext) deviceContext).getDevice() instanceof OCLDevice) {
+            OCLDevice device = (OCLDevice) ((OCLDeviceContext) deviceContext).getDevice();
+            return Math.max(super.getSubBufferAlignment(), device.getDeviceMemoryBaseAlignment() / Byte.SIZE);
+        }
+        return super.getSubBufferAlignment();
+    }
+
+    @Override
+    protected long createSubBuffer(long buffer, long offset, long size) {
+        return ((OCLDeviceContext) deviceContext).getMemoryManager().createSubBuffer(buffer, offset, size);
+    }
+
+    @Override
+    protected void releaseSubBuffer(long subBuffer) {
+        ((OCLDeviceContext) deviceContext).getMemoryManager().releaseBuffer(subBuffer);
+    }
+
 }
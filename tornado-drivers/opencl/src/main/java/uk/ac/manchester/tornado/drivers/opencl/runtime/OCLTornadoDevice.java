@@ -41,6 +41,7 @@ import jdk.vm.ci.meta.ResolvedJavaMethod;
 import uk.ac.manchester.tornado.api.common.Access;
 import uk.ac.manchester.tornado.api.common.Event;
 import uk.ac.manchester.tornado.api.common.SchedulableTask;
+import uk.ac.manchester.tornado.api.data.nativetypes.TornadoNativeArray;
 import uk.ac.manchester.tornado.api.enums.TornadoDeviceType;
 import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
 import uk.ac.manchester.tornado.api.exceptions.TornadoBailoutRuntimeException;
@@ -77,8 +78,12 @@ import uk.ac.manchester.tornado.drivers.opencl.mm.OCLLongArrayWrapper;
 import uk.ac.manchester.tornado.drivers.opencl.mm.OCLMultiDimArrayWrapper;
 import uk.ac.manchester.tornado.drivers.opencl.mm.OCLObjectWrapper;
 import uk.ac.manchester.tornado.drivers.opencl.mm.OCLShortArrayWrapper;
+import uk.ac.manchester.tornado.drivers.opencl.mm.OCLNativeArrayWrapper;
 import uk.ac.manchester.tornado.drivers.opencl.mm.OCLVectorWrapper;
 import uk.ac.manchester.tornado.runtime.TornadoCoreRuntime;
+import uk.ac.manchester.tornado.runtime.cache.KernelCacheEntry;
+import uk.ac.manchester.tornado.runtime.cache.KernelCacheKey;
+import uk.ac.manchester.tornado.runtime.cache.PersistentKernelCache;
 import uk.ac.manchester.tornado.runtime.common.DeviceObjectState;
 import uk.ac.manchester.tornado.runtime.common.KernelArgs;
 import uk.ac.manchester.tornado.runtime.common.RuntimeUtilities;
@@ -87,6 +92,7 @@ import uk.ac.manchester.tornado.runtime.common.TornadoAcceleratorDevice;
 import uk.ac.manchester.tornado.runtime.common.TornadoInstalledCode;
 import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
 import uk.ac.manchester.tornado.runtime.common.TornadoSchedulingStrategy;
+import uk.ac.manchester.tornado.runtime.profiler.jfr.TaskCompilationEvent;
 import uk.ac.manchester.tornado.runtime.sketcher.Sketch;
 import uk.ac.manchester.tornado.runtime.sketcher.TornadoSketcher;
 import uk.ac.manchester.tornado.runtime.tasks.CompilableTask;
@@ -242,6 +248,9 @@ public class OCLTornadoDevice implements TornadoAcceleratorDevice {
         final Access[] taskAccess = taskMeta.getArgumentsAccess();
         System.arraycopy(sketchAccess, 0, taskAccess, 0, sketchAccess.length);
 
+        final TaskCompilationEvent compilationEvent = new TaskCompilationEvent(taskMeta.getId(), taskMeta.getLogicDevice().getPhysicalDevice().getDeviceName(),
+                taskMeta.getLogicDevice().getTornadoVMBackend().name());
+        compilationEvent.begin();
         try {
             OCLProviders providers = (OCLProviders) getBackend().getProviders();
             TornadoProfiler profiler = task.getProfiler();
@@ -249,6 +258,27 @@ public class OCLTornadoDevice implements TornadoAcceleratorDevice {
             profiler.registerBackend(taskMeta.getId(), taskMeta.getLogicDevice().getTornadoVMBackend().name());
             profiler.registerDeviceID(taskMeta.getId(), taskMeta.getLogicDevice().getDriverIndex() + ":" + taskMeta.getDeviceIndex());
             profiler.registerDeviceName(taskMeta.getId(), taskMeta.getLogicDevice().getPhysicalDevice().getDeviceName());
+
+            // Look up the kernel in the persistent cache to skip the JIT compilation
+            final boolean usePersistentCache = PersistentKernelCache.isEnabled() && !OCLBackend.isDeviceAnFPGAAccelerator(deviceContext);
+            final String cacheKey = usePersistentCache ? KernelCacheKey.of(executable, resolvedMethod, sketch, this, device.getDriverVersion()) : null;
+            if (usePersistentCache) {
+                KernelCacheEntry cacheEntry = PersistentKernelCache.load(cacheKey);
+                if (cacheEntry != null) {
+                    cacheEntry.restoreMetaData(taskMeta, resolvedMethod);
+                    compilationEvent.startStage();
+                    profiler.start(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
+                    OCLInstalledCode installedCode = deviceContext.installCode(taskMeta, task.getId(), cacheEntry.getEntryPoint(), cacheEntry.getCode());
+                    profiler.stop(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
+                    compilationEvent.stopDriverStage();
+                    profiler.sum(ProfilerType.TOTAL_DRIVER_COMPILE_TIME, profiler.getTaskTimer(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId()));
+                    compilationEvent.setCached(true);
+                    compilationEvent.commit();
+                    return installedCode;
+                }
+            }
+
+            compilationEvent.startStage();
             profiler.start(ProfilerType.TASK_COMPILE_GRAAL_TIME, taskMeta.getId());
             final OCLCompilationResult result = OCLCompiler.compileSketchForDevice(sketch, executable, providers, getBackend(), executable.getProfiler());
 
@@ -268,8 +298,10 @@ public class OCLTornadoDevice implements TornadoAcceleratorDevice {
             }
 
             profiler.stop(ProfilerType.TASK_COMPILE_GRAAL_TIME, taskMeta.getId());
+            compilationEvent.stopGraalStage();
             profiler.sum(ProfilerType.TOTAL_GRAAL_COMPILE_TIME, profiler.getTaskTimer(ProfilerType.TASK_COMPILE_GRAAL_TIME, taskMeta.getId()));
 
+            compilationEvent.startStage();
             profiler.start(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
             // Compile the code
             OCLInstalledCode installedCode;
@@ -279,10 +311,16 @@ public class OCLTornadoDevice implements TornadoAcceleratorDevice {
             } else {
                 // B) for CPU multi-core or GPU
                 installedCode = deviceContext.installCode(result);
+                // Kernels with atomics depend on the global state of the compiler
+                if (usePersistentCache && PersistentKernelCache.isCacheable(taskMeta) && !usesAtomics(resolvedMethod, methods)) {
+                    PersistentKernelCache.store(cacheKey, new KernelCacheEntry(result.getName(), result.getTargetCode(), null, taskMeta));
+                }
             }
             profiler.stop(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
+            compilationEvent.stopDriverStage();
             profiler.sum(ProfilerType.TOTAL_DRIVER_COMPILE_TIME, profiler.getTaskTimer(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId()));
 
+            compilationEvent.commit();
             return installedCode;
         } catch (Exception e) {
             driver.fatal("Unable to compile %s for device %s\n", task.getId(), getDeviceName());
@@ -373,6 +411,18 @@ public class OCLTornadoDevice implements TornadoAcceleratorDevice {
         return getDeviceContext().getInstalledCode(task.getId(), entry);
     }
 
+    private static boolean usesAtomics(ResolvedJavaMethod resolvedMethod, ResolvedJavaMethod[] methods) {
+        if (TornadoAtomicIntegerNode.globalAtomics.containsKey(resolvedMethod) || TornadoAtomicIntegerNode.globalAtomicsParameters.containsKey(resolvedMethod)) {
+            return true;
+        }
+        for (ResolvedJavaMethod m : methods) {
+            if (TornadoAtomicIntegerNode.globalAtomics.containsKey(m) || TornadoAtomicIntegerNode.globalAtomicsParameters.containsKey(m)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public int[] checkAtomicsForTask(SchedulableTask task) {
         if (TornadoAtomicIntegerNode.globalAtomics.containsKey(task.meta().getCompiledResolvedJavaMethod())) {
@@ -517,6 +567,8 @@ public class OCLTornadoDevice implements TornadoAcceleratorDevice {
         } else if (!type.isPrimitive()) {
             if (object instanceof AtomicInteger) {
                 result = new AtomicsBuffer(new int[] {}, deviceContext);
+            } else if (object instanceof TornadoNativeArray) {
+                result = new OCLNativeArrayWrapper(deviceContext, (TornadoNativeArray) object);
             } else if (object.getClass().getAnnotation(Vector.class) != null) {
                 result = new OCLVectorWrapper(deviceContext, object, batchSize);
             } else {
@@ -536,12 +588,15 @@ public class OCLTornadoDevice implements TornadoAcceleratorDevice {
 
     @Override
     public int allocateObjects(Object[] objects, long batchSize, TornadoDeviceObjectState[] states) {
+        // The buffer provider releases idle buffers when the device runs out of memory
         TornadoBufferProvider bufferProvider = getDeviceContext().getBufferProvider();
-        if (!bufferProvider.checkBufferAvailability(objects.length)) {
-            bufferProvider.resetBuffers();
-        }
-        for (int i = 0; i < objects.length; i++) {
-            allocate(objects[i], batchSize, states[i]);
+        bufferProvider.beginArenaAllocation();
+        try {
+            for (int i = 0; i < objects.length; i++) {
+                allocate(objects[i], batchSize, states[i]);
+            }
+        } finally {
+            bufferProvider.endArenaAllocation();
         }
         return -1;
     }
@@ -572,7 +627,7 @@ public class OCLTornadoDevice implements TornadoAcceleratorDevice {
         }
 
         final Class<?> type = object.getClass();
-        if (!type.isArray()) {
+        if (!type.isArray() && !(object instanceof TornadoNativeArray)) {
             checkBatchSize(batchSize);
         }
         return -1;
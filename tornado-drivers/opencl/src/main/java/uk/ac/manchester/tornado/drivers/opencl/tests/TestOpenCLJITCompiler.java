@@ -134,7 +134,7 @@ public class TestOpenCLJITCompiler {
         KernelArgs callWrapper = tornadoDevice.createCallWrapper(3);
 
         // Fill header of call callWrapper with empty values
-        callWrapper.setKernelContext(new HashMap<>());
+        callWrapper.setKernelContext(new int[0]);
 
         callWrapper.addCallArgument(objectStateA.getObjectBuffer().toBuffer(), true);
         callWrapper.addCallArgument(objectStateB.getObjectBuffer().toBuffer(), true);
@@ -35,8 +35,15 @@ public class VirtualDeviceDescriptor {
     private final OCLDeviceType deviceType;
     private final String deviceExtensions;
     private final int availableProcessors;
+    private final long maxWorkGroupSize;
+    private final long localMemorySize;
 
     public VirtualDeviceDescriptor(String deviceName, boolean doubleFPSupport, long[] maxWorkItemSizes, int deviceAddressBits, OCLDeviceType deviceType, String deviceExtensions, int availableProcessors) {
+        this(deviceName, doubleFPSupport, maxWorkItemSizes, deviceAddressBits, deviceType, deviceExtensions, availableProcessors, -1, -1);
+    }
+
+    public VirtualDeviceDescriptor(String deviceName, boolean doubleFPSupport, long[] maxWorkItemSizes, int deviceAddressBits, OCLDeviceType deviceType, String deviceExtensions, int availableProcessors,
+            long maxWorkGroupSize, long localMemorySize) {
         this.deviceName = deviceName;
         this.doubleFPSupport = doubleFPSupport;
         this.maxWorkItemSizes = maxWorkItemSizes;
@@ -44,6 +51,8 @@ public class VirtualDeviceDescriptor {
         this.deviceType = deviceType;
         this.deviceExtensions = deviceExtensions;
         this.availableProcessors = availableProcessors;
+        this.maxWorkGroupSize = maxWorkGroupSize;
+        this.localMemorySize = localMemorySize;
     }
 
     public String getDeviceName() {
@@ -73,4 +82,20 @@ public class VirtualDeviceDescriptor {
     public int getAvailableProcessors() {
         return availableProcessors;
     }
+
+    /**
+     * @return The maximum work-group size, or -1 if the descriptor does not
+     *         define it.
+     */
+    public long getMaxWorkGroupSize() {
+        return maxWorkGroupSize;
+    }
+
+    /**
+     * @return The size of the local memory in bytes, or -1 if the descriptor
+     *         does not define it.
+     */
+    public long getLocalMemorySize() {
+        return localMemorySize;
+    }
 }
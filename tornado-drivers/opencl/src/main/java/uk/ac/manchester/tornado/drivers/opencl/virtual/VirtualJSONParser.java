@@ -49,7 +49,9 @@ public class VirtualJSONParser {
         deviceAddressBits,
         deviceType,
         deviceExtensions,
-        availableProcessors;
+        availableProcessors,
+        maxWorkGroupSize,
+        localMemorySize;
     }
 
     public static VirtualDeviceDescriptor getDeviceDescriptor() {
@@ -73,8 +75,11 @@ public class VirtualJSONParser {
         OCLDeviceType deviceType = (OCLDeviceType) getEntryForKey(JsonKey.deviceType, jsonEntries);
         String deviceExtensions = (String) getEntryForKey(JsonKey.deviceExtensions, jsonEntries);
         int availableProcessors = (int) getEntryForKey(JsonKey.availableProcessors, jsonEntries);
+        // Optional keys
+        long maxWorkGroupSize = jsonEntries.containsKey(JsonKey.maxWorkGroupSize) ? (long) getEntryForKey(JsonKey.maxWorkGroupSize, jsonEntries) : -1;
+        long localMemorySize = jsonEntries.containsKey(JsonKey.localMemorySize) ? (long) getEntryForKey(JsonKey.localMemorySize, jsonEntries) : -1;
 
-        return new VirtualDeviceDescriptor(deviceName, doubleFPSupport, maxWorkItemSizes, deviceAddressBits, deviceType, deviceExtensions, availableProcessors);
+        return new VirtualDeviceDescriptor(deviceName, doubleFPSupport, maxWorkItemSizes, deviceAddressBits, deviceType, deviceExtensions, availableProcessors, maxWorkGroupSize, localMemorySize);
     }
 
     private static Object getEntryForKey(JsonKey jsonKey, Map<JsonKey, String> jsonEntries) {
@@ -96,6 +101,9 @@ public class VirtualJSONParser {
                 return Integer.parseInt(jsonEntries.get(jsonKey));
             case deviceType:
                 return OCLDeviceType.valueOf(jsonEntries.get(jsonKey));
+            case maxWorkGroupSize:
+            case localMemorySize:
+                return Long.parseLong(jsonEntries.get(jsonKey));
         }
         throw new RuntimeException("Virtual device JSON parser failed ! Unknown json key: " + jsonKey.name());
     }
@@ -64,9 +64,9 @@ public class VirtualOCLDevice extends TornadoLogger implements OCLTargetDevice {
         this.maxComputeUnits = INIT_VALUE;
         this.maxAllocationSize = INIT_VALUE;
         this.globalMemorySize = INIT_VALUE;
-        this.localMemorySize = INIT_VALUE;
+        this.localMemorySize = info.getLocalMemorySize();
         this.maxWorkItemDimensions = INIT_VALUE;
-        this.maxWorkGroupSize = null;
+        this.maxWorkGroupSize = (info.getMaxWorkGroupSize() > 0) ? new long[] { info.getMaxWorkGroupSize() } : null;
         this.maxConstantBufferSize = INIT_VALUE;
         this.deviceMaxClockFrequency = INIT_VALUE;
         this.deviceAddressBits = info.getDeviceAddressBits();
@@ -81,6 +81,11 @@ public class VirtualOCLDeviceContext extends TornadoLogger implements OCLDeviceC
         return TornadoRuntime.getTornadoRuntime().getDriverIndex(OCLDriver.class);
     }
 
+    @Override
+    public boolean hasCopyQueues() {
+        return false;
+    }
+
     @Override
     public String toString() {
         return getClass().getName();
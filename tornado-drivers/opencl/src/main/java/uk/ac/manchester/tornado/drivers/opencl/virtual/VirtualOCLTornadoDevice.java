@@ -47,6 +47,7 @@ import uk.ac.manchester.tornado.api.profiler.ProfilerType;
 import uk.ac.manchester.tornado.api.profiler.TornadoProfiler;
 import uk.ac.manchester.tornado.drivers.opencl.OCLDeviceContextInterface;
 import uk.ac.manchester.tornado.drivers.opencl.OCLDriver;
+import uk.ac.manchester.tornado.drivers.opencl.OCLGPUScheduler;
 import uk.ac.manchester.tornado.drivers.opencl.OCLTargetDevice;
 import uk.ac.manchester.tornado.drivers.opencl.enums.OCLDeviceType;
 import uk.ac.manchester.tornado.drivers.opencl.graal.OCLProviders;
@@ -54,6 +55,9 @@ import uk.ac.manchester.tornado.drivers.opencl.graal.backend.OCLBackend;
 import uk.ac.manchester.tornado.drivers.opencl.graal.compiler.OCLCompilationResult;
 import uk.ac.manchester.tornado.drivers.opencl.graal.compiler.OCLCompiler;
 import uk.ac.manchester.tornado.runtime.TornadoCoreRuntime;
+import uk.ac.manchester.tornado.runtime.cache.KernelCacheEntry;
+import uk.ac.manchester.tornado.runtime.cache.KernelCacheKey;
+import uk.ac.manchester.tornado.runtime.cache.PersistentKernelCache;
 import uk.ac.manchester.tornado.runtime.common.DeviceObjectState;
 import uk.ac.manchester.tornado.runtime.common.KernelArgs;
 import uk.ac.manchester.tornado.runtime.common.RuntimeUtilities;
@@ -61,6 +65,7 @@ import uk.ac.manchester.tornado.runtime.common.Tornado;
 import uk.ac.manchester.tornado.runtime.common.TornadoAcceleratorDevice;
 import uk.ac.manchester.tornado.runtime.common.TornadoInstalledCode;
 import uk.ac.manchester.tornado.runtime.common.TornadoSchedulingStrategy;
+import uk.ac.manchester.tornado.runtime.profiler.jfr.TaskCompilationEvent;
 import uk.ac.manchester.tornado.runtime.sketcher.Sketch;
 import uk.ac.manchester.tornado.runtime.sketcher.TornadoSketcher;
 import uk.ac.manchester.tornado.runtime.tasks.CompilableTask;
@@ -182,16 +187,38 @@ public class VirtualOCLTornadoDevice implements TornadoAcceleratorDevice {
         final Access[] taskAccess = taskMeta.getArgumentsAccess();
         System.arraycopy(sketchAccess, 0, taskAccess, 0, sketchAccess.length);
 
+        final TaskCompilationEvent compilationEvent = new TaskCompilationEvent(taskMeta.getId(), getDeviceName(), getTornadoVMBackend().name());
+        compilationEvent.begin();
         try {
+            // Virtual devices use the persistent cache as the physical ones, which
+            // allows to test it without hardware
+            final String cacheKey = PersistentKernelCache.isEnabled() ? KernelCacheKey.of(executable, resolvedMethod, sketch, this, device.getDriverVersion()) : null;
+            if (cacheKey != null) {
+                KernelCacheEntry cacheEntry = PersistentKernelCache.load(cacheKey);
+                if (cacheEntry != null) {
+                    cacheEntry.restoreMetaData(taskMeta, resolvedMethod);
+                    installSource(cacheEntry.getCode(), taskMeta);
+                    compilationEvent.setCached(true);
+                    compilationEvent.commit();
+                    return null;
+                }
+            }
+
             OCLProviders providers = (OCLProviders) getBackend().getProviders();
             TornadoProfiler profiler = task.getProfiler();
+            compilationEvent.startStage();
             profiler.start(ProfilerType.TASK_COMPILE_GRAAL_TIME, taskMeta.getId());
             final OCLCompilationResult result = OCLCompiler.compileSketchForDevice(sketch, executable, providers, getBackend(), executable.getProfiler());
             profiler.stop(ProfilerType.TASK_COMPILE_GRAAL_TIME, taskMeta.getId());
+            compilationEvent.stopGraalStage();
             profiler.sum(ProfilerType.TOTAL_GRAAL_COMPILE_TIME, profiler.getTaskTimer(ProfilerType.TASK_COMPILE_GRAAL_TIME, taskMeta.getId()));
 
-            RuntimeUtilities.maybePrintSource(result.getTargetCode());
+            installSource(result.getTargetCode(), taskMeta);
 
+            if (cacheKey != null && PersistentKernelCache.isCacheable(taskMeta)) {
+                PersistentKernelCache.store(cacheKey, new KernelCacheEntry(result.getName(), result.getTargetCode(), null, taskMeta));
+            }
+            compilationEvent.commit();
             return null;
         } catch (Exception e) {
             driver.fatal("unable to compile %s for device %s", task.getId(), getDeviceName());
@@ -201,6 +228,37 @@ public class VirtualOCLTornadoDevice implements TornadoAcceleratorDevice {
         }
     }
 
+    /**
+     * Virtual devices do not build the kernels, so installing a kernel prints its
+     * source and thread information. It is synchronized because tasks can be
+     * compiled by several compiler threads, and the output of each kernel must not
+     * be interleaved with the others.
+     */
+    private synchronized void installSource(byte[] source, TaskMetaData taskMeta) {
+        RuntimeUtilities.maybePrintSource(source);
+        maybePrintThreadDims(taskMeta);
+    }
+
+    /**
+     * Virtual devices do not launch kernels, so the thread information is printed
+     * after the compilation, with the work sizes that the GPU scheduler would use.
+     */
+    private void maybePrintThreadDims(TaskMetaData taskMeta) {
+        if (!taskMeta.isThreadInfoEnabled() || !taskMeta.hasDomain() || device.getDeviceType() != OCLDeviceType.CL_DEVICE_TYPE_GPU) {
+            return;
+        }
+        if (!taskMeta.isWorkerGridAvailable()) {
+            OCLGPUScheduler scheduler = new OCLGPUScheduler(device);
+            if (!taskMeta.isGlobalWorkDefined()) {
+                scheduler.calculateGlobalWork(taskMeta, 0);
+            }
+            if (!taskMeta.isLocalWorkDefined()) {
+                scheduler.calculateLocalWork(taskMeta);
+            }
+        }
+        taskMeta.printThreadDims();
+    }
+
     private TornadoInstalledCode compilePreBuiltTask(SchedulableTask task) {
         final PrebuiltTask executable = (PrebuiltTask) task;
 
@@ -24,7 +24,6 @@
 package uk.ac.manchester.tornado.drivers.ptx;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 
 import uk.ac.manchester.tornado.api.common.Access;
 import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
@@ -117,7 +116,7 @@ public class PTX {
         callWrapper.reset();
 
         // Fill header of call callWrapper with empty values
-        callWrapper.setKernelContext(new HashMap<>());
+        callWrapper.setKernelContext(new int[0]);
 
         // Pass arguments to the call callWrapper
         for (int i = 0; i < numArgs; i++) {
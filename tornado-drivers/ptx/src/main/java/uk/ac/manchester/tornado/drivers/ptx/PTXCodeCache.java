@@ -40,7 +40,11 @@ public class PTXCodeCache {
         cache = new ConcurrentHashMap<>();
     }
 
-    public PTXInstalledCode installSource(String name, byte[] targetCode, String resolvedMethodName) {
+    /*
+     * Synchronized because tasks can be compiled by several compiler threads
+     * (tornado.compiler.threads). The modules are loaded and cached one at a time.
+     */
+    public synchronized PTXInstalledCode installSource(String name, byte[] targetCode, String resolvedMethodName) {
         String cacheKey = name;
 
         if (!cache.containsKey(cacheKey)) {
@@ -68,7 +72,7 @@ public class PTXCodeCache {
         return cache.containsKey(name);
     }
 
-    public void reset() {
+    public synchronized void reset() {
         for (PTXInstalledCode code : cache.values()) {
             code.invalidate();
         }
@@ -35,6 +35,7 @@ public class PTXDevice implements TornadoTargetDevice {
     private final long[] maxGridSizes;
     private final PTXContext context;
     private final PTXVersion ptxVersion;
+    private final int driverVersion;
     private final long[] maxWorkItemSizes;
     private final TargetArchitecture targetArchitecture;
     private final CUDAComputeCapability computeCapability;
@@ -61,7 +62,8 @@ public class PTXDevice implements TornadoTargetDevice {
         maxWorkItemSizes = initMaxWorkItemSizes();
         maxGridSizes = initMaxGridSizes();
         maxThreadsPerBlock = cuDeviceGetAttribute(cuDevice, PTXDeviceAttribute.MAX_THREADS_PER_BLOCK.value());
-        ptxVersion = CUDAVersion.getMaxPTXVersion(cuDriverGetVersion());
+        driverVersion = cuDriverGetVersion();
+        ptxVersion = CUDAVersion.getMaxPTXVersion(driverVersion);
         computeCapability = initComputeCapability();
         targetArchitecture = ptxVersion.getArchitecture(computeCapability);
 
@@ -184,6 +186,10 @@ public class PTXDevice implements TornadoTargetDevice {
         return targetArchitecture;
     }
 
+    public String getDriverVersion() {
+        return String.valueOf(driverVersion);
+    }
+
     public String getTargetPTXVersion() {
         return ptxVersion.toString();
     }
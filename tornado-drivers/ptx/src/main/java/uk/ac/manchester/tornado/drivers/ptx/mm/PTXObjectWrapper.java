@@ -149,7 +149,7 @@ public class PTXObjectWrapper implements ObjectBuffer {
 
     @Override
     public void deallocate() throws TornadoMemoryException {
-        deviceContext.getBufferProvider().markBufferReleased(address, getObjectSize());
+        deviceContext.getBufferProvider().markBufferReleased(address);
         address = -1;
         for (FieldBuffer buffer : wrappedFields) {
             if (buffer != null) {
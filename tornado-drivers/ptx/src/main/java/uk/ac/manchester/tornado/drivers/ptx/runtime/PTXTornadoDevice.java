@@ -37,6 +37,7 @@ import uk.ac.manchester.tornado.api.TornadoTargetDevice;
 import uk.ac.manchester.tornado.api.common.Access;
 import uk.ac.manchester.tornado.api.common.Event;
 import uk.ac.manchester.tornado.api.common.SchedulableTask;
+import uk.ac.manchester.tornado.api.data.nativetypes.TornadoNativeArray;
 import uk.ac.manchester.tornado.api.enums.TornadoDeviceType;
 import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
 import uk.ac.manchester.tornado.api.exceptions.TornadoBailoutRuntimeException;
@@ -69,6 +70,9 @@ import uk.ac.manchester.tornado.drivers.ptx.mm.PTXObjectWrapper;
 import uk.ac.manchester.tornado.drivers.ptx.mm.PTXShortArrayWrapper;
 import uk.ac.manchester.tornado.drivers.ptx.mm.PTXVectorWrapper;
 import uk.ac.manchester.tornado.runtime.TornadoCoreRuntime;
+import uk.ac.manchester.tornado.runtime.cache.KernelCacheEntry;
+import uk.ac.manchester.tornado.runtime.cache.KernelCacheKey;
+import uk.ac.manchester.tornado.runtime.cache.PersistentKernelCache;
 import uk.ac.manchester.tornado.runtime.common.DeviceObjectState;
 import uk.ac.manchester.tornado.runtime.common.KernelArgs;
 import uk.ac.manchester.tornado.runtime.common.RuntimeUtilities;
@@ -76,6 +80,7 @@ import uk.ac.manchester.tornado.runtime.common.Tornado;
 import uk.ac.manchester.tornado.runtime.common.TornadoAcceleratorDevice;
 import uk.ac.manchester.tornado.runtime.common.TornadoInstalledCode;
 import uk.ac.manchester.tornado.runtime.common.TornadoSchedulingStrategy;
+import uk.ac.manchester.tornado.runtime.profiler.jfr.TaskCompilationEvent;
 import uk.ac.manchester.tornado.runtime.sketcher.Sketch;
 import uk.ac.manchester.tornado.runtime.sketcher.TornadoSketcher;
 import uk.ac.manchester.tornado.runtime.tasks.CompilableTask;
@@ -164,26 +169,56 @@ public class PTXTornadoDevice implements TornadoAcceleratorDevice {
         final Access[] taskAccess = taskMeta.getArgumentsAccess();
         System.arraycopy(sketchAccess, 0, taskAccess, 0, sketchAccess.length);
 
+        final TaskCompilationEvent compilationEvent = new TaskCompilationEvent(taskMeta.getId(), taskMeta.getLogicDevice().getPhysicalDevice().getDeviceName(),
+                taskMeta.getLogicDevice().getTornadoVMBackend().name());
+        compilationEvent.begin();
         try {
             PTXCompilationResult result;
+            String cacheKey = null;
             if (!deviceContext.isCached(resolvedMethod.getName(), executable)) {
                 PTXProviders providers = (PTXProviders) getBackend().getProviders();
                 // profiler
                 profiler.registerBackend(taskMeta.getId(), taskMeta.getLogicDevice().getTornadoVMBackend().name());
                 profiler.registerDeviceID(taskMeta.getId(), taskMeta.getLogicDevice().getDriverIndex() + ":" + taskMeta.getDeviceIndex());
                 profiler.registerDeviceName(taskMeta.getId(), taskMeta.getLogicDevice().getPhysicalDevice().getDeviceName());
+
+                // Look up the kernel in the persistent cache to skip the JIT compilation
+                cacheKey = PersistentKernelCache.isEnabled() ? KernelCacheKey.of(executable, resolvedMethod, sketch, this, device.getDriverVersion()) : null;
+                KernelCacheEntry cacheEntry = (cacheKey != null) ? PersistentKernelCache.load(cacheKey) : null;
+                if (cacheEntry != null) {
+                    cacheEntry.restoreMetaData(taskMeta, resolvedMethod);
+                    compilationEvent.startStage();
+                    profiler.start(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
+                    TornadoInstalledCode installedCode = deviceContext.installCode(cacheEntry.getEntryPoint(), cacheEntry.getCode(), resolvedMethod.getName());
+                    profiler.stop(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
+                    compilationEvent.stopDriverStage();
+                    profiler.sum(ProfilerType.TOTAL_DRIVER_COMPILE_TIME, profiler.getTaskTimer(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId()));
+                    compilationEvent.setCached(true);
+                    compilationEvent.commit();
+                    return installedCode;
+                }
+
+                compilationEvent.startStage();
                 profiler.start(ProfilerType.TASK_COMPILE_GRAAL_TIME, taskMeta.getId());
                 result = PTXCompiler.compileSketchForDevice(sketch, executable, providers, getBackend(), executable.getProfiler());
                 profiler.stop(ProfilerType.TASK_COMPILE_GRAAL_TIME, taskMeta.getId());
+                compilationEvent.stopGraalStage();
                 profiler.sum(ProfilerType.TOTAL_GRAAL_COMPILE_TIME, profiler.getTaskTimer(ProfilerType.TASK_COMPILE_GRAAL_TIME, taskMeta.getId()));
             } else {
                 result = new PTXCompilationResult(buildKernelName(resolvedMethod.getName(), executable), taskMeta);
             }
 
+            compilationEvent.startStage();
             profiler.start(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
             TornadoInstalledCode installedCode = deviceContext.installCode(result, resolvedMethod.getName());
             profiler.stop(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
+            compilationEvent.stopDriverStage();
             profiler.sum(ProfilerType.TOTAL_DRIVER_COMPILE_TIME, profiler.getTaskTimer(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId()));
+            // Kernels with atomics depend on the global state of the compiler
+            if (cacheKey != null && PersistentKernelCache.isCacheable(taskMeta) && !PersistentKernelCache.usesAtomics(sketch, result.getMethods())) {
+                PersistentKernelCache.store(cacheKey, new KernelCacheEntry(result.getName(), result.getTargetCode(), null, taskMeta));
+            }
+            compilationEvent.commit();
             return installedCode;
         } catch (Exception e) {
             System.err.println(e.getMessage());
@@ -253,6 +288,8 @@ public class PTXTornadoDevice implements TornadoAcceleratorDevice {
                     TornadoInternalError.unimplemented("multi-dimensional array of type %s", type.getName());
                 }
             }
+        } else if (arg instanceof TornadoNativeArray) {
+            throw new TornadoRuntimeException("[UNSUPPORTED] Native arrays are only supported by the OpenCL backend");
         } else if (!type.isPrimitive()) {
             if (arg.getClass().getAnnotation(Vector.class) != null) {
                 result = new PTXVectorWrapper(getDeviceContext(), arg, batchSize);
@@ -267,12 +304,15 @@ public class PTXTornadoDevice implements TornadoAcceleratorDevice {
 
     @Override
     public int allocateObjects(Object[] objects, long batchSize, TornadoDeviceObjectState[] states) {
+        // The buffer provider releases idle buffers when the device runs out of memory
         TornadoBufferProvider bufferProvider = getDeviceContext().getBufferProvider();
-        if (!bufferProvider.checkBufferAvailability(objects.length)) {
-            bufferProvider.resetBuffers();
-        }
-        for (int i = 0; i < objects.length; i++) {
-            allocate(objects[i], batchSize, states[i]);
+        bufferProvider.beginArenaAllocation();
+        try {
+            for (int i = 0; i < objects.length; i++) {
+                allocate(objects[i], batchSize, states[i]);
+            }
+        } finally {
+            bufferProvider.endArenaAllocation();
         }
         return -1;
     }
@@ -132,7 +132,7 @@ public class TestPTXJITCompiler {
         // Create call wrapper
         KernelArgs callWrapper = tornadoDevice.createCallWrapper(3);
 
-        callWrapper.setKernelContext(new HashMap<>());
+        callWrapper.setKernelContext(new int[0]);
 
         callWrapper.addCallArgument(objectStateA.getObjectBuffer().toBuffer(), true);
         callWrapper.addCallArgument(objectStateB.getObjectBuffer().toBuffer(), true);
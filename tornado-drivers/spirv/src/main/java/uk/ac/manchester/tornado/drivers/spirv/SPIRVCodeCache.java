@@ -46,7 +46,7 @@ public abstract class SPIRVCodeCache {
         return cache.containsKey(name);
     }
 
-    public void reset() {
+    public synchronized void reset() {
         for (SPIRVInstalledCode code : cache.values()) {
             code.invalidate();
         }
@@ -73,6 +73,8 @@ public abstract class SPIRVDevice implements TornadoTargetDevice {
 
     public abstract String getDeviceOpenCLCVersion();
 
+    public abstract String getDriverVersion();
+
     public abstract long getMaxAllocMemory();
 
     public abstract TornadoDeviceType getTornadoDeviceType();
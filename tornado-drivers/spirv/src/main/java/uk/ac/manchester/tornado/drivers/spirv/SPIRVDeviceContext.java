@@ -174,6 +174,11 @@ public abstract class SPIRVDeviceContext implements TornadoDeviceContext {
         return TornadoRuntime.getTornadoRuntime().getDriverIndex(SPIRVDriver.class);
     }
 
+    @Override
+    public boolean hasCopyQueues() {
+        return false;
+    }
+
     public SPIRVTornadoDevice asMapping() {
         return tornadoDevice;
     }
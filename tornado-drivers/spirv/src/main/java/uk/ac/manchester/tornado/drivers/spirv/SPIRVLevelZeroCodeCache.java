@@ -73,8 +73,12 @@ public class SPIRVLevelZeroCodeCache extends SPIRVCodeCache {
         }
     }
 
+    /*
+     * Synchronized because tasks can be compiled by several compiler threads
+     * (tornado.compiler.threads). The modules are built and cached one at a time.
+     */
     @Override
-    public SPIRVInstalledCode installSPIRVBinary(TaskMetaData meta, String id, String entryPoint, byte[] code) {
+    public synchronized SPIRVInstalledCode installSPIRVBinary(TaskMetaData meta, String id, String entryPoint, byte[] code) {
 
         if (code == null || code.length == 0) {
             throw new RuntimeException("[ERROR] Binary SPIR-V Module is Empty");
@@ -107,7 +111,7 @@ public class SPIRVLevelZeroCodeCache extends SPIRVCodeCache {
     }
 
     @Override
-    public SPIRVInstalledCode installSPIRVBinary(TaskMetaData meta, String id, String entryPoint, String pathToFile) {
+    public synchronized SPIRVInstalledCode installSPIRVBinary(TaskMetaData meta, String id, String entryPoint, String pathToFile) {
         ZeModuleHandle module = new ZeModuleHandle();
         ZeModuleDescriptor moduleDesc = new ZeModuleDescriptor();
         ZeBuildLogHandle buildLog = new ZeBuildLogHandle();
@@ -35,8 +35,10 @@ import uk.ac.manchester.tornado.drivers.spirv.levelzero.ZeDeviceModuleProperties
 import uk.ac.manchester.tornado.drivers.spirv.levelzero.ZeDeviceProperties;
 import uk.ac.manchester.tornado.drivers.spirv.levelzero.ZeDeviceType;
 import uk.ac.manchester.tornado.drivers.spirv.levelzero.ZeDriverHandle;
+import uk.ac.manchester.tornado.drivers.spirv.levelzero.ZeDriverProperties;
 import uk.ac.manchester.tornado.drivers.spirv.levelzero.ZeMemoryProperties;
 import uk.ac.manchester.tornado.drivers.spirv.levelzero.ZeResult;
+import uk.ac.manchester.tornado.drivers.spirv.levelzero.Ze_Structure_Type;
 import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
 
 public class SPIRVLevelZeroDevice extends SPIRVDevice {
@@ -47,6 +49,7 @@ public class SPIRVLevelZeroDevice extends SPIRVDevice {
     private ZeDeviceProperties deviceProperties;
     private ZeDeviceComputeProperties computeProperties;
     ZeAPIVersion apiVersion;
+    private ZeDriverProperties driverProperties;
 
     private final long totalMemorySize;
 
@@ -99,6 +102,9 @@ public class SPIRVLevelZeroDevice extends SPIRVDevice {
         ZeDriverHandle driverHandler = device.getDriverHandler();
         int result = driver.zeDriverGetApiVersion(driverHandler, 0, apiVersion);
         errorLog("zeDriverGetApiVersion", result);
+        driverProperties = new ZeDriverProperties(Ze_Structure_Type.ZE_STRUCTURE_TYPE_DRIVER_PROPERTIES);
+        result = driver.zeDriverGetProperties(driverHandler, 0, driverProperties);
+        errorLog("zeDriverGetProperties", result);
     }
 
     private static void errorLog(String method, int result) {
@@ -227,6 +233,11 @@ public class SPIRVLevelZeroDevice extends SPIRVDevice {
         return " (LEVEL ZERO) " + apiVersion.getAPIVersion();
     }
 
+    @Override
+    public String getDriverVersion() {
+        return String.valueOf(driverProperties.getDriverVersion());
+    }
+
     @Override
     public long getMaxAllocMemory() {
         return deviceProperties.getMaxMemAllocSize();
@@ -131,6 +131,11 @@ public class SPIRVOCLDevice extends SPIRVDevice {
         return device.getDeviceOpenCLCVersion();
     }
 
+    @Override
+    public String getDriverVersion() {
+        return device.getDriverVersion();
+    }
+
     @Override
     public long getMaxAllocMemory() {
         return device.getDeviceMaxAllocationSize();
@@ -25,7 +25,6 @@ package uk.ac.manchester.tornado.drivers.spirv.mm;
 
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 
 import uk.ac.manchester.tornado.drivers.spirv.SPIRVDeviceContext;
@@ -75,14 +74,10 @@ public class SPIRVKernelArgs extends SPIRVByteBuffer implements KernelArgs {
     }
 
     @Override
-    public void setKernelContext(HashMap<Integer, Integer> map) {
+    public void setKernelContext(int[] maxThreads) {
         buffer.clear();
         for (int i = 0; i < RESERVED_SLOTS; i++) {
-            if (map.containsKey(i)) {
-                buffer.putLong(map.get(i));
-            } else {
-                buffer.putLong(0);
-            }
+            buffer.putLong(i < maxThreads.length ? maxThreads[i] : 0);
         }
     }
 }
@@ -149,7 +149,7 @@ public class SPIRVObjectWrapper implements ObjectBuffer {
 
     @Override
     public void deallocate() throws TornadoMemoryException {
-        deviceContext.getBufferProvider().markBufferReleased(this.bufferId, size());
+        deviceContext.getBufferProvider().markBufferReleased(this.bufferId);
         bufferId = -1;
     }
 
@@ -41,4 +41,10 @@ public class SPIRVBufferProvider extends TornadoBufferProvider {
     protected void releaseBuffer(long buffer) {
         ((SPIRVDeviceContext) deviceContext).getSpirvContext().freeMemory(buffer, deviceContext.getDeviceIndex());
     }
+
+    @Override
+    protected boolean isSubAllocationSupported() {
+        // Device buffers are looked up by their base pointer in the SPIR-V context
+        return false;
+    }
 }
@@ -33,6 +33,7 @@ import jdk.vm.ci.meta.ResolvedJavaMethod;
 import uk.ac.manchester.tornado.api.common.Access;
 import uk.ac.manchester.tornado.api.common.Event;
 import uk.ac.manchester.tornado.api.common.SchedulableTask;
+import uk.ac.manchester.tornado.api.data.nativetypes.TornadoNativeArray;
 import uk.ac.manchester.tornado.api.enums.TornadoDeviceType;
 import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
 import uk.ac.manchester.tornado.api.exceptions.TornadoBailoutRuntimeException;
@@ -44,7 +45,6 @@ import uk.ac.manchester.tornado.api.memory.TornadoMemoryProvider;
 import uk.ac.manchester.tornado.api.profiler.ProfilerType;
 import uk.ac.manchester.tornado.api.profiler.TornadoProfiler;
 import uk.ac.manchester.tornado.api.type.annotations.Vector;
-import uk.ac.manchester.tornado.drivers.common.TornadoBufferProvider;
 import uk.ac.manchester.tornado.drivers.opencl.mm.AtomicsBuffer;
 import uk.ac.manchester.tornado.drivers.spirv.SPIRVBackend;
 import uk.ac.manchester.tornado.drivers.spirv.SPIRVDevice;
@@ -65,6 +65,9 @@ import uk.ac.manchester.tornado.drivers.spirv.mm.SPIRVObjectWrapper;
 import uk.ac.manchester.tornado.drivers.spirv.mm.SPIRVShortArrayWrapper;
 import uk.ac.manchester.tornado.drivers.spirv.mm.SPIRVVectorWrapper;
 import uk.ac.manchester.tornado.runtime.TornadoCoreRuntime;
+import uk.ac.manchester.tornado.runtime.cache.KernelCacheEntry;
+import uk.ac.manchester.tornado.runtime.cache.KernelCacheKey;
+import uk.ac.manchester.tornado.runtime.cache.PersistentKernelCache;
 import uk.ac.manchester.tornado.runtime.common.DeviceObjectState;
 import uk.ac.manchester.tornado.runtime.common.KernelArgs;
 import uk.ac.manchester.tornado.runtime.common.RuntimeUtilities;
@@ -72,6 +75,7 @@ import uk.ac.manchester.tornado.runtime.common.TornadoAcceleratorDevice;
 import uk.ac.manchester.tornado.runtime.common.TornadoInstalledCode;
 import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
 import uk.ac.manchester.tornado.runtime.common.TornadoSchedulingStrategy;
+import uk.ac.manchester.tornado.runtime.profiler.jfr.TaskCompilationEvent;
 import uk.ac.manchester.tornado.runtime.sketcher.Sketch;
 import uk.ac.manchester.tornado.runtime.sketcher.TornadoSketcher;
 import uk.ac.manchester.tornado.runtime.tasks.CompilableTask;
@@ -170,6 +174,9 @@ public class SPIRVTornadoDevice implements TornadoAcceleratorDevice {
 
         System.arraycopy(sketchAccess, 0, taskAccess, 0, sketchAccess.length);
 
+        final TaskCompilationEvent compilationEvent = new TaskCompilationEvent(taskMeta.getId(), taskMeta.getLogicDevice().getPhysicalDevice().getDeviceName(),
+                taskMeta.getLogicDevice().getTornadoVMBackend().name());
+        compilationEvent.begin();
         try {
             SPIRVCompilationResult result;
             // Compile the code and insert the SPIRV binary into the code cache
@@ -179,15 +186,41 @@ public class SPIRVTornadoDevice implements TornadoAcceleratorDevice {
             profiler.registerBackend(taskMeta.getId(), taskMeta.getLogicDevice().getTornadoVMBackend().name());
             profiler.registerDeviceID(taskMeta.getId(), taskMeta.getLogicDevice().getDriverIndex() + ":" + taskMeta.getDeviceIndex());
             profiler.registerDeviceName(taskMeta.getId(), taskMeta.getLogicDevice().getPhysicalDevice().getDeviceName());
+
+            // Look up the SPIR-V binary in the persistent cache to skip the JIT compilation
+            final String cacheKey = PersistentKernelCache.isEnabled() ? KernelCacheKey.of(executable, resolvedMethod, sketch, this, device.getDriverVersion()) : null;
+            KernelCacheEntry cacheEntry = (cacheKey != null) ? PersistentKernelCache.load(cacheKey) : null;
+            if (cacheEntry != null) {
+                cacheEntry.restoreMetaData(taskMeta, resolvedMethod);
+                compilationEvent.startStage();
+                profiler.start(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
+                TornadoInstalledCode installedCode = deviceContext.installBinary(taskMeta, task.getId(), cacheEntry.getEntryPoint(), cacheEntry.getBinary());
+                profiler.stop(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
+                compilationEvent.stopDriverStage();
+                profiler.sum(ProfilerType.TOTAL_DRIVER_COMPILE_TIME, profiler.getTaskTimer(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId()));
+                compilationEvent.setCached(true);
+                compilationEvent.commit();
+                return installedCode;
+            }
+
+            compilationEvent.startStage();
             profiler.start(ProfilerType.TASK_COMPILE_GRAAL_TIME, taskMeta.getId());
             result = SPIRVCompiler.compileSketchForDevice(sketch, executable, providers, getBackend(), executable.getProfiler());
             profiler.stop(ProfilerType.TASK_COMPILE_GRAAL_TIME, taskMeta.getId());
+            compilationEvent.stopGraalStage();
             profiler.sum(ProfilerType.TOTAL_GRAAL_COMPILE_TIME, profiler.getTaskTimer(ProfilerType.TASK_COMPILE_GRAAL_TIME, taskMeta.getId()));
 
+            compilationEvent.startStage();
             profiler.start(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
             TornadoInstalledCode installedCode = deviceContext.installBinary(result);
             profiler.stop(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
+            compilationEvent.stopDriverStage();
             profiler.sum(ProfilerType.TOTAL_DRIVER_COMPILE_TIME, profiler.getTaskTimer(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId()));
+            // Kernels with atomics depend on the global state of the compiler
+            if (cacheKey != null && PersistentKernelCache.isCacheable(taskMeta) && !PersistentKernelCache.usesAtomics(sketch, result.getMethods())) {
+                PersistentKernelCache.store(cacheKey, new KernelCacheEntry(result.getName(), null, result.getSPIRVBinary(), taskMeta));
+            }
+            compilationEvent.commit();
             return installedCode;
         } catch (Exception e) {
             driver.fatal("Unable to compile %s for device %s\n", task.getId(), getDeviceName());
@@ -299,6 +332,8 @@ public class SPIRVTornadoDevice implements TornadoAcceleratorDevice {
                     throw new RuntimeException("Multi-dimensional array of type " + type.getName() + " not implemented");
                 }
             }
+        } else if (object instanceof TornadoNativeArray) {
+            throw new TornadoRuntimeException("[UNSUPPORTED] Native arrays are only supported by the OpenCL backend");
         } else if (!type.isPrimitive()) {
             if (object instanceof AtomicInteger) {
                 throw new RuntimeException("Atomic Integers not supported yet");
@@ -320,10 +355,7 @@ public class SPIRVTornadoDevice implements TornadoAcceleratorDevice {
 
     @Override
     public int allocateObjects(Object[] objects, long batchSize, TornadoDeviceObjectState[] states) {
-        TornadoBufferProvider bufferProvider = getDeviceContext().getBufferProvider();
-        if (!bufferProvider.checkBufferAvailability(objects.length)) {
-            bufferProvider.resetBuffers();
-        }
+        // The buffer provider releases idle buffers when the device runs out of memory
         for (int i = 0; i < objects.length; i++) {
             allocate(objects[i], batchSize, states[i]);
         }
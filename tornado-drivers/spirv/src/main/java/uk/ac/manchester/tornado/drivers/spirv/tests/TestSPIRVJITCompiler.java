@@ -132,7 +132,7 @@ public class TestSPIRVJITCompiler {
 
         // Create call stack wrapper for SPIR-V with 3 arguments
         KernelArgs callWrapper = spirvTornadoDevice.createCallWrapper(3);
-        callWrapper.setKernelContext(new HashMap<>());
+        callWrapper.setKernelContext(new int[0]);
 
         // Add kernel arguments to the SPIR-V Call Stack
         callWrapper.addCallArgument(objectStateA.getObjectBuffer().toBuffer(), true);
@@ -34,9 +34,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -57,6 +62,7 @@ import jdk.vm.ci.runtime.JVMCI;
 import jdk.vm.ci.runtime.JVMCIBackend;
 import uk.ac.manchester.tornado.api.TornadoDriver;
 import uk.ac.manchester.tornado.api.TornadoRuntimeInterface;
+import uk.ac.manchester.tornado.api.common.TornadoDevice;
 import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
 import uk.ac.manchester.tornado.runtime.common.Tornado;
 import uk.ac.manchester.tornado.runtime.common.TornadoAcceleratorDevice;
@@ -80,6 +86,29 @@ public class TornadoCoreRuntime extends TornadoLogger implements TornadoRuntimeI
         }
     };
     private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(TornadoOptions.TORNADO_SKETCHER_THREADS, executorThreadFactory);
+    private static final long IDLE_THREAD_KEEP_ALIVE_SECONDS = 60;
+    private static final Map<Object, ExecutorService> ASYNC_EXECUTORS = new ConcurrentHashMap<>();
+    private static final ExecutorService COMPILER_EXECUTOR = Executors.newFixedThreadPool(Math.max(1, TornadoOptions.TORNADO_COMPILER_THREADS), new ThreadFactory() {
+        private final AtomicInteger threadId = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, String.format("TornadoCompilerThread - %d", threadId.getAndIncrement()));
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    private static final ExecutorService DYNAMIC_RECONFIGURATION_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger threadId = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, String.format("TornadoDynamicReconfigurationThread - %d", threadId.getAndIncrement()));
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    private static final ExecutorService SHARED_INTERPRETER_EXECUTOR = Executors.newCachedThreadPool(runnable -> newInterpreterThread(runnable, "shared"));
     private static final TornadoCoreRuntime runtime = new TornadoCoreRuntime();
     private static final JVMMapping JVM = new JVMMapping();
     private static final int DEFAULT_DRIVER = 0;
@@ -122,6 +151,78 @@ public class TornadoCoreRuntime extends TornadoLogger implements TornadoRuntimeI
         return EXECUTOR;
     }
 
+    /**
+     * Thread pool that compiles the tasks of a task-graph in parallel, sized with
+     * {@link TornadoOptions#TORNADO_COMPILER_THREADS}.
+     *
+     * @return an {@link ExecutorService}.
+     */
+    public static ExecutorService getCompilerExecutor() {
+        return COMPILER_EXECUTOR;
+    }
+
+    /**
+     * Thread pool that runs the candidate devices of the dynamic reconfiguration,
+     * and the partitions of a co-execution, concurrently. Threads are reused
+     * across executions.
+     *
+     * @return an {@link ExecutorService}.
+     */
+    public static ExecutorService getDynamicReconfigurationExecutor() {
+        return DYNAMIC_RECONFIGURATION_EXECUTOR;
+    }
+
+    private static Thread newInterpreterThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, String.format("TornadoInterpreterThread - %s", name));
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * It creates the executor that runs the interpreter of a {@link TornadoVM} for
+     * the given device when executing concurrently on multiple devices. By
+     * default, each {@link TornadoVM} owns a single-threaded executor per device,
+     * so the same thread always drives the command queues of the device for a
+     * task-graph, while task-graphs that run on the same device never wait for
+     * each other. The thread ends after being idle, so the executor does not
+     * need to be shut down.
+     *
+     * @param device
+     *            the device of the interpreter.
+     * @return an {@link ExecutorService}.
+     */
+    public static ExecutorService newInterpreterExecutor(TornadoAcceleratorDevice device) {
+        if (!TornadoOptions.CONCURRENT_INTERPRETERS_AFFINITY) {
+            return SHARED_INTERPRETER_EXECUTOR;
+        }
+        String deviceId = device.getDriverIndex() + ":" + device.getDeviceContext().getDeviceIndex();
+        return newIdleSingleThreadExecutor(runnable -> newInterpreterThread(runnable, deviceId));
+    }
+
+    /**
+     * It creates a single-threaded executor whose thread ends after being idle,
+     * so the executor does not need to be shut down.
+     */
+    private static ExecutorService newIdleSingleThreadExecutor(ThreadFactory threadFactory) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, IDLE_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * There is one executor per physical device, so the asynchronous executions on
+     * a device are serialised in submission order. The executors live as long as
+     * the runtime, and their threads end after being idle.
+     */
+    @Override
+    public ExecutorService getAsyncExecutor(TornadoDevice device) {
+        return ASYNC_EXECUTORS.computeIfAbsent(device.getPhysicalDevice(), physicalDevice -> newIdleSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "TornadoAsyncThread - " + device.getDeviceName());
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
     public static JVMCIBackend getVMBackend() {
         return runtime.vmBackend;
     }
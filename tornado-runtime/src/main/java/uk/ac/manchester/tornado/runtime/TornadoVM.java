@@ -23,12 +23,9 @@
  */
 package uk.ac.manchester.tornado.runtime;
 
-import java.util.ArrayList;
 import java.util.Deque;
-import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.function.Consumer;
 import java.util.stream.IntStream;
@@ -40,6 +37,7 @@ import uk.ac.manchester.tornado.api.exceptions.TornadoDeviceFP64NotSupported;
 import uk.ac.manchester.tornado.api.exceptions.TornadoFailureException;
 import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
 import uk.ac.manchester.tornado.api.profiler.TornadoProfiler;
+import uk.ac.manchester.tornado.runtime.common.TornadoAcceleratorDevice;
 import uk.ac.manchester.tornado.runtime.common.TornadoLogger;
 import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
 import uk.ac.manchester.tornado.runtime.graph.TornadoExecutionContext;
@@ -55,6 +53,8 @@ import uk.ac.manchester.tornado.runtime.tasks.TornadoTaskGraph;
  * parallel device (e.g., a GPU).
  */
 public class TornadoVM extends TornadoLogger {
+    private static final Event EMPTY_EVENT = new EmptyEvent();
+
     private final TornadoExecutionContext executionContext;
 
     private final TornadoProfiler timeProfiler;
@@ -63,6 +63,8 @@ public class TornadoVM extends TornadoLogger {
 
     private final TornadoVMInterpreter[] tornadoVMInterpreters;
 
+    private final ExecutorService[] interpreterExecutors;
+
     /**
      * It constructs a new TornadoVM instance.
      *
@@ -79,6 +81,7 @@ public class TornadoVM extends TornadoLogger {
         this.timeProfiler = timeProfiler;
         tornadoVMBytecodes = TornadoVMGraphCompiler.compile(tornadoGraph, executionContext);
         tornadoVMInterpreters = new TornadoVMInterpreter[executionContext.getValidContextSize()];
+        interpreterExecutors = new ExecutorService[executionContext.getValidContextSize()];
         bindBytecodesToInterpreters();
     }
 
@@ -89,8 +92,11 @@ public class TornadoVM extends TornadoLogger {
     private void bindBytecodesToInterpreters() {
         assert tornadoVMInterpreters.length == executionContext.getValidContextSize();
         final Deque<Integer> activeDevices = executionContext.getActiveDeviceIndexes();
-        IntStream.range(0, executionContext.getValidContextSize())
-                .forEach(i -> tornadoVMInterpreters[i] = new TornadoVMInterpreter(executionContext, tornadoVMBytecodes[i], timeProfiler, executionContext.getDevice(activeDevices.pop())));
+        IntStream.range(0, executionContext.getValidContextSize()).forEach(i -> {
+            TornadoAcceleratorDevice device = executionContext.getDevice(activeDevices.pop());
+            tornadoVMInterpreters[i] = new TornadoVMInterpreter(executionContext, tornadoVMBytecodes[i], timeProfiler, device);
+            interpreterExecutors[i] = TornadoCoreRuntime.newInterpreterExecutor(device);
+        });
     }
 
     /**
@@ -117,31 +123,29 @@ public class TornadoVM extends TornadoLogger {
         for (TornadoVMInterpreter tornadoVMInterpreter : tornadoVMInterpreters) {
             tornadoVMInterpreter.execute(false);
         }
-        return new EmptyEvent();
+        return EMPTY_EVENT;
     }
 
     /**
-     * It executes the interpreter manager either in concurrently in multiple
-     * threads or in single-threaded mode.
+     * It executes the interpreters concurrently in multiple threads. Each
+     * interpreter is submitted to the executor of its device, owned by this
+     * {@link TornadoVM} (see {@link TornadoCoreRuntime#newInterpreterExecutor}),
+     * so the threads are reused across executions.
+     * The futures are local to each call, because the same {@link TornadoVM} can
+     * be executed from several threads.
      *
      * @return An {@link Event} indicating the completion of execution.
      */
     private Event executeInterpreterThreadManager() {
-        // Create a thread pool with a fixed number of threads
-        int numberOfJavaThreads = calculateNumberOfJavaThreads();
-        ExecutorService executor = Executors.newFixedThreadPool(numberOfJavaThreads);
-
-        // Create a list to hold the futures of each execution
-        List<Future<?>> futures = new ArrayList<>();
-
-        // Submit each task to the thread pool
-        for (TornadoVMInterpreter tornadoVMInterpreter : tornadoVMInterpreters) {
-            Future<?> future = executor.submit(() -> tornadoVMInterpreter.execute(false));
-            futures.add(future);
+        // Submit each interpreter to the executor of its device
+        final Future<?>[] interpreterFutures = new Future<?>[tornadoVMInterpreters.length];
+        for (int i = 0; i < tornadoVMInterpreters.length; i++) {
+            final TornadoVMInterpreter tornadoVMInterpreter = tornadoVMInterpreters[i];
+            interpreterFutures[i] = interpreterExecutors[i].submit(() -> tornadoVMInterpreter.execute(false));
         }
-        // Wait for all tasks to complete
+        // Wait for all interpreters to complete
         try {
-            for (Future<?> future : futures) {
+            for (Future<?> future : interpreterFutures) {
                 future.get();
             }
         } catch (ExecutionException | InterruptedException e) {
@@ -157,12 +161,9 @@ public class TornadoVM extends TornadoLogger {
             } else {
                 throw new RuntimeException(e);
             }
-        } finally {
-            // Shutdown the executor after all tasks have completed
-            executor.shutdown();
         }
 
-        return new EmptyEvent();
+        return EMPTY_EVENT;
     }
 
     private boolean shouldRunConcurrently() {
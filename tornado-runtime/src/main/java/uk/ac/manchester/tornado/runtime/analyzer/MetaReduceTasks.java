@@ -37,13 +37,15 @@ public class MetaReduceTasks {
 
     private HashMap<Integer, ArrayList<Integer>> reduceList;
     private HashMap<Integer, Integer> reduceSize;
+    private HashMap<Integer, Class<?>> reduceOperators;
     private StructuredGraph graph;
 
-    MetaReduceTasks(int taskIndex, StructuredGraph graph, ArrayList<Integer> reduceIndexes, int inputSize) {
+    MetaReduceTasks(int taskIndex, StructuredGraph graph, ArrayList<Integer> reduceIndexes, int inputSize, HashMap<Integer, Class<?>> reduceOperators) {
         reduceList = new HashMap<>();
         reduceSize = new HashMap<>();
         reduceList.put(taskIndex, reduceIndexes);
         reduceSize.put(taskIndex, inputSize);
+        this.reduceOperators = reduceOperators;
         this.graph = graph;
     }
 
@@ -55,6 +57,16 @@ public class MetaReduceTasks {
         return reduceSize.get(taskIndex);
     }
 
+    /**
+     * @param paramIndex
+     *            Index of the reduce parameter within the method parameter list.
+     * @return The class of the user-defined operator, or null if the operator is
+     *         inferred from the task code.
+     */
+    public Class<?> getReduceOperator(int paramIndex) {
+        return reduceOperators.get(paramIndex);
+    }
+
     public StructuredGraph getGraph() {
         return graph;
     }
@@ -0,0 +1,185 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.analyzer;
+
+import java.lang.reflect.Array;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.ParameterNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValuePhiNode;
+import org.graalvm.compiler.nodes.calc.IntegerLessThanNode;
+import org.graalvm.compiler.nodes.java.ArrayLengthNode;
+import org.graalvm.compiler.nodes.loop.InductionVariable;
+import org.graalvm.compiler.nodes.loop.LoopEx;
+import org.graalvm.compiler.nodes.loop.LoopsData;
+
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import uk.ac.manchester.tornado.runtime.common.ParallelAnnotationProvider;
+import uk.ac.manchester.tornado.runtime.graal.nodes.TornadoLoopsData;
+import uk.ac.manchester.tornado.runtime.graal.phases.TornadoApiReplacement;
+
+/**
+ * Analysis of the outermost {@link uk.ac.manchester.tornado.api.annotations.Parallel}
+ * loop of a method compiled for the host. It is used by the Java fallback to
+ * run the iteration space of a task in chunks.
+ */
+public class ParallelLoopCodeAnalysis {
+
+    /**
+     * Outermost parallel loop of a graph. Its induction variable starts at a
+     * constant and increments by one until a bound that can be evaluated with the
+     * arguments of the method.
+     */
+    public static class ParallelLoop {
+        private final ValuePhiNode phi;
+        private final int init;
+        private final ValueNode bound;
+
+        ParallelLoop(ValuePhiNode phi, int init, ValueNode bound) {
+            this.phi = phi;
+            this.init = init;
+            this.bound = bound;
+        }
+
+        public int getInit() {
+            return init;
+        }
+    }
+
+    /**
+     * It finds the outermost parallel loop of a graph built with
+     * {@link CodeAnalysis#buildHighLevelGraalGraph(Object)}.
+     *
+     * @param graph
+     *            Graph of the task.
+     * @return the {@link ParallelLoop}, or null if the method does not have a
+     *         parallel loop that can be split.
+     */
+    public static ParallelLoop findOutermostParallelLoop(StructuredGraph graph) {
+        ResolvedJavaMethod method = graph.method();
+        ParallelAnnotationProvider[] annotations = TornadoApiReplacement.getParallelAnnotations(method);
+        if (annotations.length == 0 || !graph.hasLoops()) {
+            return null;
+        }
+
+        Set<Node> parallelNodes = new HashSet<>();
+        for (FrameState fs : graph.getNodes().filter(FrameState.class)) {
+            if (!method.equals(fs.getMethod())) {
+                continue;
+            }
+            for (ParallelAnnotationProvider an : annotations) {
+                if (fs.bci >= an.getStart() && fs.bci < an.getStart() + an.getLength()) {
+                    parallelNodes.add(fs.localAt(an.getIndex()));
+                }
+            }
+        }
+
+        final LoopsData data = new TornadoLoopsData(graph);
+        data.detectCountedLoops();
+        for (LoopEx loop : data.outerFirst()) {
+            if (loop.parent() != null) {
+                continue;
+            }
+            for (InductionVariable iv : loop.getInductionVariables().getValues()) {
+                ValueNode valueNode = iv.valueNode();
+                if (!parallelNodes.contains(valueNode) || !(valueNode instanceof ValuePhiNode) || !iv.isConstantInit() || !iv.isConstantStride() || iv.constantStride() != 1) {
+                    continue;
+                }
+                List<IntegerLessThanNode> conditions = valueNode.usages().filter(IntegerLessThanNode.class).snapshot();
+                for (IntegerLessThanNode condition : conditions) {
+                    if (condition.getX() == valueNode && isHostEvaluable(condition.getY())) {
+                        return new ParallelLoop((ValuePhiNode) valueNode, (int) iv.constantInit(), condition.getY());
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isHostEvaluable(ValueNode bound) {
+        if (bound instanceof ConstantNode) {
+            return bound.asJavaConstant() != null && bound.asJavaConstant().getJavaKind() == JavaKind.Int;
+        } else if (bound instanceof ParameterNode) {
+            return bound.getStackKind() == JavaKind.Int;
+        } else if (bound instanceof ArrayLengthNode) {
+            return ((ArrayLengthNode) bound).array() instanceof ParameterNode;
+        }
+        return false;
+    }
+
+    /**
+     * It evaluates the bound of the parallel loop with the arguments of a static
+     * method.
+     *
+     * @param loop
+     *            Parallel loop.
+     * @param arguments
+     *            Arguments of the method.
+     * @return the bound, or the initial value of the loop if the bound cannot be
+     *         evaluated (the loop is not split).
+     */
+    public static int evaluateLoopBound(ParallelLoop loop, Object[] arguments) {
+        ValueNode bound = loop.bound;
+        if (bound instanceof ConstantNode) {
+            return bound.asJavaConstant().asInt();
+        } else if (bound instanceof ParameterNode) {
+            Object value = arguments[((ParameterNode) bound).index()];
+            return (value instanceof Integer) ? (Integer) value : loop.init;
+        }
+        Object array = arguments[((ParameterNode) ((ArrayLengthNode) bound).array()).index()];
+        return (array != null && array.getClass().isArray()) ? Array.getLength(array) : loop.init;
+    }
+
+    /**
+     * It restricts the outermost parallel loop of a graph to the iterations
+     * {@code [start, end)}.
+     *
+     * @param graph
+     *            Copy of the graph of the task.
+     * @param start
+     *            First iteration.
+     * @param end
+     *            Last iteration (exclusive). It must not exceed the bound of the
+     *            loop.
+     */
+    public static void restrictParallelLoop(StructuredGraph graph, int start, int end) {
+        ParallelLoop loop = findOutermostParallelLoop(graph);
+        assert loop != null;
+        loop.phi.setValueAt(0, graph.addOrUnique(ConstantNode.forInt(start)));
+        ConstantNode endNode = graph.addOrUnique(ConstantNode.forInt(end));
+        for (IntegerLessThanNode condition : loop.phi.usages().filter(IntegerLessThanNode.class).snapshot()) {
+            if (condition.getX() == loop.phi && condition.getY() == loop.bound) {
+                condition.replaceAtUsages(graph.addOrUnique(new IntegerLessThanNode(loop.phi, endNode)));
+            }
+        }
+    }
+}
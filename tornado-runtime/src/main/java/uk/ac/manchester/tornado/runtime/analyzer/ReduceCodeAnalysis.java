@@ -351,11 +351,16 @@ public class ReduceCodeAnalysis {
             assert graph != null;
             Annotation[][] annotations = graph.method().getParameterAnnotations();
             ArrayList<Integer> reduceIndices = new ArrayList<>();
+            HashMap<Integer, Class<?>> reduceOperators = new HashMap<>();
 
             for (int paramIndex = 0; paramIndex < annotations.length; paramIndex++) {
                 for (Annotation annotation : annotations[paramIndex]) {
                     if (annotation instanceof Reduce) {
                         reduceIndices.add(paramIndex);
+                        Class<?> operator = ((Reduce) annotation).operator();
+                        if (operator != Void.class) {
+                            reduceOperators.put(paramIndex, operator);
+                        }
                     }
                 }
             }
@@ -380,7 +385,7 @@ public class ReduceCodeAnalysis {
                 }
             }
 
-            MetaReduceTasks reduceTasks = new MetaReduceTasks(taskIndex, graph, reduceIndices, inputSize);
+            MetaReduceTasks reduceTasks = new MetaReduceTasks(taskIndex, graph, reduceIndices, inputSize, reduceOperators);
             tableMetaDataReduce.put(taskIndex, reduceTasks);
             taskIndex++;
         }
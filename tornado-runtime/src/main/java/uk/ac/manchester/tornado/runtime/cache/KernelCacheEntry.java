@@ -0,0 +1,205 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import uk.ac.manchester.tornado.runtime.domain.DomainTree;
+import uk.ac.manchester.tornado.runtime.domain.IntDomain;
+import uk.ac.manchester.tornado.runtime.tasks.meta.TaskMetaData;
+
+/**
+ * An entry of the {@link PersistentKernelCache}. It contains the generated code
+ * for a task, an optional device binary (e.g., the OpenCL program binary) and
+ * the state that the compiler leaves in the {@link TaskMetaData} and that must
+ * be restored when the compilation is skipped.
+ */
+public class KernelCacheEntry {
+
+    private static final int NO_DOMAIN = -1;
+    private static final int NO_LOCAL_WORK = -1;
+
+    private final String entryPoint;
+    private final byte[] code;
+    private final byte[] binary;
+    private final int[] domain;
+    private final long[] compilerLocalWork;
+
+    public KernelCacheEntry(String entryPoint, byte[] code, byte[] binary, TaskMetaData meta) {
+        this(entryPoint, code, binary, flattenDomain(meta.getDomain()), meta.getCompilerLocalWork());
+    }
+
+    private KernelCacheEntry(String entryPoint, byte[] code, byte[] binary, int[] domain, long[] compilerLocalWork) {
+        this.entryPoint = entryPoint;
+        this.code = code;
+        this.binary = binary;
+        this.domain = domain;
+        this.compilerLocalWork = compilerLocalWork;
+    }
+
+    public String getEntryPoint() {
+        return entryPoint;
+    }
+
+    public byte[] getCode() {
+        return code;
+    }
+
+    public boolean hasBinary() {
+        return binary != null && binary.length > 0;
+    }
+
+    public byte[] getBinary() {
+        return binary;
+    }
+
+    /**
+     * It restores the side effects of the compilation in the task meta-data: the
+     * compiled graph, the iteration domain obtained by the shape analysis and the
+     * local work selected by the compiler.
+     *
+     * @param meta
+     *            {@link TaskMetaData} of the task.
+     * @param resolvedMethod
+     *            {@link ResolvedJavaMethod} of the task.
+     */
+    public void restoreMetaData(TaskMetaData meta, ResolvedJavaMethod resolvedMethod) {
+        meta.setCompiledGraph(resolvedMethod);
+        if (domain != null) {
+            DomainTree domainTree = new DomainTree(domain.length / 3);
+            for (int i = 0; i < domainTree.getDepth(); i++) {
+                domainTree.set(i, new IntDomain(domain[3 * i], domain[3 * i + 1], domain[3 * i + 2]));
+            }
+            meta.setDomain(domainTree);
+        }
+        meta.setCompilerLocalWork(compilerLocalWork);
+    }
+
+    /**
+     * The cache only stores domains built from {@link IntDomain}, which is what
+     * the shape analysis produces. Any other domain makes the entry not cacheable.
+     */
+    static boolean isCacheable(DomainTree domainTree) {
+        if (domainTree == null) {
+            return true;
+        }
+        for (int i = 0; i < domainTree.getDepth(); i++) {
+            if (!(domainTree.get(i) instanceof IntDomain)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] flattenDomain(DomainTree domainTree) {
+        if (domainTree == null || !isCacheable(domainTree)) {
+            return null;
+        }
+        int[] values = new int[domainTree.getDepth() * 3];
+        for (int i = 0; i < domainTree.getDepth(); i++) {
+            IntDomain intDomain = (IntDomain) domainTree.get(i);
+            values[3 * i] = intDomain.getOffset();
+            values[3 * i + 1] = intDomain.getStep();
+            values[3 * i + 2] = intDomain.cardinality();
+        }
+        return values;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeUTF(entryPoint);
+        writeBytes(out, code);
+        writeBytes(out, binary);
+        if (domain == null) {
+            out.writeInt(NO_DOMAIN);
+        } else {
+            out.writeInt(domain.length);
+            for (int value : domain) {
+                out.writeInt(value);
+            }
+        }
+        if (compilerLocalWork == null) {
+            out.writeInt(NO_LOCAL_WORK);
+        } else {
+            out.writeInt(compilerLocalWork.length);
+            for (long value : compilerLocalWork) {
+                out.writeLong(value);
+            }
+        }
+    }
+
+    static KernelCacheEntry readFrom(DataInputStream in) throws IOException {
+        String entryPoint = in.readUTF();
+        byte[] code = readBytes(in);
+        byte[] binary = readBytes(in);
+        int domainLength = in.readInt();
+        int[] domain = null;
+        if (domainLength != NO_DOMAIN) {
+            checkLength(in, domainLength, Integer.BYTES);
+            domain = new int[domainLength];
+            for (int i = 0; i < domainLength; i++) {
+                domain[i] = in.readInt();
+            }
+        }
+        int localWorkLength = in.readInt();
+        long[] compilerLocalWork = null;
+        if (localWorkLength != NO_LOCAL_WORK) {
+            checkLength(in, localWorkLength, Long.BYTES);
+            compilerLocalWork = new long[localWorkLength];
+            for (int i = 0; i < localWorkLength; i++) {
+                compilerLocalWork[i] = in.readLong();
+            }
+        }
+        return new KernelCacheEntry(entryPoint, code, binary, domain, compilerLocalWork);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(0);
+        } else {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        checkLength(in, length, Byte.BYTES);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Entries are read from an in-memory payload, so the remaining bytes bound
+     * the length of any array stored in it.
+     */
+    private static void checkLength(DataInputStream in, int length, int elementSize) throws IOException {
+        if (length < 0 || (long) length * elementSize > in.available()) {
+            throw new IOException("invalid length " + length);
+        }
+    }
+}
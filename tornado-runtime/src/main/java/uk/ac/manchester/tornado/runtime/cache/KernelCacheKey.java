@@ -0,0 +1,299 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.cache;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.graalvm.compiler.nodes.Invoke;
+import org.graalvm.compiler.nodes.StructuredGraph;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import uk.ac.manchester.tornado.api.WorkerGrid;
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.runtime.common.RuntimeUtilities;
+import uk.ac.manchester.tornado.runtime.common.TornadoAcceleratorDevice;
+import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+import uk.ac.manchester.tornado.runtime.sketcher.Sketch;
+import uk.ac.manchester.tornado.runtime.sketcher.TornadoSketcher;
+import uk.ac.manchester.tornado.runtime.tasks.CompilableTask;
+import uk.ac.manchester.tornado.runtime.tasks.meta.TaskMetaData;
+
+/**
+ * It computes the key of an entry in the {@link PersistentKernelCache}. The key
+ * is a SHA-256 digest of everything that influences the code generated for a
+ * task:
+ *
+ * <ul>
+ * <li>The bytecode of the task method and of all its inlined and non-inlined
+ * callees.</li>
+ * <li>The values the JIT compiler specialises on: scalar arguments, array
+ * lengths and the primitive fields of object arguments.</li>
+ * <li>The task meta-data options (compiler flags, parallelisation, grid
+ * dimensions and number of threads) and the global compiler options.</li>
+ * <li>The device signature: backend, platform, device name, OpenCL C version
+ * and driver version.</li>
+ * <li>The version of TornadoVM, of the backend and of the JVM (which provides
+ * the Graal compiler), so an upgrade never reuses stale kernels.</li>
+ * </ul>
+ */
+public final class KernelCacheKey {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    /**
+     * Digest of the name and bytecode of each method. The bytecode of a method
+     * does not change, and the methods are already kept alive by the sketches
+     * of the {@link TornadoSketcher}.
+     */
+    private static final Map<ResolvedJavaMethod, byte[]> METHOD_DIGESTS = new ConcurrentHashMap<>();
+
+    private final MessageDigest digest;
+
+    private KernelCacheKey() {
+        try {
+            digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new TornadoRuntimeException(e);
+        }
+    }
+
+    /**
+     * It computes the cache key for a task that is going to be compiled for the
+     * given device.
+     *
+     * @param task
+     *            {@link CompilableTask} to compile.
+     * @param resolvedMethod
+     *            {@link ResolvedJavaMethod} of the task.
+     * @param sketch
+     *            {@link Sketch} of the task method.
+     * @param device
+     *            {@link TornadoAcceleratorDevice} that will run the kernel.
+     * @param driverVersion
+     *            Version of the driver of the device.
+     * @return Hexadecimal representation of the key.
+     */
+    public static String of(CompilableTask task, ResolvedJavaMethod resolvedMethod, Sketch sketch, TornadoAcceleratorDevice device, String driverVersion) {
+        KernelCacheKey key = new KernelCacheKey();
+        key.addMethods(resolvedMethod, sketch, task.meta().getDriverIndex(), task.meta().getDeviceIndex());
+        key.addArguments(task.getArguments());
+        key.addMetaData(task.meta(), task.getBatchThreads());
+        key.addCompilerOptions();
+        key.addCompilerVersion(device);
+        key.addDevice(device, driverVersion);
+        return key.toHexString();
+    }
+
+    private void addMethods(ResolvedJavaMethod resolvedMethod, Sketch sketch, int driverIndex, int deviceIndex) {
+        // Sort the methods to obtain the same key independently of the traversal order
+        Set<ResolvedJavaMethod> methods = new TreeSet<>(Comparator.comparing(KernelCacheKey::methodName));
+        methods.add(resolvedMethod);
+
+        // Non-inlined methods are compiled from their own sketches, so the whole
+        // call graph is visited
+        final Deque<Sketch> workList = new ArrayDeque<>();
+        workList.push(sketch);
+        while (!workList.isEmpty()) {
+            final StructuredGraph graph = (StructuredGraph) workList.pop().getGraph().getReadonlyCopy();
+            methods.addAll(graph.getMethods());
+            for (Invoke invoke : graph.getInvokes()) {
+                ResolvedJavaMethod callee = invoke.callTarget().targetMethod();
+                if (methods.add(callee)) {
+                    workList.push(TornadoSketcher.lookup(callee, driverIndex, deviceIndex));
+                }
+            }
+        }
+        for (ResolvedJavaMethod method : methods) {
+            addMethod(method);
+        }
+    }
+
+    private static String methodName(ResolvedJavaMethod method) {
+        return method.format("%H.%n(%P)%R");
+    }
+
+    private void addMethod(ResolvedJavaMethod method) {
+        digest.update(METHOD_DIGESTS.computeIfAbsent(method, KernelCacheKey::digestMethod));
+    }
+
+    private static byte[] digestMethod(ResolvedJavaMethod method) {
+        KernelCacheKey key = new KernelCacheKey();
+        key.add(methodName(method));
+        byte[] code = method.getCode();
+        if (code != null) {
+            key.digest.update(code);
+        }
+        return key.digest.digest();
+    }
+
+    private void addArguments(Object[] arguments) {
+        add("args:" + arguments.length);
+        for (Object argument : arguments) {
+            addArgument(argument);
+        }
+    }
+
+    private void addArgument(Object argument) {
+        if (argument == null) {
+            add("null");
+        } else if (RuntimeUtilities.isBoxedPrimitive(argument)) {
+            add(argument.getClass().getName() + "=" + argument);
+        } else if (argument.getClass().isArray()) {
+            add(argument.getClass().getName() + "[" + Array.getLength(argument) + "]");
+        } else {
+            add(argument.getClass().getName());
+            addFields(argument);
+        }
+    }
+
+    /**
+     * The JIT compiler propagates the values of primitive fields and the lengths
+     * of arrays reachable from the arguments (e.g., the number of elements in a
+     * {@link uk.ac.manchester.tornado.api.collections.types.VectorFloat}). Those
+     * values are part of the key.
+     */
+    private void addFields(Object object) {
+        for (Class<?> klass = object.getClass(); klass != null && klass != Object.class; klass = klass.getSuperclass()) {
+            Field[] fields = klass.getDeclaredFields();
+            Arrays.sort(fields, Comparator.comparing(Field::getName));
+            for (Field field : fields) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    Object value = field.get(object);
+                    if (field.getType().isPrimitive()) {
+                        add(field.getName() + "=" + value);
+                    } else if (value != null && value.getClass().isArray()) {
+                        add(field.getName() + "[" + Array.getLength(value) + "]");
+                    } else {
+                        add(field.getName() + ":" + (value == null ? "null" : value.getClass().getName()));
+                    }
+                } catch (RuntimeException | IllegalAccessException e) {
+                    // Fields that cannot be inspected only contribute with their name
+                    add(field.getName());
+                }
+            }
+        }
+    }
+
+    private void addMetaData(TaskMetaData meta, long batchThreads) {
+        add(meta.getId());
+        add(meta.getCompilerFlags());
+        add(String.valueOf(meta.enableParallelization()));
+        add(String.valueOf(meta.enableVectors()));
+        add(String.valueOf(meta.enableExceptions()));
+        add(String.valueOf(meta.enableThreadCoarsener()));
+        add(String.valueOf(meta.getCpuConfig()));
+        add(meta.getOpenCLGpuBlockX() + "," + meta.getOpenCLGpuBlock2DX() + "," + meta.getOpenCLGpuBlock2DY());
+        add("threads:" + meta.getNumThreads() + ":" + batchThreads);
+        add("grid:" + meta.isGridSchedulerEnabled());
+        if (meta.isWorkerGridAvailable()) {
+            WorkerGrid grid = meta.getWorkerGrid(meta.getId());
+            add(grid.dimension() + Arrays.toString(grid.getGlobalWork()) + Arrays.toString(grid.getLocalWork()));
+        }
+    }
+
+    private void addCompilerOptions() {
+        add(String.valueOf(TornadoOptions.ENABLE_FMA));
+        add(String.valueOf(TornadoOptions.MATH_OPTIMIZATIONS));
+        add(String.valueOf(TornadoOptions.FAST_MATH_OPTIMIZATIONS));
+        add(String.valueOf(TornadoOptions.ENABLE_NATIVE_FUNCTION));
+        add(String.valueOf(TornadoOptions.FULL_INLINING));
+        add(String.valueOf(TornadoOptions.INLINE_DURING_BYTECODE_PARSING));
+        add(String.valueOf(TornadoOptions.EXPERIMENTAL_REDUCE));
+        add(String.valueOf(TornadoOptions.ENABLE_EXCEPTIONS));
+        add(String.valueOf(TornadoOptions.isPartialUnrollEnabled()));
+        add(String.valueOf(TornadoOptions.AUTO_VECTORISATION));
+        add(String.valueOf(TornadoOptions.OPENCL_SUBGROUP_REDUCTIONS));
+        add(String.valueOf(TornadoOptions.REUSE_LOCAL_WORK));
+        add(String.valueOf(TornadoOptions.LOCAL_MEMORY_TILING));
+    }
+
+    /**
+     * Release builds carry the version in the jar manifest. Development builds
+     * do not, so the size and modification time of the jars of the runtime and
+     * of the backend are also part of the key.
+     */
+    private void addCompilerVersion(TornadoAcceleratorDevice device) {
+        add(System.getProperty("java.vm.version"));
+        addCodeSource(KernelCacheKey.class);
+        addCodeSource(device.getClass());
+    }
+
+    private void addCodeSource(Class<?> klass) {
+        add(klass.getPackage() == null ? null : klass.getPackage().getImplementationVersion());
+        try {
+            CodeSource codeSource = klass.getProtectionDomain().getCodeSource();
+            if (codeSource != null && codeSource.getLocation() != null) {
+                Path path = Paths.get(codeSource.getLocation().toURI());
+                add(path + ":" + Files.size(path) + ":" + Files.getLastModifiedTime(path).toMillis());
+            }
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            add(klass.getName());
+        }
+    }
+
+    private void addDevice(TornadoAcceleratorDevice device, String driverVersion) {
+        add(device.getTornadoVMBackend().name());
+        add(device.getPlatformName());
+        add(device.getDeviceName());
+        add(device.getDeviceOpenCLCVersion());
+        add(driverVersion);
+    }
+
+    private void add(String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        // Separator to avoid collisions between consecutive values
+        digest.update((byte) 0);
+    }
+
+    private String toHexString() {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
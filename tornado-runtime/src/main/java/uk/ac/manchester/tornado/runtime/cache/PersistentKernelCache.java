@@ -0,0 +1,281 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.cache;
+
+import static uk.ac.manchester.tornado.runtime.common.Tornado.debug;
+import static uk.ac.manchester.tornado.runtime.common.Tornado.warn;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.type.StampTool;
+
+import jdk.vm.ci.meta.JavaType;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.ResolvedJavaType;
+import jdk.vm.ci.meta.Signature;
+import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+import uk.ac.manchester.tornado.runtime.sketcher.Sketch;
+import uk.ac.manchester.tornado.runtime.tasks.meta.TaskMetaData;
+
+/**
+ * Persistent on-disk cache of compiled kernels. It allows a new JVM process to
+ * skip the JIT compilation of a task that has already been compiled for the
+ * same device, with the same arguments shapes and the same compiler options.
+ *
+ * <p>
+ * Each entry is stored in a separate file named after its
+ * {@link KernelCacheKey}. Files are written in a temporary file and atomically
+ * renamed, so concurrent processes sharing the same directory never observe
+ * partial entries. Entries are validated with a CRC32 checksum and removed if
+ * they are corrupted. When the size of the directory exceeds
+ * {@link TornadoOptions#PERSISTENT_KERNEL_CACHE_SIZE}, the least recently used
+ * entries are evicted.
+ * </p>
+ *
+ * <p>
+ * The cache is enabled with {@code -Dtornado.kernel.cache.enable=True}.
+ * </p>
+ */
+public final class PersistentKernelCache {
+
+    private static final int MAGIC = 0x544B4331; // "TKC1"
+    private static final int FORMAT_VERSION = 2;
+    private static final String FILE_EXTENSION = ".tkc";
+
+    private static final Path CACHE_DIRECTORY = Paths.get(TornadoOptions.PERSISTENT_KERNEL_CACHE_DIR);
+
+    private PersistentKernelCache() {
+    }
+
+    public static boolean isEnabled() {
+        return TornadoOptions.PERSISTENT_KERNEL_CACHE;
+    }
+
+    /**
+     * Tasks whose iteration domain cannot be serialised are not stored.
+     *
+     * @param meta
+     *            {@link TaskMetaData} of a compiled task.
+     * @return True if the compiled task can be stored in the cache.
+     */
+    public static boolean isCacheable(TaskMetaData meta) {
+        return isEnabled() && KernelCacheEntry.isCacheable(meta.getDomain());
+    }
+
+    /**
+     * Kernels with atomics depend on the global state of the compiler (the
+     * position of each atomic in the atomics buffer), so they are not stored. A
+     * kernel uses atomics if one of its methods receives an atomic, or if the
+     * sketch of the task creates one.
+     *
+     * @param sketch
+     *            {@link Sketch} of the task method.
+     * @param methods
+     *            Methods of the compiled kernel, or null if not available.
+     * @return True if the kernel uses atomics.
+     */
+    public static boolean usesAtomics(Sketch sketch, ResolvedJavaMethod[] methods) {
+        for (ResolvedJavaMethod method : (methods == null) ? new ResolvedJavaMethod[0] : methods) {
+            Signature signature = method.getSignature();
+            for (int i = 0; i < signature.getParameterCount(false); i++) {
+                if (isAtomic(signature.getParameterType(i, method.getDeclaringClass()))) {
+                    return true;
+                }
+            }
+        }
+        final StructuredGraph graph = (StructuredGraph) sketch.getGraph().getReadonlyCopy();
+        for (ValueNode node : graph.getNodes().filter(ValueNode.class)) {
+            ResolvedJavaType type = StampTool.typeOrNull(node);
+            if (type != null && isAtomic(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAtomic(JavaType type) {
+        return type.toJavaName().startsWith(AtomicInteger.class.getPackage().getName());
+    }
+
+    /**
+     * It looks up an entry in the cache.
+     *
+     * @param key
+     *            Key computed with {@link KernelCacheKey}.
+     * @return The {@link KernelCacheEntry}, or null if the entry is not present or
+     *         it is not valid.
+     */
+    public static KernelCacheEntry load(String key) {
+        Path file = entryPath(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !key.equals(in.readUTF())) {
+                throw new IOException("invalid header");
+            }
+            // The length is bounded by the file size before allocating, so a corrupted
+            // entry is a miss and never an OutOfMemoryError
+            int payloadLength = in.readInt();
+            if (payloadLength < 0 || payloadLength > Files.size(file)) {
+                throw new IOException("invalid payload length " + payloadLength);
+            }
+            byte[] payload = new byte[payloadLength];
+            long checksum = in.readLong();
+            in.readFully(payload);
+            if (checksum(payload) != checksum) {
+                throw new IOException("checksum mismatch");
+            }
+            KernelCacheEntry entry = KernelCacheEntry.readFrom(new DataInputStream(new ByteArrayInputStream(payload)));
+            // Update the access time used by the LRU eviction
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            debug("kernel cache hit: %s (%s)", key, entry.getEntryPoint());
+            return entry;
+        } catch (IOException | RuntimeException e) {
+            warn("Removing invalid kernel cache entry %s: %s", file, e.getMessage());
+            deleteQuietly(file);
+            return null;
+        }
+    }
+
+    /**
+     * It stores an entry in the cache. Failures are reported as warnings and never
+     * propagated, since the cache is only an optimisation.
+     *
+     * @param key
+     *            Key computed with {@link KernelCacheKey}.
+     * @param entry
+     *            {@link KernelCacheEntry} to store.
+     */
+    public static void store(String key, KernelCacheEntry entry) {
+        Path tmpFile = null;
+        try {
+            Files.createDirectories(CACHE_DIRECTORY);
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(payload)) {
+                entry.writeTo(out);
+            }
+            byte[] payloadBytes = payload.toByteArray();
+
+            tmpFile = Files.createTempFile(CACHE_DIRECTORY, key, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tmpFile))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(key);
+                out.writeInt(payloadBytes.length);
+                out.writeLong(checksum(payloadBytes));
+                out.write(payloadBytes);
+            }
+            moveAtomically(tmpFile, entryPath(key));
+            debug("kernel cache store: %s (%s)", key, entry.getEntryPoint());
+            evict();
+        } catch (IOException | RuntimeException e) {
+            warn("Unable to store kernel cache entry %s: %s", key, e.getMessage());
+            if (tmpFile != null) {
+                deleteQuietly(tmpFile);
+            }
+        }
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * It removes the least recently used entries until the size of the cache is
+     * below the configured limit.
+     */
+    private static void evict() throws IOException {
+        List<Path> entries = new ArrayList<>();
+        long totalSize = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(CACHE_DIRECTORY, "*" + FILE_EXTENSION)) {
+            for (Path file : stream) {
+                entries.add(file);
+                totalSize += Files.size(file);
+            }
+        }
+        if (totalSize <= TornadoOptions.PERSISTENT_KERNEL_CACHE_SIZE) {
+            return;
+        }
+        entries.sort(Comparator.comparingLong(PersistentKernelCache::lastModified));
+        for (Path file : entries) {
+            if (totalSize <= TornadoOptions.PERSISTENT_KERNEL_CACHE_SIZE) {
+                break;
+            }
+            long size = Files.size(file);
+            if (deleteQuietly(file)) {
+                totalSize -= size;
+                debug("kernel cache evict: %s", file);
+            }
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static boolean deleteQuietly(Path file) {
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static Path entryPath(String key) {
+        return CACHE_DIRECTORY.resolve(key + FILE_EXTENSION);
+    }
+
+    private static long checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+}
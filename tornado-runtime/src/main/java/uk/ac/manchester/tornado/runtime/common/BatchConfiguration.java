@@ -25,9 +25,9 @@ package uk.ac.manchester.tornado.runtime.common;
 
 import java.lang.reflect.Array;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
 
+import uk.ac.manchester.tornado.api.data.nativetypes.TornadoNativeArray;
 import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
 import uk.ac.manchester.tornado.runtime.graph.TornadoExecutionContext;
 
@@ -35,69 +35,158 @@ import uk.ac.manchester.tornado.runtime.graph.TornadoExecutionContext;
  * It presents the configuration for processing data in batches. This class
  * provides methods to compute chunk sizes based on the batch size and input
  * objects.
+ *
+ * <p>
+ * The iteration space of a batch is expressed in elements of the smallest
+ * batched array. Each batched array has a footprint (bytes per iteration),
+ * computed from its element type and from the ratio between its length and the
+ * length of the iteration space. Therefore, input objects with different data
+ * types and sizes are split in chunks that cover the same iterations. Objects
+ * marked as broadcast, and non-array objects, are not split: they are copied
+ * in full.
+ * </p>
  */
 public class BatchConfiguration {
     private final int totalChunks;
-    private final int remainingChunkSize;
-    private final short numBytesType;
+    private final long elementsPerChunk;
+    private final long remainingElements;
+    private final long[] bytesPerIteration;
 
     /**
      * Constructs a BatchConfiguration object with the specified parameters.
      *
      * @param totalChunks
      *            The total number of chunks.
-     * @param remainingChunkSize
-     *            The size of the remaining chunk.
-     * @param numBytesType
-     *            The number of bytes for the data type.
+     * @param elementsPerChunk
+     *            The number of iterations processed by each chunk.
+     * @param remainingElements
+     *            The number of iterations of the last (smaller) chunk.
+     * @param bytesPerIteration
+     *            The footprint, in bytes per iteration, of each object of the
+     *            execution context. Zero for objects that are not split.
      */
-    public BatchConfiguration(int totalChunks, int remainingChunkSize, short numBytesType) {
+    public BatchConfiguration(int totalChunks, long elementsPerChunk, long remainingElements, long[] bytesPerIteration) {
         this.totalChunks = totalChunks;
-        this.remainingChunkSize = remainingChunkSize;
-        this.numBytesType = numBytesType;
+        this.elementsPerChunk = elementsPerChunk;
+        this.remainingElements = remainingElements;
+        this.bytesPerIteration = bytesPerIteration;
     }
 
     public static BatchConfiguration computeChunkSizes(TornadoExecutionContext context, long batchSize) {
-        // Get the size of the batch
-        List<Object> inputObjects = context.getObjects();
-        long totalSize = 0;
-        DataTypeSize dataTypeSize = null;
+        long[] bytesPerIteration = new long[context.getObjects().size()];
+        long numIterations = computeFootprint(context, bytesPerIteration);
+        long maxBytesPerIteration = Arrays.stream(bytesPerIteration).max().orElse(0);
+
+        // The batch size bounds the size of the largest device buffer
+        long elementsPerChunk = batchSize / maxBytesPerIteration;
+        if (elementsPerChunk == 0) {
+            throw new TornadoRuntimeException("[ERROR] Batch size of " + batchSize + " bytes is smaller than the footprint of one iteration (" + maxBytesPerIteration + " bytes)");
+        }
+
+        int totalChunks = (int) (numIterations / elementsPerChunk);
+        long remainingElements = numIterations % elementsPerChunk;
+
+        if (Tornado.DEBUG) {
+            System.out.println("Batch Size: " + batchSize);
+            System.out.println("Elements per chunk: " + elementsPerChunk);
+            System.out.println("Total chunks: " + totalChunks);
+            System.out.println("remainingElements: " + remainingElements);
+        }
+        return new BatchConfiguration(totalChunks, elementsPerChunk, remainingElements, bytesPerIteration);
+    }
+
+    /**
+     * It computes the configuration of a co-execution partition: a single chunk
+     * of the iteration space that is processed by one device.
+     *
+     * @param context
+     *            Execution context of the partition.
+     * @param numElements
+     *            Number of iterations of the partition.
+     * @return {@link BatchConfiguration} with a single chunk.
+     */
+    public static BatchConfiguration computePartition(TornadoExecutionContext context, long numElements) {
+        long[] bytesPerIteration = new long[context.getObjects().size()];
+        computeFootprint(context, bytesPerIteration);
+        return new BatchConfiguration(1, numElements, 0, bytesPerIteration);
+    }
 
-        HashSet<Class<?>> classObjects = new HashSet<>();
-        HashSet<Long> inputSizes = new HashSet<>();
+    /**
+     * It splits an iteration space in contiguous partitions, one per ratio. Each
+     * partition ends at the rounded cumulative ratio, so rounding errors do not
+     * accumulate, and the last partition takes the remaining iterations.
+     *
+     * @param ratios
+     *            Fraction of the iteration space of each partition. The fractions
+     *            add up to one.
+     * @param numIterations
+     *            Number of iterations to split.
+     * @return Number of iterations of each partition. A partition can be empty.
+     */
+    public static long[] computePartitionSizes(double[] ratios, long numIterations) {
+        long[] sizes = new long[ratios.length];
+        long offset = 0;
+        double cumulativeRatio = 0;
+        for (int i = 0; i < ratios.length; i++) {
+            cumulativeRatio += ratios[i];
+            long end = (i == ratios.length - 1) ? numIterations : Math.min(numIterations, Math.round(cumulativeRatio * numIterations));
+            sizes[i] = end - offset;
+            offset = end;
+        }
+        return sizes;
+    }
+
+    /**
+     * @param context
+     *            Execution context.
+     * @return Number of iterations of the batch iteration space, given by the
+     *         smallest batched array.
+     */
+    public static long computeNumIterations(TornadoExecutionContext context) {
+        return computeFootprint(context, new long[context.getObjects().size()]);
+    }
 
-        for (Object o : inputObjects) {
+    private static long computeFootprint(TornadoExecutionContext context, long[] bytesPerIteration) {
+        List<Object> inputObjects = context.getObjects();
+        long[] lengths = new long[inputObjects.size()];
+
+        // The iteration space is given by the smallest batched array
+        long numIterations = Long.MAX_VALUE;
+        for (int i = 0; i < inputObjects.size(); i++) {
+            Object o = inputObjects.get(i);
+            if (context.isBatchBroadcast(o)) {
+                continue;
+            }
             if (o.getClass().isArray()) {
-                Class<?> componentType = o.getClass().getComponentType();
-                dataTypeSize = findDataTypeSize(componentType);
+                DataTypeSize dataTypeSize = findDataTypeSize(o.getClass().getComponentType());
                 if (dataTypeSize == null) {
                     throw new TornadoRuntimeException("[UNSUPPORTED] Data type not supported for processing in batches");
                 }
-                long size = Array.getLength(o);
-                totalSize = size * dataTypeSize.getSize();
-
-                classObjects.add(componentType);
-                inputSizes.add(totalSize);
-                if (classObjects.size() > 1) {
-                    throw new TornadoRuntimeException("[UNSUPPORTED] Input objects with different data types not currently supported");
-                }
-                if (inputSizes.size() > 1) {
-                    throw new TornadoRuntimeException("[UNSUPPORTED] Input objects with different sizes not currently supported");
-                }
+                lengths[i] = Array.getLength(o);
+                bytesPerIteration[i] = dataTypeSize.getSize();
+                numIterations = Math.min(numIterations, lengths[i]);
+            } else if (o instanceof TornadoNativeArray) {
+                lengths[i] = ((TornadoNativeArray) o).getSize();
+                bytesPerIteration[i] = ((TornadoNativeArray) o).getElementSize();
+                numIterations = Math.min(numIterations, lengths[i]);
             }
         }
 
-        assert dataTypeSize != null;
-
-        int totalChunks = (int) (totalSize / batchSize);
-        int remainingChunkSize = (int) (totalSize % batchSize);
+        if (numIterations == Long.MAX_VALUE || numIterations == 0) {
+            throw new TornadoRuntimeException("[UNSUPPORTED] No input arrays to process in batches");
+        }
 
-        if (Tornado.DEBUG) {
-            System.out.println("Batch Size: " + batchSize);
-            System.out.println("Total chunks: " + totalChunks);
-            System.out.println("remainingChunkSize: " + remainingChunkSize);
+        for (int i = 0; i < inputObjects.size(); i++) {
+            if (bytesPerIteration[i] == 0) {
+                continue;
+            }
+            if (lengths[i] % numIterations != 0) {
+                throw new TornadoRuntimeException("[UNSUPPORTED] The size of the input object " + i + " (" + lengths[i] + " elements) is not a multiple of the batch iteration space (" + numIterations
+                        + " elements). Use withBatchBroadcast() to copy it without splitting it in batches");
+            }
+            bytesPerIteration[i] *= lengths[i] / numIterations;
         }
-        return new BatchConfiguration(totalChunks, remainingChunkSize, dataTypeSize.getSize());
+        return numIterations;
     }
 
     private static DataTypeSize findDataTypeSize(Class<?> dataType) {
@@ -108,12 +197,31 @@ public class BatchConfiguration {
         return totalChunks;
     }
 
-    public int getRemainingChunkSize() {
-        return remainingChunkSize;
+    public long getElementsPerChunk() {
+        return elementsPerChunk;
     }
 
-    public short getNumBytesType() {
-        return numBytesType;
+    public long getRemainingElements() {
+        return remainingElements;
+    }
+
+    /**
+     * @param objectIndex
+     *            Index of the object in the execution context.
+     * @return True if the object is copied in full instead of being split in
+     *         batches.
+     */
+    public boolean isBroadcast(int objectIndex) {
+        return objectIndex >= bytesPerIteration.length || bytesPerIteration[objectIndex] == 0;
+    }
+
+    /**
+     * @param objectIndex
+     *            Index of the object in the execution context.
+     * @return Number of bytes of the object accessed by each iteration.
+     */
+    public long getBytesPerIteration(int objectIndex) {
+        return isBroadcast(objectIndex) ? 0 : bytesPerIteration[objectIndex];
     }
 
     private enum DataTypeSize {
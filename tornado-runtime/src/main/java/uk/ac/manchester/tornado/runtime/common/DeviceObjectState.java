@@ -36,12 +36,14 @@ public class DeviceObjectState implements TornadoDeviceObjectState {
     private boolean atomicRegionPresent;
 
     private boolean contents;
+    private int contentsVersion;
     private boolean lockBuffer;
 
     public DeviceObjectState() {
         objectBuffer = null;
         atomicRegionPresent = false;
         contents = false;
+        contentsVersion = -1;
         lockBuffer = false;
     }
 
@@ -76,6 +78,20 @@ public class DeviceObjectState implements TornadoDeviceObjectState {
 
     public void setContents(boolean value) {
         contents = value;
+        if (!value) {
+            contentsVersion = -1;
+        }
+    }
+
+    /**
+     * Host version of the object held by the device buffer, or -1 if unknown.
+     */
+    public int getContentsVersion() {
+        return contentsVersion;
+    }
+
+    public void setContentsVersion(int contentsVersion) {
+        this.contentsVersion = contentsVersion;
     }
 
     @Override
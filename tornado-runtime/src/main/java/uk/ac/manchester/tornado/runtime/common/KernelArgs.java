@@ -25,7 +25,6 @@
  */
 package uk.ac.manchester.tornado.runtime.common;
 
-import java.util.HashMap;
 import java.util.List;
 
 public interface KernelArgs {
@@ -57,5 +56,5 @@ public interface KernelArgs {
 
     void addCallArgument(Object value, boolean isReferenceType);
 
-    void setKernelContext(HashMap<Integer, Integer> map);
+    void setKernelContext(int[] maxThreads);
 }
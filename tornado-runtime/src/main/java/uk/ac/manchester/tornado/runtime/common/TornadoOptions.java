@@ -55,6 +55,17 @@ public class TornadoOptions {
      * Option to set the device maximum memory usage. It is set to 1GB by default.
      */
     public static final long DEVICE_AVAILABLE_MEMORY = RuntimeUtilities.parseSize(System.getProperty("tornado.device.memory", "1GB"));
+    /**
+     * Option to sub-allocate the small arrays of a task-graph from large device
+     * arenas, instead of allocating one device buffer per array. It is disabled
+     * by default.
+     */
+    public static final boolean DEVICE_ARENA = getBooleanValue("tornado.device.arena", FALSE);
+    /**
+     * Option to set the size of each device arena. Only objects up to a quarter
+     * of the arena are sub-allocated. It is set to 16MB by default.
+     */
+    public static final long DEVICE_ARENA_SIZE = RuntimeUtilities.parseSize(System.getProperty("tornado.device.arena.size", "16MB"));
     /**
      * Option to enable exceptions for the OpenCL generated code. This is
      * experimental.
@@ -116,6 +127,27 @@ public class TornadoOptions {
      * Sets the array memory alignment for OpenCL devices. Default is 128 bytes.
      */
     public static final int OPENCL_ARRAY_ALIGNMENT = Integer.parseInt(getProperty("tornado.opencl.array.align", "128"));
+    /**
+     * Uses two extra OpenCL command queues per device, one for host-to-device and
+     * one for device-to-host copies, so transfers can overlap with the kernels.
+     * Default is False.
+     */
+    public static final boolean OPENCL_COPY_QUEUES = getBooleanValue("tornado.opencl.copy.queues", FALSE);
+    /**
+     * Maps the native arrays into the device memory with
+     * {@code CL_MEM_USE_HOST_PTR} on OpenCL devices that share the host memory,
+     * so kernels access them without copies. Default is True.
+     */
+    public static final boolean OPENCL_ZERO_COPY = getBooleanValue("tornado.opencl.zerocopy", TRUE);
+    /**
+     * It lowers the reductions with the OpenCL sub-group built-ins
+     * ({@code sub_group_reduce_add/min/max}) on devices that expose
+     * {@code cl_khr_subgroups} or {@code cl_intel_subgroups}. It only changes the
+     * reduction within a work-group: the partial results of the work-groups are
+     * still combined on the host, and the PTX and SPIR-V backends are not
+     * affected. Default is False.
+     */
+    public static final boolean OPENCL_SUBGROUP_REDUCTIONS = getBooleanValue("tornado.opencl.subgroups.reduce", FALSE);
     /**
      * Sets the array memory alignment for SPIRV devices. Default is 128 bytes.
      */
@@ -145,6 +177,12 @@ public class TornadoOptions {
      * code. This option is True by default.
      */
     public static final boolean RECOVER_BAILOUT = getBooleanValue("tornado.recover.bailout", TRUE);
+    /**
+     * When a task-graph falls back to Java after a bailout, tasks that do not
+     * share any object are executed concurrently on the common ForkJoinPool. This
+     * option is False by default.
+     */
+    public static final boolean CONCURRENT_JAVA_FALLBACK = getBooleanValue("tornado.recover.bailout.concurrent", FALSE);
     /**
      * Option to log the IP of the current machine on the profiler logs.
      */
@@ -158,6 +196,12 @@ public class TornadoOptions {
      * Sets the number of threads for the Tornado Sketcher. Default is 4.
      */
     public static final int TORNADO_SKETCHER_THREADS = Integer.parseInt(getProperty("tornado.sketcher.threads", "4"));
+    /**
+     * Sets the number of threads that compile the tasks of a task-graph ahead of
+     * their first launch. Default is 1, which compiles every task lazily in the
+     * thread of the TornadoVM interpreter.
+     */
+    public static final int TORNADO_COMPILER_THREADS = Integer.parseInt(getProperty("tornado.compiler.threads", "1"));
     /**
      * It enables automatic discovery and parallelization of loops. Please note that
      * this option is experimental and may cause issues if enabled.
@@ -167,6 +211,29 @@ public class TornadoOptions {
      * Full Inlining Policy with the TornadoVM JIT compiler. Default is False.
      */
     public static final boolean FULL_INLINING = getBooleanValue("tornado.compiler.fullInlining", FALSE);
+    /**
+     * It fuses consecutive element-wise tasks of a task-graph, in which a task
+     * consumes the arrays produced by the previous one, into a single kernel.
+     * Default is False.
+     */
+    public static final boolean FUSE_TASKS = getBooleanValue("tornado.experimental.fusion", FALSE);
+    /**
+     * It selects the local work-group shape of 2D and 3D parallel loop nests with
+     * data reuse (e.g., GEMM-like operands or stencils) from the work-group limits
+     * of the device. Default is False.
+     */
+    public static final boolean REUSE_LOCAL_WORK = getBooleanValue("tornado.compiler.reuseLocalWork", FALSE);
+    /**
+     * It stages the tiles of the arrays read by 2D and 3D stencils into local
+     * memory, with a barrier before the stencil reads them. Default is False.
+     */
+    public static final boolean LOCAL_MEMORY_TILING = getBooleanValue("tornado.compiler.localMemoryTiling", FALSE);
+    /**
+     * It groups scalar accesses to contiguous elements of the same array into
+     * vector loads and stores (e.g., vload4/vstore4 in OpenCL). Default is
+     * False.
+     */
+    public static final boolean AUTO_VECTORISATION = getBooleanValue("tornado.compiler.autoVectorisation", FALSE);
     /**
      * It enables inlining during Java bytecode parsing. Default is False.
      */
@@ -243,6 +310,49 @@ public class TornadoOptions {
      * configuration. False by default.
      */
     public static final boolean CONCURRENT_INTERPRETERS = Boolean.parseBoolean(System.getProperty("tornado.concurrent.devices", "False"));
+    /**
+     * Option to keep the same Java thread driving each device when running
+     * concurrently on multiple devices. If it is disabled, the interpreters run
+     * on a shared pool of threads. True by default.
+     */
+    public static final boolean CONCURRENT_INTERPRETERS_AFFINITY = getBooleanValue("tornado.concurrent.devices.affinity", TRUE);
+    /**
+     * Option to enable the persistent kernel cache. When enabled, the generated
+     * kernels are stored on disk and reused across JVM runs, skipping the Graal
+     * compilation. False by default.
+     */
+    public static final boolean PERSISTENT_KERNEL_CACHE = getBooleanValue("tornado.kernel.cache.enable", FALSE);
+    /**
+     * Directory in which the persistent kernel cache is stored. Default is
+     * $HOME/.tornadovm/kernel-cache.
+     */
+    public static final String PERSISTENT_KERNEL_CACHE_DIR = getProperty("tornado.kernel.cache.dir", System.getProperty("user.home") + "/.tornadovm/kernel-cache");
+    /**
+     * Maximum size of the persistent kernel cache. The least recently used entries
+     * are evicted once the limit is reached. Default is 256MB.
+     */
+    public static final long PERSISTENT_KERNEL_CACHE_SIZE = RuntimeUtilities.parseSize(getProperty("tornado.kernel.cache.size", "256MB"));
+    /**
+     * Option to persist the history of the dynamic reconfiguration (winner device
+     * per input size) across JVM runs. False by default.
+     */
+    public static final boolean DYNAMIC_HISTORY = getBooleanValue("tornado.dynamic.history.enable", FALSE);
+    /**
+     * File in which the dynamic reconfiguration history is stored. Default is
+     * $HOME/.tornadovm/dynamic-history.properties.
+     */
+    public static final String DYNAMIC_HISTORY_FILE = getProperty("tornado.dynamic.history.file", System.getProperty("user.home") + "/.tornadovm/dynamic-history.properties");
+    /**
+     * Weight of a new measurement in the exponentially decayed execution time
+     * kept per device in the dynamic reconfiguration history. Default is 0.5.
+     */
+    public static final double DYNAMIC_HISTORY_DECAY = Double.parseDouble(getProperty("tornado.dynamic.history.decay", "0.5"));
+    /**
+     * Maximum number of entries of the dynamic reconfiguration history. The least
+     * recently updated entries are evicted once the limit is reached. Default is
+     * 1024.
+     */
+    public static final int DYNAMIC_HISTORY_MAX_ENTRIES = Integer.parseInt(getProperty("tornado.dynamic.history.maxEntries", "1024"));
     public static String PROFILER_LOG = "tornado.log.profiler";
     public static String PROFILER = "tornado.profiler";
     /**
@@ -257,6 +367,14 @@ public class TornadoOptions {
         return getBooleanValue(PROFILER_LOG, FALSE);
     }
 
+    /**
+     * Tasks are compiled in parallel when more than one compiler thread is
+     * available. See {@link #TORNADO_COMPILER_THREADS}.
+     */
+    public static boolean isParallelCompilationEnabled() {
+        return TORNADO_COMPILER_THREADS > 1;
+    }
+
     /**
      * Option to reuse device buffers every time a task-graph is executed. True by
      * default.
@@ -274,6 +392,16 @@ public class TornadoOptions {
         return getBooleanValue(PROFILER, FALSE);
     }
 
+    /**
+     * Option to resolve the profiling events after all the work of an execution
+     * has been enqueued, instead of waiting for each event. False by default.
+     *
+     * @return boolean.
+     */
+    public static boolean isDeferredProfilerEnabled() {
+        return getBooleanValue("tornado.profiler.deferred", FALSE);
+    }
+
     /**
      * Option for enabling partial loop unrolling. The unroll factor can be
      * configured to take any integer value of power of 2 and less than 32.
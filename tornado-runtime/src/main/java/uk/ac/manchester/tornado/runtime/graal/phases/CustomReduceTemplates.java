@@ -0,0 +1,135 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.graal.phases;
+
+import uk.ac.manchester.tornado.api.KernelContext;
+
+/**
+ * Templates of the work-group combine of the reductions with a user-defined
+ * operator. They follow the partial reduce snippets of the backends: each
+ * work-item stores its partial result in local memory, and the work-group
+ * combines them in a tree, with a barrier before each level. The first
+ * work-item stores the result of the work-group in the partial array.
+ *
+ * <p>
+ * The templates are parsed with the graph builder plugins of the backend, so
+ * the calls to the {@link KernelContext} become barriers and local arrays.
+ * {@link TornadoReduceReplacement} inlines them into the task, and redirects
+ * the calls to {@code combine} to the combine method of the operator.
+ * </p>
+ */
+public final class CustomReduceTemplates {
+
+    /**
+     * Size of the local arrays. It is the maximum local work-group size of the
+     * tasks that use a user-defined operator.
+     */
+    public static final int MAX_LOCAL_WORK_GROUP_SIZE = 256;
+
+    private CustomReduceTemplates() {
+    }
+
+    // The combine methods are native, so the bytecode parser always emits a call
+    // that can be redirected to the operator.
+
+    static native int combine(int a, int b);
+
+    static native long combine(long a, long b);
+
+    static native float combine(float a, float b);
+
+    static native double combine(double a, double b);
+
+    static int[] allocateInt(KernelContext context, int localIdx, int identity) {
+        int[] state = context.allocateIntLocalArray(MAX_LOCAL_WORK_GROUP_SIZE);
+        state[localIdx] = identity;
+        return state;
+    }
+
+    static long[] allocateLong(KernelContext context, int localIdx, long identity) {
+        long[] state = context.allocateLongLocalArray(MAX_LOCAL_WORK_GROUP_SIZE);
+        state[localIdx] = identity;
+        return state;
+    }
+
+    static float[] allocateFloat(KernelContext context, int localIdx, float identity) {
+        float[] state = context.allocateFloatLocalArray(MAX_LOCAL_WORK_GROUP_SIZE);
+        state[localIdx] = identity;
+        return state;
+    }
+
+    static double[] allocateDouble(KernelContext context, int localIdx, double identity) {
+        double[] state = context.allocateDoubleLocalArray(MAX_LOCAL_WORK_GROUP_SIZE);
+        state[localIdx] = identity;
+        return state;
+    }
+
+    static void reduceInt(KernelContext context, int[] state, int[] partials, int localIdx, int localGroupSize, int groupIdx) {
+        for (int stride = localGroupSize / 2; stride > 0; stride /= 2) {
+            context.localBarrier();
+            if (localIdx < stride) {
+                state[localIdx] = combine(state[localIdx], state[localIdx + stride]);
+            }
+        }
+        if (localIdx == 0) {
+            partials[groupIdx + 1] = state[0];
+        }
+    }
+
+    static void reduceLong(KernelContext context, long[] state, long[] partials, int localIdx, int localGroupSize, int groupIdx) {
+        for (int stride = localGroupSize / 2; stride > 0; stride /= 2) {
+            context.localBarrier();
+            if (localIdx < stride) {
+                state[localIdx] = combine(state[localIdx], state[localIdx + stride]);
+            }
+        }
+        if (localIdx == 0) {
+            partials[groupIdx + 1] = state[0];
+        }
+    }
+
+    static void reduceFloat(KernelContext context, float[] state, float[] partials, int localIdx, int localGroupSize, int groupIdx) {
+        for (int stride = localGroupSize / 2; stride > 0; stride /= 2) {
+            context.localBarrier();
+            if (localIdx < stride) {
+                state[localIdx] = combine(state[localIdx], state[localIdx + stride]);
+            }
+        }
+        if (localIdx == 0) {
+            partials[groupIdx + 1] = state[0];
+        }
+    }
+
+    static void reduceDouble(KernelContext context, double[] state, double[] partials, int localIdx, int localGroupSize, int groupIdx) {
+        for (int stride = localGroupSize / 2; stride > 0; stride /= 2) {
+            context.localBarrier();
+            if (localIdx < stride) {
+                state[localIdx] = combine(state[localIdx], state[localIdx + stride]);
+            }
+        }
+        if (localIdx == 0) {
+            partials[groupIdx + 1] = state[0];
+        }
+    }
+}
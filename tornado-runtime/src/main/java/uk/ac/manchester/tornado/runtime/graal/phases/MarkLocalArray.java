@@ -31,4 +31,12 @@ package uk.ac.manchester.tornado.runtime.graal.phases;
  * scope of opencl-driver package
  */
 public interface MarkLocalArray {
+
+    /**
+     * @return True if the length of the array was set by the compiler and it
+     *         must not be resized to the local work-group size.
+     */
+    default boolean isFixedLength() {
+        return false;
+    }
 }
@@ -53,6 +53,7 @@ import uk.ac.manchester.tornado.runtime.graal.nodes.ParallelOffsetNode;
 import uk.ac.manchester.tornado.runtime.graal.nodes.ParallelRangeNode;
 import uk.ac.manchester.tornado.runtime.graal.nodes.ParallelStrideNode;
 import uk.ac.manchester.tornado.runtime.graal.nodes.TornadoLoopsData;
+import uk.ac.manchester.tornado.runtime.tasks.FusedCompilableTask;
 
 public class TornadoApiReplacement extends BasePhase<TornadoSketchTierContext> {
 
@@ -83,11 +84,28 @@ public class TornadoApiReplacement extends BasePhase<TornadoSketchTierContext> {
         }
     }
 
+    /**
+     * It returns the {@link uk.ac.manchester.tornado.api.annotations.Parallel}
+     * annotations of the local variables of a method.
+     *
+     * @param method
+     *            Method to inspect.
+     * @return the annotations, or an empty array if the method has none.
+     */
+    public static ParallelAnnotationProvider[] getParallelAnnotations(ResolvedJavaMethod method) {
+        return asmClassVisitorProvider.getParallelAnnotations(method);
+    }
+
     private void replaceLocalAnnotations(StructuredGraph graph, TornadoSketchTierContext context) throws TornadoCompilationException {
         // build node -> annotation mapping
         Map<ResolvedJavaMethod, ParallelAnnotationProvider[]> methodToAnnotations = new HashMap<>();
 
-        methodToAnnotations.put(context.getMethod(), asmClassVisitorProvider.getParallelAnnotations(context.getMethod()));
+        // The root method of a fused task is generated at runtime and it only calls
+        // the tasks, so the annotations come from the inlined tasks
+        final boolean isFusedTask = FusedCompilableTask.isFusedMethod(context.getMethod());
+        if (!isFusedTask) {
+            methodToAnnotations.put(context.getMethod(), asmClassVisitorProvider.getParallelAnnotations(context.getMethod()));
+        }
 
         for (ResolvedJavaMethod inlinee : graph.getMethods()) {
             ParallelAnnotationProvider[] inlineParallelAnnotations = asmClassVisitorProvider.getParallelAnnotations(inlinee);
@@ -134,7 +152,11 @@ public class TornadoApiReplacement extends BasePhase<TornadoSketchTierContext> {
 
                     parallelizationReplacement(graph, iv, loopIndex, maxIterations, conditions);
 
-                    loopIndex++;
+                    // The loops of a fused task come from different tasks and they share the
+                    // thread index
+                    if (!isFusedTask) {
+                        loopIndex++;
+                    }
                 }
             }
         }
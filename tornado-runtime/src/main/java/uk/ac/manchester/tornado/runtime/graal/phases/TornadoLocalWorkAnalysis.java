@@ -0,0 +1,193 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.graal.phases;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.ParameterNode;
+import org.graalvm.compiler.nodes.PhiNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.java.LoadIndexedNode;
+import org.graalvm.compiler.phases.BasePhase;
+
+import uk.ac.manchester.tornado.api.TornadoTargetDevice;
+import uk.ac.manchester.tornado.runtime.common.Tornado;
+import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+import uk.ac.manchester.tornado.runtime.graal.nodes.ParallelOffsetNode;
+import uk.ac.manchester.tornado.runtime.tasks.meta.TaskMetaData;
+
+/**
+ * It looks for data reuse between the threads of a 2D/3D parallel loop nest
+ * and selects a square local work-group for the first two dimensions, so the
+ * threads that read the same elements run in the same work-group and share
+ * them through the device caches. Two patterns are recognised:
+ *
+ * <ul>
+ * <li>GEMM-like operands: array reads whose index does not depend on one of
+ * the parallel indices, so all threads of the work-group along that dimension
+ * read the same elements.</li>
+ * <li>Stencils: several reads of the same array with different indices that
+ * depend on the same parallel indices (neighbours and halos).</li>
+ * </ul>
+ *
+ * The work-group side is the largest power of two that fits in the work-group
+ * limits of the device and divides the iteration space. The data is not staged
+ * in local memory here: backends may do it for stencils in a later phase (see
+ * {@code TornadoLocalMemoryTiling} in the OpenCL backend). It must run after
+ * {@link TornadoShapeAnalysis} and before the parallel loops are scheduled.
+ */
+public class TornadoLocalWorkAnalysis extends BasePhase<TornadoHighTierContext> {
+
+    private static final int MIN_WORK_GROUP_SIDE = 4;
+
+    private static class AccessInfo {
+        private final BitSet dims = new BitSet();
+        private boolean irregular;
+    }
+
+    private boolean shouldRun(TornadoHighTierContext context) {
+        if (!TornadoOptions.REUSE_LOCAL_WORK || !context.hasMeta()) {
+            return false;
+        }
+        TaskMetaData meta = context.getMeta();
+        return meta.hasDomain() && meta.getDims() >= 2 && !meta.isLocalWorkDefined() && !meta.isWorkerGridAvailable();
+    }
+
+    private Map<PhiNode, Integer> getParallelInductionVariables(StructuredGraph graph) {
+        Map<PhiNode, Integer> parallelPhis = new HashMap<>();
+        for (ParallelOffsetNode offset : graph.getNodes().filter(ParallelOffsetNode.class)) {
+            for (Node usage : offset.usages()) {
+                if (usage instanceof PhiNode) {
+                    parallelPhis.put((PhiNode) usage, offset.index());
+                }
+            }
+        }
+        return parallelPhis;
+    }
+
+    /**
+     * It obtains the parallel dimensions in which the index of an array read
+     * depends on. Indexes computed from other memory reads are irregular.
+     */
+    private AccessInfo analyseIndex(ValueNode index, Map<PhiNode, Integer> parallelPhis) {
+        AccessInfo info = new AccessInfo();
+        Set<Node> visited = new HashSet<>();
+        LinkedList<Node> worklist = new LinkedList<>();
+        worklist.add(index);
+        while (!worklist.isEmpty()) {
+            Node node = worklist.removeFirst();
+            if (!visited.add(node) || node instanceof ConstantNode || node instanceof ParameterNode) {
+                continue;
+            }
+            if (node instanceof PhiNode) {
+                if (parallelPhis.containsKey(node)) {
+                    info.dims.set(parallelPhis.get(node));
+                }
+            } else if (node instanceof LoadIndexedNode) {
+                info.irregular = true;
+            } else {
+                node.inputs().forEach(worklist::add);
+            }
+        }
+        return info;
+    }
+
+    /**
+     * @return The side of the largest square work-group for the first two
+     *         dimensions that fits the work-group limits of the device and
+     *         divides the iteration space, or 0 if there is none.
+     */
+    public static int selectWorkGroupSide(TaskMetaData meta, TornadoTargetDevice device) {
+        long[] maxWorkItemSizes = device.getDeviceMaxWorkItemSizes();
+        long[] maxWorkGroupSize = device.getDeviceMaxWorkGroupSize();
+        if (maxWorkItemSizes == null || maxWorkGroupSize == null) {
+            return 0;
+        }
+
+        int side = Integer.highestOneBit((int) Math.max(1, Math.sqrt(maxWorkGroupSize[0])));
+        side = (int) Math.min(side, Math.min(maxWorkItemSizes[0], maxWorkItemSizes[1]));
+        while (side >= MIN_WORK_GROUP_SIDE) {
+            if (meta.getDomain().get(0).cardinality() % side == 0 && meta.getDomain().get(1).cardinality() % side == 0) {
+                return side;
+            }
+            side >>= 1;
+        }
+        return 0;
+    }
+
+    @Override
+    protected void run(StructuredGraph graph, TornadoHighTierContext context) {
+        if (!shouldRun(context)) {
+            return;
+        }
+
+        TaskMetaData meta = context.getMeta();
+        Map<PhiNode, Integer> parallelPhis = getParallelInductionVariables(graph);
+        BitSet parallelDims = new BitSet();
+        parallelPhis.values().forEach(parallelDims::set);
+
+        boolean reuse = false;
+        Map<ValueNode, Set<ValueNode>> indexesPerArray = new HashMap<>();
+        for (LoadIndexedNode load : graph.getNodes().filter(LoadIndexedNode.class)) {
+            AccessInfo info = analyseIndex(load.index(), parallelPhis);
+            if (info.irregular || info.dims.isEmpty()) {
+                continue;
+            }
+            if (!info.dims.equals(parallelDims)) {
+                reuse = true;
+            } else {
+                Set<ValueNode> indexes = indexesPerArray.computeIfAbsent(load.array(), array -> new HashSet<>());
+                if (indexes.add(load.index()) && indexes.size() == 2) {
+                    reuse = true;
+                }
+            }
+        }
+
+        if (!reuse) {
+            return;
+        }
+
+        int side = selectWorkGroupSide(meta, context.getDeviceMapping().getPhysicalDevice());
+        if (side == 0) {
+            return;
+        }
+
+        long[] localWork = new long[meta.getDims()];
+        localWork[0] = side;
+        localWork[1] = side;
+        for (int i = 2; i < localWork.length; i++) {
+            localWork[i] = 1;
+        }
+        Tornado.debug("selected local work %dx%d for task %s\n", side, side, meta.getId());
+        meta.setCompilerLocalWork(localWork);
+    }
+}
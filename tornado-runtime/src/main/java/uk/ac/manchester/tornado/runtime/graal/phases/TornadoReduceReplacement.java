@@ -23,19 +23,32 @@
  */
 package uk.ac.manchester.tornado.runtime.graal.phases;
 
+import static org.graalvm.compiler.phases.common.DeadCodeEliminationPhase.Optionality.Optional;
+
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
 
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.core.common.type.StampPair;
 import org.graalvm.compiler.graph.Node;
 import org.graalvm.compiler.graph.iterators.NodeIterable;
+import org.graalvm.compiler.nodes.CallTargetNode.InvokeKind;
+import org.graalvm.compiler.nodes.ConstantNode;
 import org.graalvm.compiler.nodes.EndNode;
 import org.graalvm.compiler.nodes.FixedNode;
 import org.graalvm.compiler.nodes.IfNode;
+import org.graalvm.compiler.nodes.Invoke;
+import org.graalvm.compiler.nodes.InvokeNode;
 import org.graalvm.compiler.nodes.LoopBeginNode;
 import org.graalvm.compiler.nodes.MergeNode;
 import org.graalvm.compiler.nodes.ParameterNode;
 import org.graalvm.compiler.nodes.PhiNode;
+import org.graalvm.compiler.nodes.ReturnNode;
 import org.graalvm.compiler.nodes.StartNode;
 import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
 import org.graalvm.compiler.nodes.ValueNode;
 import org.graalvm.compiler.nodes.calc.AddNode;
 import org.graalvm.compiler.nodes.calc.BinaryArithmeticNode;
@@ -43,24 +56,40 @@ import org.graalvm.compiler.nodes.calc.BinaryNode;
 import org.graalvm.compiler.nodes.calc.CompareNode;
 import org.graalvm.compiler.nodes.calc.MulNode;
 import org.graalvm.compiler.nodes.calc.SubNode;
+import org.graalvm.compiler.nodes.java.AccessIndexedNode;
 import org.graalvm.compiler.nodes.java.LoadIndexedNode;
+import org.graalvm.compiler.nodes.java.MethodCallTargetNode;
 import org.graalvm.compiler.nodes.java.StoreFieldNode;
 import org.graalvm.compiler.nodes.java.StoreIndexedNode;
 import org.graalvm.compiler.phases.BasePhase;
-
+import org.graalvm.compiler.phases.common.DeadCodeEliminationPhase;
+import org.graalvm.compiler.phases.common.inlining.InliningUtil;
+
+import jdk.vm.ci.code.BytecodeFrame;
+import jdk.vm.ci.meta.JavaConstant;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.JavaType;
+import jdk.vm.ci.meta.MetaAccessProvider;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import uk.ac.manchester.tornado.api.KernelContext;
 import uk.ac.manchester.tornado.api.annotations.Reduce;
 import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.runtime.graal.nodes.GetGroupIdFixedWithNextNode;
+import uk.ac.manchester.tornado.runtime.graal.nodes.LocalGroupSizeFixedWithNextNode;
 import uk.ac.manchester.tornado.runtime.graal.nodes.StoreAtomicIndexedNode;
 import uk.ac.manchester.tornado.runtime.graal.nodes.StoreAtomicIndexedNodeExtension;
+import uk.ac.manchester.tornado.runtime.graal.nodes.ThreadIdFixedWithNextNode;
+import uk.ac.manchester.tornado.runtime.graal.nodes.ThreadLocalIdFixedWithNextNode;
 import uk.ac.manchester.tornado.runtime.graal.nodes.TornadoReduceAddNode;
 import uk.ac.manchester.tornado.runtime.graal.nodes.TornadoReduceMulNode;
 import uk.ac.manchester.tornado.runtime.graal.nodes.TornadoReduceSubNode;
+import uk.ac.manchester.tornado.runtime.tasks.ReduceOperator;
 
 public class TornadoReduceReplacement extends BasePhase<TornadoSketchTierContext> {
 
     @Override
     protected void run(StructuredGraph graph, TornadoSketchTierContext context) {
-        findParametersWithReduceAnnotations(graph);
+        findParametersWithReduceAnnotations(graph, context);
 
         // TODO: Pending, if it is local variable
     }
@@ -263,7 +292,167 @@ public class TornadoReduceReplacement extends BasePhase<TornadoSketchTierContext
         return graph.method().isStatic() && index >= getNumberOfParameterNodes(graph);
     }
 
-    private void processReduceAnnotation(StructuredGraph graph, int index) {
+    /**
+     * Reductions with a user-defined operator keep the code of the task. Each
+     * thread accumulates into its own copy of the reduction state, stored from
+     * position {@code (threadId + 1) * fields} of the reduce array, and the
+     * TornadoVM runtime combines the copies with the same operator afterwards.
+     * The state is accessed with constant indices (one per field).
+     *
+     * <p>
+     * This path is used for states with several fields. Combining them on the
+     * device would need the fields of each work-item in private arrays.
+     * </p>
+     */
+    private void processCustomReduceAnnotation(StructuredGraph graph, ParameterNode reduceParameter, int fields) {
+        final List<AccessIndexedNode> accesses = getCustomReduceAccesses(reduceParameter, fields);
+        if (accesses.isEmpty()) {
+            return;
+        }
+        ThreadIdFixedWithNextNode threadId = graph.addWithoutUnique(new ThreadIdFixedWithNextNode(reduceParameter, 0));
+        graph.addAfterFixed(graph.start(), threadId);
+        AddNode threadSlot = graph.addOrUnique(new AddNode(threadId, ConstantNode.forInt(1, graph)));
+        ValueNode slot = graph.addOrUnique(new MulNode(threadSlot, ConstantNode.forInt(fields, graph)));
+        for (AccessIndexedNode access : accesses) {
+            ValueNode index = access.index();
+            final AddNode fieldIndex = graph.addOrUnique(new AddNode(slot, index));
+            access.replaceFirstInput(index, fieldIndex);
+        }
+    }
+
+    private static List<AccessIndexedNode> getCustomReduceAccesses(ParameterNode reduceParameter, int fields) {
+        List<AccessIndexedNode> accesses = new ArrayList<>();
+        for (Node node : reduceParameter.usages().snapshot()) {
+            if (node instanceof LoadIndexedNode || node instanceof StoreIndexedNode) {
+                AccessIndexedNode access = (AccessIndexedNode) node;
+                if (access.array() != reduceParameter) {
+                    continue;
+                }
+                ValueNode index = access.index();
+                if (!index.isConstant() || index.asJavaConstant().asInt() >= fields) {
+                    throw new TornadoRuntimeException("\n[NOT SUPPORTED] The state of a user-defined reduction must be accessed with a constant index lower than " + fields);
+                }
+                accesses.add(access);
+            } else if (node instanceof StoreFieldNode) {
+                throw new TornadoRuntimeException("\n[NOT SUPPORTED] Node StoreFieldNode is not supported yet.");
+            }
+        }
+        return accesses;
+    }
+
+    private static ResolvedJavaMethod lookupTemplate(MetaAccessProvider metaAccess, String name, Class<?>... parameterTypes) {
+        try {
+            return metaAccess.lookupJavaMethod(CustomReduceTemplates.class.getDeclaredMethod(name, parameterTypes));
+        } catch (NoSuchMethodException e) {
+            throw new TornadoRuntimeException("[ERROR] Template " + name + " of the user-defined reductions not found");
+        }
+    }
+
+    private static InvokeNode createInvoke(StructuredGraph graph, ResolvedJavaMethod method, ValueNode... arguments) {
+        JavaType returnType = method.getSignature().getReturnType(method.getDeclaringClass());
+        StampPair returnStamp = StampFactory.forDeclaredType(graph.getAssumptions(), returnType, false);
+        MethodCallTargetNode callTarget = graph.add(new MethodCallTargetNode(InvokeKind.Static, method, arguments, returnStamp, null));
+        return graph.add(new InvokeNode(callTarget, BytecodeFrame.UNKNOWN_BCI));
+    }
+
+    private static void inlineTemplate(StructuredGraph graph, TornadoSketchTierContext context, InvokeNode invoke) {
+        ResolvedJavaMethod template = invoke.callTarget().targetMethod();
+        StructuredGraph templateGraph = new StructuredGraph.Builder(graph.getOptions(), graph.getDebug(), AllowAssumptions.YES).method(template).build();
+        context.getGraphBuilderSuite().apply(templateGraph, context);
+        new DeadCodeEliminationPhase(Optional).apply(templateGraph);
+        InliningUtil.inline(invoke, templateGraph, false, template);
+    }
+
+    private static ReturnNode getSingleReturn(StructuredGraph graph) {
+        List<ReturnNode> returns = graph.getNodes(ReturnNode.TYPE).snapshot();
+        if (returns.size() == 1) {
+            return returns.get(0);
+        }
+        MergeNode merge = graph.add(new MergeNode());
+        InliningUtil.mergeReturns(merge, returns);
+        ReturnNode returnNode = graph.add(new ReturnNode(null));
+        merge.setNext(returnNode);
+        return returnNode;
+    }
+
+    /**
+     * Reductions with a single-value user-defined operator are combined on the
+     * device with the same scheme as the partial reduce snippets of the
+     * backends. The reduce array of the task is replaced by a local array with
+     * one element per work-item, initialised with the identity. Before the
+     * task returns, the work-group combines the local array in a tree, with a
+     * barrier before each level, and the first work-item stores the result of
+     * the work-group at position {@code groupId + 1} of the reduce array. The
+     * TornadoVM runtime combines the results of the work-groups afterwards.
+     *
+     * <p>
+     * The code of the tree is in {@link CustomReduceTemplates}. The calls to
+     * the combine placeholder are redirected to the combine method of the
+     * operator, which is compiled as a device function.
+     * </p>
+     */
+    private void processCustomReduceTree(StructuredGraph graph, TornadoSketchTierContext context, ParameterNode reduceParameter, Class<?> operatorClass) {
+        final List<AccessIndexedNode> accesses = getCustomReduceAccesses(reduceParameter, 1);
+        if (accesses.isEmpty()) {
+            return;
+        }
+
+        final JavaKind kind = accesses.get(0).elementKind();
+        final Class<?> elementType = kind.toJavaClass();
+        final Class<?> arrayType = Array.newInstance(elementType, 0).getClass();
+        final String suffix = kind.getJavaName().substring(0, 1).toUpperCase() + kind.getJavaName().substring(1);
+        final MetaAccessProvider metaAccess = context.getMetaAccess();
+
+        final JavaConstant identity = JavaConstant.forBoxedPrimitive(ReduceOperator.getIdentity(operatorClass));
+        if (identity == null || identity.getJavaKind() != kind) {
+            throw new TornadoRuntimeException("\n[NOT SUPPORTED] The identity of the reduce operator " + operatorClass.getName() + " must be of type " + kind.getJavaName());
+        }
+
+        final ResolvedJavaMethod combine;
+        try {
+            combine = metaAccess.lookupJavaMethod(operatorClass.getDeclaredMethod("combine", elementType, elementType));
+        } catch (NoSuchMethodException e) {
+            throw new TornadoRuntimeException("\n[NOT SUPPORTED] The reduce operator " + operatorClass.getName() + " must declare a static combine(" + kind.getJavaName() + ", " + kind.getJavaName() + ") method");
+        }
+        final ResolvedJavaMethod placeholder = lookupTemplate(metaAccess, "combine", elementType, elementType);
+        final ResolvedJavaMethod allocate = lookupTemplate(metaAccess, "allocate" + suffix, KernelContext.class, int.class, elementType);
+        final ResolvedJavaMethod reduce = lookupTemplate(metaAccess, "reduce" + suffix, KernelContext.class, arrayType, arrayType, int.class, int.class, int.class);
+
+        // Thread indexes of the work-group
+        ThreadLocalIdFixedWithNextNode localIdx = graph.addWithoutUnique(new ThreadLocalIdFixedWithNextNode(reduceParameter, 0));
+        LocalGroupSizeFixedWithNextNode localGroupSize = graph.addWithoutUnique(new LocalGroupSizeFixedWithNextNode(reduceParameter, 0));
+        GetGroupIdFixedWithNextNode groupIdx = graph.addWithoutUnique(new GetGroupIdFixedWithNextNode(reduceParameter, 0));
+        graph.addAfterFixed(graph.start(), groupIdx);
+        graph.addAfterFixed(graph.start(), localGroupSize);
+        graph.addAfterFixed(graph.start(), localIdx);
+
+        // The kernel context of the templates is only used by the graph builder
+        // plugins, so a null receiver is enough
+        ValueNode kernelContext = ConstantNode.forConstant(JavaConstant.NULL_POINTER, metaAccess, graph);
+
+        // Each work-item accumulates into its own element of the local array
+        InvokeNode state = createInvoke(graph, allocate, kernelContext, localIdx, ConstantNode.forConstant(identity, metaAccess, graph));
+        graph.addAfterFixed(groupIdx, state);
+        for (AccessIndexedNode access : accesses) {
+            access.replaceFirstInput(reduceParameter, state);
+            access.replaceFirstInput(access.index(), localIdx);
+        }
+
+        // The work-group combines the local array before the task returns
+        InvokeNode tree = createInvoke(graph, reduce, kernelContext, state, reduceParameter, localIdx, localGroupSize, groupIdx);
+        graph.addBeforeFixed(getSingleReturn(graph), tree);
+
+        inlineTemplate(graph, context, tree);
+        inlineTemplate(graph, context, state);
+
+        for (Invoke invoke : graph.getInvokes()) {
+            if (invoke.callTarget().targetMethod().equals(placeholder)) {
+                invoke.callTarget().setTargetMethod(combine);
+            }
+        }
+    }
+
+    private void processReduceAnnotation(StructuredGraph graph, TornadoSketchTierContext context, int index, Reduce reduce) {
 
         if (shouldSkip(index, graph)) {
             return;
@@ -271,6 +460,17 @@ public class TornadoReduceReplacement extends BasePhase<TornadoSketchTierContext
 
         final ParameterNode reduceParameter = graph.getParameter(index);
         assert (reduceParameter != null);
+
+        if (reduce.operator() != Void.class) {
+            final int fields = ReduceOperator.getNumberOfFields(reduce.operator());
+            if (fields == 1) {
+                processCustomReduceTree(graph, context, reduceParameter, reduce.operator());
+            } else {
+                processCustomReduceAnnotation(graph, reduceParameter, fields);
+            }
+            return;
+        }
+
         NodeIterable<Node> usages = reduceParameter.usages();
 
         for (Node node : usages) {
@@ -355,7 +555,7 @@ public class TornadoReduceReplacement extends BasePhase<TornadoSketchTierContext
         return graph.getNodes().filter(ParameterNode.class).count();
     }
 
-    private void findParametersWithReduceAnnotations(StructuredGraph graph) {
+    private void findParametersWithReduceAnnotations(StructuredGraph graph, TornadoSketchTierContext context) {
         final Annotation[][] parameterAnnotations = graph.method().getParameterAnnotations();
         for (int index = 0; index < parameterAnnotations.length; index++) {
             for (Annotation annotation : parameterAnnotations[index]) {
@@ -367,7 +567,7 @@ public class TornadoReduceReplacement extends BasePhase<TornadoSketchTierContext
                     if (!graph.method().isStatic() || getNumberOfParameterNodes(graph) > parameterAnnotations.length) {
                         index++;
                     }
-                    processReduceAnnotation(graph, index);
+                    processReduceAnnotation(graph, context, index, (Reduce) annotation);
                 }
             }
         }
@@ -0,0 +1,192 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.graph;
+
+import uk.ac.manchester.tornado.runtime.common.BatchConfiguration;
+import uk.ac.manchester.tornado.runtime.graph.nodes.AbstractNode;
+import uk.ac.manchester.tornado.runtime.graph.nodes.AllocateMultipleBuffersNode;
+import uk.ac.manchester.tornado.runtime.graph.nodes.CopyInNode;
+import uk.ac.manchester.tornado.runtime.graph.nodes.CopyOutNode;
+import uk.ac.manchester.tornado.runtime.graph.nodes.DeallocateNode;
+import uk.ac.manchester.tornado.runtime.graph.nodes.ObjectNode;
+import uk.ac.manchester.tornado.runtime.graph.nodes.StreamInNode;
+import uk.ac.manchester.tornado.runtime.graph.nodes.TaskNode;
+
+/**
+ * Range of iterations processed by a batch. The offset and size (in bytes) of
+ * each object of the batch are computed from its footprint in the
+ * {@link BatchConfiguration}.
+ */
+class BatchChunk {
+
+    /**
+     * Geometry used when batch processing is disabled: objects are copied in
+     * full and the kernel uses the default number of threads.
+     */
+    static final BatchChunk NO_BATCH = new BatchChunk(null, Kind.NO_BATCH, 0, 0, false, false);
+
+    private enum Kind {
+        NO_BATCH, //
+        CHUNKED, //
+        BROADCAST
+    }
+
+    private final BatchConfiguration configuration;
+    private final Kind kind;
+    private final long elementOffset;
+    private final long numElements;
+    private final boolean isRemainder;
+    private final boolean isWholeData;
+    private boolean isLastOfSlot;
+
+    private BatchChunk(BatchConfiguration configuration, Kind kind, long elementOffset, long numElements, boolean isRemainder, boolean isWholeData) {
+        this.configuration = configuration;
+        this.kind = kind;
+        this.elementOffset = elementOffset;
+        this.numElements = numElements;
+        this.isRemainder = isRemainder;
+        this.isWholeData = isWholeData;
+    }
+
+    /**
+     * @param configuration
+     *            The batch configuration.
+     * @param elementOffset
+     *            First iteration of the batch.
+     * @param numElements
+     *            Number of iterations of the batch.
+     * @param isRemainder
+     *            True for the last batch when it is smaller than the others.
+     * @return A batch that processes the objects split in chunks.
+     */
+    static BatchChunk chunk(BatchConfiguration configuration, long elementOffset, long numElements, boolean isRemainder) {
+        // If the data fits in a single batch, objects are copied in full
+        boolean isWholeData = configuration.getTotalChunks() == 0;
+        return new BatchChunk(configuration, Kind.CHUNKED, elementOffset, numElements, isRemainder, isWholeData);
+    }
+
+    /**
+     * @param configuration
+     *            The batch configuration.
+     * @return A batch that only contains the objects that are copied in full,
+     *         once for all batches.
+     */
+    static BatchChunk broadcast(BatchConfiguration configuration) {
+        return new BatchChunk(configuration, Kind.BROADCAST, 0, 0, false, false);
+    }
+
+    boolean isRemainder() {
+        return isRemainder;
+    }
+
+    /**
+     * It marks the last batch that uses a buffer slot. Once it finishes, all
+     * previous batches of the slot have finished too.
+     */
+    void markLastOfSlot() {
+        isLastOfSlot = true;
+    }
+
+    /**
+     * @return True if the events of this batch must be registered in the event
+     *         lists of nodes emitted by other batches: the broadcast transfers
+     *         are consumed by the kernels of the first batch, and the broadcast
+     *         copy-outs wait for the last batch of each buffer slot.
+     */
+    boolean exportsDependencies() {
+        return kind == Kind.BROADCAST || isLastOfSlot;
+    }
+
+    /**
+     * @return First iteration of the batch.
+     */
+    long getOffset() {
+        return elementOffset;
+    }
+
+    /**
+     * @return Number of threads of the kernels launched for this batch.
+     */
+    long getNumThreads() {
+        return kind == Kind.CHUNKED ? numElements : 0;
+    }
+
+    /**
+     * @param objectIndex
+     *            Index of the object in the execution context.
+     * @return True if the bytecodes for the object are emitted in this batch.
+     */
+    boolean accepts(int objectIndex) {
+        switch (kind) {
+            case CHUNKED:
+                return !configuration.isBroadcast(objectIndex);
+            case BROADCAST:
+                return configuration.isBroadcast(objectIndex);
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * @param node
+     *            Node of the TornadoVM graph.
+     * @return True if the bytecode for the node is emitted in this batch.
+     */
+    boolean accepts(AbstractNode node) {
+        if (node instanceof AllocateMultipleBuffersNode) {
+            return ((AllocateMultipleBuffersNode) node).getValues().stream().anyMatch(value -> accepts(value.getIndex()));
+        } else if (node instanceof CopyInNode) {
+            return accepts(((CopyInNode) node).getValue().getIndex());
+        } else if (node instanceof StreamInNode) {
+            return accepts(((StreamInNode) node).getValue().getIndex());
+        } else if (node instanceof CopyOutNode) {
+            ObjectNode value = ((CopyOutNode) node).getValue().getValue();
+            return value == null || accepts(value.getIndex());
+        } else if (node instanceof DeallocateNode) {
+            return accepts(((DeallocateNode) node).getValue().getIndex());
+        } else if (node instanceof TaskNode) {
+            return kind != Kind.BROADCAST;
+        }
+        return true;
+    }
+
+    /**
+     * @param objectIndex
+     *            Index of the object in the execution context.
+     * @return Offset, in bytes, of the object for this batch.
+     */
+    long offsetOf(int objectIndex) {
+        return (kind == Kind.CHUNKED && !isWholeData) ? elementOffset * configuration.getBytesPerIteration(objectIndex) : 0;
+    }
+
+    /**
+     * @param objectIndex
+     *            Index of the object in the execution context.
+     * @return Size, in bytes, of the object for this batch. Zero means the whole
+     *         object.
+     */
+    long sizeOf(int objectIndex) {
+        return (kind == Kind.CHUNKED && !isWholeData) ? numElements * configuration.getBytesPerIteration(objectIndex) : 0;
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.graph;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+
+/**
+ * It generates the method of a fused task: a static method whose parameters are
+ * the union of the parameters of the fused tasks, and whose body calls the
+ * method of each task in order. The class is defined in the package of the
+ * first task, so the sketcher can inline the calls.
+ *
+ * <p>
+ * The method has no branches, so the class file does not need stack map
+ * frames. It has a local variable table because the backends take the names of
+ * the kernel parameters from it.
+ * </p>
+ */
+final class FusedMethodGenerator {
+
+    private static final int CLASS_FILE_VERSION = 52;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_STATIC = 0x0008;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int ILOAD = 0x15;
+    private static final int LLOAD = 0x16;
+    private static final int FLOAD = 0x17;
+    private static final int DLOAD = 0x18;
+    private static final int ALOAD = 0x19;
+    private static final int INVOKESTATIC = 0xB8;
+    private static final int RETURN = 0xB1;
+    private static final int WIDE = 0xC4;
+
+    private static final String CLASS_PREFIX = "TornadoFusedTask";
+
+    private static final AtomicInteger classId = new AtomicInteger(0);
+
+    /**
+     * Generated methods of each class that declares the first fused task. The
+     * methods are attached to that class, so they are released with its class
+     * loader.
+     */
+    private static final ClassValue<Map<String, Method>> cache = new ClassValue<>() {
+        @Override
+        protected Map<String, Method> computeValue(Class<?> host) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final Map<String, Integer> constantIndexes = new HashMap<>();
+    private final ByteArrayOutputStream constantPoolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream constantPool = new DataOutputStream(constantPoolBytes);
+    private int constantPoolCount = 1;
+
+    private FusedMethodGenerator() {
+    }
+
+    /**
+     * It returns the method that runs the given methods in order. Methods are
+     * generated once per chain of callees and parameter mapping, without a
+     * global lock, so task-graphs can be compiled concurrently.
+     *
+     * @param callees
+     *            Static methods of the fused tasks.
+     * @param parameterTypes
+     *            Types of the parameters of the fused method.
+     * @param parameterMaps
+     *            For each callee, the index of the fused parameter passed as each
+     *            of its parameters.
+     * @return the generated {@link Method}.
+     */
+    static Method generate(Method[] callees, Class<?>[] parameterTypes, int[][] parameterMaps) {
+        final String key = Arrays.toString(callees) + Arrays.toString(parameterTypes) + Arrays.deepToString(parameterMaps);
+        return cache.get(callees[0].getDeclaringClass()).computeIfAbsent(key, k -> new FusedMethodGenerator().defineMethod(callees, parameterTypes, parameterMaps));
+    }
+
+    private Method defineMethod(Method[] callees, Class<?>[] parameterTypes, int[][] parameterMaps) {
+        final Class<?> host = callees[0].getDeclaringClass();
+        final String packageName = host.getPackageName();
+        final String simpleName = CLASS_PREFIX + classId.getAndIncrement();
+        final String className = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+        final StringBuilder methodName = new StringBuilder("fused");
+        for (Method callee : callees) {
+            methodName.append("_").append(callee.getName());
+        }
+
+        try {
+            final byte[] classFile = writeClass(internalName(className), methodName.toString(), callees, parameterTypes, parameterMaps);
+            FusedMethodGenerator.class.getModule().addReads(host.getModule());
+            final MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(host, MethodHandles.lookup());
+            final Class<?> fusedClass = lookup.defineClass(classFile);
+            return fusedClass.getDeclaredMethod(methodName.toString(), parameterTypes);
+        } catch (IOException | ReflectiveOperationException | IllegalArgumentException | SecurityException e) {
+            throw new TornadoRuntimeException("[ERROR] Unable to generate the fused task for " + Arrays.toString(callees) + ": " + e.getMessage());
+        }
+    }
+
+    private byte[] writeClass(String className, String methodName, Method[] callees, Class<?>[] parameterTypes, int[][] parameterMaps) throws IOException {
+        final StringBuilder descriptor = new StringBuilder("(");
+        final int[] slots = new int[parameterTypes.length];
+        int numSlots = 0;
+        for (int i = 0; i < parameterTypes.length; i++) {
+            descriptor.append(typeDescriptor(parameterTypes[i]));
+            slots[i] = numSlots;
+            numSlots += slotSize(parameterTypes[i]);
+        }
+        descriptor.append(")V");
+
+        // Method body: load the arguments of each callee and call it
+        final ByteArrayOutputStream codeBytes = new ByteArrayOutputStream();
+        final DataOutputStream code = new DataOutputStream(codeBytes);
+        int maxStack = 0;
+        for (int i = 0; i < callees.length; i++) {
+            final Method callee = callees[i];
+            int stack = 0;
+            for (int parameter : parameterMaps[i]) {
+                emitLoad(code, loadOpcode(parameterTypes[parameter]), slots[parameter]);
+                stack += slotSize(parameterTypes[parameter]);
+            }
+            maxStack = Math.max(maxStack, stack);
+            code.writeByte(INVOKESTATIC);
+            code.writeShort(methodRef(internalName(callee.getDeclaringClass().getName()), callee.getName(), methodDescriptor(callee)));
+        }
+        code.writeByte(RETURN);
+        code.flush();
+        final byte[] body = codeBytes.toByteArray();
+
+        final int thisClass = classRef(className);
+        final int superClass = classRef("java/lang/Object");
+        final int nameIndex = utf8(methodName);
+        final int descriptorIndex = utf8(descriptor.toString());
+        final int codeAttribute = utf8("Code");
+        final int localsAttribute = utf8("LocalVariableTable");
+        final int[] localNames = new int[parameterTypes.length];
+        final int[] localDescriptors = new int[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            localNames[i] = utf8("arg" + i);
+            localDescriptors[i] = utf8(typeDescriptor(parameterTypes[i]));
+        }
+        constantPool.flush();
+
+        final ByteArrayOutputStream classBytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(classBytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(CLASS_FILE_VERSION);
+        out.writeShort(constantPoolCount);
+        out.write(constantPoolBytes.toByteArray());
+        out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(0); // interfaces
+        out.writeShort(0); // fields
+        out.writeShort(1); // methods
+
+        out.writeShort(ACC_PUBLIC | ACC_STATIC);
+        out.writeShort(nameIndex);
+        out.writeShort(descriptorIndex);
+        out.writeShort(1); // method attributes
+
+        final int localsAttributeLength = 2 + 10 * parameterTypes.length;
+        out.writeShort(codeAttribute);
+        out.writeInt(2 + 2 + 4 + body.length + 2 + 2 + 6 + localsAttributeLength);
+        out.writeShort(maxStack);
+        out.writeShort(numSlots);
+        out.writeInt(body.length);
+        out.write(body);
+        out.writeShort(0); // exception table
+        out.writeShort(1); // code attributes
+        out.writeShort(localsAttribute);
+        out.writeInt(localsAttributeLength);
+        out.writeShort(parameterTypes.length);
+        for (int i = 0; i < parameterTypes.length; i++) {
+            out.writeShort(0);
+            out.writeShort(body.length);
+            out.writeShort(localNames[i]);
+            out.writeShort(localDescriptors[i]);
+            out.writeShort(slots[i]);
+        }
+
+        out.writeShort(0); // class attributes
+        out.flush();
+        return classBytes.toByteArray();
+    }
+
+    private static void emitLoad(DataOutputStream code, int opcode, int slot) throws IOException {
+        if (slot > 0xFF) {
+            code.writeByte(WIDE);
+            code.writeByte(opcode);
+            code.writeShort(slot);
+        } else {
+            code.writeByte(opcode);
+            code.writeByte(slot);
+        }
+    }
+
+    private static int loadOpcode(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return ALOAD;
+        } else if (type == long.class) {
+            return LLOAD;
+        } else if (type == float.class) {
+            return FLOAD;
+        } else if (type == double.class) {
+            return DLOAD;
+        } else {
+            return ILOAD;
+        }
+    }
+
+    private static int slotSize(Class<?> type) {
+        return (type == long.class || type == double.class) ? 2 : 1;
+    }
+
+    private static String internalName(String className) {
+        return className.replace('.', '/');
+    }
+
+    private static String methodDescriptor(Method method) {
+        final StringBuilder descriptor = new StringBuilder("(");
+        for (Class<?> type : method.getParameterTypes()) {
+            descriptor.append(typeDescriptor(type));
+        }
+        return descriptor.append(")").append(typeDescriptor(method.getReturnType())).toString();
+    }
+
+    private static String typeDescriptor(Class<?> type) {
+        if (type.isArray()) {
+            return internalName(type.getName());
+        } else if (!type.isPrimitive()) {
+            return "L" + internalName(type.getName()) + ";";
+        } else if (type == void.class) {
+            return "V";
+        } else if (type == boolean.class) {
+            return "Z";
+        } else if (type == byte.class) {
+            return "B";
+        } else if (type == char.class) {
+            return "C";
+        } else if (type == short.class) {
+            return "S";
+        } else if (type == int.class) {
+            return "I";
+        } else if (type == long.class) {
+            return "J";
+        } else if (type == float.class) {
+            return "F";
+        } else {
+            return "D";
+        }
+    }
+
+    private int utf8(String value) throws IOException {
+        Integer index = constantIndexes.get("U" + value);
+        if (index == null) {
+            constantPool.writeByte(1);
+            constantPool.writeUTF(value);
+            index = addConstant("U" + value);
+        }
+        return index;
+    }
+
+    private int classRef(String internalName) throws IOException {
+        Integer index = constantIndexes.get("C" + internalName);
+        if (index == null) {
+            final int name = utf8(internalName);
+            constantPool.writeByte(7);
+            constantPool.writeShort(name);
+            index = addConstant("C" + internalName);
+        }
+        return index;
+    }
+
+    private int methodRef(String owner, String name, String descriptor) throws IOException {
+        final String key = "M" + owner + "." + name + descriptor;
+        Integer index = constantIndexes.get(key);
+        if (index == null) {
+            final int ownerIndex = classRef(owner);
+            final int nameIndex = utf8(name);
+            final int descriptorIndex = utf8(descriptor);
+            Integer nameAndType = constantIndexes.get("N" + name + descriptor);
+            if (nameAndType == null) {
+                constantPool.writeByte(12);
+                constantPool.writeShort(nameIndex);
+                constantPool.writeShort(descriptorIndex);
+                nameAndType = addConstant("N" + name + descriptor);
+            }
+            constantPool.writeByte(10);
+            constantPool.writeShort(ownerIndex);
+            constantPool.writeShort(nameAndType);
+            index = addConstant(key);
+        }
+        return index;
+    }
+
+    private int addConstant(String key) {
+        final int index = constantPoolCount++;
+        constantIndexes.put(key, index);
+        return index;
+    }
+}
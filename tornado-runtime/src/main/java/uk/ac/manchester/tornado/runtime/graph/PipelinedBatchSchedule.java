@@ -0,0 +1,210 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+
+/**
+ * Order of the bytecodes emitted for pipelined batches. Each batched argument
+ * has {@code K} regular buffer slots that rotate across batches, plus one slot
+ * for the last (smaller) batch if present. The phases of consecutive batches
+ * are interleaved as follows:
+ *
+ * <pre>
+ * BROADCAST_IN
+ * ALLOCATE (all slots)
+ * TRANSFER_IN(0) ... TRANSFER_IN(K - 2)
+ * for each batch i:
+ *     LAUNCH(i)
+ *     TRANSFER_OUT(i - 1)
+ *     TRANSFER_IN(i + K - 1)
+ * TRANSFER_OUT(last)
+ * BROADCAST_OUT
+ * DEALLOCATE (all slots)
+ * </pre>
+ *
+ * <p>
+ * The broadcast objects are shared by all batches: they are allocated and
+ * copied in before the first batch, and copied out and released after the
+ * last one.
+ * </p>
+ */
+public final class PipelinedBatchSchedule {
+
+    public enum Phase {
+        BROADCAST_IN, //
+        ALLOCATE, //
+        TRANSFER_IN, //
+        LAUNCH, //
+        TRANSFER_OUT, //
+        BROADCAST_OUT, //
+        DEALLOCATE
+    }
+
+    /**
+     * Batch index of the broadcast steps.
+     */
+    public static final int BROADCAST = -1;
+
+    /**
+     * A phase of a batch, emitted on the buffers of a slot.
+     */
+    public static final class Step {
+
+        private final Phase phase;
+        private final int chunk;
+        private final int slot;
+
+        private Step(Phase phase, int chunk, int slot) {
+            this.phase = phase;
+            this.chunk = chunk;
+            this.slot = slot;
+        }
+
+        public Phase getPhase() {
+            return phase;
+        }
+
+        /**
+         * @return Index of the batch, or {@link #BROADCAST}. The allocation and
+         *         release of a slot use the first batch of the slot.
+         */
+        public int getChunk() {
+            return chunk;
+        }
+
+        public int getSlot() {
+            return slot;
+        }
+
+        @Override
+        public String toString() {
+            return phase + "(" + chunk + ")@" + slot;
+        }
+    }
+
+    private final int numChunks;
+    private final int numRegularSlots;
+    private final boolean hasRemainder;
+    private final List<Step> steps;
+
+    private PipelinedBatchSchedule(int numChunks, int numRegularSlots, boolean hasRemainder) {
+        this.numChunks = numChunks;
+        this.numRegularSlots = numRegularSlots;
+        this.hasRemainder = hasRemainder;
+        this.steps = Collections.unmodifiableList(buildSteps());
+    }
+
+    /**
+     * @param numChunks
+     *            Number of batches, including the last (smaller) batch.
+     * @param numRegularSlots
+     *            Number of buffer slots that rotate across the full-size
+     *            batches.
+     * @param hasRemainder
+     *            True if the last batch is smaller than the others. It uses its
+     *            own buffer slot.
+     * @return The schedule of the batches.
+     */
+    public static PipelinedBatchSchedule compute(int numChunks, int numRegularSlots, boolean hasRemainder) {
+        final int numFullChunks = hasRemainder ? numChunks - 1 : numChunks;
+        if (numRegularSlots < 2 || numFullChunks < numRegularSlots) {
+            throw new TornadoRuntimeException("[ERROR] Invalid pipelined batches: " + numChunks + " batches over " + numRegularSlots + " buffer slots");
+        }
+        return new PipelinedBatchSchedule(numChunks, numRegularSlots, hasRemainder);
+    }
+
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    public int getNumSlots() {
+        return hasRemainder ? numRegularSlots + 1 : numRegularSlots;
+    }
+
+    public int slotOf(int chunk) {
+        return (hasRemainder && chunk == numChunks - 1) ? numRegularSlots : chunk % numRegularSlots;
+    }
+
+    /**
+     * @return The last batch that uses the slot. Once it finishes, all previous
+     *         batches of the slot have finished too.
+     */
+    public int lastChunkOf(int slot) {
+        for (int i = numChunks - 1; i >= 0; i--) {
+            if (slotOf(i) == slot) {
+                return i;
+            }
+        }
+        throw new TornadoRuntimeException("[ERROR] Buffer slot without batches: " + slot);
+    }
+
+    private int firstChunkOf(int slot) {
+        return slot == numRegularSlots ? numChunks - 1 : slot;
+    }
+
+    private List<Step> buildSteps() {
+        final List<Step> schedule = new ArrayList<>();
+        final int numSlots = getNumSlots();
+
+        schedule.add(new Step(Phase.BROADCAST_IN, BROADCAST, 0));
+        for (int slot = 0; slot < numSlots; slot++) {
+            schedule.add(new Step(Phase.ALLOCATE, firstChunkOf(slot), slot));
+        }
+
+        // Prologue: prefetch the first batches
+        for (int i = 0; i < numRegularSlots - 1; i++) {
+            schedule.add(step(Phase.TRANSFER_IN, i));
+        }
+
+        for (int i = 0; i < numChunks; i++) {
+            schedule.add(step(Phase.LAUNCH, i));
+            if (i > 0) {
+                schedule.add(step(Phase.TRANSFER_OUT, i - 1));
+            }
+            int next = i + numRegularSlots - 1;
+            if (next < numChunks) {
+                schedule.add(step(Phase.TRANSFER_IN, next));
+            }
+        }
+
+        // Epilogue: copy-out the last batch
+        schedule.add(step(Phase.TRANSFER_OUT, numChunks - 1));
+
+        schedule.add(new Step(Phase.BROADCAST_OUT, BROADCAST, 0));
+
+        for (int slot = 0; slot < numSlots; slot++) {
+            schedule.add(new Step(Phase.DEALLOCATE, firstChunkOf(slot), slot));
+        }
+        return schedule;
+    }
+
+    private Step step(Phase phase, int chunk) {
+        return new Step(phase, chunk, slotOf(chunk));
+    }
+}
@@ -34,6 +34,7 @@ import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -74,6 +75,11 @@ public class TornadoExecutionContext {
     private int nextTask;
 
     private long batchSize;
+    private int batchBuffers;
+    private Set<Object> batchBroadcastObjects;
+    private long partitionOffset;
+    private long partitionSize;
+    private boolean dirtyTracking;
     private Set<TornadoAcceleratorDevice> lastDevices;
 
     private boolean redeployOnDevice;
@@ -97,6 +103,9 @@ public class TornadoExecutionContext {
         Arrays.fill(taskToDeviceMapTable, null);
         nextTask = 0;
         batchSize = -1;
+        batchBuffers = 1;
+        batchBroadcastObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+        partitionOffset = -1;
         lastDevices = new HashSet<>();
         this.profiler = profiler;
         this.isDataDependencyDetected = isDataDependencyInTaskGraph();
@@ -133,6 +142,80 @@ public class TornadoExecutionContext {
         this.batchSize = size;
     }
 
+    /**
+     * @return Number of device buffers per batched argument. Values greater than 1
+     *         enable the pipelined batch execution.
+     */
+    public int getBatchBuffers() {
+        return batchBuffers;
+    }
+
+    public void setBatchBuffers(int batchBuffers) {
+        this.batchBuffers = batchBuffers;
+    }
+
+    /**
+     * It marks objects that are copied in full to the device, instead of being
+     * split when processing in batches (e.g., lookup tables).
+     */
+    public void setBatchBroadcastObjects(Object... objects) {
+        batchBroadcastObjects.addAll(Arrays.asList(objects));
+    }
+
+    public Set<Object> getBatchBroadcastObjects() {
+        return batchBroadcastObjects;
+    }
+
+    /**
+     * It restricts the execution to a range of the batch iteration space. It is
+     * used by the co-execution, in which each device processes one partition.
+     *
+     * @param offset
+     *            First iteration of the partition.
+     * @param numElements
+     *            Number of iterations of the partition.
+     */
+    public void setPartition(long offset, long numElements) {
+        this.partitionOffset = offset;
+        this.partitionSize = numElements;
+    }
+
+    public boolean isPartitioned() {
+        return partitionOffset != -1;
+    }
+
+    public long getPartitionOffset() {
+        return partitionOffset;
+    }
+
+    public long getPartitionSize() {
+        return partitionSize;
+    }
+
+    public boolean isBatchBroadcast(Object object) {
+        return batchBroadcastObjects.contains(object);
+    }
+
+    /**
+     * When enabled, the TornadoVM skips copies of
+     * {@code TRANSFER_HOST_TO_DEVICE_ALWAYS} objects that have not been marked as
+     * dirty since their last copy to the device.
+     */
+    public void setDirtyTracking(boolean dirtyTracking) {
+        this.dirtyTracking = dirtyTracking;
+    }
+
+    public boolean isDirtyTracking() {
+        return dirtyTracking;
+    }
+
+    public void markDirty(Object object) {
+        Integer index = objectMap.get(object.hashCode());
+        if (index != null) {
+            objectState.get(index).markDirty();
+        }
+    }
+
     public int replaceVariable(Object oldObj, Object newObj) {
         /*
          * Use the same index the oldObj was assigned. The argument indices are
@@ -531,6 +614,7 @@ public class TornadoExecutionContext {
 
         executionContext.profiler = this.profiler;
         executionContext.nextTask = this.nextTask;
+        executionContext.dirtyTracking = this.dirtyTracking;
     }
 
     public void dumpExecutionContextMeta() {
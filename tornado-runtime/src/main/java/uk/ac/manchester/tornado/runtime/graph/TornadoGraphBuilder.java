@@ -50,6 +50,7 @@ import uk.ac.manchester.tornado.runtime.graph.nodes.TaskNode;
 import uk.ac.manchester.tornado.runtime.sketcher.Sketch;
 import uk.ac.manchester.tornado.runtime.sketcher.TornadoSketcher;
 import uk.ac.manchester.tornado.runtime.tasks.CompilableTask;
+import uk.ac.manchester.tornado.runtime.tasks.FusedCompilableTask;
 import uk.ac.manchester.tornado.runtime.tasks.LocalObjectState;
 import uk.ac.manchester.tornado.runtime.tasks.TornadoGraphBitcodes;
 
@@ -221,7 +222,9 @@ public class TornadoGraphBuilder {
                 persist = graph.addUnique(new AllocateMultipleBuffersNode(context));
                 context.addUse(persist);
 
-                if (task instanceof CompilableTask) {
+                if (task instanceof FusedCompilableTask) {
+                    accesses = ((FusedCompilableTask) task).getFusedAccesses();
+                } else if (task instanceof CompilableTask) {
                     final ResolvedJavaMethod resolvedMethod = TornadoCoreRuntime.getTornadoRuntime().resolveMethod(((CompilableTask) task).getMethod());
                     Sketch sketch = TornadoSketcher.lookup(resolvedMethod, task.meta().getDriverIndex(), task.meta().getDeviceIndex());
                     accesses = sketch.getArgumentsAccess();
@@ -234,6 +237,7 @@ public class TornadoGraphBuilder {
         }
 
         for (int i = 0; i < states.size(); i++) {
+            states.get(i).setWrittenOnDevice(objectNodes[i] instanceof DependentReadNode);
             if (states.get(i).isStreamOut()) {
                 if (objectNodes[i] instanceof DependentReadNode) {
                     final DependentReadNode readNode = (DependentReadNode) objectNodes[i];
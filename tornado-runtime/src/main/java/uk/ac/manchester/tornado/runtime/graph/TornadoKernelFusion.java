@@ -0,0 +1,605 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.graph;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.ParameterNode;
+import org.graalvm.compiler.nodes.PiNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValuePhiNode;
+import org.graalvm.compiler.nodes.java.ArrayLengthNode;
+import org.graalvm.compiler.nodes.java.LoadIndexedNode;
+import org.graalvm.compiler.nodes.java.StoreIndexedNode;
+import org.graalvm.compiler.phases.util.Providers;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import uk.ac.manchester.tornado.api.common.Access;
+import uk.ac.manchester.tornado.api.common.SchedulableTask;
+import uk.ac.manchester.tornado.api.exceptions.TornadoBailoutRuntimeException;
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.runtime.TornadoCoreRuntime;
+import uk.ac.manchester.tornado.runtime.common.RuntimeUtilities;
+import uk.ac.manchester.tornado.runtime.common.Tornado;
+import uk.ac.manchester.tornado.runtime.graal.compiler.TornadoSuitesProvider;
+import uk.ac.manchester.tornado.runtime.graal.nodes.GetGroupIdFixedWithNextNode;
+import uk.ac.manchester.tornado.runtime.graal.nodes.GlobalGroupSizeFixedWithNextNode;
+import uk.ac.manchester.tornado.runtime.graal.nodes.LocalGroupSizeFixedWithNextNode;
+import uk.ac.manchester.tornado.runtime.graal.nodes.ParallelRangeNode;
+import uk.ac.manchester.tornado.runtime.graal.nodes.StoreAtomicIndexedNode;
+import uk.ac.manchester.tornado.runtime.graal.nodes.ThreadIdFixedWithNextNode;
+import uk.ac.manchester.tornado.runtime.graal.nodes.ThreadLocalIdFixedWithNextNode;
+import uk.ac.manchester.tornado.runtime.graal.nodes.TornadoReduceAddNode;
+import uk.ac.manchester.tornado.runtime.graal.nodes.TornadoReduceMulNode;
+import uk.ac.manchester.tornado.runtime.graal.nodes.TornadoReduceSubNode;
+import uk.ac.manchester.tornado.runtime.sketcher.Sketch;
+import uk.ac.manchester.tornado.runtime.sketcher.SketchRequest;
+import uk.ac.manchester.tornado.runtime.sketcher.TornadoSketcher;
+import uk.ac.manchester.tornado.runtime.tasks.CompilableTask;
+import uk.ac.manchester.tornado.runtime.tasks.FusedCompilableTask;
+import uk.ac.manchester.tornado.runtime.tasks.TornadoGraphBitcodes;
+
+/**
+ * Producer/consumer fusion of the tasks of a task-graph. It rewrites the
+ * high-level bitcodes of the task-graph before the {@link TornadoGraph} is
+ * built, so a chain of consecutive tasks is launched as a single
+ * {@link FusedCompilableTask}.
+ *
+ * <p>
+ * A task is appended to a chain when:
+ * <ul>
+ * <li>It runs on the same device and it reads an array written by a task of the
+ * chain.</li>
+ * <li>It is a static method with a single parallel loop, no other loops and no
+ * calls left after inlining, and the loop has the same iteration space as the
+ * loops of the chain.</li>
+ * <li>Every array that it shares with the chain, and that is written by any of
+ * them, is only accessed with the induction variable of the parallel loop.
+ * Then, each thread of the fused kernel only reads the elements that the same
+ * thread wrote, so no barrier is needed between the loops.</li>
+ * <li>All arguments are scalars or primitive arrays.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * An array produced by the chain and consumed inside it is not copied to the
+ * device. If it is not an output of the task-graph it is not copied back
+ * either.
+ * </p>
+ */
+public class TornadoKernelFusion {
+
+    private static final long UNKNOWN = Long.MIN_VALUE;
+
+    private TornadoKernelFusion() {
+    }
+
+    /**
+     * A task in the high-level bitcodes of the task-graph.
+     */
+    private static final class Launch {
+        private final int globalTaskId;
+        private final int taskIndex;
+        private final byte[] loads;
+        private final int[] variables;
+
+        private Launch(int globalTaskId, int taskIndex, byte[] loads, int[] variables) {
+            this.globalTaskId = globalTaskId;
+            this.taskIndex = taskIndex;
+            this.loads = loads;
+            this.variables = variables;
+        }
+
+        private boolean isReference(int parameter) {
+            return loads[parameter] == TornadoGraphBitcodes.LOAD_REF.index();
+        }
+    }
+
+    /**
+     * A task with a single parallel loop, and its iteration space.
+     */
+    private static final class ElementWiseTask {
+        private final Launch launch;
+        private final CompilableTask task;
+        private final StructuredGraph graph;
+        private final ValuePhiNode index;
+        private final long offset;
+        private final long stride;
+        private final long iterations;
+        private final Access[] accesses;
+
+        private ElementWiseTask(Launch launch, CompilableTask task, StructuredGraph graph, ValuePhiNode index, long offset, long stride, long iterations, Access[] accesses) {
+            this.launch = launch;
+            this.task = task;
+            this.graph = graph;
+            this.index = index;
+            this.offset = offset;
+            this.stride = stride;
+            this.iterations = iterations;
+            this.accesses = accesses;
+        }
+
+        private boolean hasSameIterationSpace(ElementWiseTask other) {
+            return offset == other.offset && stride == other.stride && iterations == other.iterations && task.meta().getNumThreads() == other.task.meta().getNumThreads();
+        }
+
+        private Access accessOf(int variable) {
+            byte access = Access.NONE.position;
+            for (int i = 0; i < launch.variables.length; i++) {
+                if (launch.isReference(i) && launch.variables[i] == variable) {
+                    access |= accesses[i].position;
+                }
+            }
+            return Access.asArray()[access];
+        }
+
+        /**
+         * @return true if every parameter that receives the variable is only
+         *         accessed with the induction variable of the parallel loop.
+         */
+        private boolean isElementWise(int variable) {
+            for (int i = 0; i < launch.variables.length; i++) {
+                if (launch.isReference(i) && launch.variables[i] == variable) {
+                    ParameterNode parameter = graph.getParameter(i);
+                    if (parameter != null && !isAccessedByIndex(parameter)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private boolean isAccessedByIndex(ValueNode array) {
+            for (Node usage : array.usages()) {
+                if (usage instanceof FrameState || usage instanceof ArrayLengthNode) {
+                    continue;
+                } else if (usage instanceof PiNode) {
+                    if (!isAccessedByIndex((PiNode) usage)) {
+                        return false;
+                    }
+                } else if (usage instanceof LoadIndexedNode) {
+                    LoadIndexedNode load = (LoadIndexedNode) usage;
+                    if (load.array() != array || load.index() != index) {
+                        return false;
+                    }
+                } else if (usage instanceof StoreIndexedNode) {
+                    StoreIndexedNode store = (StoreIndexedNode) usage;
+                    if (store.array() != array || store.index() != index || store.value() == array) {
+                        return false;
+                    }
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Consecutive tasks that are launched as a single kernel.
+     */
+    private static final class FusionGroup {
+        private final List<ElementWiseTask> tasks = new ArrayList<>();
+        private final List<int[]> parameterMaps = new ArrayList<>();
+        private final List<Byte> loads = new ArrayList<>();
+        private final List<Integer> variables = new ArrayList<>();
+        private final List<Class<?>> types = new ArrayList<>();
+        private final List<Object> arguments = new ArrayList<>();
+
+        private FusionGroup(ElementWiseTask first) {
+            add(first);
+        }
+
+        private ElementWiseTask first() {
+            return tasks.get(0);
+        }
+
+        private Access accessOf(int variable) {
+            byte access = Access.NONE.position;
+            for (ElementWiseTask task : tasks) {
+                access |= task.accessOf(variable).position;
+            }
+            return Access.asArray()[access];
+        }
+
+        private boolean isElementWise(int variable) {
+            for (ElementWiseTask task : tasks) {
+                if (task.accessOf(variable) != Access.NONE && !task.isElementWise(variable)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean accepts(TornadoExecutionContext executionContext, ElementWiseTask candidate) {
+            final ElementWiseTask first = first();
+            final Method firstMethod = first.task.getMethod();
+            final Method method = candidate.task.getMethod();
+            if (executionContext.getDeviceForTask(first.launch.taskIndex) != executionContext.getDeviceForTask(candidate.launch.taskIndex)) {
+                return false;
+            }
+            // The fused method is defined next to the first task and it must be able to
+            // call all the tasks
+            if (method.getDeclaringClass().getClassLoader() != firstMethod.getDeclaringClass().getClassLoader()
+                    || !method.getDeclaringClass().getPackageName().equals(firstMethod.getDeclaringClass().getPackageName())) {
+                return false;
+            }
+            if (!first.hasSameIterationSpace(candidate)) {
+                return false;
+            }
+
+            final Launch launch = candidate.launch;
+            final Class<?>[] parameterTypes = method.getParameterTypes();
+            boolean consumes = false;
+            for (int i = 0; i < launch.variables.length; i++) {
+                final int variable = launch.variables[i];
+                if (!launch.isReference(i)) {
+                    // The same constant must be passed with the same type
+                    int parameter = indexOf(launch.loads[i], variable);
+                    if (parameter != -1 && types.get(parameter) != parameterTypes[i]) {
+                        return false;
+                    }
+                    continue;
+                }
+                final Access groupAccess = accessOf(variable);
+                final Access candidateAccess = candidate.accessOf(variable);
+                if (groupAccess == Access.NONE || candidateAccess == Access.NONE) {
+                    continue;
+                }
+                if (((groupAccess.position | candidateAccess.position) & Access.WRITE_ONLY.position) != 0) {
+                    if (!isElementWise(variable) || !candidate.isElementWise(variable)) {
+                        return false;
+                    }
+                }
+                if ((groupAccess.position & Access.WRITE_ONLY.position) != 0 && (candidateAccess.position & Access.READ_ONLY.position) != 0) {
+                    consumes = true;
+                }
+            }
+            return consumes;
+        }
+
+        private int indexOf(byte load, int variable) {
+            for (int i = 0; i < variables.size(); i++) {
+                if (loads.get(i) == load && variables.get(i) == variable) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void add(ElementWiseTask task) {
+            final Launch launch = task.launch;
+            final Class<?>[] parameterTypes = task.task.getMethod().getParameterTypes();
+            final Object[] taskArguments = task.task.getArguments();
+            final int[] parameterMap = new int[launch.variables.length];
+            for (int i = 0; i < launch.variables.length; i++) {
+                int parameter = indexOf(launch.loads[i], launch.variables[i]);
+                if (parameter == -1) {
+                    parameter = variables.size();
+                    loads.add(launch.loads[i]);
+                    variables.add(launch.variables[i]);
+                    types.add(parameterTypes[i]);
+                    arguments.add(taskArguments[i]);
+                }
+                parameterMap[i] = parameter;
+            }
+            tasks.add(task);
+            parameterMaps.add(parameterMap);
+        }
+
+        /**
+         * An array that is written by a task before any other task of the group
+         * reads it does not need to be copied to the device.
+         */
+        private Access[] computeFusedAccesses() {
+            final Access[] fusedAccesses = new Access[variables.size()];
+            for (int i = 0; i < fusedAccesses.length; i++) {
+                fusedAccesses[i] = Access.NONE;
+            }
+            for (int t = 0; t < tasks.size(); t++) {
+                final int[] parameterMap = parameterMaps.get(t);
+                final Access[] accesses = tasks.get(t).accesses;
+                for (int i = 0; i < parameterMap.length; i++) {
+                    final int parameter = parameterMap[i];
+                    if (fusedAccesses[parameter] == Access.NONE) {
+                        fusedAccesses[parameter] = accesses[i];
+                    } else if (fusedAccesses[parameter] != Access.WRITE_ONLY) {
+                        fusedAccesses[parameter] = Access.asArray()[fusedAccesses[parameter].position | (accesses[i].position & Access.WRITE_ONLY.position)];
+                    }
+                }
+            }
+            return fusedAccesses;
+        }
+
+        private FusedCompilableTask createFusedTask(TornadoExecutionContext executionContext) {
+            final Method[] callees = new Method[tasks.size()];
+            final List<CompilableTask> fusedTasks = new ArrayList<>();
+            final StringBuilder id = new StringBuilder();
+            final String prefix = executionContext.meta().getId() + ".";
+            for (int i = 0; i < tasks.size(); i++) {
+                final CompilableTask task = tasks.get(i).task;
+                callees[i] = task.getMethod();
+                fusedTasks.add(task);
+                final String taskId = task.getId();
+                id.append(i == 0 ? "" : "+").append(taskId.startsWith(prefix) ? taskId.substring(prefix.length()) : taskId);
+            }
+            final Method method = FusedMethodGenerator.generate(callees, types.toArray(new Class<?>[0]), parameterMaps.toArray(new int[0][]));
+            return new FusedCompilableTask(executionContext.meta(), id.toString(), method, arguments.toArray(), fusedTasks, computeFusedAccesses());
+        }
+
+        private void emit(ByteBuffer buffer, int taskIndex) {
+            final Launch first = first().launch;
+            buffer.put(TornadoGraphBitcodes.CONTEXT.index());
+            buffer.putInt(first.globalTaskId);
+            buffer.putInt(taskIndex);
+            buffer.put(TornadoGraphBitcodes.ARG_LIST.index());
+            buffer.putInt(variables.size());
+            for (int i = 0; i < variables.size(); i++) {
+                buffer.put(loads.get(i));
+                buffer.putInt(variables.get(i));
+            }
+            buffer.put(TornadoGraphBitcodes.LAUNCH.index());
+        }
+    }
+
+    /**
+     * It fuses the chains of element-wise tasks of the task-graph. The fused tasks
+     * replace the first task of each chain in the execution context, and the
+     * other tasks of the chain are removed from the bitcodes.
+     *
+     * @param executionContext
+     *            {@link TornadoExecutionContext} of the task-graph.
+     * @param buffer
+     *            High-level bitcodes of the task-graph.
+     * @return the bitcodes with the fused tasks.
+     */
+    public static ByteBuffer fuseTasks(TornadoExecutionContext executionContext, ByteBuffer buffer) {
+        restoreTasks(executionContext);
+        if (executionContext.getBatchSize() != -1 || executionContext.isPartitioned()) {
+            return buffer;
+        }
+
+        final List<Launch> launches = readLaunches(buffer);
+        buffer.rewind();
+        if (launches == null || launches.size() < 2) {
+            return buffer;
+        }
+
+        // Group consecutive tasks
+        final List<Object> groups = new ArrayList<>();
+        FusionGroup current = null;
+        for (Launch launch : launches) {
+            final ElementWiseTask task = analyse(executionContext, launch);
+            if (current != null && task != null && current.accepts(executionContext, task)) {
+                current.add(task);
+                continue;
+            }
+            current = (task != null) ? new FusionGroup(task) : null;
+            groups.add((current != null) ? current : launch);
+        }
+
+        final ByteBuffer fusedBuffer = ByteBuffer.allocate(buffer.limit());
+        fusedBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        for (Object group : groups) {
+            if (group instanceof FusionGroup && ((FusionGroup) group).tasks.size() > 1) {
+                emitFusedGroup(executionContext, (FusionGroup) group, fusedBuffer);
+            } else if (group instanceof FusionGroup) {
+                emitLaunch(((FusionGroup) group).first().launch, fusedBuffer);
+            } else {
+                emitLaunch((Launch) group, fusedBuffer);
+            }
+        }
+        fusedBuffer.flip();
+        return fusedBuffer;
+    }
+
+    private static void restoreTasks(TornadoExecutionContext executionContext) {
+        final List<SchedulableTask> tasks = executionContext.getTasks();
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i) instanceof FusedCompilableTask) {
+                executionContext.setTask(i, ((FusedCompilableTask) tasks.get(i)).unfuse());
+            }
+        }
+    }
+
+    private static List<Launch> readLaunches(ByteBuffer buffer) {
+        final List<Launch> launches = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            if (buffer.get() != TornadoGraphBitcodes.CONTEXT.index()) {
+                return null;
+            }
+            final int globalTaskId = buffer.getInt();
+            final int taskIndex = buffer.getInt();
+            if (buffer.get() != TornadoGraphBitcodes.ARG_LIST.index()) {
+                return null;
+            }
+            final int size = buffer.getInt();
+            final byte[] loads = new byte[size];
+            final int[] variables = new int[size];
+            for (int i = 0; i < size; i++) {
+                loads[i] = buffer.get();
+                variables[i] = buffer.getInt();
+            }
+            if (buffer.get() != TornadoGraphBitcodes.LAUNCH.index()) {
+                return null;
+            }
+            launches.add(new Launch(globalTaskId, taskIndex, loads, variables));
+        }
+        return launches;
+    }
+
+    private static void emitLaunch(Launch launch, ByteBuffer buffer) {
+        buffer.put(TornadoGraphBitcodes.CONTEXT.index());
+        buffer.putInt(launch.globalTaskId);
+        buffer.putInt(launch.taskIndex);
+        buffer.put(TornadoGraphBitcodes.ARG_LIST.index());
+        buffer.putInt(launch.variables.length);
+        for (int i = 0; i < launch.variables.length; i++) {
+            buffer.put(launch.loads[i]);
+            buffer.putInt(launch.variables[i]);
+        }
+        buffer.put(TornadoGraphBitcodes.LAUNCH.index());
+    }
+
+    private static void emitFusedGroup(TornadoExecutionContext executionContext, FusionGroup group, ByteBuffer buffer) {
+        final int taskIndex = group.first().launch.taskIndex;
+        try {
+            final FusedCompilableTask fusedTask = group.createFusedTask(executionContext);
+            if (buildFusedSketch(fusedTask)) {
+                executionContext.setTask(taskIndex, fusedTask);
+                group.emit(buffer, taskIndex);
+                Tornado.debug("fused tasks %s into %s", fusedTask.getFusedTasks(), fusedTask.getId());
+                return;
+            }
+        } catch (TornadoRuntimeException | TornadoBailoutRuntimeException e) {
+            Tornado.debug("unable to fuse tasks: %s", e.getMessage());
+        }
+        for (ElementWiseTask task : group.tasks) {
+            emitLaunch(task.launch, buffer);
+        }
+    }
+
+    /**
+     * It builds the sketch of the fused task and checks that all tasks were
+     * inlined, each one with its parallel loop.
+     */
+    private static boolean buildFusedSketch(FusedCompilableTask fusedTask) {
+        final int driverIndex = fusedTask.meta().getDriverIndex();
+        final int deviceIndex = fusedTask.meta().getDeviceIndex();
+        final Providers providers = TornadoCoreRuntime.getTornadoRuntime().getDriver(driverIndex).getProviders();
+        final TornadoSuitesProvider suites = TornadoCoreRuntime.getTornadoRuntime().getDriver(driverIndex).getSuitesProvider();
+        final ResolvedJavaMethod resolvedMethod = TornadoCoreRuntime.getTornadoRuntime().resolveMethod(fusedTask.getMethod());
+        new SketchRequest(resolvedMethod, providers, suites.getGraphBuilderSuite(), suites.getSketchTier(), driverIndex, deviceIndex).run();
+
+        final Sketch sketch = TornadoSketcher.lookup(resolvedMethod, driverIndex, deviceIndex);
+        final StructuredGraph graph = (StructuredGraph) sketch.getGraph().getReadonlyCopy();
+        if (graph.getInvokes().iterator().hasNext()) {
+            return false;
+        }
+        final List<ParallelRangeNode> ranges = graph.getNodes().filter(ParallelRangeNode.class).snapshot();
+        if (ranges.size() != fusedTask.getFusedTasks().size()) {
+            return false;
+        }
+        for (ParallelRangeNode range : ranges) {
+            if (range.index() != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ElementWiseTask analyse(TornadoExecutionContext executionContext, Launch launch) {
+        final SchedulableTask schedulableTask = executionContext.getTask(launch.taskIndex);
+        if (!(schedulableTask instanceof CompilableTask)) {
+            return null;
+        }
+        final CompilableTask task = (CompilableTask) schedulableTask;
+        final Method method = task.getMethod();
+        final int modifiers = method.getModifiers();
+        if (!Modifier.isStatic(modifiers) || Modifier.isPrivate(modifiers) || method.getReturnType() != void.class) {
+            return null;
+        }
+        final Object[] arguments = task.getArguments();
+        for (Object argument : arguments) {
+            if (!isFusableArgument(argument)) {
+                return null;
+            }
+        }
+
+        final ResolvedJavaMethod resolvedMethod = TornadoCoreRuntime.getTornadoRuntime().resolveMethod(method);
+        final Sketch sketch = TornadoSketcher.lookup(resolvedMethod, task.meta().getDriverIndex(), task.meta().getDeviceIndex());
+        final StructuredGraph graph = (StructuredGraph) sketch.getGraph().getReadonlyCopy();
+        if (graph.getInvokes().iterator().hasNext() || graph.getNodes(LoopBeginNode.TYPE).count() != 1) {
+            return null;
+        }
+        for (Node node : graph.getNodes()) {
+            if (isUnsupportedNode(node)) {
+                return null;
+            }
+        }
+
+        final List<ParallelRangeNode> ranges = graph.getNodes().filter(ParallelRangeNode.class).snapshot();
+        if (ranges.size() != 1) {
+            return null;
+        }
+        final ParallelRangeNode range = ranges.get(0);
+        final List<ValuePhiNode> inductionVariables = range.offset().usages().filter(ValuePhiNode.class).snapshot();
+        if (inductionVariables.size() != 1) {
+            return null;
+        }
+        final long offset = resolve(range.offset().value(), arguments);
+        final long stride = resolve(range.stride().value(), arguments);
+        final long iterations = resolve(range.value(), arguments);
+        if (offset == UNKNOWN || stride == UNKNOWN || iterations == UNKNOWN) {
+            return null;
+        }
+        return new ElementWiseTask(launch, task, graph, inductionVariables.get(0), offset, stride, iterations, sketch.getArgumentsAccess());
+    }
+
+    private static boolean isFusableArgument(Object argument) {
+        return argument != null && (RuntimeUtilities.isBoxedPrimitive(argument) || (argument.getClass().isArray() && argument.getClass().getComponentType().isPrimitive()));
+    }
+
+    private static boolean isUnsupportedNode(Node node) {
+        return node instanceof StoreAtomicIndexedNode || node instanceof TornadoReduceAddNode || node instanceof TornadoReduceMulNode || node instanceof TornadoReduceSubNode
+                || node instanceof ThreadIdFixedWithNextNode || node instanceof ThreadLocalIdFixedWithNextNode || node instanceof GetGroupIdFixedWithNextNode
+                || node instanceof GlobalGroupSizeFixedWithNextNode || node instanceof LocalGroupSizeFixedWithNextNode;
+    }
+
+    /**
+     * It resolves a loop bound from the constants of the graph and the arguments
+     * of the task.
+     */
+    private static long resolve(ValueNode value, Object[] arguments) {
+        while (value instanceof PiNode) {
+            value = ((PiNode) value).getOriginalNode();
+        }
+        if (value instanceof ConstantNode) {
+            return value.asJavaConstant().asInt();
+        } else if (value instanceof ParameterNode) {
+            Object argument = arguments[((ParameterNode) value).index()];
+            return (argument instanceof Integer || argument instanceof Short || argument instanceof Byte) ? ((Number) argument).longValue() : UNKNOWN;
+        } else if (value instanceof ArrayLengthNode) {
+            ValueNode array = ((ArrayLengthNode) value).array();
+            while (array instanceof PiNode) {
+                array = ((PiNode) array).getOriginalNode();
+            }
+            if (array instanceof ParameterNode) {
+                return Array.getLength(arguments[((ParameterNode) array).index()]);
+            }
+        }
+        return UNKNOWN;
+    }
+}
@@ -27,7 +27,10 @@ import static uk.ac.manchester.tornado.runtime.common.Tornado.getProperty;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import uk.ac.manchester.tornado.runtime.common.RuntimeUtilities;
 import uk.ac.manchester.tornado.runtime.common.TornadoLogger;
@@ -90,30 +93,47 @@ public class TornadoVMBytecodeBuilder {
         globalTaskID++;
     }
 
-    void emitAsyncNode(AbstractNode node, int contextID, int dependencyBC, long offset, long batchSize, long nThreads) {
+    void emitAsyncNode(AbstractNode node, int contextID, int dependencyBC, BatchChunk chunk) {
         if (node instanceof AllocateMultipleBuffersNode) {
-            bitcodeASM.allocate(((AllocateMultipleBuffersNode) node).getValues(), contextID, batchSize);
+            emitAllocations(((AllocateMultipleBuffersNode) node).getValues(), contextID, chunk);
         } else if (node instanceof CopyInNode) {
-            bitcodeASM.transferToDeviceOnce(((CopyInNode) node).getValue().getIndex(), contextID, dependencyBC, offset, batchSize);
+            final int index = ((CopyInNode) node).getValue().getIndex();
+            bitcodeASM.transferToDeviceOnce(index, contextID, dependencyBC, chunk.offsetOf(index), chunk.sizeOf(index));
         } else if (node instanceof AllocateNode) {
             TornadoLogger.info("[%s]: Skipping deprecated node %s", getClass().getSimpleName(), AllocateNode.class.getSimpleName());
         } else if (node instanceof CopyOutNode) {
             ObjectNode value = ((CopyOutNode) node).getValue().getValue();
             if (value != null) {
-                bitcodeASM.transferToHost(value.getIndex(), contextID, dependencyBC, offset, batchSize);
+                final int index = value.getIndex();
+                bitcodeASM.transferToHost(index, contextID, dependencyBC, chunk.offsetOf(index), chunk.sizeOf(index));
             }
         } else if (node instanceof StreamInNode) {
-            bitcodeASM.transferToDeviceAlways(((StreamInNode) node).getValue().getIndex(), contextID, dependencyBC, offset, batchSize);
+            final int index = ((StreamInNode) node).getValue().getIndex();
+            bitcodeASM.transferToDeviceAlways(index, contextID, dependencyBC, chunk.offsetOf(index), chunk.sizeOf(index));
         } else if (node instanceof DeallocateNode) {
             bitcodeASM.deallocate(((DeallocateNode) node).getValue().getIndex(), contextID);
         } else if (node instanceof TaskNode) {
             final TaskNode taskNode = (TaskNode) node;
-            bitcodeASM.launch(globalTaskID, taskNode.getContext().getDeviceIndex(), taskNode.getTaskIndex(), taskNode.getNumArgs(), dependencyBC, offset, nThreads);
+            bitcodeASM.launch(globalTaskID, taskNode.getContext().getDeviceIndex(), taskNode.getTaskIndex(), taskNode.getNumArgs(), dependencyBC, chunk.getOffset(), chunk.getNumThreads());
             emitArgList(taskNode);
             incrementGlobalTaskIndex();
         }
     }
 
+    /**
+     * It emits one ALLOC bytecode per buffer size, since the objects of a batch
+     * can have different sizes.
+     */
+    private void emitAllocations(List<AbstractNode> values, int contextID, BatchChunk chunk) {
+        Map<Long, List<AbstractNode>> valuesPerSize = new LinkedHashMap<>();
+        for (AbstractNode value : values) {
+            if (chunk.accepts(value.getIndex())) {
+                valuesPerSize.computeIfAbsent(chunk.sizeOf(value.getIndex()), size -> new ArrayList<>()).add(value);
+            }
+        }
+        valuesPerSize.forEach((size, sameSizeValues) -> bitcodeASM.allocate(sameSizeValues, contextID, size));
+    }
+
     private void emitArgList(TaskNode taskNode) {
         final int numArgs = taskNode.getNumArgs();
         for (int i = 0; i < numArgs; i++) {
@@ -138,6 +158,10 @@ public class TornadoVMBytecodeBuilder {
         bitcodeASM.addDependency(dep);
     }
 
+    public void emitBufferSlot(int slot) {
+        bitcodeASM.bufferSlot(slot);
+    }
+
     public void dump() {
         bitcodeASM.dump();
     }
@@ -262,6 +286,11 @@ public class TornadoVMBytecodeBuilder {
             buffer.putInt(index);
         }
 
+        void bufferSlot(int slot) {
+            buffer.put(TornadoVMBytecodes.SET_BUFFER_SLOT.value);
+            buffer.putInt(slot);
+        }
+
         /**
          * Dumps the assembled bytecode by printing it to the console.
          */
@@ -191,7 +191,21 @@ public enum TornadoVMBytecodes {
      * DEALLOC(obj,dest)
      * </code>
      */
-    DEALLOC((byte) 24);
+    DEALLOC((byte) 24),
+
+    /**
+     * Select the device buffer used by the following ALLOC, DEALLOC, TRANSFER and
+     * PUSH_REFERENCE_ARGUMENT bytecodes. It is used by the pipelined batch
+     * execution, in which each batched argument has multiple device buffers that
+     * rotate across batches. Slot 0 is the default device buffer of each object.
+     * <p>
+     * Format:
+     *
+     * <code>
+     * SET_BUFFER_SLOT(slot)
+     * </code>
+     */
+    SET_BUFFER_SLOT((byte) 25);
 
     final byte value;
 
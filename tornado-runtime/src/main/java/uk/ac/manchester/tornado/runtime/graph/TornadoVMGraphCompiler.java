@@ -25,18 +25,34 @@
 package uk.ac.manchester.tornado.runtime.graph;
 
 import java.nio.BufferOverflowException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.List;
+import java.util.function.Predicate;
 
 import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
 import uk.ac.manchester.tornado.runtime.common.BatchConfiguration;
 import uk.ac.manchester.tornado.runtime.common.Tornado;
 import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
 import uk.ac.manchester.tornado.runtime.graph.nodes.AbstractNode;
+import uk.ac.manchester.tornado.runtime.graph.nodes.AllocateMultipleBuffersNode;
 import uk.ac.manchester.tornado.runtime.graph.nodes.ContextOpNode;
+import uk.ac.manchester.tornado.runtime.graph.nodes.CopyInNode;
+import uk.ac.manchester.tornado.runtime.graph.nodes.CopyOutNode;
+import uk.ac.manchester.tornado.runtime.graph.nodes.DeallocateNode;
 import uk.ac.manchester.tornado.runtime.graph.nodes.DependentReadNode;
+import uk.ac.manchester.tornado.runtime.graph.nodes.StreamInNode;
 
 public class TornadoVMGraphCompiler {
+
+    private static final Predicate<AbstractNode> ALL_NODES = node -> true;
+    private static final Predicate<AbstractNode> ALLOCATION_NODES = AllocateMultipleBuffersNode.class::isInstance;
+    private static final Predicate<AbstractNode> DEALLOCATION_NODES = DeallocateNode.class::isInstance;
+    private static final Predicate<AbstractNode> TRANSFER_IN_NODES = node -> node instanceof CopyInNode || node instanceof StreamInNode;
+    private static final Predicate<AbstractNode> TRANSFER_OUT_NODES = CopyOutNode.class::isInstance;
+    private static final Predicate<AbstractNode> LAUNCH_NODES = ALLOCATION_NODES.or(DEALLOCATION_NODES).or(TRANSFER_IN_NODES).or(TRANSFER_OUT_NODES).negate();
+
     /**
      * It generates the TornadoVM byte-codes from a Tornado Task Graph.
      *
@@ -63,6 +79,24 @@ public class TornadoVMGraphCompiler {
 
         intermediateTornadoGraph.analyzeDependencies();
 
+        BatchConfiguration batchConfiguration = null;
+        List<BatchChunk> batchChunks = null;
+        int numBufferSlots = 1;
+        if (executionContext.getBatchSize() != -1) {
+            batchConfiguration = computeBatchConfiguration(executionContext);
+            batchChunks = computeBatchChunks(batchConfiguration);
+            numBufferSlots = computeNumBufferSlots(executionContext, batchChunks);
+        } else if (executionContext.isPartitioned()) {
+            // A co-execution partition is processed as a single batch
+            batchConfiguration = BatchConfiguration.computePartition(executionContext, executionContext.getPartitionSize());
+            batchChunks = new ArrayList<>();
+            batchChunks.add(BatchChunk.chunk(batchConfiguration, executionContext.getPartitionOffset(), executionContext.getPartitionSize(), false));
+        }
+
+        // Each buffer slot has its own event lists. The last one is used by the final
+        // barrier.
+        final int barrierEventList = intermediateTornadoGraph.getNumberOfDependencies() * numBufferSlots;
+
         Tornado.debug("Compiling bytecodes...");
 
         for (int i = 0; i < tornadoVMBytecodeResults.length; i++) {
@@ -70,21 +104,24 @@ public class TornadoVMGraphCompiler {
             TornadoVMBytecodeBuilder tornadoVMBytecodeBuilder = new TornadoVMBytecodeBuilder(isSingleContextCompilation);
 
             // Generate Context + BEGIN bytecode
-            tornadoVMBytecodeBuilder.begin(1, 1, intermediateTornadoGraph.getNumberOfDependencies() + 1);
+            tornadoVMBytecodeBuilder.begin(1, 1, barrierEventList + 1);
 
             // Generate bytecodes with no batches
-            if (executionContext.getBatchSize() == -1) {
-                scheduleAndEmitTornadoVMBytecodes(tornadoVMBytecodeBuilder, graph, intermediateTornadoGraph, 0, 0, 0, i, executionContext);
-            } else {
+            if (batchChunks == null) {
+                scheduleAndEmitTornadoVMBytecodes(tornadoVMBytecodeBuilder, graph, intermediateTornadoGraph, BatchChunk.NO_BATCH, i, executionContext);
+            } else if (numBufferSlots == 1) {
                 // Generate bytecodes with batches
-                scheduleBatchDependentBytecodes(executionContext, tornadoVMBytecodeBuilder, graph, intermediateTornadoGraph);
+                scheduleBatchDependentBytecodes(executionContext, tornadoVMBytecodeBuilder, graph, intermediateTornadoGraph, batchConfiguration, batchChunks);
+            } else {
+                // Generate bytecodes with pipelined batches
+                schedulePipelinedBatchBytecodes(executionContext, tornadoVMBytecodeBuilder, graph, intermediateTornadoGraph, batchConfiguration, batchChunks);
             }
 
             // Last operation -> perform synchronisation
             if (TornadoOptions.ENABLE_STREAM_OUT_BLOCKING) {
-                synchronizeOperationLastByteCode(tornadoVMBytecodeBuilder, intermediateTornadoGraph.getNumberOfDependencies());
+                synchronizeOperationLastByteCode(tornadoVMBytecodeBuilder, barrierEventList);
             } else {
-                tornadoVMBytecodeBuilder.barrier(intermediateTornadoGraph.getNumberOfDependencies());
+                tornadoVMBytecodeBuilder.barrier(barrierEventList);
             }
 
             // Generate END bytecode
@@ -103,7 +140,7 @@ public class TornadoVMGraphCompiler {
 
     private static boolean shouldGenerateSingleBytecode(TornadoExecutionContext executionContext) {
         boolean isSingleDeviceExecution = executionContext.getValidContextSize() == 1;
-        boolean isBatchEnabled = executionContext.getBatchSize() != -1;
+        boolean isBatchEnabled = executionContext.getBatchSize() != -1 || executionContext.isPartitioned();
 
         if (isBatchEnabled && !isSingleDeviceExecution) {
             throw new TornadoRuntimeException("[UNSUPPORTED] Batches can only be enabled for single device execution");
@@ -112,28 +149,114 @@ public class TornadoVMGraphCompiler {
         return isSingleDeviceExecution;
     }
 
-    private static void scheduleBatchDependentBytecodes(TornadoExecutionContext executionContext, TornadoVMBytecodeBuilder tornadoVMBytecodeBuilder, TornadoGraph graph,
-            IntermediateTornadoGraph intermediateTornadoGraph) {
-        final long batchSize = executionContext.getBatchSize();
-
-        BatchConfiguration batchConfiguration = BatchConfiguration.computeChunkSizes(executionContext, batchSize);
-
+    private static BatchConfiguration computeBatchConfiguration(TornadoExecutionContext executionContext) {
+        BatchConfiguration batchConfiguration = BatchConfiguration.computeChunkSizes(executionContext, executionContext.getBatchSize());
         assert batchConfiguration != null;
+        return batchConfiguration;
+    }
 
-        long offset = 0;
-        long nthreads = batchSize / batchConfiguration.getNumBytesType();
+    private static List<BatchChunk> computeBatchChunks(BatchConfiguration batchConfiguration) {
+        List<BatchChunk> chunks = new ArrayList<>();
+        final long elementsPerChunk = batchConfiguration.getElementsPerChunk();
         for (int i = 0; i < batchConfiguration.getTotalChunks(); i++) {
-            offset = (batchSize * i);
-            scheduleAndEmitTornadoVMBytecodes(tornadoVMBytecodeBuilder, graph, intermediateTornadoGraph, offset, batchSize, nthreads, 1, executionContext);
+            chunks.add(BatchChunk.chunk(batchConfiguration, elementsPerChunk * i, elementsPerChunk, false));
         }
         // Last chunk
-        if (batchConfiguration.getRemainingChunkSize() != 0) {
-            offset += (batchSize);
-            nthreads = batchConfiguration.getRemainingChunkSize() / batchConfiguration.getNumBytesType();
-            long realBatchSize = batchConfiguration.getTotalChunks() == 0 ? 0 : batchConfiguration.getRemainingChunkSize();
-            long realOffsetSize = batchConfiguration.getTotalChunks() == 0 ? 0 : offset;
-            scheduleAndEmitTornadoVMBytecodes(tornadoVMBytecodeBuilder, graph, intermediateTornadoGraph, realOffsetSize, realBatchSize, nthreads, 1, executionContext);
+        if (batchConfiguration.getRemainingElements() != 0) {
+            long offset = elementsPerChunk * batchConfiguration.getTotalChunks();
+            chunks.add(BatchChunk.chunk(batchConfiguration, offset, batchConfiguration.getRemainingElements(), true));
+        }
+        return chunks;
+    }
+
+    /**
+     * It computes the number of device buffers per batched argument. The pipelined
+     * execution needs at least two full-size batches. The last (smaller) batch, if
+     * present, always uses its own buffer slot.
+     */
+    private static int computeNumBufferSlots(TornadoExecutionContext executionContext, List<BatchChunk> chunks) {
+        final int numFullChunks = (int) chunks.stream().filter(chunk -> !chunk.isRemainder()).count();
+        if (executionContext.getBatchBuffers() <= 1 || numFullChunks < 2) {
+            return 1;
+        }
+        final int numRegularSlots = Math.min(executionContext.getBatchBuffers(), numFullChunks);
+        return (numFullChunks == chunks.size()) ? numRegularSlots : numRegularSlots + 1;
+    }
+
+    /**
+     * It generates the bytecodes of each batch in order. Broadcast objects are
+     * allocated and copied before the first batch, and copied back and released
+     * after the last batch.
+     */
+    private static void scheduleBatchDependentBytecodes(TornadoExecutionContext executionContext, TornadoVMBytecodeBuilder tornadoVMBytecodeBuilder, TornadoGraph graph,
+            IntermediateTornadoGraph intermediateTornadoGraph, BatchConfiguration batchConfiguration, List<BatchChunk> chunks) {
+        final BatchChunk broadcast = BatchChunk.broadcast(batchConfiguration);
+        chunks.get(chunks.size() - 1).markLastOfSlot();
+        scheduleAndEmitTornadoVMBytecodes(tornadoVMBytecodeBuilder, graph, intermediateTornadoGraph, broadcast, 1, executionContext, 0, ALLOCATION_NODES.or(TRANSFER_IN_NODES));
+        for (BatchChunk chunk : chunks) {
+            scheduleAndEmitTornadoVMBytecodes(tornadoVMBytecodeBuilder, graph, intermediateTornadoGraph, chunk, 1, executionContext);
+        }
+        scheduleAndEmitTornadoVMBytecodes(tornadoVMBytecodeBuilder, graph, intermediateTornadoGraph, broadcast, 1, executionContext, 0, TRANSFER_OUT_NODES.or(DEALLOCATION_NODES));
+    }
+
+    /**
+     * It generates a software-pipelined schedule for batch processing. Each batched
+     * argument has {@code K} device buffers (buffer slots) that rotate across
+     * batches, and the bytecodes of consecutive batches are interleaved following
+     * the {@link PipelinedBatchSchedule}.
+     *
+     * <p>
+     * The kernel of batch {@code i} is enqueued before the transfers of the
+     * neighbour batches, so they can overlap on the device. A buffer slot is only
+     * overwritten after the copy-out of the batch that used it previously. Each
+     * slot has its own event lists, so a launch only waits for the transfers of
+     * its own batch. Broadcast objects are shared by all slots.
+     * </p>
+     */
+    private static void schedulePipelinedBatchBytecodes(TornadoExecutionContext executionContext, TornadoVMBytecodeBuilder tornadoVMBytecodeBuilder, TornadoGraph graph,
+            IntermediateTornadoGraph intermediateTornadoGraph, BatchConfiguration batchConfiguration, List<BatchChunk> chunks) {
+        final int numChunks = chunks.size();
+        final boolean hasRemainder = chunks.get(numChunks - 1).isRemainder();
+        final int numSlots = computeNumBufferSlots(executionContext, chunks);
+        final PipelinedBatchSchedule schedule = PipelinedBatchSchedule.compute(numChunks, hasRemainder ? numSlots - 1 : numSlots, hasRemainder);
+        final int numDependencies = intermediateTornadoGraph.getNumberOfDependencies();
+        final BatchChunk broadcast = BatchChunk.broadcast(batchConfiguration);
+        for (int slot = 0; slot < numSlots; slot++) {
+            chunks.get(schedule.lastChunkOf(slot)).markLastOfSlot();
+        }
+
+        for (PipelinedBatchSchedule.Step step : schedule.getSteps()) {
+            BatchChunk chunk = (step.getChunk() == PipelinedBatchSchedule.BROADCAST) ? broadcast : chunks.get(step.getChunk());
+            emitBatchPhase(tornadoVMBytecodeBuilder, graph, intermediateTornadoGraph, executionContext, chunk, step.getSlot(), numDependencies, nodesOf(step.getPhase()));
         }
+        tornadoVMBytecodeBuilder.emitBufferSlot(0);
+    }
+
+    private static Predicate<AbstractNode> nodesOf(PipelinedBatchSchedule.Phase phase) {
+        switch (phase) {
+            case BROADCAST_IN:
+                return ALLOCATION_NODES.or(TRANSFER_IN_NODES);
+            case ALLOCATE:
+                return ALLOCATION_NODES;
+            case TRANSFER_IN:
+                return TRANSFER_IN_NODES;
+            case LAUNCH:
+                return LAUNCH_NODES;
+            case TRANSFER_OUT:
+                return TRANSFER_OUT_NODES;
+            case BROADCAST_OUT:
+                return TRANSFER_OUT_NODES.or(DEALLOCATION_NODES);
+            case DEALLOCATE:
+                return DEALLOCATION_NODES;
+            default:
+                throw new TornadoRuntimeException("[ERROR] Unknown batch phase: " + phase);
+        }
+    }
+
+    private static void emitBatchPhase(TornadoVMBytecodeBuilder tornadoVMBytecodeBuilder, TornadoGraph graph, IntermediateTornadoGraph intermediateTornadoGraph,
+            TornadoExecutionContext executionContext, BatchChunk chunk, int slot, int numDependencies, Predicate<AbstractNode> phase) {
+        tornadoVMBytecodeBuilder.emitBufferSlot(slot);
+        scheduleAndEmitTornadoVMBytecodes(tornadoVMBytecodeBuilder, graph, intermediateTornadoGraph, chunk, 1, executionContext, slot * numDependencies, phase);
     }
 
     private static void synchronizeOperationLastByteCode(TornadoVMBytecodeBuilder result, int numDepLists) {
@@ -148,8 +271,26 @@ public class TornadoVMGraphCompiler {
         }
     }
 
-    private static void scheduleAndEmitTornadoVMBytecodes(TornadoVMBytecodeBuilder tornadoVMBytecodeBuilder, TornadoGraph graph, IntermediateTornadoGraph intermediateTornadoGraph, long offset,
-            long bufferBatchSize, long nThreads, int id, TornadoExecutionContext executionContext) {
+    private static void scheduleAndEmitTornadoVMBytecodes(TornadoVMBytecodeBuilder tornadoVMBytecodeBuilder, TornadoGraph graph, IntermediateTornadoGraph intermediateTornadoGraph, BatchChunk chunk,
+            int id, TornadoExecutionContext executionContext) {
+        scheduleAndEmitTornadoVMBytecodes(tornadoVMBytecodeBuilder, graph, intermediateTornadoGraph, chunk, id, executionContext, 0, ALL_NODES);
+    }
+
+    /**
+     * It schedules the nodes of the graph following their dependencies, and emits
+     * the bytecodes for the nodes accepted by the given filter.
+     *
+     * @param chunk
+     *            Batch to emit. It provides the offset and size of each object.
+     * @param depListOffset
+     *            Offset added to the event list indexes. It is used to give each
+     *            buffer slot its own event lists.
+     * @param filter
+     *            Nodes to emit. Nodes that are not accepted are considered as
+     *            already scheduled.
+     */
+    private static void scheduleAndEmitTornadoVMBytecodes(TornadoVMBytecodeBuilder tornadoVMBytecodeBuilder, TornadoGraph graph, IntermediateTornadoGraph intermediateTornadoGraph, BatchChunk chunk,
+            int id, TornadoExecutionContext executionContext, int depListOffset, Predicate<AbstractNode> filter) {
         final int[] nodeIds = intermediateTornadoGraph.getNodeIds();
         final BitSet[] dependencies = intermediateTornadoGraph.getDependencies();
 
@@ -179,11 +320,11 @@ public class TornadoVMGraphCompiler {
 
                     if (outstandingDeps.isEmpty()) {
                         final ContextOpNode asyncNode = (ContextOpNode) graph.getNode(nodeIds[i]);
+                        final boolean emit = filter.test(asyncNode) && chunk.accepts(asyncNode);
 
-                        if (shouldEmitAsyncNodeForTheCurrentContext(id, asyncNode, tornadoVMBytecodeBuilder.isSingleContextBytecodeBuilder(), executionContext)) {
+                        if (emit && shouldEmitAsyncNodeForTheCurrentContext(id, asyncNode, tornadoVMBytecodeBuilder.isSingleContextBytecodeBuilder(), executionContext)) {
                             try {
-                                tornadoVMBytecodeBuilder.emitAsyncNode(asyncNode, asyncNode.getContext().getDeviceIndex(), (dependencies[i].isEmpty()) ? -1 : depLists[i], offset, bufferBatchSize,
-                                        nThreads);
+                                tornadoVMBytecodeBuilder.emitAsyncNode(asyncNode, asyncNode.getContext().getDeviceIndex(), (dependencies[i].isEmpty()) ? -1 : depLists[i] + depListOffset, chunk);
                             } catch (BufferOverflowException e) {
                                 throw new TornadoRuntimeException("[ERROR] Buffer Overflow exception. Use -Dtornado.tvm.maxbytecodesize=<value> with value > "
                                         + TornadoVMBytecodeBuilder.MAX_TORNADO_VM_BYTECODE_SIZE + " to increase the buffer code size");
@@ -194,8 +335,15 @@ public class TornadoVMGraphCompiler {
                             if (j == i) {
                                 continue;
                             }
-                            if (dependencies[j].get(nodeIds[i]) && depLists[j] != -1) {
-                                tornadoVMBytecodeBuilder.emitAddDependency(depLists[j]);
+                            final AbstractNode dependent = graph.getNode(nodeIds[j]);
+                            // DEALLOC bytecodes do not wait for events
+                            if (emit && dependencies[j].get(nodeIds[i]) && depLists[j] != -1 && !(dependent instanceof DeallocateNode)) {
+                                if (chunk.accepts(dependent)) {
+                                    tornadoVMBytecodeBuilder.emitAddDependency(depLists[j] + depListOffset);
+                                } else if (chunk.exportsDependencies()) {
+                                    // Nodes emitted by other batches use the event lists of the first slot
+                                    tornadoVMBytecodeBuilder.emitAddDependency(depLists[j]);
+                                }
                             }
                         }
                         scheduled.set(i);
@@ -0,0 +1,160 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.interpreter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.runtime.common.DeviceObjectState;
+import uk.ac.manchester.tornado.runtime.graph.TornadoVMBytecodeResult;
+import uk.ac.manchester.tornado.runtime.graph.TornadoVMBytecodes;
+
+/**
+ * A TornadoVM bytecode with its operands already decoded. The bytecodes of an
+ * interpreter are decoded once, when the interpreter is created, so the
+ * execution does not read the byte stream nor allocate memory for the
+ * operands.
+ */
+final class TornadoVMInstruction {
+
+    private static final TornadoVMBytecodes[] OPCODES = TornadoVMBytecodes.values();
+
+    final TornadoVMBytecodes opcode;
+
+    int contextIndex;
+    int objectIndex;
+    int eventList = -1;
+    long offset;
+
+    /**
+     * Batch size for ALLOC and transfers, and number of threads for LAUNCH.
+     */
+    long size;
+
+    /**
+     * Event list to wait for, or null if the interpreter does not use
+     * dependencies.
+     */
+    int[] waitList;
+
+    // ALLOC: indexes of the objects and scratch arrays passed to the device
+    int[] objectIndexes;
+    Object[] allocObjects;
+    DeviceObjectState[] allocStates;
+
+    // LAUNCH
+    int callWrapperIndex;
+    int taskIndex;
+    int localTaskIndex;
+    byte[] argTypes;
+    int[] argIndexes;
+
+    // SET_BUFFER_SLOT
+    int bufferSlot;
+
+    private TornadoVMInstruction(TornadoVMBytecodes opcode) {
+        this.opcode = opcode;
+    }
+
+    private static TornadoVMBytecodes opcodeOf(byte value) {
+        for (TornadoVMBytecodes opcode : OPCODES) {
+            if (opcode.value() == value) {
+                return opcode;
+            }
+        }
+        throw new TornadoRuntimeException("[ERROR] TornadoVM Bytecode not recognized: " + value);
+    }
+
+    /**
+     * It decodes the bytecodes from the current position of the buffer up to the
+     * END bytecode (included).
+     *
+     * @param bytecodeResult
+     *            {@link TornadoVMBytecodeResult} positioned after the BEGIN
+     *            bytecode.
+     * @return The decoded instructions.
+     */
+    static TornadoVMInstruction[] decode(TornadoVMBytecodeResult bytecodeResult) {
+        List<TornadoVMInstruction> instructions = new ArrayList<>();
+        while (bytecodeResult.hasRemaining()) {
+            final TornadoVMInstruction instruction = new TornadoVMInstruction(opcodeOf(bytecodeResult.get()));
+            instructions.add(instruction);
+            switch (instruction.opcode) {
+                case ALLOC:
+                    instruction.contextIndex = bytecodeResult.getInt();
+                    instruction.size = bytecodeResult.getLong();
+                    final int argSize = bytecodeResult.getInt();
+                    instruction.objectIndexes = new int[argSize];
+                    for (int i = 0; i < argSize; i++) {
+                        instruction.objectIndexes[i] = bytecodeResult.getInt();
+                    }
+                    instruction.allocObjects = new Object[argSize];
+                    instruction.allocStates = new DeviceObjectState[argSize];
+                    break;
+                case DEALLOC:
+                    instruction.objectIndex = bytecodeResult.getInt();
+                    instruction.contextIndex = bytecodeResult.getInt();
+                    break;
+                case TRANSFER_HOST_TO_DEVICE_ONCE:
+                case TRANSFER_HOST_TO_DEVICE_ALWAYS:
+                case TRANSFER_DEVICE_TO_HOST_ALWAYS:
+                case TRANSFER_DEVICE_TO_HOST_ALWAYS_BLOCKING:
+                    instruction.objectIndex = bytecodeResult.getInt();
+                    instruction.contextIndex = bytecodeResult.getInt();
+                    instruction.eventList = bytecodeResult.getInt();
+                    instruction.offset = bytecodeResult.getLong();
+                    instruction.size = bytecodeResult.getLong();
+                    break;
+                case LAUNCH:
+                    instruction.callWrapperIndex = bytecodeResult.getInt();
+                    bytecodeResult.getInt(); // Skips deprecated value
+                    instruction.taskIndex = bytecodeResult.getInt();
+                    final int numArgs = bytecodeResult.getInt();
+                    instruction.eventList = bytecodeResult.getInt();
+                    instruction.offset = bytecodeResult.getLong();
+                    instruction.size = bytecodeResult.getLong();
+                    instruction.argTypes = new byte[numArgs];
+                    instruction.argIndexes = new int[numArgs];
+                    for (int i = 0; i < numArgs; i++) {
+                        instruction.argTypes[i] = bytecodeResult.get();
+                        instruction.argIndexes[i] = bytecodeResult.getInt();
+                    }
+                    break;
+                case ADD_DEPENDENCY:
+                case BARRIER:
+                    instruction.eventList = bytecodeResult.getInt();
+                    break;
+                case SET_BUFFER_SLOT:
+                    instruction.bufferSlot = bytecodeResult.getInt();
+                    break;
+                case END:
+                    return instructions.toArray(new TornadoVMInstruction[0]);
+                default:
+                    throw new TornadoRuntimeException("[ERROR] TornadoVM Bytecode not recognized: " + instruction.opcode);
+            }
+        }
+        return instructions.toArray(new TornadoVMInstruction[0]);
+    }
+}
@@ -29,10 +29,14 @@ import static uk.ac.manchester.tornado.runtime.common.Tornado.USE_VM_FLUSH;
 import static uk.ac.manchester.tornado.runtime.common.Tornado.VM_USE_DEPS;
 import static uk.ac.manchester.tornado.runtime.common.TornadoOptions.VIRTUAL_DEVICE_ENABLED;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import uk.ac.manchester.tornado.api.GridScheduler;
@@ -41,13 +45,13 @@ import uk.ac.manchester.tornado.api.WorkerGrid;
 import uk.ac.manchester.tornado.api.common.Event;
 import uk.ac.manchester.tornado.api.common.SchedulableTask;
 import uk.ac.manchester.tornado.api.common.TornadoEvents;
+import uk.ac.manchester.tornado.api.enums.TornadoDeviceType;
 import uk.ac.manchester.tornado.api.exceptions.TornadoBailoutRuntimeException;
 import uk.ac.manchester.tornado.api.exceptions.TornadoDeviceFP64NotSupported;
 import uk.ac.manchester.tornado.api.exceptions.TornadoFailureException;
 import uk.ac.manchester.tornado.api.exceptions.TornadoInternalError;
 import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
 import uk.ac.manchester.tornado.api.memory.ObjectBuffer;
-import uk.ac.manchester.tornado.api.profiler.ProfilerType;
 import uk.ac.manchester.tornado.api.profiler.TornadoProfiler;
 import uk.ac.manchester.tornado.runtime.EmptyEvent;
 import uk.ac.manchester.tornado.runtime.TornadoCoreRuntime;
@@ -61,8 +65,14 @@ import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
 import uk.ac.manchester.tornado.runtime.graph.TornadoExecutionContext;
 import uk.ac.manchester.tornado.runtime.graph.TornadoVMBytecodeResult;
 import uk.ac.manchester.tornado.runtime.graph.TornadoVMBytecodes;
+import uk.ac.manchester.tornado.runtime.profiler.ProfilerEventCollector;
 import uk.ac.manchester.tornado.runtime.profiler.TimeProfiler;
+import uk.ac.manchester.tornado.runtime.profiler.jfr.DataTransferEvent;
+import uk.ac.manchester.tornado.runtime.profiler.jfr.DeviceEventRecorder;
+import uk.ac.manchester.tornado.runtime.profiler.jfr.KernelLaunchEvent;
+import uk.ac.manchester.tornado.runtime.tasks.CompilableTask;
 import uk.ac.manchester.tornado.runtime.tasks.GlobalObjectState;
+import uk.ac.manchester.tornado.runtime.tasks.LocalObjectState;
 import uk.ac.manchester.tornado.runtime.tasks.PrebuiltTask;
 import uk.ac.manchester.tornado.runtime.tasks.meta.TaskMetaData;
 
@@ -72,27 +82,51 @@ import uk.ac.manchester.tornado.runtime.tasks.meta.TaskMetaData;
  * including FPGAs, GPUs, and multicore processors that adhere to any of the
  * supported programming models. Additionally, it features a Just-In-Time (JIT)
  * compiler that compiles Java bytecode to OpenCL, PTX, and SPIR-V.
+ *
+ * <p>
+ * The decoded instructions, the event lists and the kernel contexts are
+ * scratch arrays shared by all executions of the interpreter, so an
+ * interpreter is not reentrant: an execution must finish before the next one
+ * starts on the same instance.
+ * </p>
  */
 public class TornadoVMInterpreter extends TornadoLogger {
     private static final Event EMPTY_EVENT = new EmptyEvent();
 
     private static final int MAX_EVENTS = 32;
+    private static final int MAX_KERNEL_CONTEXT_DIMENSIONS = 3;
+    private static final KernelArgs.KernelContextArgument KERNEL_CONTEXT_ARGUMENT = new KernelArgs.KernelContextArgument();
     private final boolean useDependencies;
 
     private final List<Object> objects;
 
     private final GlobalObjectState[] globalStates;
+
+    /**
+     * Device buffers used by the pipelined batch execution. Slot 0 corresponds to
+     * the device state stored in the {@link GlobalObjectState} of each object.
+     */
+    private final List<DeviceObjectState[]> bufferSlotStates;
+    private int currentBufferSlot;
     private final KernelArgs[] callWrappers;
     private final int[][] events;
     private final int[] eventsIndexes;
     private final TornadoAcceleratorDevice deviceForInterpreter;
     private final TornadoInstalledCode[] installedCodes;
+    private final TornadoVMInstruction[] instructions;
+    /**
+     * Maximum number of threads per dimension passed to the kernel context,
+     * indexed by the local task index.
+     */
+    private final int[][] kernelContexts;
+    private final HashMap<Integer, Future<TornadoInstalledCode>> pendingCompilations;
 
     private final List<Object> constants;
     private final List<SchedulableTask> tasks;
     private final List<SchedulableTask> localTaskList;
 
     private final TornadoProfiler timeProfiler;
+    private final DeviceEventRecorder flightRecorder;
     private final TornadoExecutionContext executionContext;
     private final TornadoVMBytecodeResult bytecodeResult;
     private double totalTime;
@@ -116,12 +150,14 @@ public class TornadoVMInterpreter extends TornadoLogger {
     public TornadoVMInterpreter(TornadoExecutionContext executionContext, TornadoVMBytecodeResult bytecodeResult, TornadoProfiler timeProfiler, TornadoAcceleratorDevice device) {
         this.executionContext = executionContext;
         this.timeProfiler = timeProfiler;
+        this.flightRecorder = new DeviceEventRecorder();
         this.bytecodeResult = bytecodeResult;
 
         assert device != null;
         this.deviceForInterpreter = device;
 
-        useDependencies = executionContext.meta().enableOooExecution() || VM_USE_DEPS;
+        // With separate copy queues, transfers and kernels are only ordered by events
+        useDependencies = executionContext.meta().enableOooExecution() || VM_USE_DEPS || device.getDeviceContext().hasCopyQueues();
         totalTime = 0;
         invocations = 0;
 
@@ -147,6 +183,7 @@ public class TornadoVMInterpreter extends TornadoLogger {
 
         objects = executionContext.getObjects();
         globalStates = new GlobalObjectState[objects.size()];
+        bufferSlotStates = new ArrayList<>();
         fetchGlobalStates();
 
         rewindBufferToBegin();
@@ -154,13 +191,22 @@ public class TornadoVMInterpreter extends TornadoLogger {
         constants = executionContext.getConstants();
         tasks = executionContext.getTasks();
 
-        debug("interpreter for device %s is ready to go", device.toString());
+        instructions = TornadoVMInstruction.decode(this.bytecodeResult);
+        for (TornadoVMInstruction instruction : instructions) {
+            instruction.waitList = (useDependencies && instruction.eventList != -1) ? events[instruction.eventList] : null;
+            if (instruction.opcode == TornadoVMBytecodes.LAUNCH) {
+                instruction.localTaskIndex = globalToLocalTaskIndex(instruction.taskIndex);
+            }
+        }
+        kernelContexts = new int[localTaskList.size()][MAX_KERNEL_CONTEXT_DIMENSIONS];
+        pendingCompilations = new HashMap<>();
 
-        this.bytecodeResult.mark();
+        debug("interpreter for device %s is ready to go", device.toString());
     }
 
     public void fetchGlobalStates() {
         debug("fetching %d object states...", globalStates.length);
+        bufferSlotStates.clear();
         for (int i = 0; i < objects.size(); i++) {
             final Object object = objects.get(i);
             TornadoInternalError.guarantee(object != null, "null object found in TornadoVM");
@@ -248,7 +294,9 @@ public class TornadoVMInterpreter extends TornadoLogger {
         deviceForInterpreter.enableThreadSharing();
         final long t0 = System.nanoTime();
         int lastEvent = -1;
+        currentBufferSlot = 0;
         initWaitEventList();
+        compileTasksInParallel();
 
         StringBuilder tornadoVMBytecodeList = null;
         if (TornadoOptions.PRINT_BYTECODES) {
@@ -257,106 +305,71 @@ public class TornadoVMInterpreter extends TornadoLogger {
                     .append(InterpreterUtilities.debugHighLightHelper(" Running in thread: ")).append(Thread.currentThread().getName()).append("\n");
         }
 
-        while (bytecodeResult.hasRemaining()) {
-            final byte op = bytecodeResult.get();
-            if (op == TornadoVMBytecodes.ALLOC.value()) {
-                final int contextIndex = bytecodeResult.getInt();
-                final long sizeBatch = bytecodeResult.getLong();
-                final int argSize = bytecodeResult.getInt();
-                final int[] args = new int[argSize];
-                for (int i = 0; i < argSize; i++) {
-                    args[i] = bytecodeResult.getInt();
-                }
-                if (isWarmup) {
-                    continue;
-                }
-                lastEvent = executeAlloc(tornadoVMBytecodeList, args, contextIndex, sizeBatch);
-            } else if (op == TornadoVMBytecodes.DEALLOC.value()) {
-                final int objectIndex = bytecodeResult.getInt();
-                final int contextIndex = bytecodeResult.getInt();
-                if (isWarmup) {
-                    continue;
-                }
-                lastEvent = executeDeAlloc(tornadoVMBytecodeList, objectIndex, contextIndex);
-            } else if (op == TornadoVMBytecodes.TRANSFER_HOST_TO_DEVICE_ONCE.value()) {
-                final int objectIndex = bytecodeResult.getInt();
-                final int contextIndex = bytecodeResult.getInt();
-                final int eventList = bytecodeResult.getInt();
-                final long offset = bytecodeResult.getLong();
-                final long sizeBatch = bytecodeResult.getLong();
-                final int[] waitList = (useDependencies && eventList != -1) ? events[eventList] : null;
-                if (isWarmup) {
-                    continue;
-                }
-                transferHostToDeviceOnce(tornadoVMBytecodeList, objectIndex, contextIndex, offset, eventList, sizeBatch, waitList);
-            } else if (op == TornadoVMBytecodes.TRANSFER_HOST_TO_DEVICE_ALWAYS.value()) {
-                final int objectIndex = bytecodeResult.getInt();
-                final int contextIndex = bytecodeResult.getInt();
-                final int eventList = bytecodeResult.getInt();
-                final long offset = bytecodeResult.getLong();
-                final long sizeBatch = bytecodeResult.getLong();
-                final int[] waitList = (useDependencies && eventList != -1) ? events[eventList] : null;
-                if (isWarmup) {
-                    continue;
-                }
-                transferHostToDeviceAlways(tornadoVMBytecodeList, objectIndex, contextIndex, offset, eventList, sizeBatch, waitList);
-            } else if (op == TornadoVMBytecodes.TRANSFER_DEVICE_TO_HOST_ALWAYS.value()) {
-                final int objectIndex = bytecodeResult.getInt();
-                final int contextIndex = bytecodeResult.getInt();
-                final int eventList = bytecodeResult.getInt();
-                final long offset = bytecodeResult.getLong();
-                final long sizeBatch = bytecodeResult.getLong();
-                final int[] waitList = (useDependencies) ? events[eventList] : null;
-                if (isWarmup) {
-                    continue;
-                }
-                lastEvent = transferDeviceToHost(tornadoVMBytecodeList, objectIndex, contextIndex, offset, eventList, sizeBatch, waitList);
-            } else if (op == TornadoVMBytecodes.TRANSFER_DEVICE_TO_HOST_ALWAYS_BLOCKING.value()) {
-                final int objectIndex = bytecodeResult.getInt();
-                final int contextIndex = bytecodeResult.getInt();
-                final int eventList = bytecodeResult.getInt();
-                final long offset = bytecodeResult.getLong();
-                final long sizeBatch = bytecodeResult.getLong();
-
-                final int[] waitList = (useDependencies) ? events[eventList] : null;
-                if (isWarmup) {
-                    continue;
-                }
-                transferDeviceToHostBlocking(tornadoVMBytecodeList, objectIndex, contextIndex, offset, eventList, sizeBatch, waitList);
-            } else if (op == TornadoVMBytecodes.LAUNCH.value()) {
-                final int callWrapperIndex = bytecodeResult.getInt();
-                this.bytecodeResult.getInt(); // Skips deprecated value
-                final int taskIndex = bytecodeResult.getInt();
-                final int numArgs = bytecodeResult.getInt();
-                final int eventList = bytecodeResult.getInt();
-                final long offset = bytecodeResult.getLong();
-                final long batchThreads = bytecodeResult.getLong();
-                ExecutionInfo info = compileTaskFromBytecodeToBinary(callWrapperIndex, numArgs, eventList, taskIndex, batchThreads);
-                if (isWarmup) {
-                    popArgumentsFromCall(numArgs);
-                    continue;
-                }
-                lastEvent = executeLaunch(tornadoVMBytecodeList, numArgs, eventList, taskIndex, batchThreads, offset, info);
-            } else if (op == TornadoVMBytecodes.ADD_DEPENDENCY.value()) {
-                final int eventList = bytecodeResult.getInt();
-                if (isWarmup) {
-                    continue;
-                }
-                executeDependency(tornadoVMBytecodeList, lastEvent, eventList);
-            } else if (op == TornadoVMBytecodes.BARRIER.value()) {
-                final int eventList = bytecodeResult.getInt();
-                final int[] waitList = (useDependencies && eventList != -1) ? events[eventList] : null;
-                if (isWarmup) {
-                    continue;
-                }
-                lastEvent = executeBarrier(tornadoVMBytecodeList, eventList, waitList);
-            } else if (op == TornadoVMBytecodes.END.value()) {
-                if (!isWarmup && TornadoOptions.PRINT_BYTECODES) {
-                    tornadoVMBytecodeList.append("bc: ").append(InterpreterUtilities.debugHighLightBC("END\n")).append("\n");
-                }
-                break;
-            } else {
-                throwError(op);
+        for (TornadoVMInstruction instruction : instructions) {
+            switch (instruction.opcode) {
+                case ALLOC:
+                    if (!isWarmup) {
+                        lastEvent = executeAlloc(tornadoVMBytecodeList, instruction);
+                    }
+                    break;
+                case DEALLOC:
+                    if (!isWarmup) {
+                        lastEvent = executeDeAlloc(tornadoVMBytecodeList, instruction.objectIndex, instruction.contextIndex);
+                    }
+                    break;
+                case TRANSFER_HOST_TO_DEVICE_ONCE:
+                    if (!isWarmup) {
+                        lastEvent = transferHostToDeviceOnce(tornadoVMBytecodeList, instruction.objectIndex, instruction.contextIndex, instruction.offset, instruction.eventList, instruction.size,
+                                instruction.waitList);
+                    }
+                    break;
+                case TRANSFER_HOST_TO_DEVICE_ALWAYS:
+                    if (!isWarmup) {
+                        lastEvent = transferHostToDeviceAlways(tornadoVMBytecodeList, instruction.objectIndex, instruction.contextIndex, instruction.offset, instruction.eventList, instruction.size,
+                                instruction.waitList);
+                    }
+                    break;
+                case TRANSFER_DEVICE_TO_HOST_ALWAYS:
+                    if (!isWarmup) {
+                        lastEvent = transferDeviceToHost(tornadoVMBytecodeList, instruction.objectIndex, instruction.contextIndex, instruction.offset, instruction.eventList, instruction.size,
+                                instruction.waitList);
+                    }
+                    break;
+                case TRANSFER_DEVICE_TO_HOST_ALWAYS_BLOCKING:
+                    if (!isWarmup) {
+                        transferDeviceToHostBlocking(tornadoVMBytecodeList, instruction.objectIndex, instruction.contextIndex, instruction.offset, instruction.eventList, instruction.size,
+                                instruction.waitList);
+                    }
+                    break;
+                case LAUNCH:
+                    final KernelArgs callWrapper = compileTaskFromBytecodeToBinary(instruction);
+                    if (!isWarmup) {
+                        lastEvent = executeLaunch(tornadoVMBytecodeList, instruction, callWrapper);
+                    }
+                    break;
+                case ADD_DEPENDENCY:
+                    if (!isWarmup) {
+                        executeDependency(tornadoVMBytecodeList, lastEvent, instruction.eventList);
+                    }
+                    break;
+                case BARRIER:
+                    if (!isWarmup) {
+                        lastEvent = executeBarrier(tornadoVMBytecodeList, instruction.eventList, instruction.waitList);
+                    }
+                    break;
+                case SET_BUFFER_SLOT:
+                    currentBufferSlot = instruction.bufferSlot;
+                    if (!isWarmup && TornadoOptions.PRINT_BYTECODES) {
+                        tornadoVMBytecodeList.append(String.format("bc: " + InterpreterUtilities.debugHighLightBC("SET_BUFFER_SLOT") + " %d%n", currentBufferSlot));
+                    }
+                    break;
+                case END:
+                    if (!isWarmup && TornadoOptions.PRINT_BYTECODES) {
+                        tornadoVMBytecodeList.append("bc: ").append(InterpreterUtilities.debugHighLightBC("END\n")).append("\n");
+                    }
+                    break;
+                default:
+                    throwError(instruction.opcode.value());
             }
         }
 
@@ -370,6 +383,11 @@ public class TornadoVMInterpreter extends TornadoLogger {
             if (USE_VM_FLUSH) {
                 deviceForInterpreter.flush();
             }
+
+            if (timeProfiler instanceof TimeProfiler) {
+                ((TimeProfiler) timeProfiler).harvestPendingEvents();
+            }
+            flightRecorder.commitPendingEvents();
         }
 
         final long t1 = System.nanoTime();
@@ -383,8 +401,6 @@ public class TornadoVMInterpreter extends TornadoLogger {
             debug("bc: complete elapsed=%.9f s (%d iterations, %.9f s mean)", elapsed, invocations, (totalTime / invocations));
         }
 
-        bytecodeResult.reset();
-
         if (TornadoOptions.PRINT_BYTECODES) {
             System.out.println(tornadoVMBytecodeList);
         }
@@ -398,13 +414,14 @@ public class TornadoVMInterpreter extends TornadoLogger {
         }
     }
 
-    private int executeAlloc(StringBuilder tornadoVMBytecodeList, int[] args, int contextIndex, long sizeBatch) {
-
-        Object[] objects = new Object[args.length];
-        DeviceObjectState[] objectStates = new DeviceObjectState[args.length];
+    private int executeAlloc(StringBuilder tornadoVMBytecodeList, TornadoVMInstruction instruction) {
+        final int[] args = instruction.objectIndexes;
+        final long sizeBatch = instruction.size;
+        final Object[] objects = instruction.allocObjects;
+        final DeviceObjectState[] objectStates = instruction.allocStates;
         for (int i = 0; i < objects.length; i++) {
             objects[i] = this.objects.get(args[i]);
-            objectStates[i] = resolveObjectState(args[i], contextIndex);
+            objectStates[i] = resolveObjectState(args[i], instruction.contextIndex);
 
             if (TornadoOptions.PRINT_BYTECODES) {
                 String verbose = String.format("bc: " + InterpreterUtilities.debugHighLightBC("ALLOC") + "%s on %s, size=%d", objects[i], InterpreterUtilities.debugDeviceBC(deviceForInterpreter),
@@ -432,6 +449,12 @@ public class TornadoVMInterpreter extends TornadoLogger {
         }
 
         final DeviceObjectState objectState = resolveObjectState(objectIndex, contextIndex);
+        final LocalObjectState localState = executionContext.getObjectStates().get(objectIndex);
+        if (localState.getGlobalState().isPersistent() && localState.isWrittenOnDevice() && currentBufferSlot == 0) {
+            // The device holds the latest copy of a persistent object written by a kernel
+            objectState.setContents(true);
+            objectState.setContentsVersion(localState.getHostVersion());
+        }
         return deviceForInterpreter.deallocate(objectState);
     }
 
@@ -451,28 +474,29 @@ public class TornadoVMInterpreter extends TornadoLogger {
             tornadoVMBytecodeList.append(verbose).append("\n");
         }
 
+        // Persistent objects are copied again when the host copy is newer
+        final LocalObjectState localState = executionContext.getObjectStates().get(objectIndex);
+        final int hostVersion = localState.getHostVersion();
+        final boolean isHostNewer = localState.getGlobalState().isPersistent() && objectState.hasContents() && objectState.getContentsVersion() < hostVersion;
+
+        final DataTransferEvent transferEvent = flightRecorder.beginTransfer();
         // We need to stream-in when using batches, because the whole data is not copied
-        List<Integer> allEvents = (sizeBatch > 0) ? deviceForInterpreter.streamIn(object, sizeBatch, offset, objectState, waitList)
+        List<Integer> allEvents = (sizeBatch > 0 || isHostNewer) ? deviceForInterpreter.streamIn(object, sizeBatch, offset, objectState, waitList)
                 : deviceForInterpreter.ensurePresent(object, objectState, waitList, sizeBatch, offset);
+        if (allEvents != null) {
+            updateContentsVersion(objectState, hostVersion, sizeBatch);
+        }
+        flightRecorder.recordTransfer(transferEvent, DataTransferEvent.HOST_TO_DEVICE, deviceForInterpreter, allEvents, objectState.getObjectBuffer().size());
 
         resetEventIndexes(eventList);
 
         if (TornadoOptions.isProfilerEnabled() && allEvents != null) {
             for (Integer e : allEvents) {
                 Event event = deviceForInterpreter.resolveEvent(e);
-                event.waitForEvents();
-                long copyInTimer = timeProfiler.getTimer(ProfilerType.COPY_IN_TIME);
-                copyInTimer += event.getElapsedTime();
-                timeProfiler.setTimer(ProfilerType.COPY_IN_TIME, copyInTimer);
-
-                timeProfiler.addValueToMetric(ProfilerType.TOTAL_COPY_IN_SIZE_BYTES, TimeProfiler.NO_TASK_NAME, objectState.getObjectBuffer().size());
-
-                long dispatchValue = timeProfiler.getTimer(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME);
-                dispatchValue += event.getDriverDispatchTime();
-                timeProfiler.setTimer(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME, dispatchValue);
+                ProfilerEventCollector.recordCopyIn(timeProfiler, event, TimeProfiler.NO_TASK_NAME, objectState.getObjectBuffer().size());
             }
         }
-        return 0;
+        return lastEventOf(allEvents);
     }
 
     private int transferHostToDeviceAlways(StringBuilder tornadoVMBytecodeList, final int objectIndex, final int contextIndex, final long offset, final int eventList, final long sizeBatch,
@@ -491,26 +515,28 @@ public class TornadoVMInterpreter extends TornadoLogger {
         }
 
         final DeviceObjectState objectState = resolveObjectState(objectIndex, contextIndex);
+        if (isUnchangedOnDevice(objectIndex, objectState, sizeBatch, eventList)) {
+            if (TornadoOptions.PRINT_BYTECODES) {
+                tornadoVMBytecodeList.append(String.format("bc: %s [0x%x] skipped, not dirty%n", InterpreterUtilities.debugHighLightBC("TRANSFER_HOST_TO_DEVICE_ALWAYS"), object.hashCode()));
+            }
+            return -1;
+        }
+
+        final int hostVersion = executionContext.getObjectStates().get(objectIndex).getHostVersion();
+        final DataTransferEvent transferEvent = flightRecorder.beginTransfer();
         List<Integer> allEvents = deviceForInterpreter.streamIn(object, sizeBatch, offset, objectState, waitList);
+        updateContentsVersion(objectState, hostVersion, sizeBatch);
+        flightRecorder.recordTransfer(transferEvent, DataTransferEvent.HOST_TO_DEVICE, deviceForInterpreter, allEvents, objectState.getObjectBuffer().size());
 
         resetEventIndexes(eventList);
 
         if (TornadoOptions.isProfilerEnabled() && allEvents != null) {
             for (Integer e : allEvents) {
                 Event event = deviceForInterpreter.resolveEvent(e);
-                event.waitForEvents();
-                long copyInTimer = timeProfiler.getTimer(ProfilerType.COPY_IN_TIME);
-                copyInTimer += event.getElapsedTime();
-                timeProfiler.setTimer(ProfilerType.COPY_IN_TIME, copyInTimer);
-
-                timeProfiler.addValueToMetric(ProfilerType.TOTAL_COPY_IN_SIZE_BYTES, TimeProfiler.NO_TASK_NAME, objectState.getObjectBuffer().size());
-
-                long dispatchValue = timeProfiler.getTimer(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME);
-                dispatchValue += event.getDriverDispatchTime();
-                timeProfiler.setTimer(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME, dispatchValue);
+                ProfilerEventCollector.recordCopyIn(timeProfiler, event, TimeProfiler.NO_TASK_NAME, objectState.getObjectBuffer().size());
             }
         }
-        return 0;
+        return lastEventOf(allEvents);
     }
 
     private int transferDeviceToHost(StringBuilder tornadoVMBytecodeList, final int objectIndex, final int contextIndex, final long offset, final int eventList, final long sizeBatch,
@@ -529,22 +555,15 @@ public class TornadoVMInterpreter extends TornadoLogger {
         }
 
         final DeviceObjectState objectState = resolveObjectState(objectIndex, contextIndex);
+        final DataTransferEvent transferEvent = flightRecorder.beginTransfer();
         int lastEvent = deviceForInterpreter.streamOutBlocking(object, offset, objectState, waitList);
+        flightRecorder.recordTransfer(transferEvent, DataTransferEvent.DEVICE_TO_HOST, deviceForInterpreter, lastEvent, objectState.getObjectBuffer().size(), true);
 
         resetEventIndexes(eventList);
 
         if (TornadoOptions.isProfilerEnabled() && lastEvent != -1) {
             Event event = deviceForInterpreter.resolveEvent(lastEvent);
-            event.waitForEvents();
-            long value = timeProfiler.getTimer(ProfilerType.COPY_OUT_TIME);
-            value += event.getElapsedTime();
-            timeProfiler.setTimer(ProfilerType.COPY_OUT_TIME, value);
-
-            timeProfiler.addValueToMetric(ProfilerType.TOTAL_COPY_OUT_SIZE_BYTES, TimeProfiler.NO_TASK_NAME, objectState.getObjectBuffer().size());
-
-            long dispatchValue = timeProfiler.getTimer(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME);
-            dispatchValue += event.getDriverDispatchTime();
-            timeProfiler.setTimer(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME, dispatchValue);
+            ProfilerEventCollector.recordCopyOut(timeProfiler, event, TimeProfiler.NO_TASK_NAME, objectState.getObjectBuffer().size());
         }
         return lastEvent;
     }
@@ -567,25 +586,20 @@ public class TornadoVMInterpreter extends TornadoLogger {
 
         final DeviceObjectState objectState = resolveObjectState(objectIndex, contextIndex);
 
+        final DataTransferEvent transferEvent = flightRecorder.beginTransfer();
         final int tornadoEventID = deviceForInterpreter.streamOutBlocking(object, offset, objectState, waitList);
+        flightRecorder.recordTransfer(transferEvent, DataTransferEvent.DEVICE_TO_HOST, deviceForInterpreter, tornadoEventID, objectState.getObjectBuffer().size(), true);
 
         if (TornadoOptions.isProfilerEnabled() && tornadoEventID != -1) {
             Event event = deviceForInterpreter.resolveEvent(tornadoEventID);
-            event.waitForEvents();
-            long value = timeProfiler.getTimer(ProfilerType.COPY_OUT_TIME);
-            value += event.getElapsedTime();
-            timeProfiler.setTimer(ProfilerType.COPY_OUT_TIME, value);
-
-            timeProfiler.addValueToMetric(ProfilerType.TOTAL_COPY_OUT_SIZE_BYTES, TimeProfiler.NO_TASK_NAME, objectState.getObjectBuffer().size());
-
-            long dispatchValue = timeProfiler.getTimer(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME);
-            dispatchValue += event.getDriverDispatchTime();
-            timeProfiler.setTimer(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME, dispatchValue);
+            ProfilerEventCollector.recordCopyOut(timeProfiler, event, TimeProfiler.NO_TASK_NAME, objectState.getObjectBuffer().size());
         }
         resetEventIndexes(eventList);
     }
 
-    private ExecutionInfo compileTaskFromBytecodeToBinary(final int callWrapperIndex, final int numArgs, final int eventList, final int taskIndex, final long batchThreads) {
+    private KernelArgs compileTaskFromBytecodeToBinary(TornadoVMInstruction instruction) {
+        final int taskIndex = instruction.taskIndex;
+        final int localTaskIndex = instruction.localTaskIndex;
 
         if (deviceForInterpreter.getDeviceContext().wasReset() && finishedWarmup) {
             throw new TornadoFailureException("[ERROR] reset() was called after warmup() on device: " + deviceForInterpreter + "!");
@@ -593,16 +607,34 @@ public class TornadoVMInterpreter extends TornadoLogger {
 
         boolean redeployOnDevice = executionContext.redeployOnDevice();
 
-        final KernelArgs callWrapper = resolveCallWrapper(callWrapperIndex, numArgs, callWrappers, deviceForInterpreter, redeployOnDevice);
+        final KernelArgs callWrapper = resolveCallWrapper(instruction.callWrapperIndex, instruction.argTypes.length, callWrappers, deviceForInterpreter, redeployOnDevice);
 
-        final int[] waitList = (useDependencies && eventList != -1) ? events[eventList] : null;
-        final SchedulableTask task = tasks.get(taskIndex);
+        final SchedulableTask task = prepareTaskForCompilation(instruction);
+
+        final Future<TornadoInstalledCode> pendingCompilation = pendingCompilations.remove(localTaskIndex);
+        if (pendingCompilation != null) {
+            installedCodes[localTaskIndex] = awaitCompilation(pendingCompilation);
+        } else if (shouldCompile(installedCodes[localTaskIndex])) {
+            installedCodes[localTaskIndex] = installTask(task, taskIndex == (tasks.size() - 1) || doUpdate);
+            doUpdate = false;
+        }
+        return callWrapper;
+    }
+
+    /**
+     * Sets the launch configuration of the task for the given LAUNCH bytecode,
+     * invalidating the installed code if the batch size has changed.
+     */
+    private SchedulableTask prepareTaskForCompilation(TornadoVMInstruction instruction) {
+        final int localTaskIndex = instruction.localTaskIndex;
+        final long batchThreads = instruction.size;
+        final SchedulableTask task = tasks.get(instruction.taskIndex);
 
         // Check if a different batch size was used for the same kernel. If true, then
         // the kernel needs to be recompiled.
 
-        if (!shouldCompile(installedCodes[globalToLocalTaskIndex(taskIndex)]) && task.getBatchThreads() != 0 && task.getBatchThreads() != batchThreads) {
-            installedCodes[globalToLocalTaskIndex(taskIndex)].invalidate();
+        if (!shouldCompile(installedCodes[localTaskIndex]) && task.getBatchThreads() != 0 && task.getBatchThreads() != batchThreads) {
+            installedCodes[localTaskIndex].invalidate();
         }
         // Set the batch size in the task information
         task.setBatchThreads(batchThreads);
@@ -612,52 +644,98 @@ public class TornadoVMInterpreter extends TornadoLogger {
             task.setUseGridScheduler(true);
             task.setGridScheduler(gridScheduler);
         }
+        return task;
+    }
 
-        if (shouldCompile(installedCodes[globalToLocalTaskIndex(taskIndex)])) {
-            task.mapTo(deviceForInterpreter);
-            try {
-                task.attachProfiler(timeProfiler);
-                if (taskIndex == (tasks.size() - 1) || doUpdate) {
-                    // If it is the last task within the task-schedule or doUpdate is true -> we
-                    // force compilation. This is useful when compiling code for Xilinx/Altera
-                    // FPGAs, that has to be a single source.
-                    task.forceCompilation();
-                }
-                installedCodes[globalToLocalTaskIndex(taskIndex)] = deviceForInterpreter.installCode(task);
-                profilerUpdateForPreCompiledTask(task);
+    private TornadoInstalledCode installTask(SchedulableTask task, boolean forceCompilation) {
+        task.mapTo(deviceForInterpreter);
+        try {
+            task.attachProfiler(timeProfiler);
+            if (forceCompilation) {
+                // If it is the last task within the task-schedule or doUpdate is true -> we
+                // force compilation. This is useful when compiling code for Xilinx/Altera
+                // FPGAs, that has to be a single source.
+                task.forceCompilation();
+            }
+            TornadoInstalledCode installedCode = deviceForInterpreter.installCode(task);
+            profilerUpdateForPreCompiledTask(task);
+            return installedCode;
+        } catch (TornadoBailoutRuntimeException e) {
+            throw new TornadoBailoutRuntimeException(
+                    "Unable to compile " + task.getFullName() + "\n" + "The internal error is: " + e.getMessage() + "\n" + "Stacktrace: " + Arrays.toString(e.getStackTrace()), e);
+        } catch (TornadoDeviceFP64NotSupported e) {
+            throw e;
+        } catch (InternalError e) {
+            throw new TornadoBailoutRuntimeException("[Internal Error] Unable to compile " + task.getFullName() + "\n" + Arrays.toString(e.getStackTrace()));
+        }
+    }
+
+    /**
+     * Submits the compilation of every task that is not installed yet to the
+     * compiler threads, so LAUNCH bytecodes only wait for their own kernel.
+     * FPGAs are excluded because they compile all tasks as a single source.
+     */
+    private void compileTasksInParallel() {
+        if (!TornadoOptions.isParallelCompilationEnabled() || isSingleSourceDevice()) {
+            return;
+        }
+        if (deviceForInterpreter.getDeviceContext().wasReset() && finishedWarmup) {
+            return;
+        }
+        final ExecutorService compilerExecutor = TornadoCoreRuntime.getCompilerExecutor();
+        for (TornadoVMInstruction instruction : instructions) {
+            if (instruction.opcode != TornadoVMBytecodes.LAUNCH || pendingCompilations.containsKey(instruction.localTaskIndex)) {
+                continue;
+            }
+            final SchedulableTask task = prepareTaskForCompilation(instruction);
+            if (task instanceof CompilableTask && shouldCompile(installedCodes[instruction.localTaskIndex])) {
+                final boolean forceCompilation = instruction.taskIndex == (tasks.size() - 1) || doUpdate;
+                pendingCompilations.put(instruction.localTaskIndex, compilerExecutor.submit(() -> installTask(task, forceCompilation)));
                 doUpdate = false;
-            } catch (TornadoBailoutRuntimeException e) {
-                throw new TornadoBailoutRuntimeException(
-                        "Unable to compile " + task.getFullName() + "\n" + "The internal error is: " + e.getMessage() + "\n" + "Stacktrace: " + Arrays.toString(e.getStackTrace()), e);
-            } catch (TornadoDeviceFP64NotSupported e) {
-                throw e;
-            } catch (InternalError e) {
-                throw new TornadoBailoutRuntimeException("[Internal Error] Unable to compile " + task.getFullName() + "\n" + Arrays.toString(e.getStackTrace()));
             }
         }
-        return new ExecutionInfo(callWrapper, waitList);
     }
 
-    private void popArgumentsFromCall(int numArgs) {
-        for (int i = 0; i < numArgs; i++) {
-            bytecodeResult.get();
-            bytecodeResult.getInt();
+    private boolean isSingleSourceDevice() {
+        TornadoDeviceType deviceType = deviceForInterpreter.getDeviceType();
+        return deviceType == TornadoDeviceType.FPGA || deviceType == TornadoDeviceType.ACCELERATOR;
+    }
+
+    private TornadoInstalledCode awaitCompilation(Future<TornadoInstalledCode> pendingCompilation) {
+        try {
+            return pendingCompilation.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TornadoRuntimeException("[ERROR] Interrupted while compiling tasks on " + deviceForInterpreter);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new TornadoRuntimeException(e);
         }
     }
 
-    private int executeLaunch(StringBuilder tornadoVMBytecodeList, final int numArgs, final int eventList, final int taskIndex, final long batchThreads, final long offset, ExecutionInfo info) {
+    private int executeLaunch(StringBuilder tornadoVMBytecodeList, TornadoVMInstruction instruction, KernelArgs callWrapper) {
+        final int numArgs = instruction.argTypes.length;
+        final int eventList = instruction.eventList;
+        final int taskIndex = instruction.taskIndex;
+        final int localTaskIndex = instruction.localTaskIndex;
+        final long batchThreads = instruction.size;
+        final long offset = instruction.offset;
+        final int[] waitList = instruction.waitList;
 
         final SchedulableTask task = tasks.get(taskIndex);
-        KernelArgs callWrapper = info.callWrapper;
-        int[] waitList = info.waitList;
 
-        if (installedCodes[globalToLocalTaskIndex(taskIndex)] == null) {
+        if (installedCodes[localTaskIndex] == null) {
             // After warming-up, it is possible to get a null pointer in the task-cache due
             // to lazy compilation for FPGAs. In tha case, we check again the code cache.
-            installedCodes[globalToLocalTaskIndex(taskIndex)] = deviceForInterpreter.getCodeFromCache(task);
+            installedCodes[localTaskIndex] = deviceForInterpreter.getCodeFromCache(task);
         }
 
-        final TornadoInstalledCode installedCode = installedCodes[globalToLocalTaskIndex(taskIndex)];
+        final TornadoInstalledCode installedCode = installedCodes[localTaskIndex];
 
         if (installedCode == null) {
             throw new TornadoBailoutRuntimeException("Code generator Failed");
@@ -667,34 +745,33 @@ public class TornadoVMInterpreter extends TornadoLogger {
 
         atomicsArray = (task instanceof PrebuiltTask) ? ((PrebuiltTask) task).getAtomics() : deviceForInterpreter.checkAtomicsForTask(task);
 
-        HashMap<Integer, Integer> map = new HashMap<>();
+        final int[] kernelContext = kernelContexts[localTaskIndex];
+        Arrays.fill(kernelContext, 0);
         if (gridScheduler != null && gridScheduler.get(task.getId()) != null) {
             WorkerGrid workerGrid = gridScheduler.get(task.getId());
             long[] global = workerGrid.getGlobalWork();
-            int i = 0;
-            for (long maxThread : global) {
-                map.put(i++, (int) maxThread);
+            for (int i = 0; i < global.length; i++) {
+                kernelContext[i] = (int) global[i];
             }
         }
         callWrapper.reset();
-        callWrapper.setKernelContext(map);
+        callWrapper.setKernelContext(kernelContext);
 
         ObjectBuffer bufferAtomics = null;
 
         for (int i = 0; i < numArgs; i++) {
-            final byte argType = bytecodeResult.get();
-            final int argIndex = bytecodeResult.getInt();
+            final byte argType = instruction.argTypes[i];
+            final int argIndex = instruction.argIndexes[i];
 
             if (argType == TornadoVMBytecodes.PUSH_CONSTANT_ARGUMENT.value()) {
                 callWrapper.addCallArgument(constants.get(argIndex), false);
             } else if (argType == TornadoVMBytecodes.PUSH_REFERENCE_ARGUMENT.value()) {
                 if (isObjectKernelContext(objects.get(argIndex))) {
-                    callWrapper.addCallArgument(new KernelArgs.KernelContextArgument(), false);
+                    callWrapper.addCallArgument(KERNEL_CONTEXT_ARGUMENT, false);
                     continue;
                 }
 
-                final GlobalObjectState globalState = resolveGlobalObjectState(argIndex);
-                final DeviceObjectState objectState = globalState.getDeviceState(deviceForInterpreter);
+                final DeviceObjectState objectState = resolveObjectState(argIndex, deviceForInterpreter.getDeviceContext().getDeviceIndex());
 
                 if (!isObjectInAtomicRegion(objectState, deviceForInterpreter, task)) {
                     callWrapper.addCallArgument(objectState.getObjectBuffer().toBuffer(), true);
@@ -711,11 +788,7 @@ public class TornadoVMInterpreter extends TornadoLogger {
             List<Integer> allEvents = bufferAtomics.enqueueWrite(null, 0, 0, null, false);
             if (TornadoOptions.isProfilerEnabled()) {
                 for (Integer e : allEvents) {
-                    Event event = deviceForInterpreter.resolveEvent(e);
-                    event.waitForEvents();
-                    long value = timeProfiler.getTimer(ProfilerType.COPY_IN_TIME);
-                    value += event.getElapsedTime();
-                    timeProfiler.setTimer(ProfilerType.COPY_IN_TIME, value);
+                    ProfilerEventCollector.recordCopyIn(timeProfiler, deviceForInterpreter.resolveEvent(e), TimeProfiler.NO_TASK_NAME, 0);
                 }
             }
             if (TornadoOptions.PRINT_BYTECODES) {
@@ -744,8 +817,10 @@ public class TornadoVMInterpreter extends TornadoLogger {
         metadata.setGridScheduler(gridScheduler);
 
         try {
+            final KernelLaunchEvent launchEvent = flightRecorder.beginKernel();
             int lastEvent = useDependencies ? installedCode.launchWithDependencies(callWrapper, bufferAtomics, metadata, batchThreads, waitList)
                     : installedCode.launchWithoutDependencies(callWrapper, bufferAtomics, metadata, batchThreads);
+            flightRecorder.recordKernel(launchEvent, task, deviceForInterpreter, lastEvent, batchThreads);
 
             resetEventIndexes(eventList);
             return lastEvent;
@@ -781,6 +856,55 @@ public class TornadoVMInterpreter extends TornadoLogger {
         return lastEvent;
     }
 
+    /**
+     * @return The last valid event of a data transfer, so it can be registered as a
+     *         dependency of the following bytecodes. It returns -1 if no transfer
+     *         was performed.
+     */
+    private static int lastEventOf(List<Integer> allEvents) {
+        if (allEvents == null) {
+            return -1;
+        }
+        for (int i = allEvents.size() - 1; i >= 0; i--) {
+            Integer event = allEvents.get(i);
+            if (event != null && event != -1) {
+                return event;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * With dirty tracking enabled, or for persistent objects, a copy-in can be
+     * skipped if the device buffer still holds the same host version of the
+     * object. Non-persistent objects modified by a kernel are only skipped when
+     * they are copied back to the host on every execution, since otherwise the
+     * device copy diverges from the host copy. Batches and pending events always
+     * force the copy.
+     */
+    private boolean isUnchangedOnDevice(int objectIndex, DeviceObjectState objectState, long sizeBatch, int eventList) {
+        LocalObjectState localState = executionContext.getObjectStates().get(objectIndex);
+        final boolean isPersistent = localState.getGlobalState().isPersistent();
+        if (!(executionContext.isDirtyTracking() || isPersistent) || sizeBatch > 0 || currentBufferSlot != 0 || !objectState.hasContents()) {
+            return false;
+        }
+        if (eventList != -1 && eventsIndexes[eventList] > 0) {
+            return false;
+        }
+        if (!isPersistent && localState.isWrittenOnDevice() && !localState.isStreamOut()) {
+            return false;
+        }
+        return objectState.getContentsVersion() >= localState.getHostVersion();
+    }
+
+    /**
+     * Records the host version copied to the device. Partial copies (batches)
+     * leave the version unknown.
+     */
+    private void updateContentsVersion(DeviceObjectState objectState, int hostVersion, long sizeBatch) {
+        objectState.setContentsVersion((sizeBatch > 0 || currentBufferSlot != 0) ? -1 : hostVersion);
+    }
+
     private void throwError(byte op) {
         if (executionContext.meta().isDebug()) {
             debug("bc: invalid op 0x%x(%d)", op, op);
@@ -789,7 +913,24 @@ public class TornadoVMInterpreter extends TornadoLogger {
     }
 
     private DeviceObjectState resolveObjectState(int index, int device) {
-        return globalStates[index].getDeviceState(deviceForInterpreter);
+        if (currentBufferSlot == 0 || isBatchBroadcast(objects.get(index))) {
+            return globalStates[index].getDeviceState(deviceForInterpreter);
+        }
+        while (bufferSlotStates.size() < currentBufferSlot) {
+            bufferSlotStates.add(new DeviceObjectState[globalStates.length]);
+        }
+        DeviceObjectState[] slotStates = bufferSlotStates.get(currentBufferSlot - 1);
+        if (slotStates[index] == null) {
+            slotStates[index] = new DeviceObjectState();
+        }
+        return slotStates[index];
+    }
+
+    /**
+     * Objects that are not split in batches are shared by all buffer slots.
+     */
+    private boolean isBatchBroadcast(Object object) {
+        return !object.getClass().isArray() || executionContext.isBatchBroadcast(object);
     }
 
     private boolean isObjectKernelContext(Object object) {
@@ -841,10 +982,6 @@ public class TornadoVMInterpreter extends TornadoLogger {
         }
     }
 
-    private GlobalObjectState resolveGlobalObjectState(int index) {
-        return globalStates[index];
-    }
-
     private boolean isObjectInAtomicRegion(DeviceObjectState objectState, TornadoAcceleratorDevice device, SchedulableTask task) {
         return objectState.isAtomicRegionPresent() && device.checkAtomicsParametersForTask(task);
     }
@@ -858,17 +995,9 @@ public class TornadoVMInterpreter extends TornadoLogger {
     }
 
     public void clearInstalledCode() {
+        pendingCompilations.values().forEach(pendingCompilation -> pendingCompilation.cancel(false));
+        pendingCompilations.clear();
         Arrays.fill(installedCodes, null);
     }
 
-    private static class ExecutionInfo {
-        KernelArgs callWrapper;
-        int[] waitList;
-
-        public ExecutionInfo(KernelArgs callWrapper, int[] waitList) {
-            this.callWrapper = callWrapper;
-            this.waitList = waitList;
-        }
-    }
-
 }
@@ -0,0 +1,80 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2020, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.profiler;
+
+import uk.ac.manchester.tornado.api.common.Event;
+import uk.ac.manchester.tornado.api.profiler.ProfilerType;
+import uk.ac.manchester.tornado.api.profiler.TornadoProfiler;
+import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+
+/**
+ * Adds the timers of device events (copies and kernels) to a profiler. By
+ * default, each event is waited for as soon as it is recorded. With
+ * {@code -Dtornado.profiler.deferred=True}, events are queued in the
+ * {@link TimeProfiler} and resolved once the whole execution has been enqueued,
+ * so profiling does not serialise the device queue.
+ */
+public final class ProfilerEventCollector {
+
+    private ProfilerEventCollector() {
+    }
+
+    public static void recordCopyIn(TornadoProfiler profiler, Event event, String taskName, long bytes) {
+        if (bytes > 0) {
+            profiler.addValueToMetric(ProfilerType.TOTAL_COPY_IN_SIZE_BYTES, taskName, bytes);
+        }
+        record(profiler, () -> recordTransfer(profiler, event, ProfilerType.COPY_IN_TIME));
+    }
+
+    public static void recordCopyOut(TornadoProfiler profiler, Event event, String taskName, long bytes) {
+        if (bytes > 0) {
+            profiler.addValueToMetric(ProfilerType.TOTAL_COPY_OUT_SIZE_BYTES, taskName, bytes);
+        }
+        record(profiler, () -> recordTransfer(profiler, event, ProfilerType.COPY_OUT_TIME));
+    }
+
+    public static void recordKernel(TornadoProfiler profiler, Event event, String taskName) {
+        record(profiler, () -> {
+            event.waitForEvents();
+            long elapsed = event.getElapsedTime();
+            profiler.sum(ProfilerType.TOTAL_KERNEL_TIME, elapsed);
+            profiler.setTaskTimer(ProfilerType.TASK_KERNEL_TIME, taskName, elapsed);
+            profiler.sum(ProfilerType.TOTAL_DISPATCH_KERNEL_TIME, event.getDriverDispatchTime());
+        });
+    }
+
+    private static void recordTransfer(TornadoProfiler profiler, Event event, ProfilerType timer) {
+        event.waitForEvents();
+        profiler.sum(timer, event.getElapsedTime());
+        profiler.sum(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME, event.getDriverDispatchTime());
+    }
+
+    private static void record(TornadoProfiler profiler, Runnable resolution) {
+        if (TornadoOptions.isDeferredProfilerEnabled() && profiler instanceof TimeProfiler) {
+            ((TimeProfiler) profiler).deferEvent(resolution);
+        } else {
+            resolution.run();
+        }
+    }
+}
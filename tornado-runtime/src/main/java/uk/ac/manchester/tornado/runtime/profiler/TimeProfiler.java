@@ -23,11 +23,13 @@
  */
 package uk.ac.manchester.tornado.runtime.profiler;
 
+import java.util.ArrayDeque;
 import java.util.HashMap;
 
 import uk.ac.manchester.tornado.api.profiler.ProfilerType;
 import uk.ac.manchester.tornado.api.profiler.TornadoProfiler;
 import uk.ac.manchester.tornado.runtime.common.RuntimeUtilities;
+import uk.ac.manchester.tornado.runtime.common.Tornado;
 import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
 
 public class TimeProfiler implements TornadoProfiler {
@@ -49,6 +51,13 @@ public class TimeProfiler implements TornadoProfiler {
 
     private StringBuffer indent;
 
+    /**
+     * Guards {@link #pendingEvents}. The deferred events are resolved outside
+     * this lock, as their resolution waits for the device.
+     */
+    private final Object pendingEventsLock = new Object();
+    private final ArrayDeque<Runnable> pendingEvents;
+
     public TimeProfiler() {
         profilerTime = new HashMap<>();
         taskTimers = new HashMap<>();
@@ -57,6 +66,41 @@ public class TimeProfiler implements TornadoProfiler {
         taskThroughputMetrics = new HashMap<>();
         taskBackends = new HashMap<>();
         indent = new StringBuffer("");
+        pendingEvents = new ArrayDeque<>();
+    }
+
+    /**
+     * Queues the resolution of a device event instead of waiting for it during
+     * the execution. If the queue is full, the oldest event is resolved now.
+     */
+    void deferEvent(Runnable resolution) {
+        Runnable oldest = null;
+        synchronized (pendingEventsLock) {
+            if (pendingEvents.size() == Tornado.MAX_PENDING_EVENTS) {
+                oldest = pendingEvents.poll();
+            }
+            pendingEvents.add(resolution);
+        }
+        if (oldest != null) {
+            oldest.run();
+        }
+    }
+
+    private Runnable pollPendingEvent() {
+        synchronized (pendingEventsLock) {
+            return pendingEvents.poll();
+        }
+    }
+
+    /**
+     * Waits for all deferred events and adds their timers to the profiler. It is
+     * invoked once all the work of an execution has been enqueued.
+     */
+    public void harvestPendingEvents() {
+        Runnable resolution;
+        while ((resolution = pollPendingEvent()) != null) {
+            resolution.run();
+        }
     }
 
     @Override
@@ -146,7 +190,7 @@ public class TimeProfiler implements TornadoProfiler {
     }
 
     @Override
-    public long getTimer(ProfilerType type) {
+    public synchronized long getTimer(ProfilerType type) {
         if (!profilerTime.containsKey(type)) {
             return 0;
         }
@@ -154,7 +198,7 @@ public class TimeProfiler implements TornadoProfiler {
     }
 
     @Override
-    public long getTaskTimer(ProfilerType type, String taskName) {
+    public synchronized long getTaskTimer(ProfilerType type, String taskName) {
         if (!taskTimers.containsKey(taskName)) {
             return 0;
         }
@@ -262,6 +306,9 @@ public class TimeProfiler implements TornadoProfiler {
         taskThroughputMetrics.clear();
         profilerTime.clear();
         taskTimers.clear();
+        synchronized (pendingEventsLock) {
+            pendingEvents.clear();
+        }
         indent = new StringBuffer("");
     }
 
@@ -0,0 +1,93 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.profiler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for a copy between the host and a device. The duration of the
+ * event is the time to enqueue the copy on the host (or to complete it, for
+ * blocking copies). The device times are read from the device events once the
+ * whole task-graph has been enqueued.
+ */
+@Name("tornadovm.DataTransfer")
+@Label("Data Transfer")
+@Category({ "TornadoVM", "Device" })
+@Description("Copy between the host and a device")
+@StackTrace(false)
+public final class DataTransferEvent extends jdk.jfr.Event implements DeviceTimedEvent {
+
+    public static final String HOST_TO_DEVICE = "HostToDevice";
+    public static final String DEVICE_TO_HOST = "DeviceToHost";
+
+    @Label("Direction")
+    private String direction;
+
+    @Label("Device")
+    private String device;
+
+    @Label("Size")
+    @DataAmount
+    private long bytes;
+
+    @Label("Blocking")
+    private boolean blocking;
+
+    @Label("Transfer Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long deviceTime;
+
+    @Label("Dispatch Time")
+    @Description("Time from the enqueue of the copy until it started on the device")
+    @Timespan(Timespan.NANOSECONDS)
+    private long dispatchTime;
+
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+
+    public void setDevice(String device) {
+        this.device = device;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public void setBlocking(boolean blocking) {
+        this.blocking = blocking;
+    }
+
+    @Override
+    public void addDeviceTimes(long deviceTime, long dispatchTime) {
+        this.deviceTime += deviceTime;
+        this.dispatchTime += dispatchTime;
+    }
+}
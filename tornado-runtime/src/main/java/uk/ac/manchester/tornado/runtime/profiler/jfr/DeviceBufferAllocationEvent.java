@@ -0,0 +1,76 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.profiler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for the allocation of a new buffer on a device. Requests served
+ * by an idle buffer of the buffer provider are not reported.
+ */
+@Name("tornadovm.DeviceBufferAllocation")
+@Label("Device Buffer Allocation")
+@Category({ "TornadoVM", "Memory" })
+@Description("Allocation of a buffer on a device")
+@StackTrace(false)
+public final class DeviceBufferAllocationEvent extends jdk.jfr.Event {
+
+    @Label("Device")
+    private String device;
+
+    @Label("Size")
+    @DataAmount
+    private long size;
+
+    @Label("Requested Size")
+    @Description("Size requested by the object, before rounding it up to its size class")
+    @DataAmount
+    private long requestedSize;
+
+    @Label("Available Memory")
+    @Description("Device memory left for TornadoVM after the allocation")
+    @DataAmount
+    private long availableMemory;
+
+    public void setDevice(String device) {
+        this.device = device;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public void setRequestedSize(long requestedSize) {
+        this.requestedSize = requestedSize;
+    }
+
+    public void setAvailableMemory(long availableMemory) {
+        this.availableMemory = availableMemory;
+    }
+}
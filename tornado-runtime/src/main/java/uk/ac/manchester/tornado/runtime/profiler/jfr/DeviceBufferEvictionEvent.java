@@ -0,0 +1,58 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.profiler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for the release of an idle buffer when a device runs out of
+ * memory.
+ */
+@Name("tornadovm.DeviceBufferEviction")
+@Label("Device Buffer Eviction")
+@Category({ "TornadoVM", "Memory" })
+@Description("Release of an idle device buffer to make room for a new allocation")
+@StackTrace(false)
+public final class DeviceBufferEvictionEvent extends jdk.jfr.Event {
+
+    @Label("Device")
+    private String device;
+
+    @Label("Size")
+    @DataAmount
+    private long size;
+
+    public void setDevice(String device) {
+        this.device = device;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.profiler.jfr;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+import jdk.jfr.EventType;
+import uk.ac.manchester.tornado.api.common.Event;
+import uk.ac.manchester.tornado.api.common.SchedulableTask;
+import uk.ac.manchester.tornado.runtime.common.Tornado;
+import uk.ac.manchester.tornado.runtime.common.TornadoAcceleratorDevice;
+
+/**
+ * Emits the JFR events of the copies and kernels enqueued by a TornadoVM
+ * interpreter. Reading the time of a device event requires waiting for it, so
+ * the JFR events are kept until the whole execution has been enqueued, and
+ * they are committed in {@link #commitPendingEvents()}. When JFR is not
+ * recording, no JFR event is created and no device event is resolved.
+ */
+public final class DeviceEventRecorder {
+
+    private static final EventType TRANSFER_EVENT_TYPE = EventType.getEventType(DataTransferEvent.class);
+    private static final EventType KERNEL_EVENT_TYPE = EventType.getEventType(KernelLaunchEvent.class);
+
+    private static final class PendingEvent {
+        private final DeviceTimedEvent jfrEvent;
+        private final Event[] deviceEvents;
+
+        PendingEvent(DeviceTimedEvent jfrEvent, Event[] deviceEvents) {
+            this.jfrEvent = jfrEvent;
+            this.deviceEvents = deviceEvents;
+        }
+
+        void commit() {
+            for (Event event : deviceEvents) {
+                event.waitForEvents();
+                long elapsed = event.getElapsedTime();
+                long dispatch = event.getDriverDispatchTime();
+                // Devices without profiling report negative times
+                if (elapsed >= 0 && dispatch >= 0) {
+                    jfrEvent.addDeviceTimes(elapsed, dispatch);
+                }
+            }
+            jfrEvent.commit();
+        }
+    }
+
+    private final ArrayDeque<PendingEvent> pendingEvents;
+
+    public DeviceEventRecorder() {
+        pendingEvents = new ArrayDeque<>();
+    }
+
+    /**
+     * Begins the JFR event of a copy, before enqueuing it.
+     *
+     * @return The JFR event, or null if JFR is not recording copies.
+     */
+    public DataTransferEvent beginTransfer() {
+        if (!TRANSFER_EVENT_TYPE.isEnabled()) {
+            return null;
+        }
+        DataTransferEvent transferEvent = new DataTransferEvent();
+        transferEvent.begin();
+        return transferEvent;
+    }
+
+    /**
+     * Begins the JFR event of a kernel launch, before enqueuing it.
+     *
+     * @return The JFR event, or null if JFR is not recording kernel launches.
+     */
+    public KernelLaunchEvent beginKernel() {
+        if (!KERNEL_EVENT_TYPE.isEnabled()) {
+            return null;
+        }
+        KernelLaunchEvent launchEvent = new KernelLaunchEvent();
+        launchEvent.begin();
+        return launchEvent;
+    }
+
+    /**
+     * Records a copy made of several device events.
+     *
+     * @param transferEvent
+     *            JFR event returned by {@link #beginTransfer()}.
+     * @param direction
+     *            {@link DataTransferEvent#HOST_TO_DEVICE} or
+     *            {@link DataTransferEvent#DEVICE_TO_HOST}.
+     * @param device
+     *            Device of the copy.
+     * @param events
+     *            Device events of the copy, or null if nothing was copied.
+     * @param bytes
+     *            Size of the copy in bytes.
+     */
+    public void recordTransfer(DataTransferEvent transferEvent, String direction, TornadoAcceleratorDevice device, List<Integer> events, long bytes) {
+        if (transferEvent == null) {
+            return;
+        }
+        transferEvent.end();
+        if (events == null || events.isEmpty() || !transferEvent.shouldCommit()) {
+            return;
+        }
+        transferEvent.setDirection(direction);
+        transferEvent.setDevice(device.getPhysicalDevice().getDeviceName());
+        transferEvent.setBytes(bytes);
+        Event[] deviceEvents = new Event[events.size()];
+        for (int i = 0; i < deviceEvents.length; i++) {
+            deviceEvents[i] = device.resolveEvent(events.get(i));
+        }
+        defer(new PendingEvent(transferEvent, deviceEvents));
+    }
+
+    /**
+     * Records a copy made of a single device event.
+     */
+    public void recordTransfer(DataTransferEvent transferEvent, String direction, TornadoAcceleratorDevice device, int event, long bytes, boolean blocking) {
+        if (transferEvent == null) {
+            return;
+        }
+        transferEvent.end();
+        if (event == -1 || !transferEvent.shouldCommit()) {
+            return;
+        }
+        transferEvent.setDirection(direction);
+        transferEvent.setDevice(device.getPhysicalDevice().getDeviceName());
+        transferEvent.setBytes(bytes);
+        transferEvent.setBlocking(blocking);
+        defer(new PendingEvent(transferEvent, new Event[] { device.resolveEvent(event) }));
+    }
+
+    /**
+     * Records the launch of a kernel.
+     *
+     * @param launchEvent
+     *            JFR event returned by {@link #beginKernel()}.
+     * @param task
+     *            Task of the kernel.
+     * @param device
+     *            Device of the kernel.
+     * @param event
+     *            Device event of the kernel.
+     * @param batchThreads
+     *            Number of threads of the batch.
+     */
+    public void recordKernel(KernelLaunchEvent launchEvent, SchedulableTask task, TornadoAcceleratorDevice device, int event, long batchThreads) {
+        if (launchEvent == null) {
+            return;
+        }
+        launchEvent.end();
+        if (event == -1 || !launchEvent.shouldCommit()) {
+            return;
+        }
+        launchEvent.setTask(task.getFullName());
+        launchEvent.setDevice(device.getPhysicalDevice().getDeviceName());
+        launchEvent.setBatchThreads(batchThreads);
+        defer(new PendingEvent(launchEvent, new Event[] { device.resolveEvent(event) }));
+    }
+
+    private void defer(PendingEvent pendingEvent) {
+        if (pendingEvents.size() == Tornado.MAX_PENDING_EVENTS) {
+            pendingEvents.poll().commit();
+        }
+        pendingEvents.add(pendingEvent);
+    }
+
+    /**
+     * Waits for the device events of all pending JFR events and commits them. It
+     * is invoked once all the work of an execution has been enqueued.
+     */
+    public void commitPendingEvents() {
+        PendingEvent pendingEvent;
+        while ((pendingEvent = pendingEvents.poll()) != null) {
+            pendingEvent.commit();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.profiler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for the selection of a device by the dynamic reconfiguration.
+ */
+@Name("tornadovm.DynamicReconfiguration")
+@Label("Dynamic Reconfiguration Decision")
+@Category({ "TornadoVM", "Runtime" })
+@Description("Device selected by a dynamic reconfiguration policy")
+@StackTrace(false)
+public final class DynamicReconfigurationEvent extends jdk.jfr.Event {
+
+    @Label("Task-Graph")
+    private String taskGraph;
+
+    @Label("Policy")
+    private String policy;
+
+    @Label("Device Index")
+    @Description("Index of the device in the default driver. The index after the last device is the Java sequential code")
+    private int deviceIndex;
+
+    @Label("Device")
+    private String device;
+
+    @Label("From History")
+    @Description("The device was taken from the persisted history instead of profiling all devices")
+    private boolean fromHistory;
+
+    @Label("Candidate Times")
+    @Description("Execution time of each candidate, in the unit of the dynamic reconfiguration timers")
+    private String candidateTimes;
+
+    public void setTaskGraph(String taskGraph) {
+        this.taskGraph = taskGraph;
+    }
+
+    public void setPolicy(String policy) {
+        this.policy = policy;
+    }
+
+    public void setDeviceIndex(int deviceIndex) {
+        this.deviceIndex = deviceIndex;
+    }
+
+    public void setDevice(String device) {
+        this.device = device;
+    }
+
+    public void setFromHistory(boolean fromHistory) {
+        this.fromHistory = fromHistory;
+    }
+
+    public void setCandidateTimes(String candidateTimes) {
+        this.candidateTimes = candidateTimes;
+    }
+}
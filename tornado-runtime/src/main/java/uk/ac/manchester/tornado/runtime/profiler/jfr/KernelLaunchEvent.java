@@ -0,0 +1,81 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.profiler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for a kernel launch. The duration of the event is the time to
+ * enqueue the kernel on the host. The device times are read from the device
+ * event once the whole task-graph has been enqueued.
+ */
+@Name("tornadovm.KernelLaunch")
+@Label("Kernel Launch")
+@Category({ "TornadoVM", "Device" })
+@Description("Launch of a kernel on a device")
+@StackTrace(false)
+public final class KernelLaunchEvent extends jdk.jfr.Event implements DeviceTimedEvent {
+
+    @Label("Task")
+    private String task;
+
+    @Label("Device")
+    private String device;
+
+    @Label("Threads")
+    @Description("Number of threads of the batch, or 0 for the whole iteration space")
+    private long batchThreads;
+
+    @Label("Kernel Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long deviceTime;
+
+    @Label("Dispatch Time")
+    @Description("Time from the enqueue of the kernel until it started on the device")
+    @Timespan(Timespan.NANOSECONDS)
+    private long dispatchTime;
+
+    public void setTask(String task) {
+        this.task = task;
+    }
+
+    public void setDevice(String device) {
+        this.device = device;
+    }
+
+    public void setBatchThreads(long batchThreads) {
+        this.batchThreads = batchThreads;
+    }
+
+    @Override
+    public void addDeviceTimes(long deviceTime, long dispatchTime) {
+        this.deviceTime += deviceTime;
+        this.dispatchTime += dispatchTime;
+    }
+}
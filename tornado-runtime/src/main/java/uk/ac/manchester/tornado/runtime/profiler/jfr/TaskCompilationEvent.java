@@ -0,0 +1,92 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.profiler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for the compilation of a task. The time is split into the Graal
+ * compilation (Java bytecode to OpenCL C, PTX or SPIR-V) and the driver
+ * compilation (the binary for the device).
+ */
+@Name("tornadovm.TaskCompilation")
+@Label("Task Compilation")
+@Category({ "TornadoVM", "Compiler" })
+@Description("Compilation of a task for a device")
+@StackTrace(false)
+public final class TaskCompilationEvent extends jdk.jfr.Event {
+
+    @Label("Task")
+    private String task;
+
+    @Label("Device")
+    private String device;
+
+    @Label("Backend")
+    private String backend;
+
+    @Label("Graal Compilation Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long graalCompilationTime;
+
+    @Label("Driver Compilation Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long driverCompilationTime;
+
+    @Label("Persistent Cache Hit")
+    @Description("The kernel was loaded from the persistent kernel cache")
+    private boolean cached;
+
+    private transient long stageStart;
+
+    public TaskCompilationEvent(String task, String device, String backend) {
+        this.task = task;
+        this.device = device;
+        this.backend = backend;
+    }
+
+    /**
+     * It starts measuring the Graal or the driver compilation.
+     */
+    public void startStage() {
+        stageStart = System.nanoTime();
+    }
+
+    public void stopGraalStage() {
+        graalCompilationTime = System.nanoTime() - stageStart;
+    }
+
+    public void stopDriverStage() {
+        driverCompilationTime = System.nanoTime() - stageStart;
+    }
+
+    public void setCached(boolean cached) {
+        this.cached = cached;
+    }
+}
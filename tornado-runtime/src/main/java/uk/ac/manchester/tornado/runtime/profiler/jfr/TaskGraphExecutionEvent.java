@@ -0,0 +1,79 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.profiler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for the execution of a task-graph. The duration covers the
+ * TornadoVM bytecodes of the task-graph, from the first transfer to the last
+ * one.
+ */
+@Name("tornadovm.TaskGraphExecution")
+@Label("Task-Graph Execution")
+@Category({ "TornadoVM", "Runtime" })
+@Description("Execution of a task-graph")
+@StackTrace(false)
+public final class TaskGraphExecutionEvent extends jdk.jfr.Event {
+
+    @Label("Task-Graph")
+    private String taskGraph;
+
+    @Label("Tasks")
+    private int numTasks;
+
+    @Label("Device")
+    private String device;
+
+    @Label("Co-Execution")
+    private boolean coExecution;
+
+    @Label("Bailout")
+    @Description("The task-graph ran the sequential Java code")
+    private boolean bailout;
+
+    public void setTaskGraph(String taskGraph) {
+        this.taskGraph = taskGraph;
+    }
+
+    public void setNumTasks(int numTasks) {
+        this.numTasks = numTasks;
+    }
+
+    public void setDevice(String device) {
+        this.device = device;
+    }
+
+    public void setCoExecution(boolean coExecution) {
+        this.coExecution = coExecution;
+    }
+
+    public void setBailout(boolean bailout) {
+        this.bailout = bailout;
+    }
+}
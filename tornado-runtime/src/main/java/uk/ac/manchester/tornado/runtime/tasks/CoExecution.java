@@ -0,0 +1,254 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.tasks;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+import uk.ac.manchester.tornado.api.common.TornadoDevice;
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.runtime.TornadoCoreRuntime;
+import uk.ac.manchester.tornado.runtime.common.BatchConfiguration;
+import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+
+/**
+ * Co-execution of a task-graph on several devices. The batch iteration space is
+ * split in contiguous partitions, one per device. Each partition is a task-graph
+ * that is compiled as a single batch, so the device only allocates and copies
+ * its slice of the arrays, and it copies its slice of the outputs back to the
+ * host arrays. Partitions run concurrently.
+ *
+ * <p>
+ * With adaptive ratios, the throughput (iterations per nanosecond) of each
+ * device is measured after every warm execution, and the partitions are resized
+ * when the ratios derived from it differ from the current ones by more than
+ * {@link #REPARTITION_THRESHOLD}. The partitions of the last
+ * {@link #MAX_CACHED_PARTITIONINGS} sets of sizes are kept, already compiled, so
+ * going back to a previous set of sizes does not build its task-graphs again.
+ * </p>
+ */
+class CoExecution {
+
+    private static final double REPARTITION_THRESHOLD = 0.05;
+    private static final double THROUGHPUT_DECAY = 0.5;
+    private static final int MAX_CACHED_PARTITIONINGS = 4;
+
+    private final TornadoDevice[] devices;
+    private final double[] ratios;
+    private final boolean adaptive;
+    private final double[] throughput;
+    private final long[] sizes;
+    private TornadoTaskGraph[] partitions;
+    private boolean warm;
+
+    /**
+     * Partitions per set of sizes, in least recently used order.
+     */
+    private final Map<List<Long>, TornadoTaskGraph[]> cachedPartitions = new LinkedHashMap<>(MAX_CACHED_PARTITIONINGS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Long>, TornadoTaskGraph[]> eldest) {
+            if (size() > MAX_CACHED_PARTITIONINGS) {
+                freePartitions(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * @param ratios
+     *            Fraction of the iteration space per device, or null to start with
+     *            the same fraction for all devices and adapt it at runtime.
+     * @param devices
+     *            Devices that share the iteration space.
+     */
+    CoExecution(float[] ratios, TornadoDevice[] devices) {
+        if (devices == null || devices.length == 0) {
+            throw new TornadoRuntimeException("[ERROR] Co-execution needs at least one device");
+        }
+        for (int i = 0; i < devices.length; i++) {
+            for (int j = i + 1; j < devices.length; j++) {
+                if (devices[i] == devices[j]) {
+                    throw new TornadoRuntimeException("[ERROR] Device " + devices[i] + " is used twice for co-execution");
+                }
+            }
+        }
+        this.devices = devices.clone();
+        this.adaptive = ratios == null;
+        this.ratios = new double[devices.length];
+        this.throughput = new double[devices.length];
+        this.sizes = new long[devices.length];
+        if (adaptive) {
+            Arrays.fill(this.ratios, 1.0 / devices.length);
+        } else {
+            double total = 0;
+            for (float ratio : ratios) {
+                if (ratio < 0) {
+                    throw new TornadoRuntimeException("[ERROR] Co-execution ratios must be positive: " + Arrays.toString(ratios));
+                }
+                total += ratio;
+            }
+            if (total == 0) {
+                throw new TornadoRuntimeException("[ERROR] Co-execution ratios must not be all zero");
+            }
+            for (int i = 0; i < ratios.length; i++) {
+                this.ratios[i] = ratios[i] / total;
+            }
+        }
+    }
+
+    /**
+     * It runs all partitions concurrently and waits for them to finish.
+     *
+     * @param taskGraph
+     *            Task-graph to split.
+     */
+    void execute(TornadoTaskGraph taskGraph) {
+        if (partitions == null) {
+            selectPartitions(taskGraph);
+        }
+
+        final long[] times = new long[partitions.length];
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[partitions.length];
+        for (int i = 0; i < partitions.length; i++) {
+            final TornadoTaskGraph partition = partitions[i];
+            final int index = i;
+            if (partition == null) {
+                futures[i] = CompletableFuture.completedFuture(null);
+                continue;
+            }
+            futures[i] = CompletableFuture.runAsync(() -> {
+                long start = System.nanoTime();
+                partition.schedule();
+                partition.waitOn();
+                times[index] = System.nanoTime() - start;
+            }, TornadoCoreRuntime.getDynamicReconfigurationExecutor());
+        }
+
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new TornadoRuntimeException(e);
+        }
+
+        if (adaptive) {
+            // The first execution of each set of partitions includes the JIT compilation
+            if (warm) {
+                updateRatios(times);
+            } else {
+                warm = true;
+            }
+        }
+    }
+
+    /**
+     * It releases the device buffers of all partitions.
+     */
+    void free() {
+        cachedPartitions.values().forEach(CoExecution::freePartitions);
+        cachedPartitions.clear();
+        partitions = null;
+    }
+
+    private static void freePartitions(TornadoTaskGraph[] partitions) {
+        for (TornadoTaskGraph partition : partitions) {
+            if (partition != null) {
+                partition.freeDeviceMemory();
+            }
+        }
+    }
+
+    /**
+     * It selects the partitions for the current ratios. They are taken from the
+     * cache if the same sizes have been used before, or built otherwise.
+     */
+    private void selectPartitions(TornadoTaskGraph taskGraph) {
+        final long[] newSizes = BatchConfiguration.computePartitionSizes(ratios, taskGraph.getCoExecutionIterations());
+        System.arraycopy(newSizes, 0, sizes, 0, sizes.length);
+        final List<Long> key = Arrays.stream(sizes).boxed().collect(Collectors.toList());
+        partitions = cachedPartitions.get(key);
+        // Cached partitions have already been compiled
+        warm = partitions != null;
+        if (partitions == null) {
+            partitions = buildPartitions(taskGraph);
+            cachedPartitions.put(key, partitions);
+        }
+        if (TornadoOptions.DEBUG_POLICY) {
+            System.out.println("Co-execution partitions: " + Arrays.toString(sizes) + " on " + Arrays.toString(devices) + (warm ? " (cached)" : ""));
+        }
+    }
+
+    private TornadoTaskGraph[] buildPartitions(TornadoTaskGraph taskGraph) {
+        TornadoTaskGraph[] newPartitions = new TornadoTaskGraph[devices.length];
+        long offset = 0;
+        for (int i = 0; i < devices.length; i++) {
+            if (sizes[i] > 0) {
+                newPartitions[i] = taskGraph.createCoExecutionPartition(i, devices[i], offset, sizes[i]);
+            }
+            offset += sizes[i];
+        }
+        return newPartitions;
+    }
+
+    private void updateRatios(long[] times) {
+        // Devices without a partition keep their share
+        double measuredShare = 0;
+        double totalThroughput = 0;
+        for (int i = 0; i < partitions.length; i++) {
+            if (partitions[i] != null && times[i] > 0) {
+                double current = (double) sizes[i] / times[i];
+                throughput[i] = (throughput[i] == 0) ? current : THROUGHPUT_DECAY * current + (1 - THROUGHPUT_DECAY) * throughput[i];
+                measuredShare += ratios[i];
+                totalThroughput += throughput[i];
+            }
+        }
+        if (totalThroughput == 0) {
+            return;
+        }
+
+        double[] newRatios = ratios.clone();
+        double maxChange = 0;
+        for (int i = 0; i < partitions.length; i++) {
+            if (partitions[i] != null && times[i] > 0) {
+                newRatios[i] = measuredShare * throughput[i] / totalThroughput;
+                maxChange = Math.max(maxChange, Math.abs(newRatios[i] - ratios[i]));
+            }
+        }
+
+        if (maxChange > REPARTITION_THRESHOLD) {
+            System.arraycopy(newRatios, 0, ratios, 0, ratios.length);
+            // The partitions with the new sizes are selected in the next execution
+            partitions = null;
+        }
+    }
+}
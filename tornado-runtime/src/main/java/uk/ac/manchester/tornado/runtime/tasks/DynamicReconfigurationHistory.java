@@ -0,0 +1,365 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.tasks;
+
+import static uk.ac.manchester.tornado.runtime.common.Tornado.debug;
+import static uk.ac.manchester.tornado.runtime.common.Tornado.warn;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+import uk.ac.manchester.tornado.api.Policy;
+import uk.ac.manchester.tornado.api.TornadoDriver;
+import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+
+/**
+ * On-disk history of the dynamic reconfiguration. For each task-graph, policy,
+ * set of devices and input-size bucket, it keeps one execution time per
+ * candidate device (the last candidate is the Java sequential code). Times are
+ * stored in nanoseconds and refreshed with an exponential decay, so the winner
+ * follows the changes in the performance of the devices over time. Each entry
+ * also keeps the time of its last update, and the least recently updated
+ * entries are evicted once the history exceeds
+ * {@code -Dtornado.dynamic.history.maxEntries}.
+ *
+ * <p>
+ * The history is loaded the first time it is accessed. Results from a full
+ * profiling are written straight away; refreshes of the winner device are
+ * written when the JVM exits. The file is written in a temporary file and
+ * atomically renamed.
+ * </p>
+ *
+ * <p>
+ * The history is enabled with {@code -Dtornado.dynamic.history.enable=True}.
+ * </p>
+ */
+public final class DynamicReconfigurationHistory {
+
+    private static final Path HISTORY_FILE = Paths.get(TornadoOptions.DYNAMIC_HISTORY_FILE);
+    private static final double DECAY = Math.min(1.0, Math.max(0.0, TornadoOptions.DYNAMIC_HISTORY_DECAY));
+    private static final int MAX_ENTRIES = Math.max(1, TornadoOptions.DYNAMIC_HISTORY_MAX_ENTRIES);
+
+    // Separates the times of an entry from the time of its last update
+    private static final char UPDATE_SEPARATOR = '@';
+
+    private static final Properties ENTRIES = new Properties();
+    private static boolean loaded;
+    private static boolean dirty;
+    private static boolean shutdownHookRegistered;
+
+    private DynamicReconfigurationHistory() {
+    }
+
+    public static boolean isEnabled() {
+        return TornadoOptions.DYNAMIC_HISTORY;
+    }
+
+    /**
+     * It builds the key of the history entry of a task-graph. The candidate
+     * devices are all devices of the driver plus the Java sequential code.
+     *
+     * @param taskGraphName
+     *            Name of the task-graph.
+     * @param taskIds
+     *            Ids of the tasks, in order.
+     * @param taskMethods
+     *            Methods of the tasks, in the same order.
+     * @param policy
+     *            {@link Policy} used for the dynamic reconfiguration.
+     * @param driver
+     *            {@link TornadoDriver} of the devices that can be selected.
+     * @param maxInputSize
+     *            Size of the largest input of the task-graph.
+     * @return The key of the entry.
+     */
+    public static String buildKey(String taskGraphName, List<String> taskIds, List<Method> taskMethods, Policy policy, TornadoDriver driver, int maxInputSize) {
+        StringBuilder signature = new StringBuilder(taskGraphName);
+        for (int i = 0; i < taskIds.size(); i++) {
+            signature.append(';').append(taskIds.get(i)).append('=').append(taskMethods.get(i).toGenericString());
+        }
+        StringBuilder deviceSet = new StringBuilder();
+        for (int i = 0; i < driver.getDeviceCount(); i++) {
+            deviceSet.append(driver.getDevice(i).getPhysicalDevice().getDeviceName()).append(';');
+        }
+        deviceSet.append("JVM");
+        return buildKey(signature.toString(), policy, deviceSet.toString(), getSizeBucket(maxInputSize));
+    }
+
+    private static String buildKey(String signature, Policy policy, String deviceSet, int sizeBucket) {
+        return String.format("%s.%08x.%08x.%d", policy, checksum(signature), checksum(deviceSet), sizeBucket);
+    }
+
+    /**
+     * @return The input-size bucket of an input size: the highest power of two
+     *         not larger than the size.
+     */
+    public static int getSizeBucket(int maxInputSize) {
+        return Integer.highestOneBit(Math.max(1, maxInputSize));
+    }
+
+    /**
+     * It looks up the winner device of an entry.
+     *
+     * @param key
+     *            Key computed with {@link #buildKey}.
+     * @param numCandidates
+     *            Number of devices that can be selected, including the Java
+     *            sequential code.
+     * @return The index of the device with the lowest time, or -1 if the entry
+     *         is not present or it is not valid.
+     */
+    public static synchronized int lookup(String key, int numCandidates) {
+        double[] times = getTimes(key, numCandidates);
+        if (times == null) {
+            return -1;
+        }
+        int winner = -1;
+        double min = Double.MAX_VALUE;
+        for (int i = 0; i < times.length; i++) {
+            if (times[i] < min) {
+                min = times[i];
+                winner = i;
+            }
+        }
+        return winner;
+    }
+
+    /**
+     * It records the times of a full profiling of all devices and writes the
+     * history to disk.
+     *
+     * @param key
+     *            Key computed with {@link #buildKey}.
+     * @param timesInNanoseconds
+     *            Time per device. {@link Long#MAX_VALUE} marks a device that was
+     *            not evaluated.
+     */
+    public static synchronized void record(String key, long[] timesInNanoseconds) {
+        double[] times = getTimes(key, timesInNanoseconds.length);
+        if (times == null) {
+            times = new double[timesInNanoseconds.length];
+            for (int i = 0; i < times.length; i++) {
+                times[i] = toDouble(timesInNanoseconds[i]);
+            }
+        } else {
+            for (int i = 0; i < times.length; i++) {
+                times[i] = decay(times[i], toDouble(timesInNanoseconds[i]));
+            }
+        }
+        putTimes(key, times);
+        flush();
+    }
+
+    /**
+     * It refreshes the time of a single device. The history is written to disk
+     * when the JVM exits.
+     *
+     * @param key
+     *            Key computed with {@link #buildKey}.
+     * @param deviceIndex
+     *            Index of the device that has been executed.
+     * @param numCandidates
+     *            Number of devices that can be selected, including the Java
+     *            sequential code.
+     * @param timeInNanoseconds
+     *            Execution time of the device.
+     */
+    public static synchronized void refresh(String key, int deviceIndex, int numCandidates, long timeInNanoseconds) {
+        double[] times = getTimes(key, numCandidates);
+        if (times == null || deviceIndex >= numCandidates) {
+            return;
+        }
+        times[deviceIndex] = decay(times[deviceIndex], toDouble(timeInNanoseconds));
+        putTimes(key, times);
+        if (!shutdownHookRegistered) {
+            Runtime.getRuntime().addShutdownHook(new Thread(DynamicReconfigurationHistory::flush, "TornadoDynamicHistory"));
+            shutdownHookRegistered = true;
+        }
+    }
+
+    /**
+     * It writes the history to disk if it has been modified. Failures are
+     * reported as warnings and never propagated, since the history is only an
+     * optimisation.
+     */
+    public static synchronized void flush() {
+        if (!dirty) {
+            return;
+        }
+        Path tmpFile = null;
+        try {
+            Path directory = HISTORY_FILE.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            tmpFile = Files.createTempFile(directory, HISTORY_FILE.getFileName().toString(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmpFile)) {
+                ENTRIES.store(out, "TornadoVM dynamic reconfiguration history");
+            }
+            try {
+                Files.move(tmpFile, HISTORY_FILE, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile, HISTORY_FILE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            dirty = false;
+            debug("dynamic reconfiguration history stored in %s", HISTORY_FILE);
+        } catch (IOException | RuntimeException e) {
+            warn("Unable to store the dynamic reconfiguration history %s: %s", HISTORY_FILE, e.getMessage());
+            if (tmpFile != null) {
+                try {
+                    Files.deleteIfExists(tmpFile);
+                } catch (IOException ignored) {
+                    // nothing else to clean
+                }
+            }
+        }
+    }
+
+    private static void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!Files.isRegularFile(HISTORY_FILE)) {
+            return;
+        }
+        try (InputStream in = Files.newInputStream(HISTORY_FILE)) {
+            ENTRIES.load(in);
+            debug("dynamic reconfiguration history loaded from %s", HISTORY_FILE);
+        } catch (IOException | RuntimeException e) {
+            warn("Ignoring invalid dynamic reconfiguration history %s: %s", HISTORY_FILE, e.getMessage());
+            ENTRIES.clear();
+        }
+    }
+
+    private static double[] getTimes(String key, int numCandidates) {
+        load();
+        String value = ENTRIES.getProperty(key);
+        if (value == null) {
+            return null;
+        }
+        double[] times = parseTimes(value);
+        return (times == null || times.length != numCandidates) ? null : times;
+    }
+
+    private static void putTimes(String key, double[] times) {
+        ENTRIES.setProperty(key, formatTimes(times, System.currentTimeMillis()));
+        dirty = true;
+        while (ENTRIES.size() > MAX_ENTRIES) {
+            evictOldestEntry();
+        }
+    }
+
+    private static void evictOldestEntry() {
+        String oldestKey = null;
+        long oldestUpdate = Long.MAX_VALUE;
+        for (String key : ENTRIES.stringPropertyNames()) {
+            long update = parseLastUpdate(ENTRIES.getProperty(key));
+            if (oldestKey == null || update < oldestUpdate) {
+                oldestKey = key;
+                oldestUpdate = update;
+            }
+        }
+        ENTRIES.remove(oldestKey);
+        debug("dynamic reconfiguration history entry %s evicted", oldestKey);
+    }
+
+    /**
+     * It formats the value of an entry in the history file.
+     *
+     * @param times
+     *            Time per device in nanoseconds.
+     * @param lastUpdate
+     *            Time of the update in milliseconds since the epoch.
+     * @return The value of the entry.
+     */
+    public static String formatTimes(double[] times, long lastUpdate) {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < times.length; i++) {
+            if (i > 0) {
+                value.append(',');
+            }
+            value.append(times[i]);
+        }
+        return value.append(UPDATE_SEPARATOR).append(lastUpdate).toString();
+    }
+
+    /**
+     * It parses the times of an entry in the history file.
+     *
+     * @param value
+     *            Value of the entry.
+     * @return Time per device in nanoseconds, or null if the value is not valid.
+     */
+    public static double[] parseTimes(String value) {
+        int separator = value.indexOf(UPDATE_SEPARATOR);
+        String[] fields = (separator < 0 ? value : value.substring(0, separator)).split(",");
+        double[] times = new double[fields.length];
+        try {
+            for (int i = 0; i < fields.length; i++) {
+                times[i] = Double.parseDouble(fields[i]);
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return times;
+    }
+
+    private static long parseLastUpdate(String value) {
+        int separator = value.indexOf(UPDATE_SEPARATOR);
+        try {
+            return separator < 0 ? 0 : Long.parseLong(value.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static double decay(double previous, double measurement) {
+        if (Double.isInfinite(measurement)) {
+            return previous;
+        } else if (Double.isInfinite(previous)) {
+            return measurement;
+        }
+        return DECAY * measurement + (1.0 - DECAY) * previous;
+    }
+
+    private static double toDouble(long time) {
+        return time == Long.MAX_VALUE ? Double.POSITIVE_INFINITY : time;
+    }
+
+    private static long checksum(String value) {
+        CRC32 crc = new CRC32();
+        crc.update(value.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.tasks;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import uk.ac.manchester.tornado.api.common.Access;
+import uk.ac.manchester.tornado.runtime.tasks.meta.ScheduleMetaData;
+
+/**
+ * Task that runs a chain of element-wise tasks of a task-graph as a single
+ * kernel. The task method is generated at runtime and it calls the methods of
+ * the fused tasks one after another, so the whole chain is inlined into one
+ * sketch. The arguments are the union of the arguments of the fused tasks.
+ */
+public class FusedCompilableTask extends CompilableTask {
+
+    private static final Set<String> fusedClasses = ConcurrentHashMap.newKeySet();
+
+    private final List<CompilableTask> tasks;
+    private final Access[] fusedAccesses;
+
+    /**
+     * @param meta
+     *            Meta-data of the task-graph.
+     * @param id
+     *            Name of the fused task.
+     * @param method
+     *            Generated method that calls the methods of the fused tasks.
+     * @param args
+     *            Union of the arguments of the fused tasks.
+     * @param tasks
+     *            Fused tasks, in the order of the task-graph.
+     * @param fusedAccesses
+     *            Accesses of the arguments as seen from the host: an argument
+     *            that is written by a task before any other task reads it does
+     *            not need to be copied to the device.
+     */
+    public FusedCompilableTask(ScheduleMetaData meta, String id, Method method, Object[] args, List<CompilableTask> tasks, Access[] fusedAccesses) {
+        super(meta, id, method, args);
+        this.tasks = Collections.unmodifiableList(tasks);
+        this.fusedAccesses = fusedAccesses;
+        this.meta.setNumThreads(tasks.get(0).meta().getNumThreads());
+        mapTo(tasks.get(0).getDevice());
+        fusedClasses.add(method.getDeclaringClass().getName());
+    }
+
+    /**
+     * @return true if the method was generated for a {@link FusedCompilableTask}.
+     */
+    public static boolean isFusedMethod(ResolvedJavaMethod method) {
+        return fusedClasses.contains(method.getDeclaringClass().toJavaName());
+    }
+
+    public List<CompilableTask> getFusedTasks() {
+        return tasks;
+    }
+
+    public Access[] getFusedAccesses() {
+        return fusedAccesses;
+    }
+
+    /**
+     * It returns the first task of the chain, mapped to the device of the fused
+     * task. It is used to restore the original task before the task-graph is
+     * compiled again.
+     */
+    public CompilableTask unfuse() {
+        CompilableTask first = tasks.get(0);
+        first.mapTo(getDevice());
+        return first;
+    }
+}
@@ -26,6 +26,7 @@
 package uk.ac.manchester.tornado.runtime.tasks;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import uk.ac.manchester.tornado.api.common.TornadoDevice;
 import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
@@ -36,9 +37,13 @@ import uk.ac.manchester.tornado.runtime.common.TornadoAcceleratorDevice;
 public class GlobalObjectState implements TornadoGlobalObjectState {
 
     private final ConcurrentHashMap<TornadoAcceleratorDevice, DeviceObjectState> deviceStates;
+    private final AtomicInteger hostVersion;
+    private final AtomicInteger persistentReferences;
 
     public GlobalObjectState() {
         deviceStates = new ConcurrentHashMap<>();
+        hostVersion = new AtomicInteger();
+        persistentReferences = new AtomicInteger();
     }
 
     public DeviceObjectState getDeviceState(TornadoDevice device) {
@@ -49,6 +54,37 @@ public class GlobalObjectState implements TornadoGlobalObjectState {
         return deviceStates.get(device);
     }
 
+    /**
+     * Version of the host copy of the object, shared by all task-graphs that use
+     * it. It is incremented every time the object is marked as dirty.
+     */
+    public int getHostVersion() {
+        return hostVersion.get();
+    }
+
+    public void markDirty() {
+        hostVersion.incrementAndGet();
+    }
+
+    /**
+     * Number of task-graphs that keep this object persistent on the device.
+     */
+    public int getPersistentReferences() {
+        return persistentReferences.get();
+    }
+
+    public boolean isPersistent() {
+        return persistentReferences.get() > 0;
+    }
+
+    public void retainPersistent() {
+        persistentReferences.incrementAndGet();
+    }
+
+    public void releasePersistent() {
+        persistentReferences.decrementAndGet();
+    }
+
     public void clear() {
         deviceStates.clear();
     }
@@ -36,6 +36,8 @@ public class LocalObjectState {
     private boolean streamIn;
     private boolean forceStreamIn;
     private boolean streamOut;
+    private boolean writtenOnDevice;
+    private boolean persistent;
 
     private final GlobalObjectState global;
 
@@ -69,6 +71,47 @@ public class LocalObjectState {
         this.streamOut = streamOut;
     }
 
+    public boolean isWrittenOnDevice() {
+        return writtenOnDevice;
+    }
+
+    public void setWrittenOnDevice(boolean writtenOnDevice) {
+        this.writtenOnDevice = writtenOnDevice;
+    }
+
+    /**
+     * Version of the host copy of the object. It is only updated through
+     * {@link #markDirty()} and it is compared against the version last copied to
+     * the device.
+     */
+    public int getHostVersion() {
+        return global.getHostVersion();
+    }
+
+    public void markDirty() {
+        global.markDirty();
+    }
+
+    public boolean isPersistent() {
+        return persistent;
+    }
+
+    /**
+     * Persistent objects keep their device buffers across task-graphs. The global
+     * state counts how many task-graphs hold the object as persistent.
+     */
+    public void setPersistent(boolean persistent) {
+        if (this.persistent == persistent) {
+            return;
+        }
+        this.persistent = persistent;
+        if (persistent) {
+            global.retainPersistent();
+        } else {
+            global.releasePersistent();
+        }
+    }
+
     public GlobalObjectState getGlobalState() {
         return global;
     }
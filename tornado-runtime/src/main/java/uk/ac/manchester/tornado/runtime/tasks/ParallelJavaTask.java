@@ -0,0 +1,179 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.tasks;
+
+import static uk.ac.manchester.tornado.runtime.TornadoCoreRuntime.getDebugContext;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.graalvm.compiler.nodes.StructuredGraph;
+
+import jdk.vm.ci.code.InstalledCode;
+import uk.ac.manchester.tornado.api.KernelContext;
+import uk.ac.manchester.tornado.api.annotations.Reduce;
+import uk.ac.manchester.tornado.api.common.TaskPackage;
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.runtime.analyzer.CodeAnalysis;
+import uk.ac.manchester.tornado.runtime.analyzer.ParallelLoopCodeAnalysis;
+import uk.ac.manchester.tornado.runtime.analyzer.ParallelLoopCodeAnalysis.ParallelLoop;
+import uk.ac.manchester.tornado.runtime.analyzer.TaskUtils;
+
+/**
+ * Java fallback of a task that splits the iteration space of its outermost
+ * {@link uk.ac.manchester.tornado.api.annotations.Parallel} loop in chunks and
+ * runs them on the common {@link ForkJoinPool}. Each chunk is the task method
+ * compiled by Graal for the host with the loop restricted to a range of
+ * iterations.
+ *
+ * <p>
+ * Tasks with {@link Reduce} parameters, tasks that use a {@link KernelContext}
+ * and tasks with a number of threads set by the hybrid reductions are not
+ * split.
+ * </p>
+ */
+class ParallelJavaTask {
+
+    /**
+     * Minimum number of iterations of a chunk. Smaller loops are not split.
+     */
+    private static final int MIN_ITERATIONS_PER_CHUNK = 1024;
+
+    private final Object code;
+    private boolean analysed;
+    private StructuredGraph graph;
+    private ParallelLoop loop;
+    private int compiledBound;
+    private InstalledCode[] chunks;
+
+    ParallelJavaTask(Object code) {
+        this.code = code;
+    }
+
+    /**
+     * It runs the task in chunks.
+     *
+     * @param taskPackage
+     *            {@link TaskPackage} with the code and the arguments of the task.
+     * @return false if the task cannot be split. The caller runs it sequentially.
+     */
+    boolean execute(TaskPackage taskPackage) {
+        Object[] parameters = taskPackage.getTaskParameters();
+        Object[] arguments = Arrays.copyOfRange(parameters, 1, parameters.length);
+        InstalledCode[] installedChunks = getChunks(taskPackage, arguments);
+        if (installedChunks == null) {
+            return false;
+        }
+
+        List<Callable<Object>> calls = new ArrayList<>(installedChunks.length);
+        for (InstalledCode chunk : installedChunks) {
+            calls.add(() -> chunk.executeVarargs(arguments));
+        }
+        for (Future<Object> future : ForkJoinPool.commonPool().invokeAll(calls)) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TornadoRuntimeException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                } else if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new TornadoRuntimeException(e);
+            }
+        }
+        return true;
+    }
+
+    private synchronized InstalledCode[] getChunks(TaskPackage taskPackage, Object[] arguments) {
+        if (!analysed) {
+            analysed = true;
+            if (isSplittable(taskPackage, arguments)) {
+                graph = CodeAnalysis.buildHighLevelGraalGraph(code);
+                loop = (graph != null) ? ParallelLoopCodeAnalysis.findOutermostParallelLoop(graph) : null;
+            }
+        }
+        if (loop == null || taskPackage.getNumThreadsToRun() != 0) {
+            return null;
+        }
+
+        // The chunks depend on the bound of the loop, which can change with the
+        // arguments. Installed code can also be invalidated by a deoptimization
+        int bound = ParallelLoopCodeAnalysis.evaluateLoopBound(loop, arguments);
+        if (chunks == null || bound != compiledBound || !Arrays.stream(chunks).allMatch(InstalledCode::isValid)) {
+            chunks = compileChunks(bound);
+            compiledBound = bound;
+        }
+        return (chunks.length > 1) ? chunks : null;
+    }
+
+    private boolean isSplittable(TaskPackage taskPackage, Object[] arguments) {
+        for (Object argument : arguments) {
+            if (argument instanceof KernelContext) {
+                return false;
+            }
+        }
+        Method method = TaskUtils.resolveMethodHandle(code);
+        if (!Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != arguments.length) {
+            return false;
+        }
+        for (Annotation[] annotations : method.getParameterAnnotations()) {
+            for (Annotation annotation : annotations) {
+                if (annotation instanceof Reduce) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private InstalledCode[] compileChunks(int bound) {
+        long start = loop.getInit();
+        long iterations = bound - start;
+        int numChunks = (int) Math.min(ForkJoinPool.getCommonPoolParallelism(), iterations / MIN_ITERATIONS_PER_CHUNK);
+        if (numChunks < 2) {
+            return new InstalledCode[0];
+        }
+        long chunkSize = (iterations + numChunks - 1) / numChunks;
+        InstalledCode[] installedChunks = new InstalledCode[numChunks];
+        for (int i = 0; i < numChunks; i++) {
+            long chunkStart = start + i * chunkSize;
+            long chunkEnd = Math.min(bound, chunkStart + chunkSize);
+            StructuredGraph chunkGraph = (StructuredGraph) graph.copy(getDebugContext());
+            ParallelLoopCodeAnalysis.restrictParallelLoop(chunkGraph, (int) chunkStart, (int) chunkEnd);
+            installedChunks[i] = CodeAnalysis.compileAndInstallMethod(chunkGraph);
+        }
+        return installedChunks;
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.tasks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+
+/**
+ * User-defined reduction operator declared with
+ * {@code @Reduce(operator = ...)}. It resolves the static {@code identity()}
+ * and {@code combine(a, b)} methods of the operator class for the element type
+ * of the reduce array.
+ *
+ * <p>
+ * The reduction state is either a single value ({@code T identity()} and
+ * {@code T combine(T, T)}) or a fixed number of fields ({@code T[] identity()}
+ * and {@code T[] combine(T[], T[])}), such as a value and its index for an
+ * argmax, or a sum and its compensation for a Kahan summation. The length of
+ * the array returned by {@code identity()} is the number of fields.
+ * </p>
+ */
+public class ReduceOperator {
+
+    private static final String ERROR_MESSAGE = "[ERROR] Reduce data type not supported yet: ";
+
+    private final Class<?> operatorClass;
+    private final Class<?> elementType;
+    private final Object identity;
+    private final MethodHandle combine;
+    private final int fields;
+
+    private ReduceOperator(Class<?> operatorClass, Class<?> elementType, Object identity, MethodHandle combine) {
+        this.operatorClass = operatorClass;
+        this.elementType = elementType;
+        this.identity = identity;
+        this.combine = combine;
+        this.fields = identity.getClass().isArray() ? Array.getLength(identity) : 1;
+    }
+
+    private static Method getIdentityMethod(Class<?> operatorClass) throws NoSuchMethodException {
+        Method identityMethod = operatorClass.getDeclaredMethod("identity");
+        identityMethod.setAccessible(true);
+        return identityMethod;
+    }
+
+    /**
+     * @param operatorClass
+     *            Class of the user-defined operator.
+     * @return Number of fields of the reduction state, i.e., the number of
+     *         elements of the reduce array that each thread accumulates into.
+     */
+    public static int getNumberOfFields(Class<?> operatorClass) {
+        Object identity = getIdentity(operatorClass);
+        return identity.getClass().isArray() ? Array.getLength(identity) : 1;
+    }
+
+    /**
+     * @param operatorClass
+     *            Class of the user-defined operator.
+     * @return The identity of the operator. Single-value states are boxed.
+     */
+    public static Object getIdentity(Class<?> operatorClass) {
+        try {
+            Object identity = getIdentityMethod(operatorClass).invoke(null);
+            if (identity == null) {
+                throw new NullPointerException();
+            }
+            return identity;
+        } catch (ReflectiveOperationException | NullPointerException e) {
+            throw new TornadoRuntimeException("[ERROR] Reduce operator " + operatorClass.getName() + " must declare a static identity() method");
+        }
+    }
+
+    static ReduceOperator create(Class<?> operatorClass, Object reduceArray) {
+        Class<?> elementType = reduceArray.getClass().getComponentType();
+        if (elementType != int.class && elementType != long.class && elementType != float.class && elementType != double.class) {
+            throw new TornadoRuntimeException(ERROR_MESSAGE + reduceArray.getClass());
+        }
+        Class<?> stateType = elementType;
+        try {
+            Method identityMethod = getIdentityMethod(operatorClass);
+            if (identityMethod.getReturnType() == reduceArray.getClass()) {
+                stateType = reduceArray.getClass();
+            }
+            Method combineMethod = operatorClass.getDeclaredMethod("combine", stateType, stateType);
+            if (identityMethod.getReturnType() != stateType || combineMethod.getReturnType() != stateType) {
+                throw new NoSuchMethodException();
+            }
+            combineMethod.setAccessible(true);
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            Object identity = lookup.unreflect(identityMethod).invoke();
+            if (identity == null || (stateType.isArray() && Array.getLength(identity) == 0)) {
+                throw new TornadoRuntimeException("[ERROR] Reduce operator " + operatorClass.getName() + " returns an empty identity");
+            }
+            return new ReduceOperator(operatorClass, elementType, identity, lookup.unreflect(combineMethod));
+        } catch (NoSuchMethodException e) {
+            String typeName = stateType.getSimpleName();
+            throw new TornadoRuntimeException("[ERROR] Reduce operator " + operatorClass.getName() + " must declare static identity() and combine(" + typeName + ", " + typeName + ") methods");
+        } catch (TornadoRuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new TornadoRuntimeException("[ERROR] Reduce operator " + operatorClass.getName() + " failed: " + e.getMessage());
+        }
+    }
+
+    int getNumberOfFields() {
+        return fields;
+    }
+
+    private Object getIdentityField(int field) {
+        return identity.getClass().isArray() ? Array.get(identity, field) : identity;
+    }
+
+    /**
+     * It initialises every copy of the reduction state stored in the array with
+     * the identity of the operator.
+     */
+    void fillWithIdentity(Object array) {
+        final int size = Array.getLength(array);
+        for (int i = 0; i < size; i++) {
+            Array.set(array, i, getIdentityField(i % fields));
+        }
+    }
+
+    private Object readState(Object array, int slot) {
+        if (!identity.getClass().isArray()) {
+            return Array.get(array, slot);
+        }
+        Object state = Array.newInstance(elementType, fields);
+        System.arraycopy(array, slot * fields, state, 0, fields);
+        return state;
+    }
+
+    private Object combine(Object a, Object b) {
+        try {
+            return combine.invoke(a, b);
+        } catch (Throwable e) {
+            throw new TornadoRuntimeException("[ERROR] Reduce operator " + operatorClass.getName() + " failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * It combines the copies of the reduction state stored in the partial array
+     * and writes the result in the first fields of the reduce array.
+     *
+     * @param partials
+     *            Array with one copy of the state per thread, from position
+     *            {@code fields}. The first copy is only updated when the task
+     *            runs sequentially, and it holds the identity otherwise.
+     * @param result
+     *            Reduce array of the task.
+     */
+    void combinePartials(Object partials, Object result) {
+        final int slots = Array.getLength(partials) / fields;
+        Object accumulator = readState(partials, 0);
+        for (int slot = 1; slot < slots; slot++) {
+            accumulator = combine(accumulator, readState(partials, slot));
+        }
+        if (identity.getClass().isArray()) {
+            System.arraycopy(accumulator, 0, result, 0, fields);
+        } else {
+            Array.set(result, 0, accumulator);
+        }
+    }
+}
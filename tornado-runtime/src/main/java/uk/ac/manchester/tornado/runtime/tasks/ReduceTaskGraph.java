@@ -27,6 +27,7 @@ package uk.ac.manchester.tornado.runtime.tasks;
 
 import static uk.ac.manchester.tornado.runtime.TornadoCoreRuntime.getDebugContext;
 
+import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -41,10 +42,13 @@ import org.graalvm.compiler.nodes.StructuredGraph;
 
 import jdk.vm.ci.code.InstalledCode;
 import jdk.vm.ci.code.InvalidInstalledCodeException;
+import uk.ac.manchester.tornado.api.GridScheduler;
 import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
 import uk.ac.manchester.tornado.api.KernelContext;
 import uk.ac.manchester.tornado.api.TaskGraph;
 import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.WorkerGrid;
+import uk.ac.manchester.tornado.api.WorkerGrid1D;
 import uk.ac.manchester.tornado.api.common.TaskPackage;
 import uk.ac.manchester.tornado.api.common.TornadoDevice;
 import uk.ac.manchester.tornado.api.enums.DataTransferMode;
@@ -59,6 +63,7 @@ import uk.ac.manchester.tornado.runtime.analyzer.MetaReduceTasks;
 import uk.ac.manchester.tornado.runtime.analyzer.ReduceCodeAnalysis;
 import uk.ac.manchester.tornado.runtime.analyzer.ReduceCodeAnalysis.REDUCE_OPERATION;
 import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+import uk.ac.manchester.tornado.runtime.graal.phases.CustomReduceTemplates;
 import uk.ac.manchester.tornado.runtime.tasks.meta.MetaDataUtils;
 
 class ReduceTaskGraph {
@@ -86,6 +91,8 @@ class ReduceTaskGraph {
     private List<HybridThreadMeta> hybridThreadMetas;
     private Map<Object, Object> neutralElementsNew = new HashMap<>();
     private Map<Object, Object> neutralElementsOriginal = new HashMap<>();
+    private Map<Object, ReduceOperator> customOperators = new HashMap<>();
+    private GridScheduler customReduceGrid;
     private TaskGraph rewrittenTaskGraph;
     private Map<Object, List<Integer>> reduceOperandTable;
     private CachedGraph<?> sketchGraph;
@@ -370,6 +377,66 @@ class ReduceTaskGraph {
         }
     }
 
+    /**
+     * It creates the partial array of a reduction with a user-defined operator.
+     *
+     * <p>
+     * Single-value states are reduced on the device with one work-group per
+     * work-group of the built-in reductions (or one per compute unit on CPUs).
+     * Each work-item combines its iterations into its own element of a local
+     * array, and the work-group combines the local array in a tree (see
+     * CustomReduceTemplates). The local size is a power of two, so each level of
+     * the tree halves the work-items.
+     * </p>
+     *
+     * <p>
+     * States with several fields run with one thread per work-group, and each
+     * thread combines its iterations into its own copy of the state (see
+     * TornadoReduceReplacement).
+     * </p>
+     *
+     * <p>
+     * In both cases the threads iterate over the whole input, so the input size
+     * does not need to be a power of two.
+     * </p>
+     */
+    private Object createCustomReduceArray(Class<?> operatorClass, Object originalReduceArray, String taskScheduleReduceName, TaskPackage taskPackage, int driverToRun, int deviceToRun,
+            int inputSize) {
+        ReduceOperator reduceOperator = ReduceOperator.create(operatorClass, originalReduceArray);
+        int numGroups = obtainSizeArrayResult(driverToRun, deviceToRun, inputSize) - 1;
+        Object newDeviceArray = createNewReduceArray(originalReduceArray, (numGroups + 1) * reduceOperator.getNumberOfFields());
+        reduceOperator.fillWithIdentity(newDeviceArray);
+        customOperators.put(newDeviceArray, reduceOperator);
+
+        WorkerGrid worker;
+        if (reduceOperator.getNumberOfFields() == 1) {
+            TornadoDevice device = TornadoCoreRuntime.getTornadoRuntime().getDriver(driverToRun).getDevice(deviceToRun);
+            int localSize = calculateCustomReduceGroupSize(device);
+            worker = new WorkerGrid1D(numGroups * localSize);
+            worker.setLocalWork(localSize, 1, 1);
+        } else {
+            worker = new WorkerGrid1D(numGroups);
+        }
+
+        if (customReduceGrid == null) {
+            customReduceGrid = new GridScheduler();
+        }
+        customReduceGrid.setWorkerGrid(taskScheduleReduceName + "." + taskPackage.getId(), worker);
+        return newDeviceArray;
+    }
+
+    /**
+     * @return The largest power of two that fits both the local arrays of the
+     *         custom reduce templates and the work-groups of the device.
+     */
+    private static int calculateCustomReduceGroupSize(TornadoDevice device) {
+        int maxBlockSize = (int) device.getDeviceMaxWorkgroupDimensions()[0];
+        if (maxBlockSize <= 0 || maxBlockSize > CustomReduceTemplates.MAX_LOCAL_WORK_GROUP_SIZE) {
+            maxBlockSize = CustomReduceTemplates.MAX_LOCAL_WORK_GROUP_SIZE;
+        }
+        return Integer.highestOneBit(maxBlockSize);
+    }
+
     private Object createHostArrayForHybridMode(Object originalReduceArray, TaskPackage taskPackage, int sizeTargetDevice) {
         hybridMode = true;
         if (hostHybridVariables == null) {
@@ -452,6 +519,15 @@ class ReduceTaskGraph {
 
                     inputSize = metaReduceTasks.getInputSize(taskNumber);
 
+                    Class<?> operatorClass = metaReduceTasks.getReduceOperator(paramIndex);
+                    if (operatorClass != null) {
+                        Object newDeviceArray = createCustomReduceArray(operatorClass, originalReduceArray, taskScheduleReduceName, taskPackage, driverToRun, deviceToRun, inputSize);
+                        streamReduceList.add(newDeviceArray);
+                        sizesReductionArray.add(Array.getLength(newDeviceArray));
+                        originalReduceVariables.put(originalReduceArray, newDeviceArray);
+                        continue;
+                    }
+
                     updateGlobalAndLocalDimensionsFPGA(deviceToRun, taskScheduleReduceName, taskPackage, inputSize);
 
                     // Analyse Input Size - if not power of 2 -> split host and device executions
@@ -548,11 +624,13 @@ class ReduceTaskGraph {
             if (tableReduce.containsKey(taskNumber)) {
 
                 MetaReduceTasks metaReduceTasks = tableReduce.get(taskNumber);
-                List<Integer> listOfReduceParameters = metaReduceTasks.getListOfReduceParameters(taskNumber);
+                List<Integer> listOfReduceParameters = new ArrayList<>(metaReduceTasks.getListOfReduceParameters(taskNumber));
+                // The operations of user-defined operators are not inferred from the code
+                listOfReduceParameters.removeIf(paramIndex -> metaReduceTasks.getReduceOperator(paramIndex) != null);
                 StructuredGraph graph = metaReduceTasks.getGraph();
                 List<REDUCE_OPERATION> operations = ReduceCodeAnalysis.getReduceOperation(graph, listOfReduceParameters);
 
-                if (operations.isEmpty()) {
+                if (operations.isEmpty() && !listOfReduceParameters.isEmpty()) {
                     // perform analysis with cached graph (after sketch phase)
                     operations = ReduceCodeAnalysis.getReduceOperatorFromSketch(sketchGraph, listOfReduceParameters);
                 }
@@ -562,6 +640,12 @@ class ReduceTaskGraph {
                 for (int i = 0; i < streamUpdateList.size(); i++) {
                     Object newArray = streamUpdateList.get(i);
                     int sizeReduceArray = sizesReductionArray.get(i);
+
+                    // The partial results of a user-defined operator, one per thread, are
+                    // combined on the host when copying out the result (see updateOutputArrays)
+                    if (customOperators.containsKey(newArray)) {
+                        continue;
+                    }
                     for (REDUCE_OPERATION operation : operations) {
                         final String newTaskSequentialName = SEQUENTIAL_TASK_REDUCE_NAME + counterSeqName.get();
                         String fullName = rewrittenTaskGraph.getTaskGraphName() + "." + newTaskSequentialName;
@@ -602,6 +686,9 @@ class ReduceTaskGraph {
         TornadoTaskGraph.performStreamOutThreads(DataTransferMode.EVERY_EXECUTION, rewrittenTaskGraph, streamOutObjects);
         ImmutableTaskGraph immutableTaskGraph = rewrittenTaskGraph.snapshot();
         this.executor = new TornadoExecutionPlan(immutableTaskGraph);
+        if (customReduceGrid != null) {
+            executor.withGridScheduler(customReduceGrid);
+        }
 
         executeExpression();
         counterName.incrementAndGet();
@@ -668,6 +755,10 @@ class ReduceTaskGraph {
             Object neutralElement = pair.getValue();
             fillOutputArrayWithNeutral(originalArray, neutralElement);
         }
+
+        for (Entry<Object, ReduceOperator> pair : customOperators.entrySet()) {
+            pair.getValue().fillWithIdentity(pair.getKey());
+        }
     }
 
     private int operateFinalReduction(int a, int b, REDUCE_OPERATION operation) {
@@ -749,6 +840,10 @@ class ReduceTaskGraph {
         }
     }
 
+    private void mergeCustomOperator(Object originalReduceVariable, Object newArray) {
+        customOperators.get(newArray).combinePartials(newArray, originalReduceVariable);
+    }
+
     private void mergeHybridMode(Object originalReduceVariable, Object newArray) {
         switch (newArray.getClass().getTypeName()) {
             case "int[]":
@@ -789,7 +884,9 @@ class ReduceTaskGraph {
         for (Entry<Object, Object> pair : originalReduceVariables.entrySet()) {
             Object originalReduceVariable = pair.getKey();
             Object newArray = pair.getValue();
-            if (hostHybridVariables != null && hostHybridVariables.containsKey(newArray)) {
+            if (customOperators.containsKey(newArray)) {
+                mergeCustomOperator(originalReduceVariable, newArray);
+            } else if (hostHybridVariables != null && hostHybridVariables.containsKey(newArray)) {
                 mergeHybridMode(originalReduceVariable, newArray);
             } else {
                 updateVariableFromAccelerator(originalReduceVariable, newArray);
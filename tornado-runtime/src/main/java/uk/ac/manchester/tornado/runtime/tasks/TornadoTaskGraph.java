@@ -26,6 +26,7 @@ package uk.ac.manchester.tornado.runtime.tasks;
 import java.io.IOException;
 import java.lang.reflect.Array;
 import java.lang.reflect.Method;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
@@ -34,29 +35,36 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import org.graalvm.compiler.graph.CachedGraph;
 import org.graalvm.compiler.phases.util.Providers;
 
 import jdk.vm.ci.meta.ResolvedJavaMethod;
 import uk.ac.manchester.tornado.api.GridScheduler;
-import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
 import uk.ac.manchester.tornado.api.KernelContext;
 import uk.ac.manchester.tornado.api.Policy;
 import uk.ac.manchester.tornado.api.TaskGraph;
 import uk.ac.manchester.tornado.api.TornadoDriver;
 import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
 import uk.ac.manchester.tornado.api.TornadoTaskGraphInterface;
+import uk.ac.manchester.tornado.api.collections.types.PrimitiveStorage;
 import uk.ac.manchester.tornado.api.common.Access;
 import uk.ac.manchester.tornado.api.common.Event;
 import uk.ac.manchester.tornado.api.common.SchedulableTask;
@@ -93,6 +101,7 @@ import uk.ac.manchester.tornado.runtime.TornadoVM;
 import uk.ac.manchester.tornado.runtime.analyzer.MetaReduceCodeAnalysis;
 import uk.ac.manchester.tornado.runtime.analyzer.ReduceCodeAnalysis;
 import uk.ac.manchester.tornado.runtime.analyzer.TaskUtils;
+import uk.ac.manchester.tornado.runtime.common.BatchConfiguration;
 import uk.ac.manchester.tornado.runtime.common.DeviceObjectState;
 import uk.ac.manchester.tornado.runtime.common.RuntimeUtilities;
 import uk.ac.manchester.tornado.runtime.common.Tornado;
@@ -103,9 +112,12 @@ import uk.ac.manchester.tornado.runtime.graal.compiler.TornadoSuitesProvider;
 import uk.ac.manchester.tornado.runtime.graph.TornadoExecutionContext;
 import uk.ac.manchester.tornado.runtime.graph.TornadoGraph;
 import uk.ac.manchester.tornado.runtime.graph.TornadoGraphBuilder;
+import uk.ac.manchester.tornado.runtime.graph.TornadoKernelFusion;
 import uk.ac.manchester.tornado.runtime.graph.TornadoVMBytecodeBuilder;
 import uk.ac.manchester.tornado.runtime.profiler.EmptyProfiler;
 import uk.ac.manchester.tornado.runtime.profiler.TimeProfiler;
+import uk.ac.manchester.tornado.runtime.profiler.jfr.DynamicReconfigurationEvent;
+import uk.ac.manchester.tornado.runtime.profiler.jfr.TaskGraphExecutionEvent;
 import uk.ac.manchester.tornado.runtime.sketcher.Sketch;
 import uk.ac.manchester.tornado.runtime.sketcher.SketchRequest;
 import uk.ac.manchester.tornado.runtime.sketcher.TornadoSketcher;
@@ -122,9 +134,11 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
      */
     private static final boolean EXPERIMENTAL_MULTI_HOST_HEAP = false;
     private static final int DEFAULT_DRIVER_INDEX = 0;
+    private static final int DEFAULT_DEVICE_INDEX = 0;
     private static final int PERFORMANCE_WARMUP = 3;
     private static final boolean TIME_IN_NANOSECONDS = TornadoOptions.TIME_IN_NANOSECONDS;
     private static final String TASK_GRAPH_PREFIX = "XXX";
+    private static final String LATENCY_RACE_SUFFIX = "_LATENCY_";
     private static final ConcurrentHashMap<Policy, ConcurrentHashMap<String, HistoryTable>> executionHistoryPolicy = new ConcurrentHashMap<>();
 
     private static final boolean USE_GLOBAL_TASK_CACHE = false;
@@ -165,6 +179,27 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
     private ConcurrentHashMap<Integer, ArrayList<Object>> multiHeapManagerOutputs = new ConcurrentHashMap<>();
     private ConcurrentHashMap<Integer, ArrayList<Object>> multiHeapManagerInputs = new ConcurrentHashMap<>();
     private ConcurrentHashMap<Integer, TaskGraph> taskGraphIndex = new ConcurrentHashMap<>();
+    /**
+     * Device selected by the latency policy per input-size bucket (power of
+     * two).
+     */
+    private ConcurrentHashMap<Integer, Integer> latencyWinnerPerSize = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<Integer, TornadoExecutionPlan> executionPlanIndex = new ConcurrentHashMap<>();
+    /**
+     * Compiled plan of the device that won the latency race per input-size
+     * bucket, with the private objects it runs over.
+     */
+    private ConcurrentHashMap<Integer, LatencyRaceWinner> latencyRaceWinners = new ConcurrentHashMap<>();
+    /**
+     * Candidates of the latency races that may still be running. Each one
+     * releases its device buffers when it finishes, unless it won.
+     */
+    private final List<CompletableFuture<?>> latencyRaceCandidates = Collections.synchronizedList(new ArrayList<>());
+    /**
+     * Java fallback of each task that splits its parallel loop, indexed by task
+     * id.
+     */
+    private ConcurrentHashMap<String, ParallelJavaTask> parallelJavaTasks = new ConcurrentHashMap<>();
     private StringBuilder bufferLogProfiler = new StringBuilder();
     private CachedGraph<?> graph;
     /**
@@ -177,6 +212,7 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
     private boolean updateData;
     private boolean isFinished;
     private GridScheduler gridScheduler;
+    private CoExecution coExecution;
 
     /**
      * Task Schedule implementation that uses GPU/FPGA and multicore backends.
@@ -613,7 +649,12 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
         buffer.order(ByteOrder.LITTLE_ENDIAN);
         buffer.limit(hlBuffer.position());
 
-        final TornadoGraph tornadoGraph = TornadoGraphBuilder.buildGraph(executionContext, buffer);
+        ByteBuffer graphBuffer = buffer;
+        if (TornadoOptions.FUSE_TASKS && gridScheduler == null) {
+            graphBuffer = TornadoKernelFusion.fuseTasks(executionContext, buffer);
+        }
+
+        final TornadoGraph tornadoGraph = TornadoGraphBuilder.buildGraph(executionContext, graphBuffer);
 
         if (setNewDevice) {
             // setNewDevice does not need to propagate any further as executionContext is
@@ -921,6 +962,18 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
         }
     }
 
+    @Override
+    public void persistOnDevice(Object... objects) {
+        for (Object object : objects) {
+            if (object == null || isANumber(object)) {
+                throw new TornadoRuntimeException("[ERROR] Only non-null arrays and objects can persist on the device in schedule " + executionContext.getId());
+            }
+            executionContext.getObjectState(object).setPersistent(true);
+            argumentsLookUp.add(object);
+            lockObjectsInMemory(object);
+        }
+    }
+
     @Override
     public void dump() {
         final int width = 16;
@@ -976,23 +1029,45 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
     @Override
     public void freeDeviceMemory() {
         free();
+        if (coExecution != null) {
+            coExecution.free();
+        }
+        // Plans cached by the dynamic reconfiguration
+        executionPlanIndex.values().forEach(TornadoExecutionPlan::freeDeviceMemory);
+        executionPlanIndex.clear();
+        joinLatencyRace();
+        latencyRaceWinners.values().forEach(raceWinner -> raceWinner.executionPlan.freeDeviceMemory());
+        latencyRaceWinners.clear();
+        taskGraphIndex.clear();
     }
 
     private void free() {
-        if (vm == null) {
-            return;
+        if (vm != null) {
+            inputModesObjects.stream().forEach(streamingObject -> freeDeviceMemoryObject(streamingObject.getObject()));
+            outputModeObjects.stream().forEach(streamingObject -> freeDeviceMemoryObject(streamingObject.getObject()));
+        }
+
+        // Persistent objects that are not transferred by this task-graph
+        for (LocalObjectState localState : executionContext.getObjectStates()) {
+            if (localState.isPersistent()) {
+                releaseObjectFromDeviceMemory(localState, meta().getLogicDevice());
+                localState.setPersistent(false);
+            }
         }
-        inputModesObjects.stream().forEach(streamingObject -> freeDeviceMemoryObject(streamingObject.getObject()));
-        outputModeObjects.stream().forEach(streamingObject -> freeDeviceMemoryObject(streamingObject.getObject()));
     }
 
     private void freeDeviceMemoryObject(Object object) {
         final LocalObjectState localState = executionContext.getObjectState(object);
         releaseObjectFromDeviceMemory(localState, meta().getLogicDevice());
+        localState.setPersistent(false);
     }
 
     private void releaseObjectFromDeviceMemory(final LocalObjectState localState, final TornadoDevice device) {
         final GlobalObjectState globalState = localState.getGlobalState();
+        if (globalState.getPersistentReferences() > (localState.isPersistent() ? 1 : 0)) {
+            // Another task-graph keeps the buffer persistent on the device
+            return;
+        }
         final DeviceObjectState deviceState = globalState.getDeviceState(device);
         deviceState.setLockBuffer(false);
         if (deviceState.hasObjectBuffer()) {
@@ -1174,7 +1249,30 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
 
     @Override
     public TornadoTaskGraphInterface schedule() {
+        final TaskGraphExecutionEvent executionEvent = new TaskGraphExecutionEvent();
+        executionEvent.begin();
+        try {
+            return scheduleTaskGraph();
+        } finally {
+            executionEvent.end();
+            if (executionEvent.shouldCommit()) {
+                executionEvent.setTaskGraph(getId());
+                executionEvent.setNumTasks(taskPackages.size());
+                executionEvent.setCoExecution(coExecution != null);
+                executionEvent.setBailout(bailout);
+                if (coExecution == null && !bailout) {
+                    executionEvent.setDevice(getDeviceNames());
+                }
+                executionEvent.commit();
+            }
+        }
+    }
 
+    private String getDeviceNames() {
+        return executionContext.getDevices().stream().filter(Objects::nonNull).map(device -> device.getPhysicalDevice().getDeviceName()).distinct().collect(Collectors.joining(", "));
+    }
+
+    private TornadoTaskGraphInterface scheduleTaskGraph() {
         setupProfiler();
         isFinished = false;
         if (bailout) {
@@ -1189,6 +1287,13 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
         timeProfiler.clean();
         timeProfiler.start(ProfilerType.TOTAL_TASK_GRAPH_TIME);
 
+        if (coExecution != null) {
+            coExecution.execute(this);
+            timeProfiler.stop(ProfilerType.TOTAL_TASK_GRAPH_TIME);
+            updateProfiler();
+            return this;
+        }
+
         TornadoTaskGraphInterface executionGraph = null;
         if (TornadoOptions.EXPERIMENTAL_REDUCE && !(getId().startsWith(TASK_GRAPH_PREFIX))) {
             executionGraph = analyzeSkeletonAndRun();
@@ -1326,6 +1431,7 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
         switch (policy) {
             case END_2_END:
             case PERFORMANCE:
+            case LATENCY:
                 int position = 0;
                 long min = Long.MAX_VALUE;
                 for (int i = 0; i < totalTimers.length; i++) {
@@ -1343,156 +1449,357 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
         return deviceWinnerIndex;
     }
 
-    private int syncWinner(Thread[] threads) {
-        int winner = 0;
-        boolean isAlive = true;
-        while (isAlive) {
+    private void runAllTasksJavaSequential() {
+        runAllTasksJavaSequential(taskPackages);
+    }
 
-            for (int i = 0; i < threads.length; i++) {
-                isAlive = threads[i].isAlive();
-                if (!isAlive) {
-                    if (TornadoOptions.DEBUG_POLICY) {
-                        System.out.println("Thread " + threads[i].getName() + " finished");
-                    }
-                    winner = i;
-                    // kill the others
-                    for (int j = 0; j < threads.length; j++) {
-                        if (i != j) {
-                            threads[j].interrupt();
-                        }
-                    }
-                    break;
+    private void runAllTasksJavaSequential(List<TaskPackage> taskPackages) {
+        if (TornadoOptions.CONCURRENT_JAVA_FALLBACK) {
+            runAllTasksJavaConcurrently(taskPackages);
+            return;
+        }
+        for (TaskPackage taskPackage : taskPackages) {
+            runSequentialCodeInThread(taskPackage);
+        }
+    }
+
+    /**
+     * Runs the Java code of all tasks on the common ForkJoinPool. Each task waits
+     * for the previous tasks that share an object argument with it, so the result
+     * is the same as running the tasks in order. The iterations of the outermost
+     * parallel loop of each task are also split across the pool (see
+     * {@link ParallelJavaTask}).
+     */
+    private void runAllTasksJavaConcurrently(List<TaskPackage> taskPackages) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(taskPackages.size());
+        for (int i = 0; i < taskPackages.size(); i++) {
+            final TaskPackage taskPackage = taskPackages.get(i);
+            List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                if (shareObjectArguments(taskPackages.get(j), taskPackage)) {
+                    dependencies.add(futures.get(j));
                 }
             }
+            CompletableFuture<Void> ready = CompletableFuture.allOf(dependencies.toArray(new CompletableFuture[0]));
+            futures.add(ready.thenRunAsync(() -> runTaskJavaParallel(taskPackage), ForkJoinPool.commonPool()));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
         }
-        return winner;
     }
 
-    private void runAllTasksJavaSequential() {
-        for (TaskPackage taskPackage : taskPackages) {
+    private void runTaskJavaParallel(TaskPackage taskPackage) {
+        ParallelJavaTask javaTask = parallelJavaTasks.computeIfAbsent(taskPackage.getId(), id -> new ParallelJavaTask(taskPackage.getTaskParameters()[0]));
+        if (!javaTask.execute(taskPackage)) {
             runSequentialCodeInThread(taskPackage);
         }
     }
 
-    private void runParallelSequential(Policy policy, Thread[] threads, int indexSequential, Timer timer, long[] totalTimers) {
-        // Last Thread runs the sequential code
-        threads[indexSequential] = new Thread(() -> {
-            long start = System.currentTimeMillis();
-            if (policy == Policy.PERFORMANCE) {
-                for (int k = 0; k < PERFORMANCE_WARMUP; k++) {
-                    runAllTasksJavaSequential();
-                }
-                start = timer.time();
+    private static boolean shareObjectArguments(TaskPackage first, TaskPackage second) {
+        Object[] firstParameters = first.getTaskParameters();
+        Object[] secondParameters = second.getTaskParameters();
+        // The first parameter is the task itself
+        for (int i = 1; i < firstParameters.length; i++) {
+            if (firstParameters[i] == null || firstParameters[i] instanceof Number) {
+                continue;
             }
-            final long endSequentialCode = timer.time();
-            Thread.currentThread().setName("Thread-sequential");
-            if (TornadoOptions.DEBUG_POLICY) {
-                System.out.println("Seq finished: " + Thread.currentThread().getName());
+            Object firstStorage = getStorage(firstParameters[i]);
+            for (int j = 1; j < secondParameters.length; j++) {
+                if (firstParameters[i] == secondParameters[j] || (secondParameters[j] != null && firstStorage == getStorage(secondParameters[j]))) {
+                    return true;
+                }
             }
+        }
+        return false;
+    }
 
-            totalTimers[indexSequential] = (endSequentialCode - start);
-        });
+    /**
+     * It returns the array that holds the data of an object. Different
+     * collection types, such as a {@link uk.ac.manchester.tornado.api.collections.types.VectorFloat}
+     * and a {@link uk.ac.manchester.tornado.api.collections.types.Matrix2DFloat},
+     * can wrap the same array.
+     */
+    private static Object getStorage(Object object) {
+        if (object instanceof PrimitiveStorage) {
+            Buffer buffer = ((PrimitiveStorage<?>) object).asBuffer();
+            if (buffer.hasArray()) {
+                return buffer.array();
+            }
+        }
+        return object;
     }
 
-    private void runParallelTaskGraphs(int numDevices, Thread[] threads, Timer timer, Policy policy, long[] totalTimers) {
-        for (int i = 0; i < numDevices; i++) {
-            final int taskScheduleNumber = i;
-            threads[i] = new Thread(() -> {
-                String newTaskScheduleName = TASK_GRAPH_PREFIX + taskScheduleNumber;
-                TaskGraph task = new TaskGraph(newTaskScheduleName);
+    private TaskGraph createTaskGraphForDevice(int deviceIndex) {
+        return createTaskGraphForDevice(TASK_GRAPH_PREFIX + deviceIndex, deviceIndex, null);
+    }
 
-                Thread.currentThread().setName("Thread-DEV: " + TornadoRuntime.getTornadoRuntime().getDriver(0).getDevice(taskScheduleNumber).getPhysicalDevice().getDeviceName());
+    /**
+     * It creates a copy of the task-graph that runs on the given device.
+     *
+     * @param newTaskScheduleName
+     *            Name of the new task-graph.
+     * @param deviceIndex
+     *            Index of the device in the default driver.
+     * @param privateObjects
+     *            Private copies of the objects of the task-graph, or null to use
+     *            the objects of the caller. With private copies, all outputs are
+     *            copied to the host on every execution.
+     * @return the new {@link TaskGraph}.
+     */
+    private TaskGraph createTaskGraphForDevice(String newTaskScheduleName, int deviceIndex, Map<Object, Object> privateObjects) {
+        TaskGraph task = new TaskGraph(newTaskScheduleName);
 
-                long start = timer.time();
+        for (StreamingObject streamingObject : inputModesObjects) {
+            performStreamInObject(task, getPrivateObject(privateObjects, streamingObject.object), streamingObject.mode);
+        }
 
-                for (StreamingObject streamingObject : inputModesObjects) {
-                    performStreamInObject(task, streamingObject.object, streamingObject.mode);
-                }
+        for (TaskPackage taskPackage : getTaskPackages(privateObjects)) {
+            String taskID = taskPackage.getId();
+            TornadoRuntime.setProperty(newTaskScheduleName + "." + taskID + ".device", "0:" + deviceIndex);
+            if (Tornado.DEBUG) {
+                System.out.println("SET DEVICE: " + newTaskScheduleName + "." + taskID + ".device=0:" + deviceIndex);
+            }
+            task.addTask(taskPackage);
+        }
 
-                for (TaskPackage taskPackage : taskPackages) {
-                    String taskID = taskPackage.getId();
-                    TornadoRuntime.setProperty(newTaskScheduleName + "." + taskID + ".device", "0:" + taskScheduleNumber);
-                    if (Tornado.DEBUG) {
-                        System.out.println("SET DEVICE: " + newTaskScheduleName + "." + taskID + ".device=0:" + taskScheduleNumber);
-                    }
-                    task.addTask(taskPackage);
-                }
+        for (StreamingObject streamingObject : outputModeObjects) {
+            if (privateObjects == null) {
+                performStreamOutThreads(streamingObject.mode, task, streamingObject.object);
+            } else {
+                performStreamOutThreads(DataTransferMode.EVERY_EXECUTION, task, getPrivateObject(privateObjects, streamingObject.object));
+            }
+        }
+        return task;
+    }
 
-                for (StreamingObject streamingObject : outputModeObjects) {
-                    performStreamOutThreads(streamingObject.mode, task, streamingObject.object);
-                }
-                // performStreamOutThreads(task, streamOutObjects);
+    private static Object getPrivateObject(Map<Object, Object> privateObjects, Object object) {
+        return (privateObjects == null) ? object : privateObjects.getOrDefault(object, object);
+    }
 
-                ImmutableTaskGraph immutableTaskGraph = task.snapshot();
-                TornadoExecutionPlan executor = new TornadoExecutionPlan(immutableTaskGraph);
-                executor.execute();
+    private List<TaskPackage> getTaskPackages(Map<Object, Object> privateObjects) {
+        if (privateObjects == null) {
+            return taskPackages;
+        }
+        List<TaskPackage> privateTaskPackages = new ArrayList<>(taskPackages.size());
+        for (TaskPackage taskPackage : taskPackages) {
+            Object[] parameters = taskPackage.getTaskParameters().clone();
+            // The first parameter is the task itself
+            for (int i = 1; i < parameters.length; i++) {
+                parameters[i] = getPrivateObject(privateObjects, parameters[i]);
+            }
+            privateTaskPackages.add(taskPackage.withParameters(parameters));
+        }
+        return privateTaskPackages;
+    }
 
-                if (policy == Policy.PERFORMANCE) {
-                    // first warm up
-                    for (int k = 0; k < PERFORMANCE_WARMUP; k++) {
-                        executor.execute();
-                    }
-                    start = timer.time();
-                }
-                executor.execute();
-                final long end = timer.time();
-                taskGraphIndex.put(taskScheduleNumber, task);
+    private static boolean isImmutableArgument(Object object) {
+        return object == null || object instanceof Number || object instanceof Boolean || object instanceof Character || object instanceof String || object instanceof KernelContext;
+    }
 
-                if (USE_GLOBAL_TASK_CACHE) {
-                    globalTaskGraphIndex.put(offsetGlobalIndex.get(), task);
-                    offsetGlobalIndex.incrementAndGet();
-                } else {
-                    globalTaskGraphIndex.put(taskScheduleNumber, task);
-                }
+    private static Object createPrivateCopy(Object object) {
+        Class<?> type = object.getClass();
+        if (type.isArray() && type.getComponentType().isPrimitive()) {
+            int length = Array.getLength(object);
+            Object copy = Array.newInstance(type.getComponentType(), length);
+            System.arraycopy(object, 0, copy, 0, length);
+            return copy;
+        } else if (object instanceof PrimitiveStorage) {
+            try {
+                Object copy = type.getMethod("duplicate").invoke(object);
+                return (copy != null && copy.getClass() == type) ? copy : null;
+            } catch (ReflectiveOperationException e) {
+                return null;
+            }
+        }
+        return null;
+    }
 
-                totalTimers[taskScheduleNumber] = end - start;
-            });
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static void copyObject(Object source, Object destination) {
+        if (destination.getClass().isArray()) {
+            System.arraycopy(source, 0, destination, 0, Array.getLength(destination));
+        } else {
+            ((PrimitiveStorage) destination).loadFromBuffer(((PrimitiveStorage) source).asBuffer());
         }
+    }
 
+    /**
+     * It creates private copies of all the objects used by the task-graph:
+     * primitive arrays and TornadoVM collection types. Immutable arguments, such
+     * as scalars, are shared.
+     *
+     * @return a map from each object of the caller to its private copy, or null
+     *         if an object cannot be copied.
+     */
+    private Map<Object, Object> createPrivateObjects() {
+        Map<Object, Object> privateObjects = new IdentityHashMap<>();
+        List<Object> objects = new ArrayList<>();
+        inputModesObjects.forEach(streamingObject -> objects.add(streamingObject.object));
+        outputModeObjects.forEach(streamingObject -> objects.add(streamingObject.object));
+        for (TaskPackage taskPackage : taskPackages) {
+            Object[] parameters = taskPackage.getTaskParameters();
+            objects.addAll(Arrays.asList(parameters).subList(1, parameters.length));
+        }
+        for (Object object : objects) {
+            if (isImmutableArgument(object) || privateObjects.containsKey(object)) {
+                continue;
+            }
+            Object copy = createPrivateCopy(object);
+            if (copy == null) {
+                return null;
+            }
+            privateObjects.put(object, copy);
+        }
+        return privateObjects;
     }
 
-    private void runScheduleWithParallelProfiler(Policy policy) {
+    /**
+     * It copies the outputs of the task-graph from the private copies of the
+     * winner of the latency race to the objects of the caller.
+     */
+    private void copyOutputsFromPrivateObjects(Map<Object, Object> privateObjects) {
+        for (StreamingObject streamingObject : outputModeObjects) {
+            Object privateCopy = privateObjects.get(streamingObject.object);
+            if (privateCopy != null) {
+                copyObject(privateCopy, streamingObject.object);
+            }
+        }
+    }
 
-        final Timer timer = (TIME_IN_NANOSECONDS) ? new NanoSecTimer() : new MilliSecTimer();
-        TornadoDriver tornadoDriver = TornadoCoreRuntime.getTornadoRuntime().getDriver(DEFAULT_DRIVER_INDEX);
-        int numDevices = tornadoDriver.getDeviceCount();
-        long masterThreadID = Thread.currentThread().getId();
+    /**
+     * It copies the inputs that are transferred on every execution from the
+     * objects of the caller to their private copies.
+     */
+    private void copyInputsToPrivateObjects(Map<Object, Object> privateObjects) {
+        for (StreamingObject streamingObject : inputModesObjects) {
+            if (streamingObject.mode == DataTransferMode.EVERY_EXECUTION) {
+                Object privateCopy = privateObjects.get(streamingObject.object);
+                if (privateCopy != null) {
+                    copyObject(streamingObject.object, privateCopy);
+                }
+            }
+        }
+    }
 
-        // One additional threads is reserved for sequential CPU execution
-        final int numThreads = numDevices + 1;
-        final int indexSequential = numDevices;
-        Thread[] threads = new Thread[numThreads];
-        long[] totalTimers = new long[numThreads];
+    /**
+     * @return true if every object of the task-graph that is not immutable has a
+     *         copy in {@code privateObjects}. It is false after a parameter of the
+     *         task-graph has been replaced.
+     */
+    private boolean hasPrivateObjects(Map<Object, Object> privateObjects) {
+        for (StreamingObject streamingObject : inputModesObjects) {
+            if (!isImmutableArgument(streamingObject.object) && !privateObjects.containsKey(streamingObject.object)) {
+                return false;
+            }
+        }
+        for (StreamingObject streamingObject : outputModeObjects) {
+            if (!isImmutableArgument(streamingObject.object) && !privateObjects.containsKey(streamingObject.object)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        // Last Thread runs the sequential code
-        runParallelSequential(policy, threads, indexSequential, timer, totalTimers);
+    private void registerTaskGraphForDevice(int deviceIndex, TaskGraph task) {
+        taskGraphIndex.put(deviceIndex, task);
+        if (USE_GLOBAL_TASK_CACHE) {
+            globalTaskGraphIndex.put(offsetGlobalIndex.get(), task);
+            offsetGlobalIndex.incrementAndGet();
+        } else {
+            globalTaskGraphIndex.put(deviceIndex, task);
+        }
+    }
 
-        // Run all task schedules in parallel
-        runParallelTaskGraphs(numDevices, threads, timer, policy, totalTimers);
+    /**
+     * It returns the execution plan of the task-graph for the given device. Plans
+     * are built once and cached, so the re-evaluation of the devices and the
+     * later executions on the winner device do not rebuild and recompile the
+     * task-graph.
+     *
+     * @param deviceIndex
+     *            Index of the device in the default driver.
+     * @return the cached {@link TornadoExecutionPlan}.
+     */
+    private TornadoExecutionPlan getExecutionPlanForDevice(int deviceIndex) {
+        return executionPlanIndex.computeIfAbsent(deviceIndex, index -> {
+            TaskGraph task = taskGraphIndex.get(index);
+            if (task == null) {
+                task = createTaskGraphForDevice(index);
+                registerTaskGraphForDevice(index, task);
+            }
+            return new TornadoExecutionPlan(task.snapshot());
+        });
+    }
 
-        // FORK
-        for (int i = 0; i < numThreads; i++) {
-            threads[i].start();
+    private void runCandidateWithProfiler(Policy policy, Timer timer, long[] totalTimers, int index, Runnable candidate) {
+        long start = timer.time();
+        candidate.run();
+        if (policy == Policy.PERFORMANCE) {
+            // first warm up
+            for (int k = 0; k < PERFORMANCE_WARMUP; k++) {
+                candidate.run();
+            }
+            start = timer.time();
+            candidate.run();
+        }
+        totalTimers[index] = timer.time() - start;
+        if (TornadoOptions.DEBUG_POLICY) {
+            System.out.println("Candidate #" + index + " finished");
         }
+    }
 
-        // Define the winner, based on the first thread to finish
-        if (policy == Policy.LATENCY) {
-            int deviceWinnerIndex = syncWinner(threads);
-            policyTimeTable.put(policy, deviceWinnerIndex);
+    /**
+     * It builds the candidates of the dynamic reconfiguration: one per device of
+     * the default driver, and the Java sequential code as the last one.
+     */
+    private Runnable[] createCandidates(int numDevices) {
+        Runnable[] candidates = new Runnable[numDevices + 1];
+        for (int i = 0; i < numDevices; i++) {
+            final int deviceIndex = i;
+            candidates[i] = () -> getExecutionPlanForDevice(deviceIndex).execute();
         }
+        candidates[numDevices] = this::runAllTasksJavaSequential;
+        return candidates;
+    }
 
-        // JOIN
-        for (Thread t : threads) {
-            try {
-                t.join();
-            } catch (InterruptedException e) {
-                throw new TornadoDynamicReconfigurationException(e);
+    private static void joinCandidates(CompletableFuture<?>[] futures) {
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
             }
+            throw new TornadoDynamicReconfigurationException(e);
+        }
+    }
+
+    private void runScheduleWithParallelProfiler(Policy policy) {
+        final Timer timer = (TIME_IN_NANOSECONDS) ? new NanoSecTimer() : new MilliSecTimer();
+        TornadoDriver tornadoDriver = TornadoCoreRuntime.getTornadoRuntime().getDriver(DEFAULT_DRIVER_INDEX);
+        int numDevices = tornadoDriver.getDeviceCount();
+
+        // One additional candidate is reserved for sequential CPU execution
+        Runnable[] candidates = createCandidates(numDevices);
+        long[] totalTimers = new long[candidates.length];
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[candidates.length];
+        ExecutorService executor = TornadoCoreRuntime.getDynamicReconfigurationExecutor();
+        for (int i = 0; i < candidates.length; i++) {
+            final int index = i;
+            futures[i] = CompletableFuture.runAsync(() -> runCandidateWithProfiler(policy, timer, totalTimers, index, candidates[index]), executor);
         }
+        joinCandidates(futures);
 
-        if ((policy == Policy.PERFORMANCE || policy == Policy.END_2_END) && (masterThreadID == Thread.currentThread().getId())) {
+        if (policy == Policy.PERFORMANCE || policy == Policy.END_2_END) {
             int deviceWinnerIndex = synchronizeWithPolicy(policy, totalTimers);
             policyTimeTable.put(policy, deviceWinnerIndex);
+            recordHistory(policy, totalTimers);
+            recordDecision(policy, deviceWinnerIndex, false, totalTimers);
             if (TornadoOptions.DEBUG_POLICY) {
                 System.out.println(getListDevices());
                 System.out.println("BEST Position: #" + deviceWinnerIndex + " " + Arrays.toString(totalTimers));
@@ -1500,62 +1807,321 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
         }
     }
 
-    private void runSequential() {
-        for (TaskPackage taskPackage : taskPackages) {
-            runSequentialCodeInThread(taskPackage);
+    /**
+     * It builds the candidates of the latency race. Each candidate runs over its
+     * own copies of the objects of the task-graph, so the candidates that are
+     * still running after the race never write the objects of the caller.
+     */
+    private Runnable[] createLatencyRaceCandidates(int numDevices, Map<Object, Object>[] privateObjects, TornadoExecutionPlan[] executionPlans) {
+        Runnable[] candidates = new Runnable[numDevices + 1];
+        for (int i = 0; i < numDevices; i++) {
+            TaskGraph taskGraph = createTaskGraphForDevice(TASK_GRAPH_PREFIX + LATENCY_RACE_SUFFIX + i, i, privateObjects[i]);
+            executionPlans[i] = new TornadoExecutionPlan(taskGraph.snapshot());
+            candidates[i] = executionPlans[i]::execute;
         }
+        List<TaskPackage> sequentialTasks = getTaskPackages(privateObjects[numDevices]);
+        candidates[numDevices] = () -> runAllTasksJavaSequential(sequentialTasks);
+        return candidates;
     }
 
-    private TaskGraph recompileTask(int deviceWinnerIndex) {
-        // Force re-compilation in device <deviceWinnerIndex>
-        String newTaskScheduleName = TASK_GRAPH_PREFIX + deviceWinnerIndex;
-        TaskGraph taskToCompile = new TaskGraph(newTaskScheduleName);
-        performStreamInObject(taskToCompile, streamInObjects, DataTransferMode.EVERY_EXECUTION);
-        for (TaskPackage taskPackage : taskPackages) {
-            String taskID = taskPackage.getId();
-            TornadoRuntime.setProperty(newTaskScheduleName + "." + taskID + ".device", "0:" + deviceWinnerIndex);
-            taskToCompile.addTask(taskPackage);
+    /**
+     * Races the task-graph on all devices of the default driver and on the Java
+     * sequential code. The first one to finish wins and it is reused for all
+     * later executions with an input size in the same power-of-two bucket.
+     *
+     * <p>
+     * Each candidate runs over private copies of the objects of the task-graph,
+     * and the outputs of the winner are copied back to the objects of the
+     * caller. The slower candidates are not waited for: they finish over their
+     * own copies in the background and then release their device buffers. The
+     * candidates that have not started when the winner finishes do not run. If
+     * an object cannot be copied, there is no race, and the task-graph runs on
+     * the default device.
+     * </p>
+     *
+     * <p>
+     * The compiled plan of a winner device is kept for its bucket, together
+     * with its private objects, so the later executions do not compile the
+     * task-graph again for that device.
+     * </p>
+     *
+     * @return index of the winner device. The sequential code has the index
+     *         {@code numDevices}.
+     */
+    @SuppressWarnings("unchecked")
+    private int runScheduleWithLatencyRace() {
+        TornadoDriver tornadoDriver = TornadoCoreRuntime.getTornadoRuntime().getDriver(DEFAULT_DRIVER_INDEX);
+        int numDevices = tornadoDriver.getDeviceCount();
+        Map<Object, Object>[] privateObjects = new Map[numDevices + 1];
+        for (int i = 0; i < privateObjects.length; i++) {
+            privateObjects[i] = createPrivateObjects();
+            if (privateObjects[i] == null) {
+                if (TornadoOptions.DEBUG_POLICY) {
+                    System.out.println("The objects of the task-graph cannot be copied. Running on the default device");
+                }
+                getExecutionPlanForDevice(DEFAULT_DEVICE_INDEX).execute();
+                return DEFAULT_DEVICE_INDEX;
+            }
+        }
+        TornadoExecutionPlan[] executionPlans = new TornadoExecutionPlan[numDevices + 1];
+        Runnable[] candidates = createLatencyRaceCandidates(numDevices, privateObjects, executionPlans);
+        final CountDownLatch firstFinisher = new CountDownLatch(1);
+        final AtomicInteger winner = new AtomicInteger(-1);
+        final AtomicInteger pending = new AtomicInteger(candidates.length);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[candidates.length];
+        ExecutorService executor = TornadoCoreRuntime.getDynamicReconfigurationExecutor();
+
+        for (int i = 0; i < candidates.length; i++) {
+            final int index = i;
+            futures[i] = CompletableFuture.runAsync(() -> {
+                try {
+                    // The race is already over for the candidates that start late
+                    if (winner.get() == -1) {
+                        candidates[index].run();
+                        if (winner.compareAndSet(-1, index)) {
+                            firstFinisher.countDown();
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    if (TornadoOptions.DEBUG_POLICY) {
+                        System.out.println("Candidate #" + index + " failed: " + e.getMessage());
+                    }
+                } finally {
+                    if (winner.get() != index && executionPlans[index] != null) {
+                        executionPlans[index].freeDeviceMemory();
+                    }
+                    if (pending.decrementAndGet() == 0) {
+                        firstFinisher.countDown();
+                    }
+                }
+            }, executor);
         }
-        performStreamOutThreads(DataTransferMode.EVERY_EXECUTION, taskToCompile, streamOutObjects);
-        return taskToCompile;
-    }
 
-    private void runTaskGraphParallelSelected(int deviceWinnerIndex) {
-        for (TaskPackage taskPackage : taskPackages) {
-            TornadoRuntime.setProperty(this.getTaskGraphName() + "." + taskPackage.getId() + ".device", "0:" + deviceWinnerIndex);
+        try {
+            firstFinisher.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TornadoDynamicReconfigurationException(e);
+        }
+        synchronized (latencyRaceCandidates) {
+            latencyRaceCandidates.removeIf(CompletableFuture::isDone);
+            latencyRaceCandidates.addAll(Arrays.asList(futures));
+        }
+
+        final int winnerIndex = winner.get();
+        if (winnerIndex == -1) {
+            throw new TornadoDynamicReconfigurationException("No device finished the execution for the " + Policy.LATENCY + " policy");
+        }
+        copyOutputsFromPrivateObjects(privateObjects[winnerIndex]);
+        if (winnerIndex < numDevices) {
+            LatencyRaceWinner previous = latencyRaceWinners.put(getInputSizeBucket(), new LatencyRaceWinner(winnerIndex, executionPlans[winnerIndex], privateObjects[winnerIndex]));
+            if (previous != null) {
+                previous.executionPlan.freeDeviceMemory();
+            }
         }
         if (TornadoOptions.DEBUG_POLICY) {
-            System.out.println("Running in parallel device: " + deviceWinnerIndex);
+            System.out.println(getListDevices());
+            System.out.println("FIRST FINISHED: #" + winner.get());
         }
-        TaskGraph task = taskGraphIndex.get(deviceWinnerIndex);
-        if (task == null) {
-            if (USE_GLOBAL_TASK_CACHE) {
-                // This is only if compilation is not using Partial Evaluation
-                task = globalTaskGraphIndex.get(deviceWinnerIndex);
+        return winner.get();
+    }
+
+    private void joinLatencyRace() {
+        CompletableFuture<?>[] candidates;
+        synchronized (latencyRaceCandidates) {
+            candidates = latencyRaceCandidates.toArray(new CompletableFuture<?>[0]);
+            latencyRaceCandidates.clear();
+        }
+        // Failures of the candidates are already handled inside the race
+        joinCandidates(candidates);
+    }
+
+    /**
+     * It runs the compiled plan of the winner of the latency race. The inputs are
+     * copied to the private objects of the plan and the outputs back to the
+     * objects of the caller, which is cheaper than compiling the task-graph again
+     * for the same device.
+     */
+    private void runLatencyRaceWinner(LatencyRaceWinner raceWinner) {
+        copyInputsToPrivateObjects(raceWinner.privateObjects);
+        raceWinner.executionPlan.execute();
+        copyOutputsFromPrivateObjects(raceWinner.privateObjects);
+    }
+
+    private void scheduleWithLatencyPolicy() {
+        int sizeBucket = getInputSizeBucket();
+        Integer deviceWinnerIndex = latencyWinnerPerSize.get(sizeBucket);
+        if (deviceWinnerIndex == null) {
+            int persistedWinner = lookupHistory(Policy.LATENCY);
+            if (persistedWinner != -1) {
+                deviceWinnerIndex = persistedWinner;
+                latencyWinnerPerSize.put(sizeBucket, deviceWinnerIndex);
+                recordDecision(Policy.LATENCY, deviceWinnerIndex, true, null);
+            }
+        }
+        if (deviceWinnerIndex == null) {
+            final long start = System.nanoTime();
+            deviceWinnerIndex = runScheduleWithLatencyRace();
+            final long elapsed = System.nanoTime() - start;
+            latencyWinnerPerSize.put(sizeBucket, deviceWinnerIndex);
+            policyTimeTable.put(Policy.LATENCY, deviceWinnerIndex);
+            recordDecision(Policy.LATENCY, deviceWinnerIndex, false, null);
+            if (DynamicReconfigurationHistory.isEnabled()) {
+                // Only the first finisher has a time; the rest keep their previous value
+                long[] times = new long[getNumberOfCandidateDevices()];
+                Arrays.fill(times, Long.MAX_VALUE);
+                times[deviceWinnerIndex] = elapsed;
+                DynamicReconfigurationHistory.record(getHistoryKey(Policy.LATENCY), times);
+            }
+        } else {
+            LatencyRaceWinner raceWinner = latencyRaceWinners.get(sizeBucket);
+            if (raceWinner != null && raceWinner.deviceIndex == deviceWinnerIndex && hasPrivateObjects(raceWinner.privateObjects)) {
+                runLatencyRaceWinner(raceWinner);
             } else {
-                task = recompileTask(deviceWinnerIndex);
-                // Save the TaskSchedule in cache
-                taskGraphIndex.put(deviceWinnerIndex, task);
+                runWithWinnerDevice(Policy.LATENCY, deviceWinnerIndex);
             }
         }
+    }
+
+    /**
+     * It runs the task-graph on the device selected by the dynamic
+     * reconfiguration. With the {@link Policy#PERFORMANCE} policy, the execution
+     * time also refreshes the persisted history, once the device has been
+     * warmed up in this JVM.
+     *
+     * @param policy
+     *            {@link Policy} that selected the device.
+     * @param deviceWinnerIndex
+     *            Index of the device. The index after the last device is the Java
+     *            sequential code.
+     */
+    private void runWithWinnerDevice(Policy policy, int deviceWinnerIndex) {
+        int numDevices = TornadoRuntime.getTornadoRuntime().getDriver(DEFAULT_DRIVER_INDEX).getDeviceCount();
+        boolean isSequential = deviceWinnerIndex >= numDevices;
+        boolean refreshHistory = DynamicReconfigurationHistory.isEnabled() && policy == Policy.PERFORMANCE && (isSequential || executionPlanIndex.containsKey(deviceWinnerIndex));
+        final long start = System.nanoTime();
+        if (isSequential) {
+            // if the winner is the last index => it is the sequential
+            // (HotSpot)
+            runSequential();
+        } else {
+            // Otherwise, it runs the parallel in the corresponding device
+            runTaskGraphParallelSelected(deviceWinnerIndex);
+        }
+        if (refreshHistory) {
+            DynamicReconfigurationHistory.refresh(getHistoryKey(policy), deviceWinnerIndex, numDevices + 1, System.nanoTime() - start);
+        }
+    }
+
+    private int getInputSizeBucket() {
+        return DynamicReconfigurationHistory.getSizeBucket(getMaxInputSize());
+    }
+
+    private int getNumberOfCandidateDevices() {
+        // All devices of the default driver plus the Java sequential code
+        return TornadoRuntime.getTornadoRuntime().getDriver(DEFAULT_DRIVER_INDEX).getDeviceCount() + 1;
+    }
+
+    private String getHistoryKey(Policy policy) {
+        List<String> taskIds = new ArrayList<>();
+        List<Method> taskMethods = new ArrayList<>();
+        for (TaskPackage taskPackage : taskPackages) {
+            taskIds.add(taskPackage.getId());
+            taskMethods.add(TaskUtils.resolveMethodHandle(taskPackage.getTaskParameters()[0]));
+        }
+        TornadoDriver tornadoDriver = TornadoRuntime.getTornadoRuntime().getDriver(DEFAULT_DRIVER_INDEX);
+        return DynamicReconfigurationHistory.buildKey(taskGraphName, taskIds, taskMethods, policy, tornadoDriver, getMaxInputSize());
+    }
+
+    /**
+     * It looks up the winner device of a previous JVM run in the persisted
+     * history.
+     *
+     * @return index of the device, or -1 if there is no history for the current
+     *         task-graph, devices and input size.
+     */
+    private int lookupHistory(Policy policy) {
+        if (!DynamicReconfigurationHistory.isEnabled()) {
+            return -1;
+        }
+        int deviceWinnerIndex = DynamicReconfigurationHistory.lookup(getHistoryKey(policy), getNumberOfCandidateDevices());
+        if (deviceWinnerIndex != -1 && TornadoOptions.DEBUG_POLICY) {
+            System.out.println("Device #" + deviceWinnerIndex + " selected from the history for policy " + policy);
+        }
+        return deviceWinnerIndex;
+    }
+
+    private void recordHistory(Policy policy, long[] totalTimers) {
+        if (!DynamicReconfigurationHistory.isEnabled()) {
+            return;
+        }
+        long[] timesInNanoseconds = new long[totalTimers.length];
+        for (int i = 0; i < totalTimers.length; i++) {
+            long time = totalTimers[i];
+            timesInNanoseconds[i] = (TIME_IN_NANOSECONDS || time == Long.MAX_VALUE) ? time : time * 1_000_000L;
+        }
+        DynamicReconfigurationHistory.record(getHistoryKey(policy), timesInNanoseconds);
+    }
+
+    private void loadWinnerFromHistory(Policy policy) {
+        if (policyTimeTable.get(policy) == null) {
+            int deviceWinnerIndex = lookupHistory(policy);
+            if (deviceWinnerIndex != -1) {
+                policyTimeTable.put(policy, deviceWinnerIndex);
+                recordDecision(policy, deviceWinnerIndex, true, null);
+            }
+        }
+    }
+
+    /**
+     * It emits a JFR event with the device selected by a dynamic reconfiguration
+     * policy.
+     *
+     * @param totalTimers
+     *            Time of each candidate, or null if the candidates were not timed.
+     */
+    private void recordDecision(Policy policy, int deviceWinnerIndex, boolean fromHistory, long[] totalTimers) {
+        final DynamicReconfigurationEvent decisionEvent = new DynamicReconfigurationEvent();
+        if (!decisionEvent.isEnabled()) {
+            return;
+        }
+        TornadoDriver tornadoDriver = TornadoRuntime.getTornadoRuntime().getDriver(DEFAULT_DRIVER_INDEX);
+        decisionEvent.setTaskGraph(taskGraphName);
+        decisionEvent.setPolicy(policy.toString());
+        decisionEvent.setDeviceIndex(deviceWinnerIndex);
+        decisionEvent.setDevice(deviceWinnerIndex < tornadoDriver.getDeviceCount() ? tornadoDriver.getDevice(deviceWinnerIndex).getPhysicalDevice().getDeviceName() : "Java");
+        decisionEvent.setFromHistory(fromHistory);
+        if (totalTimers != null) {
+            decisionEvent.setCandidateTimes(Arrays.toString(totalTimers));
+        }
+        decisionEvent.commit();
+    }
+
+    private void runSequential() {
+        for (TaskPackage taskPackage : taskPackages) {
+            runSequentialCodeInThread(taskPackage);
+        }
+    }
 
-        ImmutableTaskGraph immutableTaskGraph = task.snapshot();
-        TornadoExecutionPlan executor = new TornadoExecutionPlan(immutableTaskGraph);
-        executor.execute();
+    private void runTaskGraphParallelSelected(int deviceWinnerIndex) {
+        if (TornadoOptions.DEBUG_POLICY) {
+            System.out.println("Running in parallel device: " + deviceWinnerIndex);
+        }
+        getExecutionPlanForDevice(deviceWinnerIndex).execute();
     }
 
     @Override
     public TornadoTaskGraphInterface scheduleWithProfile(Policy policy) {
+        if (policy == Policy.LATENCY) {
+            scheduleWithLatencyPolicy();
+            return this;
+        }
+        loadWinnerFromHistory(policy);
         if (policyTimeTable.get(policy) == null) {
             runScheduleWithParallelProfiler(policy);
         } else {
             // Run with the winner device
-            int deviceWinnerIndex = policyTimeTable.get(policy);
-            if (deviceWinnerIndex >= TornadoRuntime.getTornadoRuntime().getDriver(0).getDeviceCount()) {
-                runSequential();
-            } else {
-                runTaskGraphParallelSelected(deviceWinnerIndex);
-            }
+            runWithWinnerDevice(policy, policyTimeTable.get(policy));
         }
         return this;
     }
@@ -1602,83 +2168,33 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
     }
 
     private void runSequentialTaskGraph(Policy policy, Timer timer, long[] totalTimers, int indexSequential) {
-        long startSequential = timer.time();
-        if (policy == Policy.PERFORMANCE) {
-            for (int k = 0; k < PERFORMANCE_WARMUP; k++) {
-                runAllTasksJavaSequential();
-            }
-            startSequential = timer.time();
-        }
-        runAllTasksJavaSequential();
-        final long endSequentialCode = timer.time();
-        totalTimers[indexSequential] = (endSequentialCode - startSequential);
+        runCandidateWithProfiler(policy, timer, totalTimers, indexSequential, this::runAllTasksJavaSequential);
     }
 
     private void runAllTaskGraphsInAcceleratorsSequentially(int numDevices, Timer timer, Policy policy, long[] totalTimers) {
         String[] ignoreTaskNames = System.getProperties().getProperty("tornado.ignore.tasks", "").split(",");
+        Runnable[] candidates = createCandidates(numDevices);
 
         // Running sequentially for all the devices
         for (int taskNumber = 0; taskNumber < numDevices; taskNumber++) {
-            String newTaskScheduleName = TASK_GRAPH_PREFIX + taskNumber;
-            TaskGraph task = new TaskGraph(newTaskScheduleName);
-
-            long start = timer.time();
-            for (StreamingObject streamingObject : inputModesObjects) {
-                performStreamInObject(task, streamingObject.object, streamingObject.mode);
-            }
-
-            boolean ignoreTask = false;
-            for (TaskPackage taskPackage : taskPackages) {
-                String taskID = taskPackage.getId();
-
-                String name = newTaskScheduleName + "." + taskID;
-                for (String s : ignoreTaskNames) {
-                    if (s.equals(name)) {
-                        totalTimers[taskNumber] = Long.MAX_VALUE;
-                        ignoreTask = true;
-                        break;
-                    }
-                }
-
-                TornadoRuntime.setProperty(newTaskScheduleName + "." + taskID + ".device", "0:" + taskNumber);
-                if (Tornado.DEBUG) {
-                    System.out.println("SET DEVICE: " + newTaskScheduleName + "." + taskID + ".device=0:" + taskNumber);
-                }
-                task.addTask(taskPackage);
-            }
-
-            if (ignoreTask) {
+            if (isIgnoredOnDevice(ignoreTaskNames, taskNumber)) {
+                totalTimers[taskNumber] = Long.MAX_VALUE;
                 continue;
             }
-            for (StreamingObject modeObject : outputModeObjects) {
-                performStreamOutThreads(modeObject.mode, task, modeObject.object);
-            }
-
-            ImmutableTaskGraph immutableTaskGraph = task.snapshot();
-            TornadoExecutionPlan executor = new TornadoExecutionPlan(immutableTaskGraph);
-            executor.execute();
+            runCandidateWithProfiler(policy, timer, totalTimers, taskNumber, candidates[taskNumber]);
+        }
+    }
 
-            if (policy == Policy.PERFORMANCE) {
-                for (int k = 0; k < PERFORMANCE_WARMUP; k++) {
-                    executor.execute();
+    private boolean isIgnoredOnDevice(String[] ignoreTaskNames, int deviceIndex) {
+        for (TaskPackage taskPackage : taskPackages) {
+            String name = TASK_GRAPH_PREFIX + deviceIndex + "." + taskPackage.getId();
+            for (String s : ignoreTaskNames) {
+                if (s.equals(name)) {
+                    return true;
                 }
-                start = timer.time();
             }
-
-            executor.execute();
-            taskGraphIndex.put(taskNumber, task);
-
-            // TaskSchedules Global
-            if (USE_GLOBAL_TASK_CACHE) {
-                globalTaskGraphIndex.put(offsetGlobalIndex.get(), task);
-                offsetGlobalIndex.incrementAndGet();
-            } else {
-                globalTaskGraphIndex.put(taskNumber, task);
-            }
-
-            final long end = timer.time();
-            totalTimers[taskNumber] = end - start;
         }
+        return false;
     }
 
     private void updateHistoryTables(Policy policy, int deviceWinnerIndex) {
@@ -1759,9 +2275,11 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
         // Run Task Schedules on the accelerator
         runAllTaskGraphsInAcceleratorsSequentially(numDevices, timer, policy, totalTimers);
 
-        if (policy == Policy.PERFORMANCE || policy == Policy.END_2_END) {
+        if (policy == Policy.PERFORMANCE || policy == Policy.END_2_END || policy == Policy.LATENCY) {
             int deviceWinnerIndex = synchronizeWithPolicy(policy, totalTimers);
             policyTimeTable.put(policy, deviceWinnerIndex);
+            recordHistory(policy, totalTimers);
+            recordDecision(policy, deviceWinnerIndex, false, totalTimers);
 
             updateHistoryTables(policy, deviceWinnerIndex);
 
@@ -1821,6 +2339,7 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
     public TornadoTaskGraphInterface scheduleWithProfileSequential(Policy policy) {
         int numDevices = TornadoRuntime.getTornadoRuntime().getDriver(DEFAULT_DRIVER_INDEX).getDeviceCount();
 
+        loadWinnerFromHistory(policy);
         if (policyTimeTable.get(policy) == null) {
             runWithSequentialProfiler(policy);
 
@@ -1830,15 +2349,7 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
 
         } else {
             // Run with the winner device
-            int deviceWinnerIndex = policyTimeTable.get(policy);
-            if (deviceWinnerIndex >= numDevices) {
-                // if the winner is the last index => it is the sequential
-                // (HotSpot)
-                runSequential();
-            } else {
-                // Otherwise, it runs the parallel in the corresponding device
-                runTaskGraphParallelSelected(deviceWinnerIndex);
-            }
+            runWithWinnerDevice(policy, policyTimeTable.get(policy));
         }
         return this;
     }
@@ -2044,6 +2555,9 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
 
     @Override
     public void batch(String batchSize) {
+        if (coExecution != null) {
+            throw new TornadoRuntimeException("[UNSUPPORTED] Batch processing cannot be combined with co-execution");
+        }
 
         // parse value and units
         Matcher matcher = PATTERN_BATCH.matcher(batchSize);
@@ -2068,6 +2582,82 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
         executionContext.setBatchSize(this.batchSizeBytes);
     }
 
+    @Override
+    public void batch(String batchSize, int numBuffers) {
+        if (numBuffers < 1) {
+            throw new TornadoRuntimeException("[ERROR] The number of buffers for batch processing must be >= 1: " + numBuffers);
+        }
+        batch(batchSize);
+        executionContext.setBatchBuffers(numBuffers);
+    }
+
+    @Override
+    public void batchBroadcast(Object... objects) {
+        executionContext.setBatchBroadcastObjects(objects);
+    }
+
+    @Override
+    public void coExecution(float[] ratios, TornadoDevice[] devices) {
+        if (executionContext.getBatchSize() != -1) {
+            throw new TornadoRuntimeException("[UNSUPPORTED] Co-execution cannot be combined with batch processing");
+        }
+        if (coExecution != null) {
+            coExecution.free();
+        }
+        coExecution = new CoExecution(ratios, devices);
+    }
+
+    /**
+     * @return Number of iterations shared by the devices of the co-execution.
+     */
+    long getCoExecutionIterations() {
+        return BatchConfiguration.computeNumIterations(executionContext);
+    }
+
+    /**
+     * It builds the task-graph that runs one partition of the co-execution. It
+     * has the same tasks and data transfers as this task-graph, and it is
+     * compiled for a range of the iteration space on the given device.
+     *
+     * @param index
+     *            Index of the partition.
+     * @param device
+     *            Device that runs the partition.
+     * @param offset
+     *            First iteration of the partition.
+     * @param numElements
+     *            Number of iterations of the partition.
+     * @return the {@link TornadoTaskGraph} of the partition.
+     */
+    TornadoTaskGraph createCoExecutionPartition(int index, TornadoDevice device, long offset, long numElements) {
+        TornadoTaskGraph partition = new TornadoTaskGraph(TASK_GRAPH_PREFIX + taskGraphName + "_part" + index);
+        for (StreamingObject streamingObject : inputModesObjects) {
+            partition.transferToDevice(streamingObject.mode, streamingObject.object);
+        }
+        for (TaskPackage taskPackage : taskPackages) {
+            partition.addTask(taskPackage);
+        }
+        for (StreamingObject streamingObject : outputModeObjects) {
+            partition.transferToHost(streamingObject.mode, streamingObject.object);
+        }
+        partition.executionContext.setBatchBroadcastObjects(executionContext.getBatchBroadcastObjects().toArray());
+        partition.executionContext.setPartition(offset, numElements);
+        partition.setDevice(device);
+        return partition;
+    }
+
+    @Override
+    public void dirtyTracking() {
+        executionContext.setDirtyTracking(true);
+    }
+
+    @Override
+    public void markDirty(Object... objects) {
+        for (Object object : objects) {
+            executionContext.markDirty(object);
+        }
+    }
+
     @Override
     public long getTotalTime() {
         return timeProfiler.getTimer(ProfilerType.TOTAL_TASK_GRAPH_TIME);
@@ -2153,6 +2743,23 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
         }
     }
 
+    /**
+     * Winner device of a latency race, with its compiled plan and the private
+     * copies of the objects of the task-graph that the plan runs over.
+     */
+    private static class LatencyRaceWinner {
+
+        private final int deviceIndex;
+        private final TornadoExecutionPlan executionPlan;
+        private final Map<Object, Object> privateObjects;
+
+        private LatencyRaceWinner(int deviceIndex, TornadoExecutionPlan executionPlan, Map<Object, Object> privateObjects) {
+            this.deviceIndex = deviceIndex;
+            this.executionPlan = executionPlan;
+            this.privateObjects = privateObjects;
+        }
+    }
+
     /**
      * Class that keeps the history of executions based on their data sizes. It has
      * a sorted map (TreeMap) that keeps the relationship between the input size and
@@ -57,6 +57,7 @@ public class TaskMetaData extends AbstractMetaData {
     private int localSize;
     private long[] localWork;
     private boolean localWorkDefined;
+    private long[] compilerLocalWork;
     private boolean globalWorkDefined;
 
     public TaskMetaData(ScheduleMetaData scheduleMetaData, String taskID, int numParameters) {
@@ -276,6 +277,18 @@ public class TaskMetaData extends AbstractMetaData {
         localWorkDefined = true;
     }
 
+    /**
+     * @return Local work-group shape selected by the compiler for the loop nest
+     *         of this task, or null if the default scheduling applies.
+     */
+    public long[] getCompilerLocalWork() {
+        return compilerLocalWork;
+    }
+
+    public void setCompilerLocalWork(long[] compilerLocalWork) {
+        this.compilerLocalWork = compilerLocalWork;
+    }
+
     @Override
     public String getCompilerFlags() {
         return isOpenclCompilerFlagsDefined() ? super.getCompilerFlags() : scheduleMetaData.getCompilerFlags();
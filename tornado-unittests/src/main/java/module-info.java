@@ -1,8 +1,11 @@
 open module tornado.unittests {
     requires transitive junit;
     requires transitive tornado.api;
+    requires tornado.drivers.common;
     requires lucene.core;
     requires java.desktop;
+    requires jdk.jfr;
+    requires jdk.management;
 
     exports uk.ac.manchester.tornado.unittests;
     exports uk.ac.manchester.tornado.unittests.api;
@@ -29,6 +32,7 @@ open module tornado.unittests {
     exports uk.ac.manchester.tornado.unittests.prebuilt;
     exports uk.ac.manchester.tornado.unittests.profiler;
     exports uk.ac.manchester.tornado.unittests.reductions;
+    exports uk.ac.manchester.tornado.unittests.runtime;
     exports uk.ac.manchester.tornado.unittests.slam.graphics;
     exports uk.ac.manchester.tornado.unittests.tasks;
     exports uk.ac.manchester.tornado.unittests.temporary.values;
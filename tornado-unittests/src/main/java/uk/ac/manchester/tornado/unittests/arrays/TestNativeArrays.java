@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.data.nativetypes.ByteArray;
+import uk.ac.manchester.tornado.api.data.nativetypes.DoubleArray;
+import uk.ac.manchester.tornado.api.data.nativetypes.FloatArray;
+import uk.ac.manchester.tornado.api.data.nativetypes.IntArray;
+import uk.ac.manchester.tornado.api.data.nativetypes.LongArray;
+import uk.ac.manchester.tornado.api.data.nativetypes.ShortArray;
+import uk.ac.manchester.tornado.api.data.nativetypes.TornadoNativeArray;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Test the off-heap arrays: their layout on the host side, and their use as
+ * parameters of tasks. Only the OpenCL backend supports them in tasks.
+ *
+ * How to test?
+ *
+ * <code>
+ *     tornado-test -V uk.ac.manchester.tornado.unittests.arrays.TestNativeArrays
+ * </code>
+ */
+public class TestNativeArrays extends TornadoTestBase {
+
+    private static final int NUM_ELEMENTS = 1000;
+
+    public static void vectorAdd(FloatArray a, FloatArray b, FloatArray c) {
+        for (@Parallel int i = 0; i < c.getSize(); i++) {
+            c.set(i, a.get(i) + b.get(i));
+        }
+    }
+
+    public static void increment(IntArray a) {
+        for (@Parallel int i = 0; i < a.getSize(); i++) {
+            a.set(i, a.get(i) + 1);
+        }
+    }
+
+    public static void scaleFromHeap(float[] a, DoubleArray b) {
+        for (@Parallel int i = 0; i < a.length; i++) {
+            b.set(i, a[i] * 2.0);
+        }
+    }
+
+    public static void narrowTypes(ByteArray a, ShortArray b, LongArray c) {
+        for (@Parallel int i = 0; i < a.getSize(); i++) {
+            c.set(i, a.get(i) + b.get(i) + 1L);
+        }
+    }
+
+    @Test
+    public void testFloatArraySetAndGet() {
+        FloatArray array = new FloatArray(NUM_ELEMENTS);
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            array.set(i, i * 0.5f);
+        }
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            assertEquals(i * 0.5f, array.get(i), 0.0f);
+        }
+        assertEquals(NUM_ELEMENTS, array.getSize());
+        assertEquals((long) NUM_ELEMENTS * Float.BYTES, array.getNumBytesWithoutHeader());
+        assertEquals(TornadoNativeArray.ARRAY_HEADER + (long) NUM_ELEMENTS * Float.BYTES, array.getNumBytesOfSegment());
+    }
+
+    @Test
+    public void testInitAndClear() {
+        IntArray array = new IntArray(NUM_ELEMENTS);
+        array.init(42);
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            assertEquals(42, array.get(i));
+        }
+        array.clear();
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            assertEquals(0, array.get(i));
+        }
+    }
+
+    @Test
+    public void testFromHeapArray() {
+        double[] values = new double[NUM_ELEMENTS];
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            values[i] = i * 3.0;
+        }
+        DoubleArray array = DoubleArray.fromArray(values);
+        assertArrayEquals(values, array.toHeapArray(), 0.0);
+    }
+
+    @Test
+    public void testSegmentLayout() {
+        FloatArray array = new FloatArray(NUM_ELEMENTS);
+        // The header keeps the length at the same offset as a Java array
+        assertEquals(NUM_ELEMENTS, array.getSegment().getInt(TornadoNativeArray.ARRAY_LENGTH_OFFSET));
+        // The segment is page-aligned, so the drivers can copy it without staging
+        assertEquals(0, array.getSegment().alignmentOffset(0, 4096));
+    }
+
+    @Test
+    public void testElementLayout() {
+        ByteArray bytes = new ByteArray(NUM_ELEMENTS);
+        ShortArray shorts = new ShortArray(NUM_ELEMENTS);
+        IntArray ints = new IntArray(NUM_ELEMENTS);
+        LongArray longs = new LongArray(NUM_ELEMENTS);
+        FloatArray floats = new FloatArray(NUM_ELEMENTS);
+        DoubleArray doubles = new DoubleArray(NUM_ELEMENTS);
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            bytes.set(i, (byte) i);
+            shorts.set(i, (short) (i * 3));
+            ints.set(i, i * 7);
+            longs.set(i, i * 100000000L);
+            floats.set(i, i * 0.25f);
+            doubles.set(i, i * 0.125);
+        }
+
+        assertEquals(Byte.BYTES, bytes.getElementSize());
+        assertEquals(Short.BYTES, shorts.getElementSize());
+        assertEquals(Integer.BYTES, ints.getElementSize());
+        assertEquals(Long.BYTES, longs.getElementSize());
+        assertEquals(Float.BYTES, floats.getElementSize());
+        assertEquals(Double.BYTES, doubles.getElementSize());
+
+        // Element i is stored after the header, at i * elementSize, in the native byte order
+        final int header = TornadoNativeArray.ARRAY_HEADER;
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            assertEquals((byte) i, bytes.getSegment().get(header + i));
+            assertEquals((short) (i * 3), shorts.getSegment().getShort(header + i * Short.BYTES));
+            assertEquals(i * 7, ints.getSegment().getInt(header + i * Integer.BYTES));
+            assertEquals(i * 100000000L, longs.getSegment().getLong(header + i * Long.BYTES));
+            assertEquals(i * 0.25f, floats.getSegment().getFloat(header + i * Float.BYTES), 0.0f);
+            assertEquals(i * 0.125, doubles.getSegment().getDouble(header + i * Double.BYTES), 0.0);
+        }
+        assertEquals(ByteOrder.nativeOrder(), floats.getSegment().order());
+    }
+
+    @Test
+    public void testSerialisedSegment() {
+        float[] values = new float[NUM_ELEMENTS];
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            values[i] = i * 1.5f;
+        }
+        FloatArray array = FloatArray.fromArray(values);
+
+        // The segment is the serialised form that the drivers copy: the header
+        // with the length, followed by the elements
+        ByteBuffer expected = ByteBuffer.allocate(TornadoNativeArray.ARRAY_HEADER + NUM_ELEMENTS * Float.BYTES).order(ByteOrder.nativeOrder());
+        expected.putInt(TornadoNativeArray.ARRAY_LENGTH_OFFSET, NUM_ELEMENTS);
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            expected.putFloat(TornadoNativeArray.ARRAY_HEADER + i * Float.BYTES, values[i]);
+        }
+        assertEquals(expected.rewind(), array.getSegment().duplicate().rewind());
+
+        // Copying the raw segment into another array, as a device-to-host
+        // transfer does, restores the same values
+        FloatArray copy = new FloatArray(NUM_ELEMENTS);
+        copy.getSegment().duplicate().put(array.getSegment().duplicate());
+        assertArrayEquals(values, copy.toHeapArray(), 0.0f);
+        assertEquals(NUM_ELEMENTS, copy.getSegment().getInt(TornadoNativeArray.ARRAY_LENGTH_OFFSET));
+    }
+
+    @Test
+    public void testEmptyArray() {
+        LongArray array = new LongArray(0);
+        assertEquals(0, array.getSize());
+        assertEquals(0, array.getNumBytesWithoutHeader());
+        assertEquals(TornadoNativeArray.ARRAY_HEADER, array.getNumBytesOfSegment());
+        assertEquals(0, array.getSegment().getInt(TornadoNativeArray.ARRAY_LENGTH_OFFSET));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testOutOfBounds() {
+        FloatArray array = new FloatArray(NUM_ELEMENTS);
+        array.get(NUM_ELEMENTS);
+    }
+
+    @Test
+    public void testVectorAddInTask() {
+        assertNotBackend(TornadoVMBackendType.PTX);
+        assertNotBackend(TornadoVMBackendType.SPIRV);
+
+        FloatArray a = new FloatArray(NUM_ELEMENTS);
+        FloatArray b = new FloatArray(NUM_ELEMENTS);
+        FloatArray c = new FloatArray(NUM_ELEMENTS);
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            a.set(i, i);
+            b.set(i, i * 2.0f);
+        }
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("t0", TestNativeArrays::vectorAdd, a, b, c) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+        new TornadoExecutionPlan(taskGraph.snapshot()).execute();
+
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            assertEquals(i * 3.0f, c.get(i), 0.0f);
+        }
+    }
+
+    /**
+     * The host updates the array between executions. On devices that share the
+     * host memory the array is mapped, so each execution must see the host
+     * values and the host must see the kernel results.
+     */
+    @Test
+    public void testUpdatesAcrossExecutions() {
+        assertNotBackend(TornadoVMBackendType.PTX);
+        assertNotBackend(TornadoVMBackendType.SPIRV);
+
+        IntArray a = new IntArray(NUM_ELEMENTS);
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a) //
+                .task("t0", TestNativeArrays::increment, a) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, a);
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+
+        for (int iteration = 0; iteration < 5; iteration++) {
+            a.init(iteration * 10);
+            executionPlan.execute();
+            for (int i = 0; i < NUM_ELEMENTS; i++) {
+                assertEquals(iteration * 10 + 1, a.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testHeapAndNativeArraysInTask() {
+        assertNotBackend(TornadoVMBackendType.PTX);
+        assertNotBackend(TornadoVMBackendType.SPIRV);
+
+        float[] a = new float[NUM_ELEMENTS];
+        DoubleArray b = new DoubleArray(NUM_ELEMENTS);
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            a[i] = i * 0.5f;
+        }
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a) //
+                .task("t0", TestNativeArrays::scaleFromHeap, a, b) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, b);
+        new TornadoExecutionPlan(taskGraph.snapshot()).execute();
+
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            assertEquals(a[i] * 2.0, b.get(i), 0.0);
+        }
+    }
+
+    @Test
+    public void testNarrowTypesInTask() {
+        assertNotBackend(TornadoVMBackendType.PTX);
+        assertNotBackend(TornadoVMBackendType.SPIRV);
+
+        ByteArray a = new ByteArray(NUM_ELEMENTS);
+        ShortArray b = new ShortArray(NUM_ELEMENTS);
+        LongArray c = new LongArray(NUM_ELEMENTS);
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            a.set(i, (byte) i);
+            b.set(i, (short) (i * 100));
+        }
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("t0", TestNativeArrays::narrowTypes, a, b, c) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+        new TornadoExecutionPlan(taskGraph.snapshot()).execute();
+
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            assertEquals((byte) i + (short) (i * 100) + 1L, c.get(i));
+        }
+    }
+}
@@ -29,7 +29,9 @@ import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
 import uk.ac.manchester.tornado.api.TaskGraph;
 import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
 import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.data.nativetypes.FloatArray;
 import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
 import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
 import uk.ac.manchester.tornado.unittests.tools.Exceptions.UnsupportedConfigurationException;
 
@@ -94,6 +96,24 @@ public class TestBatches extends TornadoTestBase {
         }
     }
 
+    public static void compute(int[] arrayA, double[] arrayB, double[] arrayC) {
+        for (@Parallel int i = 0; i < arrayA.length; i++) {
+            arrayC[i] = arrayA[i] + arrayB[i];
+        }
+    }
+
+    public static void compute(FloatArray arrayA, FloatArray arrayB, FloatArray arrayC) {
+        for (@Parallel int i = 0; i < arrayA.getSize(); i++) {
+            arrayC.set(i, arrayA.get(i) + arrayB.get(i));
+        }
+    }
+
+    public static void computeLookUp(float[] arrayA, int[] indexes, float[] table, float[] arrayB) {
+        for (@Parallel int i = 0; i < arrayA.length; i++) {
+            arrayB[i] = arrayA[i] + table[indexes[i]];
+        }
+    }
+
     @Test
     public void test100MB() {
 
@@ -374,6 +394,146 @@ public class TestBatches extends TornadoTestBase {
         executionPlan.freeDeviceMemory();
     }
 
+    @Test
+    public void test16MBPipelined() {
+
+        // 2 regular slots + 1 remainder slot of 16MB for each of the 3 arrays
+        checkMaxHeapAllocation(16 * 3 * 3, MemSize.MB);
+
+        // Fill 84MB of input Array: 5 full chunks + 1 remainder chunk
+        int size = 21000000;
+        float[] arrayA = new float[size];
+        float[] arrayB = new float[size];
+        float[] arrayC = new float[size];
+
+        IntStream.range(0, arrayA.length).sequential().forEach(idx -> {
+            arrayA[idx] = idx;
+            arrayB[idx] = idx;
+        });
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.FIRST_EXECUTION, arrayA, arrayB) //
+                .task("t0", TestBatches::compute, arrayA, arrayB, arrayC) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, arrayC);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.withBatch("16MB", 2) // Slots of 16 MB, rotating over 2 device buffers
+                .execute();
+
+        for (int i = 0; i < arrayA.length; i++) {
+            assertEquals(arrayA[i] + arrayB[i], arrayC[i], 0.1f);
+        }
+
+        executionPlan.freeDeviceMemory();
+    }
+
+    @Test
+    public void test16MBNativeArrays() {
+        // Native arrays are only supported by the OpenCL backend
+        assertNotBackend(TornadoVMBackendType.PTX);
+        assertNotBackend(TornadoVMBackendType.SPIRV);
+
+        checkMaxHeapAllocation(16 * 3, MemSize.MB);
+
+        // 42MB per array: 2 chunks of 16MB + 1 remainder chunk of about 8MB. Each chunk
+        // must only copy its own elements
+        int size = 10500000;
+        FloatArray arrayA = new FloatArray(size);
+        FloatArray arrayB = new FloatArray(size);
+        FloatArray arrayC = new FloatArray(size);
+
+        IntStream.range(0, size).sequential().forEach(idx -> {
+            arrayA.set(idx, idx);
+            arrayB.set(idx, 2 * idx);
+        });
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.FIRST_EXECUTION, arrayA, arrayB) //
+                .task("t0", TestBatches::compute, arrayA, arrayB, arrayC) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, arrayC);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.withBatch("16MB") // Slots of 16 MB
+                .execute();
+
+        for (int i = 0; i < size; i++) {
+            assertEquals(arrayA.get(i) + arrayB.get(i), arrayC.get(i), 0.1f);
+        }
+
+        executionPlan.freeDeviceMemory();
+    }
+
+    @Test
+    public void test50MBMixedTypes() {
+
+        checkMaxHeapAllocation(50, MemSize.MB);
+
+        // 160MB per double array and 80MB for the int array: chunks of 6.25M elements
+        int size = 20000000;
+        int[] arrayA = new int[size];
+        double[] arrayB = new double[size];
+        double[] arrayC = new double[size];
+
+        IntStream.range(0, arrayA.length).sequential().forEach(idx -> {
+            arrayA[idx] = idx;
+            arrayB[idx] = idx;
+        });
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.FIRST_EXECUTION, arrayA, arrayB) //
+                .task("t0", TestBatches::compute, arrayA, arrayB, arrayC) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, arrayC);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.withBatch("50MB") // Slots of 50 MB for the largest data type
+                .execute();
+
+        for (int i = 0; i < arrayA.length; i++) {
+            assertEquals(arrayA[i] + arrayB[i], arrayC[i], 0.01);
+        }
+
+        executionPlan.freeDeviceMemory();
+    }
+
+    @Test
+    public void test50MBBroadcast() {
+
+        checkMaxHeapAllocation(50, MemSize.MB);
+
+        int size = 20000000;
+        float[] arrayA = new float[size];
+        int[] indexes = new int[size];
+        float[] table = new float[256];
+        float[] arrayB = new float[size];
+
+        Random r = new Random();
+        IntStream.range(0, table.length).forEach(idx -> table[idx] = r.nextFloat());
+        IntStream.range(0, arrayA.length).sequential().forEach(idx -> {
+            arrayA[idx] = idx;
+            indexes[idx] = idx % table.length;
+        });
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.FIRST_EXECUTION, arrayA, indexes, table) //
+                .task("t0", TestBatches::computeLookUp, arrayA, indexes, table, arrayB) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, arrayB);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.withBatch("50MB") //
+                .withBatchBroadcast(table) // The look-up table is copied in full
+                .execute();
+
+        for (int i = 0; i < arrayA.length; i++) {
+            assertEquals(arrayA[i] + table[indexes[i]], arrayB[i], 0.1f);
+        }
+
+        executionPlan.freeDeviceMemory();
+    }
+
     private long checkMaxHeapAllocation(int size, MemSize memSize) throws UnsupportedConfigurationException {
         long maxAllocMemory = getTornadoRuntime().getDefaultDevice().getDeviceContext().getMemoryManager().getHeapSize();
 
@@ -19,10 +19,15 @@ package uk.ac.manchester.tornado.unittests.dynamic;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 
 import org.junit.Test;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
 import uk.ac.manchester.tornado.api.DRMode;
 import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
 import uk.ac.manchester.tornado.api.Policy;
@@ -30,6 +35,7 @@ import uk.ac.manchester.tornado.api.TaskGraph;
 import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
 import uk.ac.manchester.tornado.api.annotations.Parallel;
 import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.runtime.TornadoRuntime;
 import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
 
 /**
@@ -54,12 +60,47 @@ public class TestDynamic extends TornadoTestBase {
         }
     }
 
+    public static void increment(int[] a) {
+        for (@Parallel int i = 0; i < a.length; i++) {
+            a[i] = a[i] + 1;
+        }
+    }
+
     public static void saxpy(float alpha, float[] x, float[] y) {
         for (@Parallel int i = 0; i < y.length; i++) {
             y[i] = alpha * x[i];
         }
     }
 
+    public static void compute3(int[] a, int[] b) {
+        for (@Parallel int i = 0; i < a.length; i++) {
+            b[i] = a[i] * 3;
+        }
+    }
+
+    /**
+     * It executes a plan and counts the tasks compiled for the devices, without
+     * the kernels loaded from the persistent cache.
+     */
+    private static long executeAndCountCompilations(TornadoExecutionPlan executionPlan, int numExecutions) throws IOException {
+        Path file = Files.createTempFile("tornado", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("tornadovm.TaskCompilation");
+            recording.start();
+            for (int i = 0; i < numExecutions; i++) {
+                executionPlan.execute();
+            }
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream() //
+                    .filter(event -> event.getEventType().getName().equals("tornadovm.TaskCompilation")) //
+                    .filter(event -> !event.getBoolean("cached")) //
+                    .count();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
     @Test
     public void testDynamicWithProfiler() {
         int numElements = 256;
@@ -242,4 +283,82 @@ public class TestDynamic extends TornadoTestBase {
             assertEquals(a[i] * 2, b[i]);
         }
     }
+
+    /**
+     * The candidates of the latency race that finish after the winner must not
+     * write the arrays of the caller. Otherwise, an in-place update would be
+     * applied more than once.
+     */
+    @Test
+    public void testLatencyRaceInPlaceUpdate() {
+        int numElements = 16000;
+        int[] a = new int[numElements];
+
+        Arrays.fill(a, 10);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a) //
+                .task("t0", TestDynamic::increment, a) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, a);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+
+        // The first execution is the race
+        executionPlan.withDynamicReconfiguration(Policy.LATENCY, DRMode.PARALLEL) //
+                .execute();
+
+        for (int i = 0; i < a.length; i++) {
+            assertEquals(11, a[i]);
+        }
+
+        // The next executions do not wait for the slower candidates. They run the
+        // compiled plan of the winner, or the sequential code, over the updated array
+        for (int i = 0; i < 5; i++) {
+            executionPlan.execute();
+        }
+
+        for (int i = 0; i < a.length; i++) {
+            assertEquals(16, a[i]);
+        }
+
+        // It waits for the slower candidates and it releases the plan of the winner
+        executionPlan.freeDeviceMemory();
+    }
+
+    /**
+     * The execution plan of each device is built once. The warm-up and timed runs
+     * of the profiling, and the later executions on the winner device, reuse it
+     * without compiling the task-graph again.
+     */
+    @Test
+    public void testCachedPlansPerDevice() throws IOException {
+        int numElements = 4096;
+        int[] a = new int[numElements];
+        int[] b = new int[numElements];
+
+        Arrays.fill(a, 10);
+
+        // The task name is not used by other tests, so the kernels are not in the
+        // code cache of the devices
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a) //
+                .task("cachedPlan", TestDynamic::compute3, a, b) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, b);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.withDynamicReconfiguration(Policy.PERFORMANCE, DRMode.SERIAL);
+
+        // The profiling compiles the task once per device
+        int numDevices = TornadoRuntime.getTornadoRuntime().getDriver(0).getDeviceCount();
+        assertEquals(numDevices, executeAndCountCompilations(executionPlan, 1));
+
+        // The winner device runs its cached plan
+        assertEquals(0, executeAndCountCompilations(executionPlan, 10));
+
+        for (int i = 0; i < b.length; i++) {
+            assertEquals(a[i] * 3, b[i]);
+        }
+    }
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.dynamic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import uk.ac.manchester.tornado.api.DRMode;
+import uk.ac.manchester.tornado.api.Policy;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoDriver;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.runtime.TornadoRuntime;
+import uk.ac.manchester.tornado.runtime.tasks.DynamicReconfigurationHistory;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * It checks that the dynamic reconfiguration history is loaded from disk, that
+ * the time of the selected device is refreshed with the exponential decay, and
+ * that the history is written back with the new entries. The history is capped
+ * to two entries, so the least recently updated entry is evicted.
+ *
+ * <p>
+ * The history is loaded once per JVM, so the test must run in its own JVM.
+ * </p>
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V --jvm="-Dtornado.dynamic.history.enable=True -Dtornado.dynamic.history.file=dynamicHistory.properties -Dtornado.dynamic.history.maxEntries=2" uk.ac.manchester.tornado.unittests.dynamic.TestDynamicHistory
+ * </code>
+ */
+public class TestDynamicHistory extends TornadoTestBase {
+
+    private static final Path HISTORY_FILE = Paths.get(System.getProperty("tornado.dynamic.history.file"));
+    private static final int SIZE = 1024;
+    private static final String STALE_KEY = "PERFORMANCE.00000000.00000000.1";
+
+    // Times in nanoseconds. The Java sequential code is the fastest candidate
+    private static final double DEVICE_TIME = 2e15;
+    private static final double SEQUENTIAL_TIME = 1e15;
+    private static final double DECAY = 0.5;
+
+    public static void compute(int[] a, int[] b) {
+        for (@Parallel int i = 0; i < a.length; i++) {
+            b[i] = a[i] * 2;
+        }
+    }
+
+    @After
+    public void after() throws IOException {
+        Files.deleteIfExists(HISTORY_FILE);
+    }
+
+    /**
+     * It builds the key of the history entry of the task-graph in
+     * {@link #createTaskGraph}.
+     */
+    private static String buildKey(Policy policy) throws NoSuchMethodException {
+        Method compute = TestDynamicHistory.class.getMethod("compute", int[].class, int[].class);
+        TornadoDriver driver = TornadoRuntime.getTornadoRuntime().getDriver(0);
+        return DynamicReconfigurationHistory.buildKey("history", List.of("t0"), List.of(compute), policy, driver, SIZE);
+    }
+
+    private static TaskGraph createTaskGraph(int[] a, int[] b) {
+        return new TaskGraph("history") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a) //
+                .task("t0", TestDynamicHistory::compute, a, b) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, b);
+    }
+
+    private static Properties readHistory() throws IOException {
+        Properties history = new Properties();
+        try (InputStream in = Files.newInputStream(HISTORY_FILE)) {
+            history.load(in);
+        }
+        return history;
+    }
+
+    @Test
+    public void testHistoryRoundTripAndDecay() throws IOException, NoSuchMethodException {
+        final int numDevices = TornadoRuntime.getTornadoRuntime().getDriver(0).getDeviceCount();
+        final String performanceKey = buildKey(Policy.PERFORMANCE);
+
+        // Seed the history before the runtime loads it
+        double[] seededTimes = new double[numDevices + 1];
+        Arrays.fill(seededTimes, DEVICE_TIME);
+        seededTimes[numDevices] = SEQUENTIAL_TIME;
+        Properties seed = new Properties();
+        seed.setProperty(performanceKey, DynamicReconfigurationHistory.formatTimes(seededTimes, System.currentTimeMillis()));
+        // Entry of another task-graph that has not been updated for a long time
+        seed.setProperty(STALE_KEY, DynamicReconfigurationHistory.formatTimes(seededTimes, 0));
+        Files.createDirectories(HISTORY_FILE.toAbsolutePath().getParent());
+        try (OutputStream out = Files.newOutputStream(HISTORY_FILE)) {
+            seed.store(out, null);
+        }
+
+        int[] a = new int[SIZE];
+        int[] b = new int[SIZE];
+        Arrays.fill(a, 10);
+
+        // The winner is taken from the history, so the devices are not profiled
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(createTaskGraph(a, b).snapshot());
+        Path file = Files.createTempFile("tornado", ".jfr");
+        List<RecordedEvent> decisions;
+        try (Recording recording = new Recording()) {
+            recording.enable("tornadovm.DynamicReconfiguration");
+            recording.start();
+            executionPlan.withDynamicReconfiguration(Policy.PERFORMANCE, DRMode.SERIAL).execute();
+            recording.stop();
+            recording.dump(file);
+            decisions = RecordingFile.readAllEvents(file).stream() //
+                    .filter(event -> event.getEventType().getName().equals("tornadovm.DynamicReconfiguration")) //
+                    .collect(Collectors.toList());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        assertEquals(1, decisions.size());
+        assertTrue(decisions.get(0).getBoolean("fromHistory"));
+        assertEquals(numDevices, decisions.get(0).getInt("deviceIndex"));
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(a[i] * 2, b[i]);
+        }
+
+        // A full profiling with another policy writes the history, including the
+        // refreshed time of the sequential code
+        Arrays.fill(b, 0);
+        new TornadoExecutionPlan(createTaskGraph(a, b).snapshot()).withDynamicReconfiguration(Policy.END_2_END, DRMode.SERIAL).execute();
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(a[i] * 2, b[i]);
+        }
+
+        Properties history = readHistory();
+        assertEquals(2, history.size());
+        assertNull(history.getProperty(STALE_KEY));
+        String endToEndTimes = history.getProperty(buildKey(Policy.END_2_END));
+        assertNotNull(endToEndTimes);
+        assertEquals(numDevices + 1, DynamicReconfigurationHistory.parseTimes(endToEndTimes).length);
+
+        double[] times = DynamicReconfigurationHistory.parseTimes(history.getProperty(performanceKey));
+        assertEquals(numDevices + 1, times.length);
+        for (int i = 0; i < numDevices; i++) {
+            assertEquals(DEVICE_TIME, times[i], 0.0);
+        }
+        // The new measurement (well below a minute) is weighted by the decay
+        double measurement = (times[numDevices] - (1.0 - DECAY) * SEQUENTIAL_TIME) / DECAY;
+        assertTrue(measurement > 0 && measurement < 60e9);
+    }
+}
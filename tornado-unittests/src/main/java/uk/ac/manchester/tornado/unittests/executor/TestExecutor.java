@@ -19,8 +19,10 @@ package uk.ac.manchester.tornado.unittests.executor;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.Test;
 
@@ -233,4 +235,171 @@ public class TestExecutor extends TornadoTestBase {
         }
 
     }
+
+    /**
+     * Test to launch an execution plan asynchronously and overlap host work with
+     * the execution.
+     */
+    @Test
+    public void test05() {
+        int numElements = 16;
+        int[] a = new int[numElements];
+        int[] b = new int[numElements];
+        int[] c = new int[numElements];
+
+        Arrays.fill(a, 1);
+        Arrays.fill(b, 2);
+
+        TaskGraph tg = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("t0", TestHello::add, a, b, c) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+
+        ImmutableTaskGraph immutableTaskGraph = tg.snapshot();
+        TornadoExecutionPlan executorPlan = new TornadoExecutionPlan(immutableTaskGraph);
+
+        // Executions of the same plan run in order
+        CompletableFuture<TornadoExecutionResult> future = null;
+        for (int i = 0; i < 10; i++) {
+            future = executorPlan.executeAsync();
+        }
+
+        // Host work while the plan runs
+        int[] expected = new int[numElements];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = 1 + 2;
+        }
+
+        TornadoExecutionResult executionResult = future.join();
+        assertNotNull(executionResult);
+        assertTrue(executionResult.isReady());
+
+        for (int i = 0; i < c.length; i++) {
+            assertEquals(expected[i], c[i]);
+        }
+    }
+
+    /**
+     * Test dirty tracking: inputs that are not marked as dirty keep the copy
+     * already on the device, and marked inputs are copied again.
+     */
+    @Test
+    public void test06() {
+        int numElements = 16;
+        int[] a = new int[numElements];
+        int[] b = new int[numElements];
+        int[] c = new int[numElements];
+
+        Arrays.fill(a, 1);
+        Arrays.fill(b, 2);
+
+        TaskGraph tg = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("t0", TestHello::add, a, b, c) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+
+        ImmutableTaskGraph immutableTaskGraph = tg.snapshot();
+        TornadoExecutionPlan executorPlan = new TornadoExecutionPlan(immutableTaskGraph).withDirtyTracking();
+
+        executorPlan.execute();
+        for (int i = 0; i < c.length; i++) {
+            assertEquals(3, c[i]);
+        }
+
+        // Update both inputs, but only notify the change of a
+        Arrays.fill(a, 10);
+        Arrays.fill(b, 20);
+        executorPlan.markDirty(a).execute();
+        for (int i = 0; i < c.length; i++) {
+            assertEquals(10 + 2, c[i]);
+        }
+
+        executorPlan.markDirty(b).execute();
+        for (int i = 0; i < c.length; i++) {
+            assertEquals(10 + 20, c[i]);
+        }
+    }
+
+    /**
+     * Test an intermediate array kept on the device and shared by two task-graphs
+     * of different execution plans.
+     */
+    @Test
+    public void test07() {
+        int numElements = 16;
+        int[] a = new int[numElements];
+        int[] b = new int[numElements];
+        int[] c = new int[numElements];
+        int[] d = new int[numElements];
+
+        Arrays.fill(a, 1);
+        Arrays.fill(b, 2);
+
+        TaskGraph tg1 = new TaskGraph("s0") //
+                .persistOnDevice(c) //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("t0", TestHello::add, a, b, c) //
+                .transferToHost(DataTransferMode.USER_DEFINED, c);
+
+        TaskGraph tg2 = new TaskGraph("s1") //
+                .persistOnDevice(c) //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, b, c) //
+                .task("t0", TestHello::add, c, b, d) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, d);
+
+        TornadoExecutionPlan producer = new TornadoExecutionPlan(tg1.snapshot());
+        TornadoExecutionPlan consumer = new TornadoExecutionPlan(tg2.snapshot());
+
+        producer.execute();
+        consumer.execute();
+
+        // c is never copied back to the host, so d must be computed from the device copy
+        for (int i = 0; i < d.length; i++) {
+            assertEquals(0, c[i]);
+            assertEquals(1 + 2 + 2, d[i]);
+        }
+
+        producer.freeDeviceMemory();
+        consumer.freeDeviceMemory();
+    }
+
+    /**
+     * Test that asynchronous executions of different plans on the same device are
+     * serialised in submission order.
+     */
+    @Test
+    public void test08() {
+        int numElements = 16;
+        int[] a = new int[numElements];
+        int[] b = new int[numElements];
+
+        Arrays.fill(a, 1);
+
+        TaskGraph tg1 = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a) //
+                .task("t0", TestHello::compute, a) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, a);
+
+        TaskGraph tg2 = new TaskGraph("s1") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a) //
+                .task("t0", TestHello::simple, a, b) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, b);
+
+        TornadoExecutionPlan first = new TornadoExecutionPlan(tg1.snapshot());
+        TornadoExecutionPlan second = new TornadoExecutionPlan(tg2.snapshot());
+
+        CompletableFuture<TornadoExecutionResult> firstFuture = first.executeAsync();
+        CompletableFuture<TornadoExecutionResult> secondFuture = second.executeAsync();
+
+        // Only wait for the second plan: it runs after the first one, so it reads the updated values of a
+        secondFuture.join();
+        assertTrue(firstFuture.isDone());
+        for (int i = 0; i < numElements; i++) {
+            assertEquals(2, a[i]);
+            assertEquals(2 + 1, b[i]);
+        }
+
+        first.freeDeviceMemory();
+        second.freeDeviceMemory();
+    }
 }
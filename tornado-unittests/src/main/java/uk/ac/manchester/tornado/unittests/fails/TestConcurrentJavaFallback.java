@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.fails;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.collections.types.Matrix2DFloat;
+import uk.ac.manchester.tornado.api.collections.types.VectorFloat;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Tests of the concurrent Java fallback. The tasks allocate objects, which is
+ * not supported on the device, so the task-graphs bail out to Java.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V --jvm="-Dtornado.recover.bailout.concurrent=True" uk.ac.manchester.tornado.unittests.fails.TestConcurrentJavaFallback
+ * </code>
+ */
+public class TestConcurrentJavaFallback extends TornadoTestBase {
+
+    private static final int SIZE = 1 << 16;
+    private static final int ROWS = 256;
+    private static final int COLUMNS = 256;
+
+    public static void scaleAndRecordThread(float[] a, float[] b, long[] threads) {
+        Matrix2DFloat scale = new Matrix2DFloat(1, 1); // Allocation here
+        scale.set(0, 0, 2.0f);
+        for (@Parallel int i = 0; i < a.length; i++) {
+            b[i] = a[i] * scale.get(0, 0);
+            threads[i] = Thread.currentThread().getId();
+        }
+    }
+
+    public static void scaleRange(float[] a, float[] b, int n) {
+        Matrix2DFloat scale = new Matrix2DFloat(1, 1); // Allocation here
+        scale.set(0, 0, 2.0f);
+        for (@Parallel int i = 3; i < n; i++) {
+            b[i] = a[i] * scale.get(0, 0);
+        }
+    }
+
+    public static void initVector(VectorFloat vector) {
+        Matrix2DFloat scale = new Matrix2DFloat(1, 1); // Allocation here
+        scale.set(0, 0, 3.0f);
+        for (@Parallel int i = 0; i < vector.size(); i++) {
+            vector.set(i, i * scale.get(0, 0));
+        }
+    }
+
+    public static void sumRows(Matrix2DFloat matrix, float[] output) {
+        for (@Parallel int i = 0; i < matrix.getNumRows(); i++) {
+            float sum = 0.0f;
+            for (int j = 0; j < matrix.getNumColumns(); j++) {
+                sum += matrix.get(i, j);
+            }
+            output[i] = sum;
+        }
+    }
+
+    @Test
+    public void testParallelLoopSplit() {
+        float[] a = new float[SIZE];
+        float[] b = new float[SIZE];
+        long[] threads = new long[SIZE];
+        IntStream.range(0, SIZE).forEach(i -> a[i] = i);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a) //
+                .task("t0", TestConcurrentJavaFallback::scaleAndRecordThread, a, b, threads) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, b, threads);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.execute();
+
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(2.0f * i, b[i], 0.001f);
+        }
+
+        // The iterations are split in chunks that run on different threads
+        assumeTrue(ForkJoinPool.getCommonPoolParallelism() > 1);
+        assertTrue(Arrays.stream(threads).distinct().count() > 1);
+    }
+
+    /**
+     * The loop starts after the first element and its bound is a parameter that
+     * is not a multiple of the number of chunks. The elements outside the loop
+     * must not be written.
+     */
+    @Test
+    public void testParallelLoopSplitUneven() {
+        final int bound = SIZE - 7;
+        float[] a = new float[SIZE];
+        float[] b = new float[SIZE];
+        IntStream.range(0, SIZE).forEach(i -> a[i] = i);
+        Arrays.fill(b, -1.0f);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("t0", TestConcurrentJavaFallback::scaleRange, a, b, bound) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, b);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+
+        // The second execution reuses the compiled chunks
+        for (int iteration = 0; iteration < 2; iteration++) {
+            executionPlan.execute();
+            for (int i = 0; i < SIZE; i++) {
+                assertEquals((i >= 3 && i < bound) ? 2.0f * i : -1.0f, b[i], 0.001f);
+            }
+        }
+    }
+
+    @Test
+    public void testTasksSharingStorage() {
+        float[] storage = new float[ROWS * COLUMNS];
+        VectorFloat vector = new VectorFloat(storage);
+        Matrix2DFloat matrix = new Matrix2DFloat(ROWS, COLUMNS, storage);
+        float[] output = new float[ROWS];
+
+        // Both tasks access the same array through different types, so the
+        // second task must wait for the first one
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .task("t0", TestConcurrentJavaFallback::initVector, vector) //
+                .task("t1", TestConcurrentJavaFallback::sumRows, matrix, output) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, output);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.execute();
+
+        for (int i = 0; i < ROWS; i++) {
+            float expected = 0.0f;
+            for (int j = 0; j < COLUMNS; j++) {
+                expected += (i * COLUMNS + j) * 3.0f;
+            }
+            assertEquals(expected, output[i], 0.01f * Math.abs(expected));
+        }
+    }
+}
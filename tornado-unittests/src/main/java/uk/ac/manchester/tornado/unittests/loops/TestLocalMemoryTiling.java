@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.loops;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * 2D stencils whose input tiles are staged in local memory when running with
+ * {@code -Dtornado.compiler.localMemoryTiling=True}. The borders of the
+ * iteration space read the halo of the tile, so the results must match the
+ * sequential code on every element.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V --jvm="-Dtornado.compiler.localMemoryTiling=True" uk.ac.manchester.tornado.unittests.loops.TestLocalMemoryTiling
+ * </code>
+ */
+public class TestLocalMemoryTiling extends TornadoTestBase {
+
+    // The iteration space (SIZE - 2) is a multiple of the work-group side
+    private static final int SIZE = 514;
+
+    public static void stencil5(float[] a, float[] b, int n) {
+        for (@Parallel int i = 1; i < n - 1; i++) {
+            for (@Parallel int j = 1; j < n - 1; j++) {
+                b[i * n + j] = 0.2f * (a[i * n + j] + a[(i - 1) * n + j] + a[(i + 1) * n + j] + a[i * n + j - 1] + a[i * n + j + 1]);
+            }
+        }
+    }
+
+    public static void box3x3(int[] a, int[] b, int n) {
+        for (@Parallel int i = 1; i < n - 1; i++) {
+            for (@Parallel int j = 1; j < n - 1; j++) {
+                b[i * n + j] = a[(i - 1) * n + j - 1] + a[(i - 1) * n + j] + a[(i - 1) * n + j + 1] //
+                        + a[i * n + j - 1] + a[i * n + j] + a[i * n + j + 1] //
+                        + a[(i + 1) * n + j - 1] + a[(i + 1) * n + j] + a[(i + 1) * n + j + 1];
+            }
+        }
+    }
+
+    @Test
+    public void testStencil5() {
+        float[] a = new float[SIZE * SIZE];
+        float[] b = new float[SIZE * SIZE];
+        float[] expected = new float[SIZE * SIZE];
+
+        Random r = new Random();
+        IntStream.range(0, a.length).forEach(i -> a[i] = r.nextFloat());
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a) //
+                .task("t0", TestLocalMemoryTiling::stencil5, a, b, SIZE) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, b);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.execute();
+
+        stencil5(a, expected, SIZE);
+        for (int i = 0; i < b.length; i++) {
+            assertEquals(expected[i], b[i], 0.001f);
+        }
+    }
+
+    @Test
+    public void testBox3x3() {
+        int[] a = new int[SIZE * SIZE];
+        int[] b = new int[SIZE * SIZE];
+        int[] expected = new int[SIZE * SIZE];
+
+        Random r = new Random();
+        IntStream.range(0, a.length).forEach(i -> a[i] = r.nextInt(1000));
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a) //
+                .task("t0", TestLocalMemoryTiling::box3x3, a, b, SIZE) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, b);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.execute();
+
+        box3x3(a, expected, SIZE);
+        for (int i = 0; i < b.length; i++) {
+            assertEquals(expected[i], b[i]);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.profiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.After;
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.TornadoProfilerResult;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.enums.ProfilerMode;
+import uk.ac.manchester.tornado.api.profiler.ProfilerType;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * It checks that the profiler reports the same metrics when the device events
+ * are resolved after the execution is enqueued
+ * ({@code -Dtornado.profiler.deferred=True}).
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V uk.ac.manchester.tornado.unittests.profiler.TestDeferredProfiler
+ * </code>
+ */
+public class TestDeferredProfiler extends TornadoTestBase {
+
+    private static final int SIZE = 4096;
+    private static final Pattern METRIC = Pattern.compile("\"(\\w+)\": \"(-?\\d+)\"");
+
+    public static void add(int[] a, int[] b, int[] c) {
+        for (@Parallel int i = 0; i < c.length; i++) {
+            c[i] = a[i] + b[i];
+        }
+    }
+
+    public static void mul(int[] a, int[] b, int[] d) {
+        for (@Parallel int i = 0; i < d.length; i++) {
+            d[i] = a[i] * b[i];
+        }
+    }
+
+    @After
+    public void after() {
+        System.setProperty("tornado.profiler.deferred", "False");
+    }
+
+    /**
+     * @return the names of the metrics in the profiler log, in order.
+     */
+    private static List<String> getMetricNames(String profileLog) {
+        List<String> names = new ArrayList<>();
+        Matcher matcher = METRIC.matcher(profileLog);
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+        }
+        return names;
+    }
+
+    /**
+     * @return the values of a metric in the profiler log, one per task.
+     */
+    private static List<Long> getMetricValues(String profileLog, ProfilerType type) {
+        List<Long> values = new ArrayList<>();
+        Matcher matcher = METRIC.matcher(profileLog);
+        while (matcher.find()) {
+            if (matcher.group(1).equals(type.name())) {
+                values.add(Long.parseLong(matcher.group(2)));
+            }
+        }
+        return values;
+    }
+
+    private static void checkDeviceTimers(TornadoProfilerResult profilerResult) {
+        assertTrue(profilerResult.getDeviceKernelTime() > 0);
+        assertTrue(profilerResult.getDeviceWriteTime() >= 0);
+        assertTrue(profilerResult.getDeviceReadTime() > 0);
+        assertEquals(profilerResult.getDeviceWriteTime() + profilerResult.getDeviceReadTime(), profilerResult.getDataTransfersTime());
+        for (long kernelTime : getMetricValues(profilerResult.getProfileLog(), ProfilerType.TASK_KERNEL_TIME)) {
+            assertTrue(kernelTime > 0);
+        }
+    }
+
+    @Test
+    public void testDeferredEvents() {
+        int[] a = new int[SIZE];
+        int[] b = new int[SIZE];
+        int[] c = new int[SIZE];
+        int[] d = new int[SIZE];
+        Arrays.fill(a, 3);
+        Arrays.fill(b, 4);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("t0", TestDeferredProfiler::add, a, b, c) //
+                .task("t1", TestDeferredProfiler::mul, a, b, d) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c, d);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.withProfiler(ProfilerMode.SILENT);
+
+        // The first execution also reports the compilation timers
+        System.setProperty("tornado.profiler.deferred", "False");
+        executionPlan.execute();
+        TornadoProfilerResult eagerResult = executionPlan.execute().getProfilerResult();
+        String eagerLog = eagerResult.getProfileLog();
+        checkDeviceTimers(eagerResult);
+
+        Arrays.fill(c, 0);
+        Arrays.fill(d, 0);
+        System.setProperty("tornado.profiler.deferred", "True");
+        TornadoProfilerResult deferredResult = executionPlan.execute().getProfilerResult();
+        String deferredLog = deferredResult.getProfileLog();
+
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(7, c[i]);
+            assertEquals(12, d[i]);
+        }
+
+        // All the timers are resolved before the result is returned
+        checkDeviceTimers(deferredResult);
+        assertEquals(getMetricNames(eagerLog), getMetricNames(deferredLog));
+        assertEquals(getMetricValues(eagerLog, ProfilerType.TOTAL_COPY_IN_SIZE_BYTES), getMetricValues(deferredLog, ProfilerType.TOTAL_COPY_IN_SIZE_BYTES));
+        assertEquals(getMetricValues(eagerLog, ProfilerType.TOTAL_COPY_OUT_SIZE_BYTES), getMetricValues(deferredLog, ProfilerType.TOTAL_COPY_OUT_SIZE_BYTES));
+
+        executionPlan.withoutProfiler().execute();
+    }
+}
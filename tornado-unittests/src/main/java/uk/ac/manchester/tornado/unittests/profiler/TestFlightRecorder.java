@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.profiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.runtime.TornadoRuntime;
+import uk.ac.manchester.tornado.unittests.TestHello;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Test the JDK Flight Recorder events emitted by TornadoVM.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V uk.ac.manchester.tornado.unittests.profiler.TestFlightRecorder
+ * </code>
+ */
+public class TestFlightRecorder extends TornadoTestBase {
+
+    private static long countEvents(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).count();
+    }
+
+    @Test
+    public void testFlightRecorderEvents() throws IOException {
+        final int numElements = 256;
+        int[] a = new int[numElements];
+        int[] b = new int[numElements];
+        int[] c = new int[numElements];
+
+        Arrays.fill(a, 1);
+        Arrays.fill(b, 2);
+
+        // Make sure the task is compiled within the recording
+        TornadoRuntime.getTornadoRuntime().getDefaultDevice().reset();
+
+        TaskGraph taskGraph = new TaskGraph("jfr") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("t0", TestHello::add, a, b, c) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+
+        Path file = Files.createTempFile("tornado", ".jfr");
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("tornadovm.TaskGraphExecution");
+            recording.enable("tornadovm.TaskCompilation");
+            recording.enable("tornadovm.KernelLaunch");
+            recording.enable("tornadovm.DataTransfer");
+            recording.start();
+            executionPlan.execute();
+            executionPlan.execute();
+            recording.stop();
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        for (int i = 0; i < numElements; i++) {
+            assertEquals(a[i] + b[i], c[i]);
+        }
+
+        assertEquals(2, countEvents(events, "tornadovm.TaskGraphExecution"));
+        assertEquals(1, countEvents(events, "tornadovm.TaskCompilation"));
+        assertEquals(2, countEvents(events, "tornadovm.KernelLaunch"));
+        // Two inputs and one output per execution
+        assertEquals(6, countEvents(events, "tornadovm.DataTransfer"));
+
+        long bytesToHost = events.stream() //
+                .filter(event -> event.getEventType().getName().equals("tornadovm.DataTransfer")) //
+                .filter(event -> "DeviceToHost".equals(event.getString("direction"))) //
+                .mapToLong(event -> event.getLong("bytes")) //
+                .sum();
+        assertTrue(bytesToHost >= 2L * numElements * Integer.BYTES);
+
+        executionPlan.freeDeviceMemory();
+    }
+}
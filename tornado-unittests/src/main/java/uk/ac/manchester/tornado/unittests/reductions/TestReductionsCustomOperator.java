@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.reductions;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.annotations.Reduce;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V uk.ac.manchester.tornado.unittests.reductions.TestReductionsCustomOperator
+ * </code>
+ */
+public class TestReductionsCustomOperator extends TornadoTestBase {
+
+    private static final int SIZE = 4096;
+    private static final int SIZE_NOT_POWER_OF_TWO = 4096 + 117;
+
+    /**
+     * Maximum absolute value.
+     */
+    public static class MaxAbs {
+        public static float identity() {
+            return 0.0f;
+        }
+
+        public static float combine(float a, float b) {
+            float absB = b < 0 ? -b : b;
+            return absB > a ? absB : a;
+        }
+    }
+
+    /**
+     * Greatest common divisor.
+     */
+    public static class Gcd {
+        public static int identity() {
+            return 0;
+        }
+
+        public static int combine(int a, int b) {
+            while (b != 0) {
+                int t = a % b;
+                a = b;
+                b = t;
+            }
+            return a;
+        }
+    }
+
+    /**
+     * Maximum value and its index. The state has two fields: the value and the
+     * index.
+     */
+    public static class ArgMax {
+        public static int[] identity() {
+            return new int[] { Integer.MIN_VALUE, -1 };
+        }
+
+        public static int[] combine(int[] a, int[] b) {
+            if (b[0] > a[0] || (b[0] == a[0] && b[1] < a[1])) {
+                return b;
+            }
+            return a;
+        }
+    }
+
+    /**
+     * Kahan summation. The state has two fields: the sum and the running
+     * compensation.
+     */
+    public static class KahanSum {
+        public static float[] identity() {
+            return new float[] { 0.0f, 0.0f };
+        }
+
+        public static float[] combine(float[] a, float[] b) {
+            float y = b[0] - (a[1] + b[1]);
+            float t = a[0] + y;
+            return new float[] { t, (t - a[0]) - y };
+        }
+    }
+
+    private static void maxAbsReduction(float[] input, @Reduce(operator = MaxAbs.class) float[] result) {
+        for (@Parallel int i = 0; i < input.length; i++) {
+            result[0] = MaxAbs.combine(result[0], input[i]);
+        }
+    }
+
+    private static void gcdReduction(int[] input, @Reduce(operator = Gcd.class) int[] result) {
+        for (@Parallel int i = 0; i < input.length; i++) {
+            result[0] = Gcd.combine(result[0], input[i]);
+        }
+    }
+
+    private static void argMaxReduction(int[] input, @Reduce(operator = ArgMax.class) int[] result) {
+        for (@Parallel int i = 0; i < input.length; i++) {
+            if (input[i] > result[0]) {
+                result[0] = input[i];
+                result[1] = i;
+            }
+        }
+    }
+
+    private static void kahanReduction(float[] input, @Reduce(operator = KahanSum.class) float[] result) {
+        for (@Parallel int i = 0; i < input.length; i++) {
+            float y = input[i] - result[1];
+            float t = result[0] + y;
+            result[1] = (t - result[0]) - y;
+            result[0] = t;
+        }
+    }
+
+    @Test
+    public void testMaxAbsFloats() {
+        float[] input = new float[SIZE];
+        float[] result = new float[1];
+
+        Random r = new Random();
+        IntStream.range(0, SIZE).forEach(i -> input[i] = r.nextFloat() * 200 - 100);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestReductionsCustomOperator::maxAbsReduction, input, result) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, result);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.execute();
+
+        float[] sequential = new float[] { MaxAbs.identity() };
+        maxAbsReduction(input, sequential);
+
+        assertEquals(sequential[0], result[0], 0.001f);
+    }
+
+    @Test
+    public void testGcdIntegers() {
+        int[] input = new int[SIZE];
+        int[] result = new int[1];
+
+        Random r = new Random();
+        IntStream.range(0, SIZE).forEach(i -> input[i] = 6 * (r.nextInt(100) + 1));
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestReductionsCustomOperator::gcdReduction, input, result) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, result);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.execute();
+
+        int[] sequential = new int[] { Gcd.identity() };
+        gcdReduction(input, sequential);
+
+        assertEquals(sequential[0], result[0]);
+    }
+
+    @Test
+    public void testArgMax() {
+        List<Integer> values = new ArrayList<>();
+        IntStream.range(0, SIZE_NOT_POWER_OF_TWO).forEach(values::add);
+        Collections.shuffle(values, new Random(7));
+        int[] input = values.stream().mapToInt(Integer::intValue).toArray();
+        int[] result = new int[2];
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestReductionsCustomOperator::argMaxReduction, input, result) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, result);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.execute();
+
+        int[] sequential = ArgMax.identity();
+        argMaxReduction(input, sequential);
+
+        assertEquals(SIZE_NOT_POWER_OF_TWO - 1, result[0]);
+        assertEquals(sequential[0], result[0]);
+        assertEquals(sequential[1], result[1]);
+    }
+
+    @Test
+    public void testKahanSum() {
+        float[] input = new float[SIZE];
+        float[] result = new float[2];
+
+        Random r = new Random();
+        IntStream.range(0, SIZE).forEach(i -> input[i] = r.nextFloat());
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestReductionsCustomOperator::kahanReduction, input, result) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, result);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.execute();
+
+        double expected = 0;
+        for (float value : input) {
+            expected += value;
+        }
+
+        assertEquals(expected, result[0] - result[1], 0.01);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.runtime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.runtime.common.BatchConfiguration;
+import uk.ac.manchester.tornado.runtime.graph.TornadoExecutionContext;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Tests of the geometry of the batches and of the co-execution partitions. Only
+ * the sizes are computed, so no device is used.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V uk.ac.manchester.tornado.unittests.runtime.TestBatchConfiguration
+ * </code>
+ */
+public class TestBatchConfiguration extends TornadoTestBase {
+
+    private static TornadoExecutionContext createContext(Object... objects) {
+        TornadoExecutionContext context = new TornadoExecutionContext("batch", null);
+        for (Object object : objects) {
+            context.insertVariable(object);
+        }
+        return context;
+    }
+
+    @Test
+    public void testPartitionSizes() {
+        assertArrayEquals(new long[] { 2048, 6144 }, BatchConfiguration.computePartitionSizes(new double[] { 0.25, 0.75 }, 8192));
+    }
+
+    /**
+     * Each partition ends at the rounded cumulative ratio, and the last one takes
+     * the remaining iterations, so the partitions always cover the iteration
+     * space.
+     */
+    @Test
+    public void testUnevenPartitionSizes() {
+        final double third = 1.0 / 3;
+        long[] sizes = BatchConfiguration.computePartitionSizes(new double[] { third, third, third }, 10);
+        assertArrayEquals(new long[] { 3, 4, 3 }, sizes);
+
+        // Half an iteration is rounded up
+        assertArrayEquals(new long[] { 3, 2 }, BatchConfiguration.computePartitionSizes(new double[] { 0.5, 0.5 }, 5));
+
+        sizes = BatchConfiguration.computePartitionSizes(new double[] { 0.1, 0.2, 0.3, 0.4 }, 1001);
+        assertEquals(1001, Arrays.stream(sizes).sum());
+    }
+
+    @Test
+    public void testEmptyPartition() {
+        assertArrayEquals(new long[] { 0, 10 }, BatchConfiguration.computePartitionSizes(new double[] { 0, 1 }, 10));
+        assertArrayEquals(new long[] { 1, 0 }, BatchConfiguration.computePartitionSizes(new double[] { 0.6, 0.4 }, 1));
+    }
+
+    /**
+     * A partition is a single chunk. Arrays that are longer than the iteration
+     * space access several elements per iteration.
+     */
+    @Test
+    public void testPartitionFootprint() {
+        float[] a = new float[1024];
+        int[] b = new int[2048];
+        TornadoExecutionContext context = createContext(a, b);
+
+        BatchConfiguration configuration = BatchConfiguration.computePartition(context, 300);
+
+        assertEquals(1, configuration.getTotalChunks());
+        assertEquals(300, configuration.getElementsPerChunk());
+        assertEquals(0, configuration.getRemainingElements());
+        assertEquals(4, configuration.getBytesPerIteration(0));
+        assertEquals(8, configuration.getBytesPerIteration(1));
+        assertEquals(1024, BatchConfiguration.computeNumIterations(context));
+    }
+
+    @Test
+    public void testChunkSizesWithRemainder() {
+        float[] a = new float[1030];
+        TornadoExecutionContext context = createContext(a);
+
+        BatchConfiguration configuration = BatchConfiguration.computeChunkSizes(context, 400);
+
+        assertEquals(10, configuration.getTotalChunks());
+        assertEquals(100, configuration.getElementsPerChunk());
+        assertEquals(30, configuration.getRemainingElements());
+    }
+
+    @Test
+    public void testBroadcastObject() {
+        float[] a = new float[1024];
+        float[] weights = new float[7];
+        TornadoExecutionContext context = createContext(a, weights);
+        context.setBatchBroadcastObjects(weights);
+
+        BatchConfiguration configuration = BatchConfiguration.computePartition(context, 1024);
+
+        assertFalse(configuration.isBroadcast(0));
+        assertTrue(configuration.isBroadcast(1));
+    }
+
+    @Test(expected = TornadoRuntimeException.class)
+    public void testLengthNotMultipleOfIterationSpace() {
+        TornadoExecutionContext context = createContext(new float[1024], new float[1500]);
+        BatchConfiguration.computePartition(context, 1024);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.runtime;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.runtime.TornadoCoreRuntime;
+import uk.ac.manchester.tornado.runtime.common.TornadoAcceleratorDevice;
+import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Tests of the threads that run the interpreters of the task-graphs when
+ * executing concurrently on multiple devices. Only the executors are used, so
+ * nothing runs on the device.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V uk.ac.manchester.tornado.unittests.runtime.TestInterpreterExecutors
+ * </code>
+ */
+public class TestInterpreterExecutors extends TornadoTestBase {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private static Thread getThread(ExecutorService executor) throws InterruptedException, ExecutionException, TimeoutException {
+        return executor.submit(Thread::currentThread).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * The executor of a task-graph always drives the device from the same thread,
+     * and two task-graphs on the same device use different threads.
+     */
+    @Test
+    public void testThreadPerTaskGraphAndDevice() throws InterruptedException, ExecutionException, TimeoutException {
+        if (!TornadoOptions.CONCURRENT_INTERPRETERS_AFFINITY) {
+            return;
+        }
+        TornadoAcceleratorDevice device = TornadoCoreRuntime.getTornadoRuntime().getDefaultDevice();
+        ExecutorService executor0 = TornadoCoreRuntime.newInterpreterExecutor(device);
+        ExecutorService executor1 = TornadoCoreRuntime.newInterpreterExecutor(device);
+
+        Thread thread0 = getThread(executor0);
+        assertSame(thread0, getThread(executor0));
+        assertNotSame(thread0, getThread(executor1));
+
+        String deviceId = device.getDriverIndex() + ":" + device.getDeviceContext().getDeviceIndex();
+        assertTrue(thread0.getName(), thread0.getName().endsWith(deviceId));
+    }
+
+    /**
+     * A task-graph blocked on a device does not block another task-graph on the
+     * same device. With a single thread per device, the first task would wait
+     * forever for the second one.
+     */
+    @Test
+    public void testTaskGraphsDoNotWaitForEachOther() throws InterruptedException, ExecutionException, TimeoutException {
+        if (!TornadoOptions.CONCURRENT_INTERPRETERS_AFFINITY) {
+            return;
+        }
+        TornadoAcceleratorDevice device = TornadoCoreRuntime.getTornadoRuntime().getDefaultDevice();
+        ExecutorService executor0 = TornadoCoreRuntime.newInterpreterExecutor(device);
+        ExecutorService executor1 = TornadoCoreRuntime.newInterpreterExecutor(device);
+
+        CountDownLatch latch = new CountDownLatch(1);
+        Future<Boolean> waiting = executor0.submit(() -> latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        executor1.submit(latch::countDown).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertTrue(waiting.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static uk.ac.manchester.tornado.runtime.TornadoCoreRuntime.getDebugContext;
+
+import java.util.stream.IntStream;
+
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.junit.Test;
+
+import jdk.vm.ci.code.InstalledCode;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task2;
+import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task3;
+import uk.ac.manchester.tornado.runtime.analyzer.CodeAnalysis;
+import uk.ac.manchester.tornado.runtime.analyzer.ParallelLoopCodeAnalysis;
+import uk.ac.manchester.tornado.runtime.analyzer.ParallelLoopCodeAnalysis.ParallelLoop;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Tests of the analysis used by the concurrent Java fallback to split the
+ * outermost {@link Parallel} loop of a task in chunks. The chunks are compiled
+ * for the host, so no device is used.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V uk.ac.manchester.tornado.unittests.runtime.TestParallelLoopCodeAnalysis
+ * </code>
+ */
+public class TestParallelLoopCodeAnalysis extends TornadoTestBase {
+
+    private static final int SIZE = 1024;
+
+    public static void increment(int[] a, int[] b) {
+        for (@Parallel int i = 0; i < a.length; i++) {
+            b[i] = a[i] + 1;
+        }
+    }
+
+    public static void incrementFrom(int[] a, int[] b, int n) {
+        for (@Parallel int i = 2; i < n; i++) {
+            b[i] = a[i] + 1;
+        }
+    }
+
+    public static void incrementStride2(int[] a, int[] b) {
+        for (@Parallel int i = 0; i < a.length; i += 2) {
+            b[i] = a[i] + 1;
+        }
+    }
+
+    public static void incrementSequential(int[] a, int[] b) {
+        for (int i = 0; i < a.length; i++) {
+            b[i] = a[i] + 1;
+        }
+    }
+
+    private static int[] createInput() {
+        int[] a = new int[SIZE];
+        IntStream.range(0, SIZE).forEach(i -> a[i] = i * 3);
+        return a;
+    }
+
+    /**
+     * It compiles a copy of the graph restricted to {@code [start, end)} and runs
+     * it.
+     */
+    private static void runChunk(StructuredGraph graph, int start, int end, Object... arguments) throws Exception {
+        StructuredGraph chunkGraph = (StructuredGraph) graph.copy(getDebugContext());
+        ParallelLoopCodeAnalysis.restrictParallelLoop(chunkGraph, start, end);
+        InstalledCode chunk = CodeAnalysis.compileAndInstallMethod(chunkGraph);
+        chunk.executeVarargs(arguments);
+    }
+
+    @Test
+    public void testArrayLengthBound() {
+        Task2<int[], int[]> code = TestParallelLoopCodeAnalysis::increment;
+        StructuredGraph graph = CodeAnalysis.buildHighLevelGraalGraph(code);
+        ParallelLoop loop = ParallelLoopCodeAnalysis.findOutermostParallelLoop(graph);
+
+        assertNotNull(loop);
+        assertEquals(0, loop.getInit());
+        assertEquals(SIZE, ParallelLoopCodeAnalysis.evaluateLoopBound(loop, new Object[] { new int[SIZE], new int[SIZE] }));
+    }
+
+    @Test
+    public void testParameterBound() {
+        Task3<int[], int[], Integer> code = TestParallelLoopCodeAnalysis::incrementFrom;
+        StructuredGraph graph = CodeAnalysis.buildHighLevelGraalGraph(code);
+        ParallelLoop loop = ParallelLoopCodeAnalysis.findOutermostParallelLoop(graph);
+
+        assertNotNull(loop);
+        assertEquals(2, loop.getInit());
+        assertEquals(SIZE - 5, ParallelLoopCodeAnalysis.evaluateLoopBound(loop, new Object[] { new int[SIZE], new int[SIZE], SIZE - 5 }));
+    }
+
+    @Test
+    public void testLoopsThatAreNotSplit() {
+        Task2<int[], int[]> stride2 = TestParallelLoopCodeAnalysis::incrementStride2;
+        assertNull(ParallelLoopCodeAnalysis.findOutermostParallelLoop(CodeAnalysis.buildHighLevelGraalGraph(stride2)));
+
+        Task2<int[], int[]> sequential = TestParallelLoopCodeAnalysis::incrementSequential;
+        assertNull(ParallelLoopCodeAnalysis.findOutermostParallelLoop(CodeAnalysis.buildHighLevelGraalGraph(sequential)));
+    }
+
+    /**
+     * The restricted loop only runs its own iterations, and the graph it is copied
+     * from keeps the original bounds.
+     */
+    @Test
+    public void testRestrictParallelLoop() throws Exception {
+        Task2<int[], int[]> code = TestParallelLoopCodeAnalysis::increment;
+        StructuredGraph graph = CodeAnalysis.buildHighLevelGraalGraph(code);
+        int[] a = createInput();
+        int[] b = new int[SIZE];
+
+        runChunk(graph, 100, 300, a, b);
+
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals((i >= 100 && i < 300) ? a[i] + 1 : 0, b[i]);
+        }
+        assertEquals(0, ParallelLoopCodeAnalysis.findOutermostParallelLoop(graph).getInit());
+    }
+
+    /**
+     * Uneven chunks that cover the iteration space produce the result of the
+     * sequential code, including the first iterations skipped by the loop and the
+     * iterations after the bound.
+     */
+    @Test
+    public void testUnevenChunks() throws Exception {
+        Task3<int[], int[], Integer> code = TestParallelLoopCodeAnalysis::incrementFrom;
+        StructuredGraph graph = CodeAnalysis.buildHighLevelGraalGraph(code);
+        final int bound = SIZE - 5;
+        int[] a = createInput();
+        int[] b = new int[SIZE];
+        int[] expected = new int[SIZE];
+
+        runChunk(graph, 2, 100, a, b, bound);
+        runChunk(graph, 100, 517, a, b, bound);
+        runChunk(graph, 517, bound, a, b, bound);
+
+        incrementFrom(a, expected, bound);
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(expected[i], b[i]);
+        }
+    }
+}
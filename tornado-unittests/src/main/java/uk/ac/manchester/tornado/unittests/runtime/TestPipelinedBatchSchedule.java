@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.runtime.graph.PipelinedBatchSchedule;
+import uk.ac.manchester.tornado.runtime.graph.PipelinedBatchSchedule.Phase;
+import uk.ac.manchester.tornado.runtime.graph.PipelinedBatchSchedule.Step;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Tests of the order in which the bytecodes of pipelined batches are emitted.
+ * Only the schedule is computed, so no device is used.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V uk.ac.manchester.tornado.unittests.runtime.TestPipelinedBatchSchedule
+ * </code>
+ */
+public class TestPipelinedBatchSchedule extends TornadoTestBase {
+
+    private static List<String> toStrings(PipelinedBatchSchedule schedule) {
+        return schedule.getSteps().stream().map(Step::toString).collect(Collectors.toList());
+    }
+
+    private static int indexOf(List<Step> steps, Phase phase, int chunk) {
+        for (int i = 0; i < steps.size(); i++) {
+            if (steps.get(i).getPhase() == phase && steps.get(i).getChunk() == chunk) {
+                return i;
+            }
+        }
+        throw new AssertionError(phase + " of batch " + chunk + " is not scheduled");
+    }
+
+    private static int lastIndexOf(List<Step> steps, Phase phase) {
+        int index = -1;
+        for (int i = 0; i < steps.size(); i++) {
+            if (steps.get(i).getPhase() == phase) {
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * The kernel of each batch is launched before the copy-out of the previous
+     * batch and the copy-in of the next one, so they can overlap.
+     */
+    @Test
+    public void testInterleaving() {
+        PipelinedBatchSchedule schedule = PipelinedBatchSchedule.compute(4, 2, false);
+
+        List<String> expected = List.of( //
+                "BROADCAST_IN(-1)@0", //
+                "ALLOCATE(0)@0", "ALLOCATE(1)@1", //
+                "TRANSFER_IN(0)@0", //
+                "LAUNCH(0)@0", "TRANSFER_IN(1)@1", //
+                "LAUNCH(1)@1", "TRANSFER_OUT(0)@0", "TRANSFER_IN(2)@0", //
+                "LAUNCH(2)@0", "TRANSFER_OUT(1)@1", "TRANSFER_IN(3)@1", //
+                "LAUNCH(3)@1", "TRANSFER_OUT(2)@0", //
+                "TRANSFER_OUT(3)@1", //
+                "BROADCAST_OUT(-1)@0", //
+                "DEALLOCATE(0)@0", "DEALLOCATE(1)@1");
+        assertEquals(expected, toStrings(schedule));
+    }
+
+    /**
+     * The last (smaller) batch uses its own buffer slot, which is allocated with
+     * the geometry of that batch.
+     */
+    @Test
+    public void testRemainderSlot() {
+        PipelinedBatchSchedule schedule = PipelinedBatchSchedule.compute(4, 2, true);
+
+        assertEquals(3, schedule.getNumSlots());
+        assertEquals(0, schedule.slotOf(2));
+        assertEquals(2, schedule.slotOf(3));
+        assertEquals(2, schedule.lastChunkOf(0));
+        assertEquals(1, schedule.lastChunkOf(1));
+        assertEquals(3, schedule.lastChunkOf(2));
+
+        List<String> steps = toStrings(schedule);
+        assertTrue(steps.toString(), steps.contains("ALLOCATE(3)@2"));
+        assertTrue(steps.toString(), steps.contains("LAUNCH(3)@2"));
+        assertTrue(steps.toString(), steps.contains("DEALLOCATE(3)@2"));
+    }
+
+    /**
+     * For every geometry, the buffer slots are allocated before the first batch
+     * and released after the last one, each batch is copied in, launched and
+     * copied out in this order, and a buffer slot is only refilled after the
+     * copy-out of the batch that used it previously.
+     */
+    @Test
+    public void testSlotReuse() {
+        for (int numSlots = 2; numSlots <= 4; numSlots++) {
+            for (int numChunks = numSlots; numChunks <= 9; numChunks++) {
+                for (boolean hasRemainder : new boolean[] { false, true }) {
+                    if (hasRemainder && numChunks - 1 < numSlots) {
+                        continue;
+                    }
+                    PipelinedBatchSchedule schedule = PipelinedBatchSchedule.compute(numChunks, numSlots, hasRemainder);
+                    List<Step> steps = schedule.getSteps();
+                    String message = numChunks + " batches, " + numSlots + " slots: " + steps;
+                    int lastAllocation = lastIndexOf(steps, Phase.ALLOCATE);
+                    int broadcastOut = indexOf(steps, Phase.BROADCAST_OUT, PipelinedBatchSchedule.BROADCAST);
+                    assertEquals(message, schedule.getNumSlots(), steps.stream().filter(step -> step.getPhase() == Phase.DEALLOCATE).count());
+                    assertTrue(message, broadcastOut < steps.size() - schedule.getNumSlots());
+
+                    for (int i = 0; i < numChunks; i++) {
+                        int transferIn = indexOf(steps, Phase.TRANSFER_IN, i);
+                        int launch = indexOf(steps, Phase.LAUNCH, i);
+                        int transferOut = indexOf(steps, Phase.TRANSFER_OUT, i);
+                        assertTrue(message, lastAllocation < transferIn);
+                        assertTrue(message, transferIn < launch && launch < transferOut);
+                        assertTrue(message, transferOut < broadcastOut);
+
+                        for (int previous = i - 1; previous >= 0; previous--) {
+                            if (schedule.slotOf(previous) == schedule.slotOf(i)) {
+                                assertTrue(message, indexOf(steps, Phase.TRANSFER_OUT, previous) < transferIn);
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test(expected = TornadoRuntimeException.class)
+    public void testSingleSlot() {
+        PipelinedBatchSchedule.compute(4, 1, false);
+    }
+}
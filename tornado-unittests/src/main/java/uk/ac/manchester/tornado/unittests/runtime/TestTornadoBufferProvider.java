@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.TornadoDeviceContext;
+import uk.ac.manchester.tornado.api.TornadoTargetDevice;
+import uk.ac.manchester.tornado.api.exceptions.TornadoOutOfMemoryException;
+import uk.ac.manchester.tornado.drivers.common.TornadoBufferProvider;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Tests of the pool of device buffers over a fake backend that only records
+ * the buffers it allocates and releases, so no device is used.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V uk.ac.manchester.tornado.unittests.runtime.TestTornadoBufferProvider
+ * </code>
+ */
+public class TestTornadoBufferProvider extends TornadoTestBase {
+
+    private static final long MAX_ALLOCATION_SIZE = 1L << 20;
+
+    private static class FakeBufferProvider extends TornadoBufferProvider {
+
+        private final List<Long> allocatedSizes = new ArrayList<>();
+        private final List<Long> releasedBuffers = new ArrayList<>();
+        private long nextBuffer = 0x1000;
+
+        FakeBufferProvider(long deviceMemory) {
+            super(createDeviceContext());
+            currentMemoryAvailable = deviceMemory;
+        }
+
+        @Override
+        protected long allocateBuffer(long size) {
+            allocatedSizes.add(size);
+            long buffer = nextBuffer;
+            nextBuffer += 0x1000;
+            return buffer;
+        }
+
+        @Override
+        protected void releaseBuffer(long buffer) {
+            releasedBuffers.add(buffer);
+        }
+    }
+
+    private static TornadoDeviceContext createDeviceContext() {
+        TornadoTargetDevice device = (TornadoTargetDevice) Proxy.newProxyInstance(TornadoTargetDevice.class.getClassLoader(), new Class<?>[] { TornadoTargetDevice.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getDeviceMaxAllocationSize":
+                            return MAX_ALLOCATION_SIZE;
+                        case "getDeviceName":
+                            return "fake";
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        return (TornadoDeviceContext) Proxy.newProxyInstance(TornadoDeviceContext.class.getClassLoader(), new Class<?>[] { TornadoDeviceContext.class }, (proxy, method, args) -> {
+            if (method.getName().equals("getDevice")) {
+                return device;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    /**
+     * A buffer is allocated with the size of its class, and any request of the
+     * same class reuses it once it is released.
+     */
+    @Test
+    public void testSizeClassReuse() {
+        FakeBufferProvider provider = new FakeBufferProvider(4096);
+
+        long buffer = provider.getBufferWithSize(100);
+        assertEquals(1, provider.allocatedSizes.size());
+        assertEquals(104L, (long) provider.allocatedSizes.get(0));
+
+        provider.markBufferReleased(buffer);
+        assertEquals(104, provider.getIdleBytes());
+        assertEquals(buffer, provider.getBufferWithSize(97));
+        assertEquals(1, provider.allocatedSizes.size());
+        assertEquals(0.5, provider.getHitRate(), 0.001);
+
+        // A request of a larger class does not reuse the small buffer
+        provider.markBufferReleased(buffer);
+        long largeBuffer = provider.getBufferWithSize(200);
+        assertNotEquals(buffer, largeBuffer);
+        assertEquals(208L, (long) provider.allocatedSizes.get(1));
+        assertEquals(104, provider.getIdleBytes());
+    }
+
+    /**
+     * When the device runs out of memory, the least recently released buffers
+     * are evicted until the new buffer fits.
+     */
+    @Test
+    public void testEvictionInLeastRecentlyUsedOrder() {
+        FakeBufferProvider provider = new FakeBufferProvider(1024);
+
+        long a = provider.getBufferWithSize(256);
+        long b = provider.getBufferWithSize(256);
+        provider.getBufferWithSize(256);
+        provider.markBufferReleased(a);
+        provider.markBufferReleased(b);
+
+        provider.getBufferWithSize(512);
+
+        assertEquals(1, provider.getNumEvictions());
+        assertEquals(List.of(a), provider.releasedBuffers);
+        assertEquals(4, provider.allocatedSizes.size());
+        assertEquals(256, provider.getIdleBytes());
+    }
+
+    /**
+     * Under memory pressure, a larger idle buffer is reused before evicting any
+     * buffer.
+     */
+    @Test
+    public void testReuseLargerIdleBufferBeforeEviction() {
+        FakeBufferProvider provider = new FakeBufferProvider(1024);
+
+        long buffer = provider.getBufferWithSize(768);
+        provider.markBufferReleased(buffer);
+
+        assertEquals(buffer, provider.getBufferWithSize(300));
+        assertEquals(0, provider.getNumEvictions());
+        assertEquals(1, provider.allocatedSizes.size());
+    }
+
+    @Test(expected = TornadoOutOfMemoryException.class)
+    public void testOutOfMemory() {
+        FakeBufferProvider provider = new FakeBufferProvider(512);
+
+        // The first buffer is still used, so there is nothing to evict
+        provider.getBufferWithSize(400);
+        provider.getBufferWithSize(400);
+    }
+
+    @Test(expected = TornadoOutOfMemoryException.class)
+    public void testOutOfMemoryAboveMaxAllocationSize() {
+        FakeBufferProvider provider = new FakeBufferProvider(4 * MAX_ALLOCATION_SIZE);
+        provider.getBufferWithSize(MAX_ALLOCATION_SIZE);
+    }
+}
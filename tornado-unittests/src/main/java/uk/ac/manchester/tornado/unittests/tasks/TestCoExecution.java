@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package uk.ac.manchester.tornado.unittests.tasks;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.common.TornadoDevice;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.runtime.TornadoRuntime;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+import uk.ac.manchester.tornado.unittests.common.TornadoVMMultiDeviceNotSupported;
+
+/**
+ * Test the co-execution of a task-graph, in which the iteration space is split
+ * across two devices of the default backend.
+ *
+ * How to test?
+ *
+ * <code>
+ *    tornado-test -V uk.ac.manchester.tornado.unittests.tasks.TestCoExecution
+ * </code>
+ */
+public class TestCoExecution extends TornadoTestBase {
+
+    private static final int NUM_ELEMENTS = 8192;
+
+    public static void saxpy(float alpha, float[] x, float[] y, float[] z) {
+        for (@Parallel int i = 0; i < x.length; i++) {
+            z[i] = alpha * x[i] + y[i];
+        }
+    }
+
+    private static TornadoDevice[] getTwoDevices() {
+        if (TornadoRuntime.getTornadoRuntime().getDriver(0).getDeviceCount() < 2) {
+            throw new TornadoVMMultiDeviceNotSupported("This test needs at least 2 devices enabled");
+        }
+        return new TornadoDevice[] { TornadoExecutionPlan.getDevice(0, 0), TornadoExecutionPlan.getDevice(0, 1) };
+    }
+
+    @Test
+    public void testCoExecutionStaticRatios() {
+        TornadoDevice[] devices = getTwoDevices();
+
+        float[] x = new float[NUM_ELEMENTS];
+        float[] y = new float[NUM_ELEMENTS];
+        float[] z = new float[NUM_ELEMENTS];
+        IntStream.range(0, NUM_ELEMENTS).forEach(i -> {
+            x[i] = i;
+            y[i] = 100 - i;
+        });
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, x, y) //
+                .task("t0", TestCoExecution::saxpy, 2.0f, x, y, z) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, z);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.withCoExecution(new float[] { 0.25f, 0.75f }, devices) //
+                .execute();
+
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            assertEquals(2.0f * x[i] + y[i], z[i], 0.01f);
+        }
+        executionPlan.freeDeviceMemory();
+    }
+
+    @Test
+    public void testCoExecutionAdaptiveRatios() {
+        TornadoDevice[] devices = getTwoDevices();
+
+        float[] x = new float[NUM_ELEMENTS];
+        float[] y = new float[NUM_ELEMENTS];
+        float[] z = new float[NUM_ELEMENTS];
+        IntStream.range(0, NUM_ELEMENTS).forEach(i -> {
+            x[i] = i;
+            y[i] = 100 - i;
+        });
+
+        TaskGraph taskGraph = new TaskGraph("s1") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, x, y) //
+                .task("t0", TestCoExecution::saxpy, 3.0f, x, y, z) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, z);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.withCoExecution(devices);
+
+        // The partitions can be resized between executions
+        for (int iteration = 0; iteration < 5; iteration++) {
+            executionPlan.execute();
+            for (int i = 0; i < NUM_ELEMENTS; i++) {
+                assertEquals(3.0f * x[i] + y[i], z[i], 0.01f);
+            }
+        }
+        executionPlan.freeDeviceMemory();
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.tasks;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Tests of task-graphs whose copies run on separate OpenCL command queues. The
+ * kernels must wait for the copies to the device, and the copies to the host
+ * must wait for the kernels, across queues.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V --jvm="-Dtornado.opencl.copy.queues=True" uk.ac.manchester.tornado.unittests.tasks.TestCopyQueues
+ * </code>
+ */
+public class TestCopyQueues extends TornadoTestBase {
+
+    private static final int SIZE = 1 << 20;
+    private static final int ITERATIONS = 10;
+
+    public static void scale(int[] a, int[] b) {
+        for (@Parallel int i = 0; i < a.length; i++) {
+            b[i] = a[i] * 2;
+        }
+    }
+
+    public static void add(int[] a, int[] b, int[] c) {
+        for (@Parallel int i = 0; i < a.length; i++) {
+            c[i] = a[i] + b[i];
+        }
+    }
+
+    public static void square(int[] c, int[] d) {
+        for (@Parallel int i = 0; i < c.length; i++) {
+            d[i] = c[i] * c[i];
+        }
+    }
+
+    public static void increment(int[] a) {
+        for (@Parallel int i = 0; i < a.length; i++) {
+            a[i] = a[i] + 1;
+        }
+    }
+
+    /**
+     * The input changes on every execution, and each task reads the output of the
+     * previous one. Outputs of the first and last tasks are copied to the host.
+     */
+    @Test
+    public void testChainedTasks() {
+        int[] a = new int[SIZE];
+        int[] b = new int[SIZE];
+        int[] c = new int[SIZE];
+        int[] d = new int[SIZE];
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a) //
+                .task("t0", TestCopyQueues::scale, a, b) //
+                .task("t1", TestCopyQueues::add, a, b, c) //
+                .task("t2", TestCopyQueues::square, c, d) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, b, d);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            final int offset = iteration;
+            IntStream.range(0, SIZE).parallel().forEach(i -> a[i] = (i % 1000) + offset);
+            executionPlan.execute();
+
+            for (int i = 0; i < SIZE; i++) {
+                int value = (i % 1000) + offset;
+                assertEquals(value * 2, b[i]);
+                assertEquals(9 * value * value, d[i]);
+            }
+        }
+    }
+
+    /**
+     * The same array is copied in, updated and copied out on every execution, so
+     * each copy to the device must see the result of the previous execution.
+     */
+    @Test
+    public void testInPlaceUpdate() {
+        int[] a = new int[SIZE];
+        Arrays.fill(a, 100);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a) //
+                .task("t0", TestCopyQueues::increment, a) //
+                .task("t1", TestCopyQueues::increment, a) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, a);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            executionPlan.execute();
+        }
+
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(100 + 2 * ITERATIONS, a[i]);
+        }
+    }
+
+    /**
+     * Data copied once stays on the device while other arrays are copied on every
+     * execution.
+     */
+    @Test
+    public void testFirstExecutionCopies() {
+        int[] a = new int[SIZE];
+        int[] b = new int[SIZE];
+        int[] c = new int[SIZE];
+        IntStream.range(0, SIZE).parallel().forEach(i -> a[i] = i % 1000);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.FIRST_EXECUTION, a) //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, b) //
+                .task("t0", TestCopyQueues::add, a, b, c) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            Arrays.fill(b, iteration);
+            executionPlan.execute();
+
+            for (int i = 0; i < SIZE; i++) {
+                assertEquals((i % 1000) + iteration, c[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package uk.ac.manchester.tornado.unittests.tasks;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Test chains of element-wise tasks that can be fused into a single kernel. The
+ * results must be the same with and without fusion, and the number of kernels
+ * launched is checked with the JFR events of TornadoVM.
+ *
+ * How to test?
+ *
+ * <code>
+ *    tornado-test -V --jvm="-Dtornado.experimental.fusion=True" uk.ac.manchester.tornado.unittests.tasks.TestKernelFusion
+ * </code>
+ */
+public class TestKernelFusion extends TornadoTestBase {
+
+    private static final int NUM_ELEMENTS = 4096;
+    private static final boolean FUSION = Boolean.parseBoolean(System.getProperty("tornado.experimental.fusion", "False"));
+
+    public static void scale(float[] a, float[] b, float alpha) {
+        for (@Parallel int i = 0; i < a.length; i++) {
+            b[i] = alpha * a[i];
+        }
+    }
+
+    public static void add(float[] b, float[] c, float[] d) {
+        for (@Parallel int i = 0; i < b.length; i++) {
+            d[i] = b[i] + c[i];
+        }
+    }
+
+    public static void square(float[] d) {
+        for (@Parallel int i = 0; i < d.length; i++) {
+            d[i] = d[i] * d[i];
+        }
+    }
+
+    public static void shiftLeft(float[] d, float[] e) {
+        for (@Parallel int i = 1; i < d.length; i++) {
+            e[i - 1] = d[i];
+        }
+    }
+
+    /**
+     * It executes the plan and returns the number of kernels launched.
+     */
+    private static long executeAndCountKernels(TornadoExecutionPlan executionPlan) throws IOException {
+        Path file = Files.createTempFile("tornado", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("tornadovm.KernelLaunch");
+            recording.start();
+            executionPlan.execute();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream() //
+                    .filter(event -> event.getEventType().getName().equals("tornadovm.KernelLaunch")) //
+                    .count();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testProducerConsumer() throws IOException {
+        float[] a = new float[NUM_ELEMENTS];
+        float[] b = new float[NUM_ELEMENTS];
+        float[] c = new float[NUM_ELEMENTS];
+        float[] d = new float[NUM_ELEMENTS];
+        IntStream.range(0, NUM_ELEMENTS).forEach(i -> {
+            a[i] = i;
+            c[i] = 10;
+        });
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, c) //
+                .task("t0", TestKernelFusion::scale, a, b, 2.0f) //
+                .task("t1", TestKernelFusion::add, b, c, d) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, d);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        assertEquals(FUSION ? 1 : 2, executeAndCountKernels(executionPlan));
+
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            assertEquals(2.0f * a[i] + c[i], d[i], 0.01f);
+        }
+    }
+
+    @Test
+    public void testChainWithIntermediateOutput() throws IOException {
+        float[] a = new float[NUM_ELEMENTS];
+        float[] b = new float[NUM_ELEMENTS];
+        float[] c = new float[NUM_ELEMENTS];
+        float[] d = new float[NUM_ELEMENTS];
+        IntStream.range(0, NUM_ELEMENTS).forEach(i -> {
+            a[i] = i % 100;
+            c[i] = 1;
+        });
+
+        TaskGraph taskGraph = new TaskGraph("s1") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, c) //
+                .task("t0", TestKernelFusion::scale, a, b, 0.5f) //
+                .task("t1", TestKernelFusion::add, b, c, d) //
+                .task("t2", TestKernelFusion::square, d) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, b, d);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        assertEquals(FUSION ? 1 : 3, executeAndCountKernels(executionPlan));
+
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            float expectedB = 0.5f * a[i];
+            float expectedD = (expectedB + c[i]) * (expectedB + c[i]);
+            assertEquals(expectedB, b[i], 0.01f);
+            assertEquals(expectedD, d[i], 0.01f);
+        }
+    }
+
+    @Test
+    public void testNonElementWiseConsumer() throws IOException {
+        // The second task reads a neighbour element, so it cannot be fused
+        float[] a = new float[NUM_ELEMENTS];
+        float[] b = new float[NUM_ELEMENTS];
+        float[] c = new float[NUM_ELEMENTS];
+        float[] d = new float[NUM_ELEMENTS];
+        float[] e = new float[NUM_ELEMENTS];
+        IntStream.range(0, NUM_ELEMENTS).forEach(i -> {
+            a[i] = i;
+            c[i] = 3;
+        });
+
+        TaskGraph taskGraph = new TaskGraph("s2") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, c) //
+                .task("t0", TestKernelFusion::scale, a, b, 2.0f) //
+                .task("t1", TestKernelFusion::add, b, c, d) //
+                .task("t2", TestKernelFusion::shiftLeft, d, e) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, e);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        // Only the first two tasks are fused
+        assertEquals(FUSION ? 2 : 3, executeAndCountKernels(executionPlan));
+
+        for (int i = 0; i < NUM_ELEMENTS - 1; i++) {
+            assertEquals(2.0f * a[i + 1] + c[i + 1], e[i], 0.01f);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package uk.ac.manchester.tornado.unittests.vectortypes;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Kernels with scalar accesses to contiguous elements, which are grouped into
+ * vector loads and stores when running with
+ * {@code -Dtornado.compiler.autoVectorisation=True}.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V --jvm="-Dtornado.compiler.autoVectorisation=True" uk.ac.manchester.tornado.unittests.vectortypes.TestAutoVectorisation
+ * </code>
+ */
+public class TestAutoVectorisation extends TornadoTestBase {
+
+    private static final int SIZE = 4096;
+
+    public static void saxpyStride4(float alpha, float[] x, float[] y, float[] z) {
+        for (@Parallel int i = 0; i < x.length / 4; i++) {
+            int base = i * 4;
+            z[base] = alpha * x[base] + y[base];
+            z[base + 1] = alpha * x[base + 1] + y[base + 1];
+            z[base + 2] = alpha * x[base + 2] + y[base + 2];
+            z[base + 3] = alpha * x[base + 3] + y[base + 3];
+        }
+    }
+
+    public static void addUnrolled8(int[] a, int[] b, int[] c) {
+        for (@Parallel int i = 0; i < a.length / 8; i++) {
+            int base = i * 8;
+            for (int j = 0; j < 8; j++) {
+                c[base + j] = a[base + j] + b[base + j];
+            }
+        }
+    }
+
+    @Test
+    public void testSaxpyStride4() {
+        float[] x = new float[SIZE];
+        float[] y = new float[SIZE];
+        float[] z = new float[SIZE];
+        float[] expected = new float[SIZE];
+
+        Random r = new Random();
+        IntStream.range(0, SIZE).forEach(i -> {
+            x[i] = r.nextFloat();
+            y[i] = r.nextFloat();
+        });
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, x, y) //
+                .task("t0", TestAutoVectorisation::saxpyStride4, 2.0f, x, y, z) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, z);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.execute();
+
+        saxpyStride4(2.0f, x, y, expected);
+
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(expected[i], z[i], 0.001f);
+        }
+    }
+
+    @Test
+    public void testAddUnrolled8() {
+        int[] a = new int[SIZE];
+        int[] b = new int[SIZE];
+        int[] c = new int[SIZE];
+
+        Random r = new Random();
+        IntStream.range(0, SIZE).forEach(i -> {
+            a[i] = r.nextInt(1000);
+            b[i] = r.nextInt(1000);
+        });
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("t0", TestAutoVectorisation::addUnrolled8, a, b, c) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.execute();
+
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(a[i] + b[i], c[i]);
+        }
+    }
+}
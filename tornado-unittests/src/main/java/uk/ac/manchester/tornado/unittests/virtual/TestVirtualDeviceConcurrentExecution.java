@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.virtual;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * It checks that execution plans executed from several Java threads at the same
+ * time, with the concurrent device execution enabled, compile each of their
+ * kernels once and print them in one piece.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V --jvm="-Dtornado.device.desc=virtual-device-GPU.json -Dtornado.print.kernel=True -Dtornado.virtual.device=True -Dtornado.print.kernel.dir=virtualKernelOut.out -Dtornado.concurrent.devices=True" uk.ac.manchester.tornado.unittests.virtual.TestVirtualDeviceConcurrentExecution
+ * </code>
+ */
+public class TestVirtualDeviceConcurrentExecution extends TornadoTestBase {
+
+    private static final String SOURCE_FILE = System.getProperty("tornado.print.kernel.dir");
+    private static final int SIZE = 1024;
+    private static final int NUM_THREADS = 4;
+
+    private static void vectorAdd(float[] a, float[] b, float[] c) {
+        for (@Parallel int i = 0; i < c.length; i++) {
+            c[i] = a[i] + b[i];
+        }
+    }
+
+    @After
+    public void after() {
+        new File(SOURCE_FILE).delete();
+    }
+
+    /**
+     * It executes every plan in its own thread. All threads start at the same
+     * time, and the method returns when all executions have finished.
+     */
+    private static void executeConcurrently(List<TornadoExecutionPlan> executionPlans) throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(executionPlans.size());
+        try {
+            CyclicBarrier barrier = new CyclicBarrier(executionPlans.size());
+            List<Callable<Object>> executions = new ArrayList<>();
+            for (TornadoExecutionPlan executionPlan : executionPlans) {
+                executions.add(() -> {
+                    barrier.await();
+                    return executionPlan.execute();
+                });
+            }
+            for (Future<Object> future : executor.invokeAll(executions)) {
+                // It rethrows the exception of an execution, if any
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static long countCompilations(List<TornadoExecutionPlan> executionPlans) throws IOException, InterruptedException, ExecutionException {
+        Path file = Files.createTempFile("tornado", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("tornadovm.TaskCompilation");
+            recording.start();
+            executeConcurrently(executionPlans);
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream() //
+                    .filter(event -> event.getEventType().getName().equals("tornadovm.TaskCompilation")) //
+                    .count();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testConcurrentExecutions() throws IOException, InterruptedException, ExecutionException {
+        assertNotBackend(TornadoVMBackendType.PTX);
+        assertNotBackend(TornadoVMBackendType.SPIRV);
+
+        float[] a = new float[SIZE];
+        float[] b = new float[SIZE];
+        float[][] outputs = new float[NUM_THREADS][SIZE];
+
+        List<TornadoExecutionPlan> executionPlans = new ArrayList<>();
+        for (int i = 0; i < NUM_THREADS; i++) {
+            TaskGraph taskGraph = new TaskGraph("s" + i) //
+                    .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                    .task("t0", TestVirtualDeviceConcurrentExecution::vectorAdd, a, b, outputs[i]) //
+                    .transferToHost(DataTransferMode.EVERY_EXECUTION, outputs[i]);
+            executionPlans.add(new TornadoExecutionPlan(taskGraph.snapshot()));
+        }
+
+        // Each plan compiles its kernel once
+        assertEquals(NUM_THREADS, countCompilations(executionPlans));
+        String source = new String(Files.readAllBytes(Paths.get(SOURCE_FILE)));
+        assertEquals(NUM_THREADS, source.split("__kernel", -1).length - 1);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.virtual;
+
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+
+import com.sun.management.ThreadMXBean;
+
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * It checks that the repeated executions of an execution plan, once its
+ * bytecodes are decoded and its kernels compiled, allocate a small and
+ * constant amount of memory in the Java heap per execution.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V --jvm="-Dtornado.device.desc=virtual-device-GPU.json -Dtornado.virtual.device=True" uk.ac.manchester.tornado.unittests.virtual.TestVirtualDeviceInterpreterAllocations
+ * </code>
+ */
+public class TestVirtualDeviceInterpreterAllocations extends TornadoTestBase {
+
+    private static final int SIZE = 256;
+    private static final int WARMUP_ITERATIONS = 100;
+    private static final int ITERATIONS = 1000;
+
+    /**
+     * Allocation budget per execution. It covers the task-graph and the
+     * execution plan; the interpreter loop itself reuses its scratch arrays.
+     */
+    private static final long MAX_BYTES_PER_EXECUTION = 64 * 1024;
+
+    private static void vectorAdd(float[] a, float[] b, float[] c) {
+        for (@Parallel int i = 0; i < c.length; i++) {
+            c[i] = a[i] + b[i];
+        }
+    }
+
+    private static long allocatedBytes(ThreadMXBean threadMXBean) {
+        return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static long measureBytesPerExecution(ThreadMXBean threadMXBean, TornadoExecutionPlan executionPlan, int iterations) {
+        final long start = allocatedBytes(threadMXBean);
+        for (int i = 0; i < iterations; i++) {
+            executionPlan.execute();
+        }
+        return (allocatedBytes(threadMXBean) - start) / iterations;
+    }
+
+    @Test
+    public void testAllocationsPerExecution() {
+        assertNotBackend(TornadoVMBackendType.PTX);
+        assertNotBackend(TornadoVMBackendType.SPIRV);
+
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threadMXBean.isThreadAllocatedMemorySupported()) {
+            return;
+        }
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        float[] a = new float[SIZE];
+        float[] b = new float[SIZE];
+        float[] c = new float[SIZE];
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("t0", TestVirtualDeviceInterpreterAllocations::vectorAdd, a, b, c) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+
+        // The first executions decode the bytecodes and compile the kernel
+        final long bytesWarmup = measureBytesPerExecution(threadMXBean, executionPlan, WARMUP_ITERATIONS);
+        final long bytesPerExecution = measureBytesPerExecution(threadMXBean, executionPlan, ITERATIONS);
+
+        assertTrue("Allocated " + bytesPerExecution + " bytes per execution", bytesPerExecution <= MAX_BYTES_PER_EXECUTION);
+        // Nothing accumulates from one execution to the next
+        assertTrue("Allocated " + bytesPerExecution + " bytes per execution after " + bytesWarmup + " bytes in the warm-up", bytesPerExecution <= bytesWarmup);
+    }
+}
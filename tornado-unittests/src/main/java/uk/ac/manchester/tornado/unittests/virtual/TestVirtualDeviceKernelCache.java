@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.virtual;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * End-to-end test of the persistent kernel cache on a virtual device.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V --jvm="-Dtornado.device.desc=virtual-device-GPU.json -Dtornado.print.kernel=True -Dtornado.virtual.device=True -Dtornado.print.kernel.dir=virtualKernelOut.out -Dtornado.kernel.cache.enable=True -Dtornado.kernel.cache.dir=virtualKernelCache" uk.ac.manchester.tornado.unittests.virtual.TestVirtualDeviceKernelCache
+ * </code>
+ */
+public class TestVirtualDeviceKernelCache extends TornadoTestBase {
+
+    private static final String SOURCE_FILE = System.getProperty("tornado.print.kernel.dir");
+    private static final String CACHE_DIR = System.getProperty("tornado.kernel.cache.dir");
+    private static final String CACHE_FILE_PATTERN = "*.tkc";
+    private static final int SIZE = 1024;
+
+    private static void vectorAdd(float[] a, float[] b, float[] c) {
+        for (@Parallel int i = 0; i < c.length; i++) {
+            c[i] = a[i] + b[i];
+        }
+    }
+
+    private static List<Path> cacheEntries() throws IOException {
+        List<Path> entries = new ArrayList<>();
+        Path dir = Paths.get(CACHE_DIR);
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, CACHE_FILE_PATTERN)) {
+                stream.forEach(entries::add);
+            }
+        }
+        return entries;
+    }
+
+    @Before
+    @After
+    public void clean() throws IOException {
+        for (Path entry : cacheEntries()) {
+            Files.deleteIfExists(entry);
+        }
+        new File(SOURCE_FILE).delete();
+    }
+
+    /**
+     * It compiles the task from a new task-graph, so the in-memory code cache
+     * is not used, and returns the values of the persistent cache hit field of
+     * the compilation events.
+     */
+    private static List<Boolean> compileWithNewTaskGraph() throws IOException {
+        float[] a = new float[SIZE];
+        float[] b = new float[SIZE];
+        float[] c = new float[SIZE];
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("t0", TestVirtualDeviceKernelCache::vectorAdd, a, b, c) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+
+        Path file = Files.createTempFile("tornado", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("tornadovm.TaskCompilation");
+            recording.start();
+            executionPlan.execute();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream() //
+                    .filter(event -> event.getEventType().getName().equals("tornadovm.TaskCompilation")) //
+                    .map(event -> event.getBoolean("cached")) //
+                    .collect(Collectors.toList());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static String readSource() throws IOException {
+        return new String(Files.readAllBytes(Paths.get(SOURCE_FILE)));
+    }
+
+    @Test
+    public void testKernelCacheHit() throws IOException {
+        assertNotBackend(TornadoVMBackendType.PTX);
+        assertNotBackend(TornadoVMBackendType.SPIRV);
+
+        List<Boolean> first = compileWithNewTaskGraph();
+        assertEquals(1, first.size());
+        assertFalse(first.get(0));
+        assertEquals(1, cacheEntries().size());
+        String compiledSource = readSource();
+        assertTrue(compiledSource.contains("vectorAdd"));
+
+        new File(SOURCE_FILE).delete();
+        List<Boolean> second = compileWithNewTaskGraph();
+        assertEquals(1, second.size());
+        assertTrue(second.get(0));
+        assertEquals(1, cacheEntries().size());
+        // The kernel loaded from the cache is the one generated by the compiler
+        assertEquals(compiledSource, readSource());
+    }
+
+    @Test
+    public void testCorruptedEntryIsMiss() throws IOException {
+        assertNotBackend(TornadoVMBackendType.PTX);
+        assertNotBackend(TornadoVMBackendType.SPIRV);
+
+        compileWithNewTaskGraph();
+        List<Path> entries = cacheEntries();
+        assertEquals(1, entries.size());
+
+        // Keep the header and declare a payload that does not fit in the file
+        Path entry = entries.get(0);
+        int magic;
+        int version;
+        String key;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(entry))) {
+            magic = in.readInt();
+            version = in.readInt();
+            key = in.readUTF();
+        }
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(entry))) {
+            out.writeInt(magic);
+            out.writeInt(version);
+            out.writeUTF(key);
+            out.writeInt(Integer.MAX_VALUE);
+            out.writeLong(0);
+        }
+
+        List<Boolean> corrupted = compileWithNewTaskGraph();
+        assertEquals(1, corrupted.size());
+        assertFalse(corrupted.get(0));
+
+        // The corrupted entry has been replaced by a valid one
+        List<Boolean> recovered = compileWithNewTaskGraph();
+        assertEquals(1, recovered.size());
+        assertTrue(recovered.get(0));
+    }
+}
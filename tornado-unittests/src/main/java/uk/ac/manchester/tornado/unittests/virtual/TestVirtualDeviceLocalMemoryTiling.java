@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.virtual;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+import uk.ac.manchester.tornado.unittests.loops.TestLocalMemoryTiling;
+
+/**
+ * It checks that the kernels of {@link TestLocalMemoryTiling} read their input
+ * from a tile in local memory, staged before a local barrier, on a virtual
+ * device with a maximum work-group size of 256 threads.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V --jvm="-Dtornado.device.desc=virtual-device-GPU-local-work.json -Dtornado.print.kernel=True -Dtornado.virtual.device=True -Dtornado.print.kernel.dir=virtualKernelOut.out -Dtornado.compiler.localMemoryTiling=True" uk.ac.manchester.tornado.unittests.virtual.TestVirtualDeviceLocalMemoryTiling
+ * </code>
+ */
+public class TestVirtualDeviceLocalMemoryTiling extends TornadoTestBase {
+
+    private static final String SOURCE_DIR = System.getProperty("tornado.print.kernel.dir");
+    private static final int SIZE = 514;
+
+    private static void matrixAddition(float[] a, float[] b, float[] c, int n) {
+        for (@Parallel int i = 0; i < n; i++) {
+            for (@Parallel int j = 0; j < n; j++) {
+                c[i * n + j] = a[i * n + j] + b[i * n + j];
+            }
+        }
+    }
+
+    @After
+    public void after() {
+        // make sure the source file generated is deleted
+        File fileLog = new File(SOURCE_DIR);
+        if (fileLog.exists()) {
+            fileLog.delete();
+        }
+    }
+
+    private static String readGeneratedKernel() throws IOException {
+        return new String(Files.readAllBytes(new File(SOURCE_DIR).toPath()));
+    }
+
+    @Test
+    public void testStencilTile() throws IOException {
+        assertNotBackend(TornadoVMBackendType.PTX);
+        assertNotBackend(TornadoVMBackendType.SPIRV);
+
+        float[] a = new float[SIZE * SIZE];
+        float[] b = new float[SIZE * SIZE];
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a) //
+                .task("t0", TestLocalMemoryTiling::stencil5, a, b, SIZE) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, b);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.execute();
+
+        // A 16x16 work-group with a halo of one element copies 18x18 elements in
+        // two rounds of 256
+        String kernel = readGeneratedKernel();
+        assertTrue(kernel, kernel.contains("__local float"));
+        assertTrue(kernel, kernel.contains("[512]"));
+        assertTrue(kernel, kernel.contains("barrier(CLK_LOCAL_MEM_FENCE)"));
+    }
+
+    @Test
+    public void testNoTileWithoutReuse() throws IOException {
+        assertNotBackend(TornadoVMBackendType.PTX);
+        assertNotBackend(TornadoVMBackendType.SPIRV);
+
+        float[] a = new float[SIZE * SIZE];
+        float[] b = new float[SIZE * SIZE];
+        float[] c = new float[SIZE * SIZE];
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("t0", TestVirtualDeviceLocalMemoryTiling::matrixAddition, a, b, c, SIZE) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.execute();
+
+        // Each thread reads its own elements
+        String kernel = readGeneratedKernel();
+        assertFalse(kernel, kernel.contains("__local"));
+        assertFalse(kernel, kernel.contains("barrier("));
+    }
+}
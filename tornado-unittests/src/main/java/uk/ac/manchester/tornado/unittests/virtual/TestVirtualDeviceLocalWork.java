@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.virtual;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * It checks the local work selected for 2D loop nests with data reuse on a
+ * virtual device with a maximum work-group size of 256 threads.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V --jvm="-Dtornado.device.desc=virtual-device-GPU-local-work.json -Dtornado.virtual.device=True -Dtornado.threadInfo=True -Dtornado.compiler.reuseLocalWork=True" uk.ac.manchester.tornado.unittests.virtual.TestVirtualDeviceLocalWork
+ * </code>
+ */
+public class TestVirtualDeviceLocalWork extends TornadoTestBase {
+
+    private static final int SIZE = 512;
+
+    private static void matrixMultiplication(float[] a, float[] b, float[] c, int size) {
+        for (@Parallel int i = 0; i < size; i++) {
+            for (@Parallel int j = 0; j < size; j++) {
+                float sum = 0.0f;
+                for (int k = 0; k < size; k++) {
+                    sum += a[i * size + k] * b[k * size + j];
+                }
+                c[i * size + j] = sum;
+            }
+        }
+    }
+
+    private static void matrixAddition(float[] a, float[] b, float[] c, int size) {
+        for (@Parallel int i = 0; i < size; i++) {
+            for (@Parallel int j = 0; j < size; j++) {
+                c[i * size + j] = a[i * size + j] + b[i * size + j];
+            }
+        }
+    }
+
+    /**
+     * It executes the task-graph and returns the thread information printed by
+     * the virtual device.
+     */
+    private static String executeAndGetThreadInfo(TaskGraph taskGraph) {
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output, true));
+        try {
+            executionPlan.execute();
+        } finally {
+            System.setOut(stdout);
+        }
+        return output.toString();
+    }
+
+    @Test
+    public void testLocalWorkWithReuse() {
+        assertNotBackend(TornadoVMBackendType.PTX);
+        assertNotBackend(TornadoVMBackendType.SPIRV);
+
+        float[] a = new float[SIZE * SIZE];
+        float[] b = new float[SIZE * SIZE];
+        float[] c = new float[SIZE * SIZE];
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("t0", TestVirtualDeviceLocalWork::matrixMultiplication, a, b, c, SIZE) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+
+        // The largest square work-group within 256 threads
+        String threadInfo = executeAndGetThreadInfo(taskGraph);
+        assertTrue(threadInfo, threadInfo.contains("Local  work size  : [16, 16, 1]"));
+    }
+
+    @Test
+    public void testLocalWorkWithoutReuse() {
+        assertNotBackend(TornadoVMBackendType.PTX);
+        assertNotBackend(TornadoVMBackendType.SPIRV);
+
+        float[] a = new float[SIZE * SIZE];
+        float[] b = new float[SIZE * SIZE];
+        float[] c = new float[SIZE * SIZE];
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("t0", TestVirtualDeviceLocalWork::matrixAddition, a, b, c, SIZE) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+
+        // Each thread reads its own elements, so the default local work applies
+        String threadInfo = executeAndGetThreadInfo(taskGraph);
+        assertTrue(threadInfo, threadInfo.contains("Local  work size  : [32, 32, 1]"));
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.virtual;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * It checks that the tasks of a task-graph compiled by several compiler threads
+ * produce the same kernels as when they are compiled one by one.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V --jvm="-Dtornado.device.desc=virtual-device-GPU.json -Dtornado.print.kernel=True -Dtornado.virtual.device=True -Dtornado.print.kernel.dir=virtualKernelOut.out -Dtornado.compiler.threads=4" uk.ac.manchester.tornado.unittests.virtual.TestVirtualDeviceParallelCompilation
+ * </code>
+ */
+public class TestVirtualDeviceParallelCompilation extends TornadoTestBase {
+
+    private static final String SOURCE_FILE = System.getProperty("tornado.print.kernel.dir");
+    private static final int SIZE = 1024;
+
+    private static void vectorAdd(float[] a, float[] b, float[] c) {
+        for (@Parallel int i = 0; i < c.length; i++) {
+            c[i] = a[i] + b[i];
+        }
+    }
+
+    private static void vectorSub(float[] a, float[] b, float[] c) {
+        for (@Parallel int i = 0; i < c.length; i++) {
+            c[i] = a[i] - b[i];
+        }
+    }
+
+    private static void vectorMul(float[] a, float[] b, float[] c) {
+        for (@Parallel int i = 0; i < c.length; i++) {
+            c[i] = a[i] * b[i];
+        }
+    }
+
+    private static void vectorMax(float[] a, float[] b, float[] c) {
+        for (@Parallel int i = 0; i < c.length; i++) {
+            c[i] = Math.max(a[i], b[i]);
+        }
+    }
+
+    @After
+    public void after() {
+        new File(SOURCE_FILE).delete();
+    }
+
+    private static String readSource() throws IOException {
+        return new String(Files.readAllBytes(Paths.get(SOURCE_FILE)));
+    }
+
+    /**
+     * It creates a task-graph with the tasks in the range {@code [first, last)}.
+     */
+    private static TaskGraph createTaskGraph(int first, int last, float[] a, float[] b, float[][] outputs) {
+        TaskGraph taskGraph = new TaskGraph("s0").transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b);
+        for (int i = first; i < last; i++) {
+            switch (i) {
+                case 0:
+                    taskGraph.task("t0", TestVirtualDeviceParallelCompilation::vectorAdd, a, b, outputs[0]);
+                    break;
+                case 1:
+                    taskGraph.task("t1", TestVirtualDeviceParallelCompilation::vectorSub, a, b, outputs[1]);
+                    break;
+                case 2:
+                    taskGraph.task("t2", TestVirtualDeviceParallelCompilation::vectorMul, a, b, outputs[2]);
+                    break;
+                default:
+                    taskGraph.task("t3", TestVirtualDeviceParallelCompilation::vectorMax, a, b, outputs[3]);
+                    break;
+            }
+            taskGraph.transferToHost(DataTransferMode.EVERY_EXECUTION, outputs[i]);
+        }
+        return taskGraph;
+    }
+
+    private static long countCompilations(TornadoExecutionPlan executionPlan) throws IOException {
+        Path file = Files.createTempFile("tornado", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("tornadovm.TaskCompilation");
+            recording.start();
+            executionPlan.execute();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream() //
+                    .filter(event -> event.getEventType().getName().equals("tornadovm.TaskCompilation")) //
+                    .count();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testParallelCompilation() throws IOException {
+        assertNotBackend(TornadoVMBackendType.PTX);
+        assertNotBackend(TornadoVMBackendType.SPIRV);
+
+        final int numTasks = 4;
+        float[] a = new float[SIZE];
+        float[] b = new float[SIZE];
+        float[][] outputs = new float[numTasks][SIZE];
+
+        // Compile each task in its own task-graph, one at a time
+        List<String> kernels = new ArrayList<>();
+        for (int i = 0; i < numTasks; i++) {
+            new File(SOURCE_FILE).delete();
+            TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(createTaskGraph(i, i + 1, a, b, outputs).snapshot());
+            executionPlan.execute();
+            String source = readSource();
+            kernels.add(source.substring(source.indexOf("__kernel")));
+        }
+
+        // Compile all tasks in the same task-graph, in parallel
+        new File(SOURCE_FILE).delete();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(createTaskGraph(0, numTasks, a, b, outputs).snapshot());
+        assertEquals(numTasks, countCompilations(executionPlan));
+
+        String source = readSource();
+        assertEquals(numTasks, source.split("__kernel", -1).length - 1);
+        for (String kernel : kernels) {
+            // Each kernel is printed in one piece
+            assertTrue(source.contains(kernel));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.vm;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * It checks that small arrays sub-allocated from a device arena get disjoint
+ * regions, and that the arena returns to the buffer pool once all its regions
+ * are released.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V --jvm="-Dtornado.device.arena=True -Dtornado.device.arena.size=64KB" uk.ac.manchester.tornado.unittests.vm.TestDeviceArena
+ * </code>
+ */
+public class TestDeviceArena extends TornadoTestBase {
+
+    private static final long ARENA_SIZE = 64 * 1024;
+    private static final int SIZE = 512;
+    private static final int NUM_ARRAYS = 8;
+
+    public static void fill(int[] a, int value) {
+        for (@Parallel int i = 0; i < a.length; i++) {
+            a[i] = value + i;
+        }
+    }
+
+    private static List<RecordedEvent> recordAllocations(TornadoExecutionPlan executionPlan) throws IOException {
+        Path file = Files.createTempFile("tornado", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("tornadovm.DeviceBufferAllocation");
+            recording.start();
+            executionPlan.execute();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream() //
+                    .filter(event -> event.getEventType().getName().equals("tornadovm.DeviceBufferAllocation")) //
+                    .collect(Collectors.toList());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void checkResults(int[][] arrays) {
+        for (int k = 0; k < NUM_ARRAYS; k++) {
+            for (int i = 0; i < SIZE; i++) {
+                assertEquals(k * SIZE + i, arrays[k][i]);
+            }
+        }
+    }
+
+    @Test
+    public void testArenaRegions() throws IOException {
+        // Level Zero buffers cannot be sub-allocated
+        assertNotBackend(TornadoVMBackendType.SPIRV);
+
+        int[][] arrays = new int[NUM_ARRAYS][SIZE];
+        TaskGraph taskGraph = new TaskGraph("s0");
+        for (int k = 0; k < NUM_ARRAYS; k++) {
+            taskGraph.task("t" + k, TestDeviceArena::fill, arrays[k], k * SIZE);
+        }
+        taskGraph.transferToHost(DataTransferMode.EVERY_EXECUTION, (Object[]) arrays);
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+
+        // The buffer pool is empty, and all arrays fit in one arena. Overlapping
+        // regions would overwrite the values of other tasks
+        List<RecordedEvent> allocations = recordAllocations(executionPlan);
+        assertEquals(1, allocations.size());
+        assertEquals(ARENA_SIZE, allocations.get(0).getLong("size"));
+        checkResults(arrays);
+
+        // Releasing all the regions returns the arena to the pool, so the next
+        // execution reuses it
+        executionPlan.freeDeviceMemory();
+        for (int[] array : arrays) {
+            Arrays.fill(array, -1);
+        }
+        assertEquals(0, recordAllocations(executionPlan).size());
+        checkResults(arrays);
+
+        executionPlan.freeDeviceMemory();
+    }
+}